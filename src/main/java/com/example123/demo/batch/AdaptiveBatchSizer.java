@@ -0,0 +1,133 @@
+package com.example123.demo.batch;
+
+/**
+ * 1つのSQL文（Mapperのステートメント）のバッチサイズを、実測したスループットから調整するクラス（AIMD方式）
+ *
+ * <p>バッチが1回目で成功し、1秒あたりの処理行数がこれまでの平均（指数移動平均）から許容幅を超えて下がっていなければ、 バッチサイズを一定量ずつ増やします
+ * スループットが下がった場合や、デッドロックなどで再実行・失敗した場合はバッチサイズを一定の比率で減らします 増加は緩やかに、減少は大きく行うため、
+ * ロック競合やトランザクションログの肥大化で遅くなり始めるサイズの手前で収束します
+ *
+ * <p>バッチサイズは {@code [minSize, maxSize]} の範囲に収めます 最大値にはSQL Serverのパラメーター上限から求めた行数（{@link
+ * #maxRowsWithinParameterLimit}）を指定します 複数のスレッドから同時に結果が記録されるため、状態の更新は同期して行います
+ */
+public class AdaptiveBatchSizer {
+
+  /** SQL Serverの1回のリクエストで指定できるパラメーター数の上限 */
+  public static final int SQL_SERVER_PARAMETER_LIMIT = 2100;
+
+  /** スループットの指数移動平均で、最新の計測値に与える重み */
+  private static final double SMOOTHING = 0.2;
+
+  /** 増加量を求めるための、サイズの範囲の分割数（範囲の1/20ずつ増やす） */
+  private static final int INCREASE_STEPS = 20;
+
+  private final String statement;
+  private final int minSize;
+  private final int maxSize;
+  private final int increaseStep;
+  private final double decreaseFactor;
+  private final double tolerance;
+  private final boolean adaptive;
+
+  private volatile int currentSize;
+
+  /** 1秒あたりの処理行数の指数移動平均（計測前は0） */
+  private volatile double smoothedRowsPerSecond;
+
+  private long samples;
+
+  /**
+   * @param statement 対象のSQL文の名前（メトリクスのタグに使用）
+   * @param minSize バッチサイズの下限
+   * @param maxSize バッチサイズの上限（パラメーター上限から求めた行数など）
+   * @param decreaseFactor スループットが下がった場合にバッチサイズに掛ける比率（0より大きく1未満）
+   * @param tolerance スループットの低下とみなさない、平均からの下落率
+   * @param adaptive falseの場合は調整せず、常に上限のサイズを返します
+   */
+  public AdaptiveBatchSizer(
+      String statement,
+      int minSize,
+      int maxSize,
+      double decreaseFactor,
+      double tolerance,
+      boolean adaptive) {
+    if (minSize <= 0 || maxSize < minSize) {
+      throw new IllegalArgumentException(
+          "バッチサイズの範囲が不正です: " + statement + " [" + minSize + ", " + maxSize + "]");
+    }
+    if (decreaseFactor <= 0 || decreaseFactor >= 1) {
+      throw new IllegalArgumentException("減少率は0より大きく1未満を指定してください: " + decreaseFactor);
+    }
+    this.statement = statement;
+    this.minSize = minSize;
+    this.maxSize = maxSize;
+    this.increaseStep = Math.max(1, (maxSize - minSize) / INCREASE_STEPS);
+    this.decreaseFactor = decreaseFactor;
+    this.tolerance = tolerance;
+    this.adaptive = adaptive;
+    // 上限から始めると下げる方向にしか探れないため、範囲の中央から増やしていく
+    this.currentSize = adaptive ? Math.max(minSize, (minSize + maxSize) / 2) : maxSize;
+  }
+
+  /**
+   * 1行あたりのパラメーター数から、SQL Serverのパラメーター上限に収まる最大行数を返します
+   *
+   * @param parametersPerRow 1行あたりにバインドするパラメーター数
+   * @return 1回のSQL文にまとめられる最大行数（SQL文自体に1つ使われる分を差し引いた値）
+   */
+  public static int maxRowsWithinParameterLimit(int parametersPerRow) {
+    return (SQL_SERVER_PARAMETER_LIMIT - 1) / parametersPerRow;
+  }
+
+  /** 次に切り出すバッチの件数を返します */
+  public int nextBatchSize() {
+    return currentSize;
+  }
+
+  /**
+   * 1バッチの処理結果を記録し、次のバッチサイズを調整します
+   *
+   * @param rows バッチの件数
+   * @param elapsedNanos 処理にかかった時間（ナノ秒、再実行の待ち時間を含む）
+   * @param succeededFirstTime 1回目の試行で成功したかどうか
+   */
+  public synchronized void record(int rows, long elapsedNanos, boolean succeededFirstTime) {
+    if (!adaptive || rows <= 0) {
+      return;
+    }
+    double rowsPerSecond = rows * 1_000_000_000.0 / Math.max(1, elapsedNanos);
+    boolean congested =
+        !succeededFirstTime
+            || (samples > 0 && rowsPerSecond < smoothedRowsPerSecond * (1 - tolerance));
+    if (congested) {
+      currentSize = Math.max(minSize, (int) (currentSize * decreaseFactor));
+    } else {
+      currentSize = Math.min(maxSize, currentSize + increaseStep);
+    }
+    if (succeededFirstTime) {
+      // 再実行の待ち時間を含む計測値は平均に含めない
+      smoothedRowsPerSecond =
+          samples == 0
+              ? rowsPerSecond
+              : SMOOTHING * rowsPerSecond + (1 - SMOOTHING) * smoothedRowsPerSecond;
+      samples++;
+    }
+  }
+
+  public String getStatement() {
+    return statement;
+  }
+
+  public int getMinSize() {
+    return minSize;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /** 1秒あたりの処理行数の指数移動平均を返します */
+  public double getSmoothedRowsPerSecond() {
+    return smoothedRowsPerSecond;
+  }
+}
@@ -0,0 +1,84 @@
+package com.example123.demo.batch;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * SQL文ごとの {@link AdaptiveBatchSizer} を保持するクラス SQL文ごとに行の幅やロックの取り方が異なるため、それぞれ独立して最適なバッチサイズに収束させます
+ *
+ * <p>調整中のバッチサイズ（{@code batch.size}）と1秒あたりの処理行数（{@code batch.throughput}）を、SQL文の名前を {@code
+ * statement} タグとしてメトリクスに登録します {@code /actuator/metrics/batch.size?tag=statement:temp-table}
+ * などで収束の様子を確認できます
+ */
+@Component
+public class AdaptiveBatchSizers {
+
+  private static final Logger log = LoggerFactory.getLogger(AdaptiveBatchSizers.class);
+
+  private final Map<String, AdaptiveBatchSizer> sizers = new ConcurrentHashMap<>();
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+  private final boolean enabled;
+  private final int minSize;
+  private final double decreaseFactor;
+  private final double tolerance;
+
+  /**
+   * @param enabled falseの場合（既定）はバッチサイズを調整せず、常に上限のサイズで処理します
+   * @param minSize バッチサイズの下限
+   * @param decreaseFactor スループットが下がった場合にバッチサイズに掛ける比率
+   * @param tolerance スループットの低下とみなさない、平均からの下落率
+   */
+  public AdaptiveBatchSizers(
+      ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${batch.adaptive.enabled:false}") boolean enabled,
+      @Value("${batch.adaptive.min-size:10}") int minSize,
+      @Value("${batch.adaptive.decrease-factor:0.5}") double decreaseFactor,
+      @Value("${batch.adaptive.tolerance:0.1}") double tolerance) {
+    this.meterRegistry = meterRegistry;
+    this.enabled = enabled;
+    this.minSize = minSize;
+    this.decreaseFactor = decreaseFactor;
+    this.tolerance = tolerance;
+  }
+
+  /**
+   * SQL文のバッチサイズ調整クラスを返します 初回の呼び出しで作成し、メトリクスに登録します
+   *
+   * @param statement SQL文の名前（UPSERTの場合は方式名）
+   * @param maxSize バッチサイズの上限
+   * @return SQL文ごとのバッチサイズ調整クラス
+   */
+  public AdaptiveBatchSizer forStatement(String statement, int maxSize) {
+    return sizers.computeIfAbsent(statement, name -> create(name, maxSize));
+  }
+
+  private AdaptiveBatchSizer create(String statement, int maxSize) {
+    AdaptiveBatchSizer sizer =
+        new AdaptiveBatchSizer(
+            statement, Math.min(minSize, maxSize), maxSize, decreaseFactor, tolerance, enabled);
+    meterRegistry.ifAvailable(
+        registry -> {
+          Gauge.builder("batch.size", sizer, AdaptiveBatchSizer::nextBatchSize)
+              .tag("statement", statement)
+              .register(registry);
+          Gauge.builder("batch.throughput", sizer, AdaptiveBatchSizer::getSmoothedRowsPerSecond)
+              .tag("statement", statement)
+              .register(registry);
+        });
+    log.info(
+        "Batch sizer for {} initialized: size={}, range=[{}, {}], adaptive={}",
+        statement,
+        sizer.nextBatchSize(),
+        sizer.getMinSize(),
+        sizer.getMaxSize(),
+        enabled);
+    return sizer;
+  }
+}
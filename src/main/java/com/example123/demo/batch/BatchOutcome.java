@@ -0,0 +1,136 @@
+package com.example123.demo.batch;
+
+import com.example123.demo.batch.TransientErrorClassifier.TransientError;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.List;
+
+/**
+ * 1バッチ分の処理結果 バッチに含まれるキーの範囲・試行回数・失敗理由を保持します
+ *
+ * <p>失敗したバッチは処理対象のデータをそのまま保持しているため、{@link RetryingBatchRunner#replayFailed} で失敗したバッチだけを再実行できます
+ *
+ * @param <T> バッチの要素の型
+ */
+public class BatchOutcome<T> {
+
+  /** バッチの処理結果の状態 */
+  public enum Status {
+    /** 1回目で成功した */
+    SUCCEEDED,
+    /** 一時的なエラーで再実行し、成功した */
+    RETRIED,
+    /** 再実行しても成功しなかった、または再実行できないエラーで失敗した */
+    FAILED
+  }
+
+  private final int index;
+  private final List<T> items;
+  private final String firstKey;
+  private final String lastKey;
+  private final Status status;
+  private final int attempts;
+  private final int updateCount;
+  private final int insertCount;
+  private final int unchangedCount;
+  private final TransientError transientError;
+  private final String errorMessage;
+
+  BatchOutcome(
+      int index,
+      List<T> items,
+      String firstKey,
+      String lastKey,
+      Status status,
+      int attempts,
+      int updateCount,
+      int insertCount,
+      int unchangedCount,
+      TransientError transientError,
+      String errorMessage) {
+    this.index = index;
+    this.items = items;
+    this.firstKey = firstKey;
+    this.lastKey = lastKey;
+    this.status = status;
+    this.attempts = attempts;
+    this.updateCount = updateCount;
+    this.insertCount = insertCount;
+    this.unchangedCount = unchangedCount;
+    this.transientError = transientError;
+    this.errorMessage = errorMessage;
+  }
+
+  /** バッチの番号だけを付け直した結果を返します（キー範囲ごとに処理した結果をキー順に並べ直す場合に使用） */
+  BatchOutcome<T> withIndex(int newIndex) {
+    return new BatchOutcome<>(
+        newIndex,
+        items,
+        firstKey,
+        lastKey,
+        status,
+        attempts,
+        updateCount,
+        insertCount,
+        unchangedCount,
+        transientError,
+        errorMessage);
+  }
+
+  /** 処理全体の中でのバッチの番号（0始まり）を返します */
+  public int getIndex() {
+    return index;
+  }
+
+  /** バッチに含まれる要素を返します（失敗したバッチの再実行に使用） */
+  @JsonIgnore
+  public List<T> getItems() {
+    return items;
+  }
+
+  /** バッチの件数を返します */
+  public int getSize() {
+    return items.size();
+  }
+
+  /** バッチに含まれるキーの最小値を返します */
+  public String getFirstKey() {
+    return firstKey;
+  }
+
+  /** バッチに含まれるキーの最大値を返します */
+  public String getLastKey() {
+    return lastKey;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  /** 試行回数を返します */
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public int getUpdateCount() {
+    return updateCount;
+  }
+
+  public int getInsertCount() {
+    return insertCount;
+  }
+
+  /** 内容が変わらず更新しなかった件数を返します（ハッシュ比較方式以外は0） */
+  public int getUnchangedCount() {
+    return unchangedCount;
+  }
+
+  /** 最後に発生した一時的なエラーの種類を返します（エラーがない場合・一時的なエラーでない場合はnull） */
+  public TransientError getTransientError() {
+    return transientError;
+  }
+
+  /** 失敗した場合のエラーメッセージを返します（成功した場合はnull） */
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+}
@@ -0,0 +1,87 @@
+package com.example123.demo.batch;
+
+import com.example123.demo.batch.BatchOutcome.Status;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * バッチ処理全体の結果台帳 バッチごとの結果をバッチ番号順に保持し、成功・再実行後に成功・失敗したバッチを一覧できます
+ *
+ * @param <T> バッチの要素の型
+ */
+public class BatchRunReport<T> {
+
+  private final String operation;
+  private final List<BatchOutcome<T>> outcomes;
+
+  BatchRunReport(String operation, List<BatchOutcome<T>> outcomes) {
+    this.operation = operation;
+    this.outcomes = List.copyOf(outcomes);
+  }
+
+  /** 処理名（UPSERTの場合は方式名）を返します */
+  public String getOperation() {
+    return operation;
+  }
+
+  /** 全バッチの結果をバッチ番号順に返します */
+  public List<BatchOutcome<T>> getOutcomes() {
+    return outcomes;
+  }
+
+  /** 1回目で成功したバッチを返します */
+  public List<BatchOutcome<T>> getSucceeded() {
+    return filter(Status.SUCCEEDED);
+  }
+
+  /** 一時的なエラーで再実行し、成功したバッチを返します */
+  public List<BatchOutcome<T>> getRetried() {
+    return filter(Status.RETRIED);
+  }
+
+  /** 失敗したバッチを返します */
+  public List<BatchOutcome<T>> getFailed() {
+    return filter(Status.FAILED);
+  }
+
+  /** 失敗したバッチがあるかどうかを返します */
+  public boolean hasFailures() {
+    return outcomes.stream().anyMatch(outcome -> outcome.getStatus() == Status.FAILED);
+  }
+
+  /** 成功したバッチの更新件数の合計を返します */
+  public int getUpdateCount() {
+    return outcomes.stream().mapToInt(BatchOutcome::getUpdateCount).sum();
+  }
+
+  /** 成功したバッチの挿入件数の合計を返します */
+  public int getInsertCount() {
+    return outcomes.stream().mapToInt(BatchOutcome::getInsertCount).sum();
+  }
+
+  /** 成功したバッチの、内容が変わらず更新しなかった件数の合計を返します */
+  public int getUnchangedCount() {
+    return outcomes.stream().mapToInt(BatchOutcome::getUnchangedCount).sum();
+  }
+
+  /**
+   * 件数の集計結果を返します
+   *
+   * @return
+   *     updateCount・insertCount・unchangedCount（成功したバッチの件数合計）、retriedBatchCount・failedBatchCount（バッチ数）を含むMap
+   */
+  public Map<String, Integer> toCounts() {
+    Map<String, Integer> counts = new HashMap<>();
+    counts.put("updateCount", getUpdateCount());
+    counts.put("insertCount", getInsertCount());
+    counts.put("unchangedCount", getUnchangedCount());
+    counts.put("retriedBatchCount", getRetried().size());
+    counts.put("failedBatchCount", getFailed().size());
+    return counts;
+  }
+
+  private List<BatchOutcome<T>> filter(Status status) {
+    return outcomes.stream().filter(outcome -> outcome.getStatus() == status).toList();
+  }
+}
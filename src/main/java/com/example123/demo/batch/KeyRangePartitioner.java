@@ -0,0 +1,52 @@
+package com.example123.demo.batch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * データを主キー順に並べ替え、互いに重ならない連続したキー範囲に分割するクラス
+ *
+ * <p>リスト順（ランダムなキー順）に切り出したバッチを並列に実行すると、同時に実行される複数のバッチがクラスター化インデックスの同じページの行を更新し、 ロック待ちやデッドロックが発生します
+ * キー範囲ごとに担当を分けると、同時に実行されるバッチが同じ行・ページを奪い合うことがなくなります
+ */
+public final class KeyRangePartitioner {
+
+  private KeyRangePartitioner() {}
+
+  /**
+   * データをキー順に並べ替え、件数がほぼ均等な連続したキー範囲に分割します 同じキーの要素は同じ範囲に含めます
+   *
+   * @param items 分割するデータ（変更されません）
+   * @param keyOrder キーの順序（データベースのクラスター化インデックスの順序と一致させる）
+   * @param partitions 分割数の上限
+   * @return キー順に並んだ範囲のリスト（各範囲内もキー順、空の範囲は含まない）
+   */
+  public static <T> List<List<T>> partition(
+      List<T> items, Comparator<? super T> keyOrder, int partitions) {
+    if (partitions <= 0) {
+      throw new IllegalArgumentException("分割数は1以上を指定してください: " + partitions);
+    }
+    List<T> sorted = new ArrayList<>(items);
+    sorted.sort(keyOrder);
+
+    int size = sorted.size();
+    int count = Math.min(partitions, size);
+    List<List<T>> ranges = new ArrayList<>(count);
+    int start = 0;
+    for (int p = 1; p <= count && start < size; p++) {
+      int end = p == count ? size : Math.max(start, (int) ((long) size * p / count));
+      // 範囲の境界で同じキーが分かれないよう、境界を後ろへずらす
+      while (end > start
+          && end < size
+          && keyOrder.compare(sorted.get(end - 1), sorted.get(end)) == 0) {
+        end++;
+      }
+      if (end > start) {
+        ranges.add(sorted.subList(start, end));
+        start = end;
+      }
+    }
+    return ranges;
+  }
+}
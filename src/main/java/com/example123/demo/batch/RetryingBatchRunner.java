@@ -0,0 +1,515 @@
+package com.example123.demo.batch;
+
+import com.example123.demo.batch.BatchOutcome.Status;
+import com.example123.demo.batch.TransientErrorClassifier.TransientError;
+import com.example123.demo.config.ExecutorConfig;
+import com.example123.demo.config.VirtualThreadBatchExecutor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * バッチを並列に実行し、一時的なエラー（デッドロック・ロックタイムアウト・接続リセット）で失敗したバッチを個別に再実行するクラス
+ *
+ * <p>再実行の間隔は試行ごとに倍増させ、上限で頭打ちにしたうえで半分をランダムにずらします（ジッター） 同じ行を奪い合ってデッドロックした複数のバッチが、
+ * 再実行で同じタイミングに再び衝突することを避けます 再実行できないエラーで失敗したバッチは再実行しません
+ *
+ * <p>失敗したバッチは結果台帳（{@link BatchRunReport}）に記録され、処理全体をやり直すことなく {@link #replayFailed} で再実行できます
+ * バッチの処理はUPSERTのように何度実行しても結果が同じになる（冪等な）ものであることを前提とします
+ *
+ * <p>{@link AdaptiveBatchSizer} を指定した場合は、データを最初に分割せず、実行中のバッチ数をスレッドプールの並列数に保ちながら
+ * バッチが完了するたびに調整後のサイズで次のバッチを切り出します {@link #runPartitioned} はさらにデータをキー範囲に分割し、
+ * 範囲ごとに1つのタスクがキー順にバッチを処理します
+ */
+@Component
+public class RetryingBatchRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(RetryingBatchRunner.class);
+
+  private final ExecutorService dbExecutor;
+  private final int maxAttempts;
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+
+  /**
+   * @param maxAttempts 1バッチあたりの最大試行回数（1回目を含む）
+   * @param initialBackoffMillis 1回目の再実行までの待ち時間の基準値（ミリ秒）
+   * @param maxBackoffMillis 再実行までの待ち時間の上限（ミリ秒）
+   */
+  public RetryingBatchRunner(
+      @Qualifier(ExecutorConfig.DB_EXECUTOR) ExecutorService dbExecutor,
+      @Value("${batch.retry.max-attempts:3}") int maxAttempts,
+      @Value("${batch.retry.initial-backoff-ms:100}") long initialBackoffMillis,
+      @Value("${batch.retry.max-backoff-ms:2000}") long maxBackoffMillis) {
+    if (maxAttempts <= 0) {
+      throw new IllegalArgumentException("最大試行回数は1以上を指定してください: " + maxAttempts);
+    }
+    this.dbExecutor = dbExecutor;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+  }
+
+  /**
+   * データを指定件数ごとのバッチに分割し、並列に実行します
+   *
+   * @param operation 処理名（ログと結果台帳に記録）
+   * @param items 処理対象のデータ
+   * @param batchSize 1バッチの件数
+   * @param keyOf 要素のキー（結果台帳のキー範囲に使用）
+   * @param action 1バッチを処理し、updateCount・insertCount（・unchangedCount）を含むMapを返す処理
+   * @return 結果台帳
+   */
+  public <T> BatchRunReport<T> run(
+      String operation,
+      List<T> items,
+      int batchSize,
+      Function<? super T, String> keyOf,
+      Function<List<T>, Map<String, Integer>> action) {
+    List<List<T>> batches = new ArrayList<>();
+    for (int i = 0; i < items.size(); i += batchSize) {
+      batches.add(new ArrayList<>(items.subList(i, Math.min(i + batchSize, items.size()))));
+    }
+    return runBatches(operation, batches, keyOf, action);
+  }
+
+  /**
+   * データをバッチサイズ調整クラスが決めた件数ずつ切り出し、並列に実行します 各バッチの処理時間と再実行の有無を調整クラスに記録するため、 後から切り出すバッチほど調整後のサイズになります
+   *
+   * @param operation 処理名（ログと結果台帳に記録）
+   * @param items 処理対象のデータ
+   * @param sizer 処理名に対応するバッチサイズ調整クラス
+   * @param keyOf 要素のキー（結果台帳のキー範囲に使用）
+   * @param action 1バッチを処理し、updateCount・insertCount（・unchangedCount）を含むMapを返す処理
+   * @return 結果台帳（バッチ番号は切り出した順）
+   */
+  public <T> BatchRunReport<T> run(
+      String operation,
+      List<T> items,
+      AdaptiveBatchSizer sizer,
+      Function<? super T, String> keyOf,
+      Function<List<T>, Map<String, Integer>> action) {
+    CompletionService<BatchOutcome<T>> completion = new ExecutorCompletionService<>(dbExecutor);
+    Map<Future<BatchOutcome<T>>, PendingBatch<T>> pending = new HashMap<>();
+    List<BatchOutcome<T>> outcomes = new ArrayList<>();
+    int window = getParallelism();
+    int cursor = 0;
+    int index = 0;
+
+    while (cursor < items.size() || !pending.isEmpty()) {
+      // 空いている分だけ、現在のサイズで次のバッチを切り出して投入する
+      while (cursor < items.size() && pending.size() < window) {
+        int end = Math.min(cursor + sizer.nextBatchSize(), items.size());
+        PendingBatch<T> batch =
+            new PendingBatch<>(index++, new ArrayList<>(items.subList(cursor, end)));
+        cursor = end;
+        pending.put(
+            completion.submit(() -> runMeasured(operation, batch, sizer, keyOf, action)), batch);
+      }
+
+      Future<BatchOutcome<T>> done;
+      try {
+        done = completion.take();
+      } catch (InterruptedException e) {
+        log.error("Parallel {} was interrupted", operation, e);
+        Thread.currentThread().interrupt();
+        // 完了済みの結果だけを採用し、実行中・未投入の分は再実行できるよう失敗として記録する
+        pending.forEach(
+            (future, batch) -> {
+              future.cancel(true);
+              outcomes.add(
+                  future.state() == Future.State.SUCCESS
+                      ? future.resultNow()
+                      : failed(batch.index(), batch.items(), keyOf, 0, null, "interrupted"));
+            });
+        while (cursor < items.size()) {
+          int end = Math.min(cursor + sizer.nextBatchSize(), items.size());
+          outcomes.add(
+              failed(
+                  index++,
+                  new ArrayList<>(items.subList(cursor, end)),
+                  keyOf,
+                  0,
+                  null,
+                  "interrupted"));
+          cursor = end;
+        }
+        break;
+      }
+
+      PendingBatch<T> batch = pending.remove(done);
+      try {
+        outcomes.add(done.get());
+      } catch (ExecutionException | InterruptedException e) {
+        // 完了済みのFutureのため待機は発生しない
+        log.error("Error during parallel {} batch {}", operation, batch.index(), e);
+        outcomes.add(
+            failed(batch.index(), batch.items(), keyOf, 1, null, String.valueOf(e.getCause())));
+      }
+    }
+
+    outcomes.sort(Comparator.comparingInt(BatchOutcome::getIndex));
+    return report(operation, outcomes);
+  }
+
+  /**
+   * データをキー順に並べ替えてスレッドプールの並列数と同じ数の連続したキー範囲に分割し、範囲ごとに1つのタスクがキー順にバッチを切り出して処理します
+   *
+   * <p>同時に実行されるバッチは必ず別のキー範囲に属するため、リスト順に切り出す {@link #run(String, List, AdaptiveBatchSizer, Function,
+   * Function)} と比べてバッチ同士のロック待ち・デッドロックが起きにくくなります
+   * 処理中に割り込まれた場合、結果が記録されていない残りの行は再実行できるよう失敗したバッチとして記録します
+   *
+   * @param operation 処理名（ログと結果台帳に記録）
+   * @param items 処理対象のデータ
+   * @param keyOrder 主キーの順序（データベースのクラスター化インデックスの順序と一致させる）
+   * @param sizer 処理名に対応するバッチサイズ調整クラス
+   * @param keyOf 要素のキー（結果台帳のキー範囲に使用）
+   * @param action 1バッチを処理し、updateCount・insertCount（・unchangedCount）を含むMapを返す処理
+   * @return 結果台帳（バッチ番号はキー順）
+   */
+  public <T> BatchRunReport<T> runPartitioned(
+      String operation,
+      List<T> items,
+      Comparator<? super T> keyOrder,
+      AdaptiveBatchSizer sizer,
+      Function<? super T, String> keyOf,
+      Function<List<T>, Map<String, Integer>> action) {
+    List<List<T>> partitions = KeyRangePartitioner.partition(items, keyOrder, getParallelism());
+    List<List<BatchOutcome<T>>> partitionOutcomes = new ArrayList<>(partitions.size());
+    List<Future<?>> futures = new ArrayList<>(partitions.size());
+    for (List<T> partition : partitions) {
+      List<BatchOutcome<T>> recorded = Collections.synchronizedList(new ArrayList<>());
+      partitionOutcomes.add(recorded);
+      futures.add(
+          dbExecutor.submit(
+              () -> runPartition(operation, partition, sizer, keyOf, action, recorded)));
+    }
+
+    boolean interrupted = false;
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        log.error("Error during partitioned {}", operation, e.getCause());
+      } catch (InterruptedException e) {
+        log.error("Partitioned {} was interrupted", operation, e);
+        interrupted = true;
+        futures.forEach(f -> f.cancel(true));
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+
+    // キー範囲の順に結果を並べ、結果が記録されていない残りの行は失敗として記録する
+    List<BatchOutcome<T>> outcomes = new ArrayList<>();
+    for (int p = 0; p < partitions.size(); p++) {
+      List<T> partition = partitions.get(p);
+      List<BatchOutcome<T>> recorded;
+      synchronized (partitionOutcomes.get(p)) {
+        recorded = new ArrayList<>(partitionOutcomes.get(p));
+      }
+      outcomes.addAll(recorded);
+      int covered = recorded.stream().mapToInt(BatchOutcome::getSize).sum();
+      if (covered < partition.size()) {
+        outcomes.add(
+            failed(
+                0,
+                new ArrayList<>(partition.subList(covered, partition.size())),
+                keyOf,
+                0,
+                null,
+                interrupted ? "interrupted" : "partition aborted"));
+      }
+    }
+    for (int i = 0; i < outcomes.size(); i++) {
+      outcomes.set(i, outcomes.get(i).withIndex(i));
+    }
+    return report(operation, outcomes);
+  }
+
+  /** 1つのキー範囲を、調整後のサイズで切り出したバッチに分けてキー順に処理します */
+  private <T> void runPartition(
+      String operation,
+      List<T> partition,
+      AdaptiveBatchSizer sizer,
+      Function<? super T, String> keyOf,
+      Function<List<T>, Map<String, Integer>> action,
+      List<BatchOutcome<T>> recorded) {
+    int cursor = 0;
+    int index = 0;
+    while (cursor < partition.size() && !Thread.currentThread().isInterrupted()) {
+      int end = Math.min(cursor + sizer.nextBatchSize(), partition.size());
+      PendingBatch<T> batch =
+          new PendingBatch<>(index++, new ArrayList<>(partition.subList(cursor, end)));
+      recorded.add(runMeasured(operation, batch, sizer, keyOf, action));
+      cursor = end;
+    }
+  }
+
+  /**
+   * 結果台帳で失敗したバッチだけを、同じバッチ単位で再実行します
+   *
+   * @param previous 前回の結果台帳
+   * @param keyOf 要素のキー
+   * @param action 1バッチを処理する処理
+   * @return 再実行したバッチの結果台帳（バッチ番号は再実行分で振り直されます）
+   */
+  public <T> BatchRunReport<T> replayFailed(
+      BatchRunReport<T> previous,
+      Function<? super T, String> keyOf,
+      Function<List<T>, Map<String, Integer>> action) {
+    List<List<T>> batches = previous.getFailed().stream().map(BatchOutcome::getItems).toList();
+    log.info("Replaying {} failed {} batch(es)", batches.size(), previous.getOperation());
+    return runBatches(previous.getOperation(), batches, keyOf, action);
+  }
+
+  private <T> BatchRunReport<T> runBatches(
+      String operation,
+      List<List<T>> batches,
+      Function<? super T, String> keyOf,
+      Function<List<T>, Map<String, Integer>> action) {
+    List<Future<BatchOutcome<T>>> futures = new ArrayList<>();
+    for (int i = 0; i < batches.size(); i++) {
+      final int index = i;
+      futures.add(
+          dbExecutor.submit(
+              () -> runWithRetry(operation, index, batches.get(index), keyOf, action)));
+    }
+
+    List<BatchOutcome<T>> outcomes = new ArrayList<>(batches.size());
+    boolean interrupted = false;
+    for (int i = 0; i < futures.size(); i++) {
+      Future<BatchOutcome<T>> future = futures.get(i);
+      if (interrupted) {
+        // 中断後は完了済みの結果だけを採用し、それ以外は再実行できるよう失敗として記録する
+        outcomes.add(
+            future.state() == Future.State.SUCCESS
+                ? future.resultNow()
+                : failed(i, batches.get(i), keyOf, 0, null, "interrupted"));
+        continue;
+      }
+      try {
+        outcomes.add(future.get());
+      } catch (ExecutionException e) {
+        log.error("Error during parallel {} batch {}", operation, i, e.getCause());
+        outcomes.add(failed(i, batches.get(i), keyOf, 1, null, String.valueOf(e.getCause())));
+      } catch (InterruptedException e) {
+        log.error("Parallel {} was interrupted", operation, e);
+        interrupted = true;
+        futures.forEach(f -> f.cancel(true));
+        Thread.currentThread().interrupt();
+        outcomes.add(failed(i, batches.get(i), keyOf, 0, null, "interrupted"));
+      }
+    }
+    return report(operation, outcomes);
+  }
+
+  private <T> BatchRunReport<T> report(String operation, List<BatchOutcome<T>> outcomes) {
+    BatchRunReport<T> report = new BatchRunReport<>(operation, outcomes);
+    if (report.hasFailures() || !report.getRetried().isEmpty()) {
+      log.warn(
+          "{} finished: batches={}, retried={}, failed={}",
+          operation,
+          outcomes.size(),
+          report.getRetried().size(),
+          report.getFailed().size());
+    }
+    return report;
+  }
+
+  /**
+   * 1バッチを実行し、件数・処理時間・1回目で成功したかどうかをバッチサイズ調整クラスに記録します
+   *
+   * <p>制約違反など再実行できないエラーで失敗したバッチは、データの問題でありデータベースの混雑を表さないため記録しません バッチサイズを縮小するのは、{@link
+   * TransientErrorClassifier} が一時的と判定したエラー（デッドロック・ロックタイムアウトなど）が 発生した場合と、スループットが下がった場合だけです
+   */
+  private <T> BatchOutcome<T> runMeasured(
+      String operation,
+      PendingBatch<T> batch,
+      AdaptiveBatchSizer sizer,
+      Function<? super T, String> keyOf,
+      Function<List<T>, Map<String, Integer>> action) {
+    long start = System.nanoTime();
+    BatchOutcome<T> outcome = runWithRetry(operation, batch.index(), batch.items(), keyOf, action);
+    if (outcome.getStatus() == Status.FAILED && outcome.getTransientError() == null) {
+      return outcome;
+    }
+    sizer.record(
+        batch.items().size(), System.nanoTime() - start, outcome.getStatus() == Status.SUCCEEDED);
+    return outcome;
+  }
+
+  /**
+   * 1バッチを一時的なエラーの再実行付きで実行し、件数・処理時間・1回目で成功したかどうかをバッチサイズ調整クラスに記録します
+   * パイプラインのように、呼び出し元がバッチを順次受け取りながら並列に実行する場合に使用します
+   *
+   * @param operation 処理名（ログと結果台帳に記録）
+   * @param index バッチ番号
+   * @param batch 1バッチ分のデータ
+   * @param sizer 処理名に対応するバッチサイズ調整クラス
+   * @param keyOf 要素のキー（結果台帳のキー範囲に使用）
+   * @param action 1バッチを処理し、updateCount・insertCount（・unchangedCount）を含むMapを返す処理
+   * @return バッチの実行結果
+   */
+  public <T> BatchOutcome<T> runBatch(
+      String operation,
+      int index,
+      List<T> batch,
+      AdaptiveBatchSizer sizer,
+      Function<? super T, String> keyOf,
+      Function<List<T>, Map<String, Integer>> action) {
+    return runMeasured(operation, new PendingBatch<>(index, batch), sizer, keyOf, action);
+  }
+
+  /**
+   * {@link #runBatch} で実行したバッチの結果をバッチ番号の順に並べ、結果台帳にまとめます
+   *
+   * @param operation 処理名
+   * @param outcomes バッチの実行結果（順不同）
+   * @return 結果台帳
+   */
+  public <T> BatchRunReport<T> summarize(String operation, Collection<BatchOutcome<T>> outcomes) {
+    List<BatchOutcome<T>> sorted = new ArrayList<>(outcomes);
+    sorted.sort(Comparator.comparingInt(BatchOutcome::getIndex));
+    return report(operation, sorted);
+  }
+
+  /** 同時に実行するバッチ数（DBアクセス用スレッドプールの並列数） */
+  public int getParallelism() {
+    if (dbExecutor instanceof ThreadPoolExecutor pool) {
+      return pool.getMaximumPoolSize();
+    }
+    if (dbExecutor instanceof VirtualThreadBatchExecutor virtual) {
+      return virtual.getMaxConcurrency();
+    }
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  private <T> BatchOutcome<T> runWithRetry(
+      String operation,
+      int index,
+      List<T> batch,
+      Function<? super T, String> keyOf,
+      Function<List<T>, Map<String, Integer>> action) {
+    TransientError lastTransientError = null;
+    for (int attempt = 1; ; attempt++) {
+      try {
+        Map<String, Integer> result = action.apply(batch);
+        String[] range = keyRange(batch, keyOf);
+        return new BatchOutcome<>(
+            index,
+            batch,
+            range[0],
+            range[1],
+            attempt == 1 ? Status.SUCCEEDED : Status.RETRIED,
+            attempt,
+            result.getOrDefault("updateCount", 0),
+            result.getOrDefault("insertCount", 0),
+            result.getOrDefault("unchangedCount", 0),
+            lastTransientError,
+            null);
+      } catch (RuntimeException e) {
+        Optional<TransientError> transientError = TransientErrorClassifier.classify(e);
+        if (transientError.isEmpty() || attempt >= maxAttempts) {
+          String[] range = keyRange(batch, keyOf);
+          log.error(
+              "{} batch {} (keys {}..{}) failed after {} attempt(s)",
+              operation,
+              index,
+              range[0],
+              range[1],
+              attempt,
+              e);
+          return failed(
+              index, batch, keyOf, attempt, transientError.orElse(null), String.valueOf(e));
+        }
+        lastTransientError = transientError.get();
+        long backoff = backoffMillis(attempt);
+        log.warn(
+            "{} batch {} hit {} (attempt {}/{}), retrying in {} ms",
+            operation,
+            index,
+            lastTransientError,
+            attempt,
+            maxAttempts,
+            backoff);
+        try {
+          Thread.sleep(backoff);
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          return failed(index, batch, keyOf, attempt, lastTransientError, "interrupted");
+        }
+      }
+    }
+  }
+
+  /** 再実行までの待ち時間（試行ごとに倍増させた値の上限付きの半分 + その範囲のランダムな値） */
+  long backoffMillis(int attempt) {
+    long exponential = initialBackoffMillis << Math.min(attempt - 1, 20);
+    long cap = Math.min(maxBackoffMillis, exponential);
+    long half = cap / 2;
+    return half + ThreadLocalRandom.current().nextLong(cap - half + 1);
+  }
+
+  private static <T> BatchOutcome<T> failed(
+      int index,
+      List<T> batch,
+      Function<? super T, String> keyOf,
+      int attempts,
+      TransientError transientError,
+      String errorMessage) {
+    String[] range = keyRange(batch, keyOf);
+    return new BatchOutcome<>(
+        index,
+        batch,
+        range[0],
+        range[1],
+        Status.FAILED,
+        attempts,
+        0,
+        0,
+        0,
+        transientError,
+        errorMessage);
+  }
+
+  /** バッチに含まれるキーの最小値と最大値を返します（バッチは並び替えられていないため全件を走査します） */
+  private static <T> String[] keyRange(List<T> batch, Function<? super T, String> keyOf) {
+    String min = null;
+    String max = null;
+    for (T item : batch) {
+      String key = keyOf.apply(item);
+      if (key == null) {
+        continue;
+      }
+      if (min == null || key.compareTo(min) < 0) {
+        min = key;
+      }
+      if (max == null || key.compareTo(max) > 0) {
+        max = key;
+      }
+    }
+    return new String[] {min, max};
+  }
+
+  /** 投入済みのバッチ */
+  private record PendingBatch<T>(int index, List<T> items) {}
+}
@@ -0,0 +1,82 @@
+package com.example123.demo.batch;
+
+import java.net.SocketException;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Optional;
+
+/**
+ * バッチ処理で発生した例外が、再実行すれば成功しうる一時的なエラーかどうかを判定するクラス
+ *
+ * <p>MyBatisやSpringが送出する例外は原因としてSQLExceptionを保持しているため、原因をたどってエラー番号とSQLSTATEで判定します
+ */
+public final class TransientErrorClassifier {
+
+  /** 一時的なエラーの種類 */
+  public enum TransientError {
+    /** デッドロックの犠牲として処理が取り消された */
+    DEADLOCK,
+    /** ロックの取得待ちがタイムアウトした */
+    LOCK_TIMEOUT,
+    /** 接続が切断・リセットされた */
+    CONNECTION_RESET
+  }
+
+  /** SQL Server：デッドロックの犠牲として選択された */
+  private static final int SQL_SERVER_DEADLOCK = 1205;
+
+  /** SQL Server：ロック要求がタイムアウトした（SET LOCK_TIMEOUT） */
+  private static final int SQL_SERVER_LOCK_TIMEOUT = 1222;
+
+  /** H2：デッドロックを検出した */
+  private static final int H2_DEADLOCK = 40001;
+
+  /** H2：ロックの取得待ちがタイムアウトした */
+  private static final int H2_LOCK_TIMEOUT = 50200;
+
+  /** 原因をたどる深さの上限（循環参照への備え） */
+  private static final int MAX_CAUSE_DEPTH = 16;
+
+  private TransientErrorClassifier() {}
+
+  /**
+   * 例外を一時的なエラーとして分類します
+   *
+   * @param error 判定する例外
+   * @return 一時的なエラーの種類（再実行しても成功しない例外の場合は空）
+   */
+  public static Optional<TransientError> classify(Throwable error) {
+    Throwable current = error;
+    for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+      if (current instanceof SQLException sqlException) {
+        Optional<TransientError> type = classify(sqlException);
+        if (type.isPresent()) {
+          return type;
+        }
+      } else if (current instanceof SocketException) {
+        return Optional.of(TransientError.CONNECTION_RESET);
+      }
+      current = current.getCause();
+    }
+    return Optional.empty();
+  }
+
+  private static Optional<TransientError> classify(SQLException e) {
+    int errorCode = e.getErrorCode();
+    String sqlState = e.getSQLState() != null ? e.getSQLState() : "";
+    if (errorCode == SQL_SERVER_DEADLOCK || errorCode == H2_DEADLOCK || sqlState.equals("40001")) {
+      return Optional.of(TransientError.DEADLOCK);
+    }
+    if (errorCode == SQL_SERVER_LOCK_TIMEOUT || errorCode == H2_LOCK_TIMEOUT) {
+      return Optional.of(TransientError.LOCK_TIMEOUT);
+    }
+    // SQLSTATEのクラス08は接続エラー（mssql-jdbcの通信リンク障害は08S01）
+    if (sqlState.startsWith("08")
+        || e instanceof SQLTransientConnectionException
+        || e instanceof SQLRecoverableException) {
+      return Optional.of(TransientError.CONNECTION_RESET);
+    }
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,39 @@
+package com.example123.demo.columnar;
+
+/**
+ * 行グループ内の1列分の統計情報 読み込み側は最小値・最大値を見て、条件に該当しない行グループを読み飛ばすことができます
+ *
+ * <p>最小値・最大値は列の型に応じて {@code String}、{@code LocalDate}、{@code LocalDateTime}、{@code Long}
+ * のいずれかで、全ての値がnullの場合はnullです
+ */
+public final class ColumnStatistics {
+  private final long nullCount;
+  private final Object min;
+  private final Object max;
+
+  ColumnStatistics(long nullCount, Object min, Object max) {
+    this.nullCount = nullCount;
+    this.min = min;
+    this.max = max;
+  }
+
+  /** nullの件数 */
+  public long getNullCount() {
+    return nullCount;
+  }
+
+  /** 最小値（文字列はString#compareToの順序） */
+  public Object getMin() {
+    return min;
+  }
+
+  /** 最大値（文字列はString#compareToの順序） */
+  public Object getMax() {
+    return max;
+  }
+
+  @Override
+  public String toString() {
+    return "ColumnStatistics{nullCount=" + nullCount + ", min=" + min + ", max=" + max + "}";
+  }
+}
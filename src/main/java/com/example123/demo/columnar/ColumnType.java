@@ -0,0 +1,13 @@
+package com.example123.demo.columnar;
+
+/** 列形式ファイルに格納する列のデータ型 */
+public enum ColumnType {
+  /** 文字列（UTF-8） 辞書符号化または長さ付きでそのまま格納 */
+  STRING,
+  /** 日付（エポック日数として格納） */
+  DATE,
+  /** 日時（UTC換算のエポックナノ秒として格納） */
+  DATE_TIME,
+  /** 整数 */
+  LONG
+}
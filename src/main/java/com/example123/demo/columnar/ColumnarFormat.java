@@ -0,0 +1,143 @@
+package com.example123.demo.columnar;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * 従業員情報の列形式ファイルのレイアウト定義と、符号化に使う共通処理
+ *
+ * <pre>
+ * ファイル   = MAGIC VERSION 行グループ* フッター フッター長(int) MAGIC
+ * 行グループ = 列チャンク × 列数（{@link EmployeeColumn} の定義順）
+ * 列チャンク = 符号化方式(1) null件数(可変長) [nullビットマップ] [ナノ秒部の長さ(可変長) ナノ秒部] データ
+ * フッター   = 行グループ数 (行数 (オフセット 長さ 符号化方式 null件数 最小値・最大値) × 列数) × 行グループ数
+ * </pre>
+ *
+ * <p>フッターに各列チャンクの位置を持つため、読み込み側は必要な列のチャンクだけをファイルから読み込めます 整数は可変長（負数はジグザグ符号化）で格納します
+ *
+ * <p>日時列は、エポック（UTC）からの秒をデータに、秒未満のナノ秒をナノ秒部（「件数 + 値」のランレングス符号化）に分けて格納します
+ * 1つのlong値のナノ秒では西暦1677年～2262年の範囲しか表せないためです 最小値・最大値も「秒 + ナノ秒」の組で格納します
+ */
+final class ColumnarFormat {
+
+  static final byte[] MAGIC = {'E', 'M', 'P', 'C'};
+  static final byte VERSION = 2;
+
+  /** 値をそのまま並べる */
+  static final byte PLAIN = 0;
+
+  /** 文字列の辞書 + 辞書番号のランレングス符号化 */
+  static final byte DICTIONARY = 1;
+
+  /** 整数のランレングス符号化（連続する同一値を「件数 + 値」で格納） */
+  static final byte RLE = 2;
+
+  /** PLAINの文字列をdeflateで圧縮（元のバイト数(可変長) + 圧縮データ） 値の種類が多い文字列列に使用 */
+  static final byte DEFLATED_PLAIN = 3;
+
+  private ColumnarFormat() {}
+
+  /** 日付・日時・整数の値を格納用のlong値へ変換します 日時はエポックからの秒（秒未満は {@link LocalDateTime#getNano()} で別に格納） */
+  static long toLong(ColumnType type, Object value) {
+    return switch (type) {
+      case DATE -> ((LocalDate) value).toEpochDay();
+      case DATE_TIME -> ((LocalDateTime) value).toEpochSecond(ZoneOffset.UTC);
+      case LONG -> (Long) value;
+      case STRING -> throw new IllegalArgumentException("STRING column is not stored as long");
+    };
+  }
+
+  /** 格納用のlong値を元の型へ戻します 日時は {@link #toDateTime(long, int)} で戻します */
+  static Object fromLong(ColumnType type, long value) {
+    return switch (type) {
+      case DATE -> LocalDate.ofEpochDay(value);
+      case DATE_TIME ->
+          throw new IllegalArgumentException("DATE_TIME column is stored as seconds and nanos");
+      case LONG -> value;
+      case STRING -> throw new IllegalArgumentException("STRING column is not stored as long");
+    };
+  }
+
+  /** エポックからの秒とナノ秒を日時へ戻します */
+  static LocalDateTime toDateTime(long epochSecond, int nano) {
+    return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+  }
+
+  static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  static long getVarLong(ByteBuffer buffer) {
+    long value = 0;
+    for (int shift = 0; ; shift += 7) {
+      byte b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+  }
+
+  static int getVarInt(ByteBuffer buffer) {
+    return Math.toIntExact(getVarLong(buffer));
+  }
+
+  /** 書き込み用の伸長可能なバイトバッファ */
+  static final class ByteSink {
+    private byte[] buf;
+    private int count;
+
+    ByteSink(int initialCapacity) {
+      this.buf = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    void putByte(int b) {
+      ensureCapacity(1);
+      buf[count++] = (byte) b;
+    }
+
+    void putVarLong(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        buf[count++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buf[count++] = (byte) value;
+    }
+
+    void putBytes(byte[] bytes, int offset, int length) {
+      ensureCapacity(length);
+      System.arraycopy(bytes, offset, buf, count, length);
+      count += length;
+    }
+
+    void putSink(ByteSink other) {
+      putBytes(other.buf, 0, other.count);
+    }
+
+    int size() {
+      return count;
+    }
+
+    byte[] array() {
+      return buf;
+    }
+
+    void reset() {
+      count = 0;
+    }
+
+    private void ensureCapacity(int additional) {
+      if (count + additional > buf.length) {
+        buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + additional));
+      }
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.example123.demo.columnar;
+
+import com.example123.demo.domain.Employee;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/** 従業員情報の列定義 列形式ファイルにはこの定義順に列が格納されます（順序を変更するとファイル形式の互換性が失われます） */
+public enum EmployeeColumn {
+  ID(ColumnType.STRING, Employee::getId, (e, v) -> e.setId((String) v)),
+  NAME(ColumnType.STRING, Employee::getName, (e, v) -> e.setName((String) v)),
+  DEPARTMENT(ColumnType.STRING, Employee::getDepartment, (e, v) -> e.setDepartment((String) v)),
+  POSITION(ColumnType.STRING, Employee::getPosition, (e, v) -> e.setPosition((String) v)),
+  EMPLOYMENT_STATUS(
+      ColumnType.STRING,
+      Employee::getEmployment_status,
+      (e, v) -> e.setEmployment_status((String) v)),
+  HIRE_DATE(ColumnType.DATE, Employee::getHire_date, (e, v) -> e.setHire_date((LocalDate) v)),
+  PHONE_NUMBER(
+      ColumnType.STRING, Employee::getPhone_number, (e, v) -> e.setPhone_number((String) v)),
+  EMAIL(ColumnType.STRING, Employee::getEmail, (e, v) -> e.setEmail((String) v)),
+  BIRTH_DATE(ColumnType.DATE, Employee::getBirth_date, (e, v) -> e.setBirth_date((LocalDate) v)),
+  GENDER(ColumnType.STRING, Employee::getGender, (e, v) -> e.setGender((String) v)),
+  CREATED_BY(ColumnType.STRING, Employee::getCreated_by, (e, v) -> e.setCreated_by((String) v)),
+  CREATED_AT(
+      ColumnType.DATE_TIME, Employee::getCreated_at, (e, v) -> e.setCreated_at((LocalDateTime) v)),
+  UPDATED_BY(ColumnType.STRING, Employee::getUpdated_by, (e, v) -> e.setUpdated_by((String) v)),
+  UPDATED_AT(
+      ColumnType.DATE_TIME, Employee::getUpdated_at, (e, v) -> e.setUpdated_at((LocalDateTime) v)),
+  VERSION(ColumnType.LONG, Employee::getVersion, (e, v) -> e.setVersion((Long) v));
+
+  private final ColumnType type;
+  private final Function<Employee, Object> getter;
+  private final BiConsumer<Employee, Object> setter;
+
+  EmployeeColumn(
+      ColumnType type, Function<Employee, Object> getter, BiConsumer<Employee, Object> setter) {
+    this.type = type;
+    this.getter = getter;
+    this.setter = setter;
+  }
+
+  public ColumnType getType() {
+    return type;
+  }
+
+  /** 従業員情報からこの列の値を取得します */
+  public Object get(Employee employee) {
+    return getter.apply(employee);
+  }
+
+  void set(Employee employee, Object value) {
+    setter.accept(employee, value);
+  }
+}
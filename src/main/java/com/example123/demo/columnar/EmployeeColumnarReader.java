@@ -0,0 +1,368 @@
+package com.example123.demo.columnar;
+
+import com.example123.demo.domain.Employee;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * {@link EmployeeColumnarWriter} で書き込んだ列形式ファイルを読み込むリーダー
+ *
+ * <p>ファイル末尾のフッターから各列チャンクの位置と統計情報を読み込み、指定された列のチャンクだけをファイルから読み込みます 指定しなかった列はnullのままになります 統計情報（{@link
+ * #getStatistics(int, EmployeeColumn)}）を使えば、条件に該当しない行グループを読み込まずに済みます
+ *
+ * <p>インスタンスはスレッドセーフです（位置指定の読み込みのみを使用するため、異なる行グループを並列に読み込めます）
+ */
+public final class EmployeeColumnarReader implements Closeable {
+
+  private static final EmployeeColumn[] COLUMNS = EmployeeColumn.values();
+
+  private final FileChannel channel;
+  private final List<RowGroup> rowGroups;
+  private final long rowCount;
+
+  private EmployeeColumnarReader(FileChannel channel, List<RowGroup> rowGroups) {
+    this.channel = channel;
+    this.rowGroups = rowGroups;
+    long count = 0;
+    for (RowGroup rowGroup : rowGroups) {
+      count += rowGroup.rowCount;
+    }
+    this.rowCount = count;
+  }
+
+  /**
+   * 列形式ファイルを開き、フッターを読み込みます
+   *
+   * @param file 列形式ファイルのパス
+   * @return リーダー
+   * @throws IOException ファイルを読み込めない場合、または列形式ファイルではない場合
+   */
+  public static EmployeeColumnarReader open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      long size = channel.size();
+      int trailerLength = 4 + ColumnarFormat.MAGIC.length;
+      if (size < ColumnarFormat.MAGIC.length + 1 + trailerLength) {
+        throw new IOException("Not an employee columnar file: " + file);
+      }
+      ByteBuffer header = read(channel, 0, ColumnarFormat.MAGIC.length + 1);
+      ByteBuffer trailer = read(channel, size - trailerLength, trailerLength);
+      byte[] magic = new byte[ColumnarFormat.MAGIC.length];
+      header.get(magic);
+      int footerLength = trailer.getInt();
+      byte[] trailingMagic = new byte[ColumnarFormat.MAGIC.length];
+      trailer.get(trailingMagic);
+      if (!Arrays.equals(magic, ColumnarFormat.MAGIC)
+          || !Arrays.equals(trailingMagic, ColumnarFormat.MAGIC)) {
+        throw new IOException("Not an employee columnar file: " + file);
+      }
+      byte version = header.get();
+      if (version != ColumnarFormat.VERSION) {
+        throw new IOException("Unsupported columnar file version: " + version);
+      }
+      ByteBuffer footer = read(channel, size - trailerLength - footerLength, footerLength);
+      return new EmployeeColumnarReader(channel, readFooter(footer));
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /** 行グループの数を返します */
+  public int getRowGroupCount() {
+    return rowGroups.size();
+  }
+
+  /** ファイル全体の行数を返します */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /** 指定した行グループの行数を返します */
+  public int getRowCount(int rowGroup) {
+    return rowGroups.get(rowGroup).rowCount;
+  }
+
+  /**
+   * 指定した行グループ・列の統計情報を返します（ファイルの読み込みは発生しません）
+   *
+   * @param rowGroup 行グループの番号
+   * @param column 列
+   * @return 統計情報
+   */
+  public ColumnStatistics getStatistics(int rowGroup, EmployeeColumn column) {
+    return rowGroups.get(rowGroup).statistics[column.ordinal()];
+  }
+
+  /**
+   * 指定した行グループの1列分の値を読み込みます
+   *
+   * @param rowGroup 行グループの番号
+   * @param column 列
+   * @return 行順の値（nullを含む）
+   * @throws IOException 読み込みに失敗した場合
+   */
+  public Object[] readColumn(int rowGroup, EmployeeColumn column) throws IOException {
+    RowGroup group = rowGroups.get(rowGroup);
+    int index = column.ordinal();
+    ByteBuffer chunk = read(channel, group.offsets[index], group.lengths[index]);
+    return decodeChunk(chunk, column.getType(), group.rowCount);
+  }
+
+  /**
+   * 指定した行グループを、指定した列だけ読み込んだ従業員情報のリストとして返します
+   *
+   * @param rowGroup 行グループの番号
+   * @param columns 読み込む列（含まれない列の項目はnull）
+   * @return 従業員情報のリスト
+   * @throws IOException 読み込みに失敗した場合
+   */
+  public List<Employee> readRowGroup(int rowGroup, Set<EmployeeColumn> columns) throws IOException {
+    int rows = rowGroups.get(rowGroup).rowCount;
+    List<Employee> employees = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      employees.add(new Employee());
+    }
+    for (EmployeeColumn column : columns) {
+      Object[] values = readColumn(rowGroup, column);
+      for (int i = 0; i < rows; i++) {
+        column.set(employees.get(i), values[i]);
+      }
+    }
+    return employees;
+  }
+
+  /**
+   * 全ての行グループを先頭から順に読み込みます
+   *
+   * @param columns 読み込む列
+   * @param action 従業員情報ごとに呼び出す処理
+   * @throws IOException 読み込みに失敗した場合
+   */
+  public void forEach(Set<EmployeeColumn> columns, Consumer<Employee> action) throws IOException {
+    for (int i = 0; i < rowGroups.size(); i++) {
+      readRowGroup(i, columns).forEach(action);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private static List<RowGroup> readFooter(ByteBuffer footer) {
+    int count = ColumnarFormat.getVarInt(footer);
+    List<RowGroup> rowGroups = new ArrayList<>(count);
+    for (int g = 0; g < count; g++) {
+      RowGroup group = new RowGroup(ColumnarFormat.getVarInt(footer));
+      for (EmployeeColumn column : COLUMNS) {
+        int i = column.ordinal();
+        group.offsets[i] = ColumnarFormat.getVarLong(footer);
+        group.lengths[i] = ColumnarFormat.getVarInt(footer);
+        footer.get(); // 符号化方式（チャンクの先頭にも格納されている）
+        long nullCount = ColumnarFormat.getVarLong(footer);
+        Object min = null;
+        Object max = null;
+        if (footer.get() != 0) {
+          if (column.getType() == ColumnType.STRING) {
+            min = getString(footer);
+            max = getString(footer);
+          } else if (column.getType() == ColumnType.DATE_TIME) {
+            min = getDateTime(footer);
+            max = getDateTime(footer);
+          } else {
+            min = fromZigZag(column.getType(), footer);
+            max = fromZigZag(column.getType(), footer);
+          }
+        }
+        group.statistics[i] = new ColumnStatistics(nullCount, min, max);
+      }
+      rowGroups.add(group);
+    }
+    return rowGroups;
+  }
+
+  private static Object[] decodeChunk(ByteBuffer chunk, ColumnType type, int rows)
+      throws IOException {
+    byte encoding = chunk.get();
+    int nullCount = ColumnarFormat.getVarInt(chunk);
+    byte[] nulls = null;
+    if (nullCount > 0) {
+      nulls = new byte[(rows + 7) / 8];
+      chunk.get(nulls);
+    }
+
+    Object[] values = new Object[rows];
+    ValueSource source = createSource(chunk, type, encoding);
+    for (int i = 0; i < rows; i++) {
+      if (nulls == null || (nulls[i >>> 3] & (1 << (i & 7))) == 0) {
+        values[i] = source.next();
+      }
+    }
+    return values;
+  }
+
+  /** 符号化方式に応じて非nullの値を順に取り出す処理を作成します */
+  private static ValueSource createSource(ByteBuffer chunk, ColumnType type, byte encoding)
+      throws IOException {
+    if (type == ColumnType.STRING) {
+      if (encoding == ColumnarFormat.PLAIN) {
+        return () -> getString(chunk);
+      }
+      if (encoding == ColumnarFormat.DEFLATED_PLAIN) {
+        ByteBuffer inflated = inflate(chunk);
+        return () -> getString(inflated);
+      }
+      if (encoding == ColumnarFormat.DICTIONARY) {
+        String[] dictionary = new String[ColumnarFormat.getVarInt(chunk)];
+        for (int i = 0; i < dictionary.length; i++) {
+          dictionary[i] = getString(chunk);
+        }
+        RunDecoder runs = new RunDecoder(chunk);
+        return () -> dictionary[(int) runs.next()];
+      }
+    } else {
+      // 日時列は秒のデータの前にナノ秒部がある
+      RunDecoder nanos = type == ColumnType.DATE_TIME ? new RunDecoder(section(chunk)) : null;
+      LongSupplier longs = null;
+      if (encoding == ColumnarFormat.PLAIN) {
+        longs = () -> fromZigZag(chunk);
+      } else if (encoding == ColumnarFormat.RLE) {
+        longs = new RunDecoder(chunk, true)::next;
+      }
+      if (longs != null) {
+        LongSupplier stored = longs;
+        return nanos == null
+            ? () -> ColumnarFormat.fromLong(type, stored.getAsLong())
+            : () -> ColumnarFormat.toDateTime(stored.getAsLong(), (int) nanos.next());
+      }
+    }
+    throw new IOException("Unsupported encoding " + encoding + " for " + type + " column");
+  }
+
+  /** deflateで圧縮された残りのデータを展開します */
+  private static ByteBuffer inflate(ByteBuffer chunk) throws IOException {
+    byte[] data = new byte[ColumnarFormat.getVarInt(chunk)];
+    Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(chunk);
+      int length = 0;
+      while (length < data.length) {
+        int n = inflater.inflate(data, length, data.length - length);
+        if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+          throw new EOFException("Truncated column chunk");
+        }
+        length += n;
+      }
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupted column chunk", e);
+    } finally {
+      inflater.end();
+    }
+    return ByteBuffer.wrap(data);
+  }
+
+  private static long fromZigZag(ByteBuffer buffer) {
+    return ColumnarFormat.unZigZag(ColumnarFormat.getVarLong(buffer));
+  }
+
+  private static Object fromZigZag(ColumnType type, ByteBuffer buffer) {
+    return ColumnarFormat.fromLong(type, fromZigZag(buffer));
+  }
+
+  private static LocalDateTime getDateTime(ByteBuffer buffer) {
+    long epochSecond = fromZigZag(buffer);
+    return ColumnarFormat.toDateTime(epochSecond, ColumnarFormat.getVarInt(buffer));
+  }
+
+  /** 「長さ(可変長) + データ」のデータ部分を切り出し、bufferの位置をその後ろへ進めます */
+  private static ByteBuffer section(ByteBuffer buffer) {
+    int length = ColumnarFormat.getVarInt(buffer);
+    ByteBuffer section = buffer.slice(buffer.position(), length);
+    buffer.position(buffer.position() + length);
+    return section;
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    int length = ColumnarFormat.getVarInt(buffer);
+    String value =
+        new String(
+            buffer.array(),
+            buffer.arrayOffset() + buffer.position(),
+            length,
+            StandardCharsets.UTF_8);
+    buffer.position(buffer.position() + length);
+    return value;
+  }
+
+  private static ByteBuffer read(FileChannel channel, long position, int length)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException("Unexpected end of columnar file");
+      }
+    }
+    return buffer.flip();
+  }
+
+  /** 列チャンクから非nullの値を1件ずつ取り出す処理 */
+  @FunctionalInterface
+  private interface ValueSource {
+    Object next();
+  }
+
+  /** 「件数 + 値」のランレングス符号化を展開する処理 */
+  private static final class RunDecoder {
+    private final ByteBuffer buffer;
+    private final boolean zigZag;
+    private long remaining;
+    private long value;
+
+    RunDecoder(ByteBuffer buffer) {
+      this(buffer, false);
+    }
+
+    RunDecoder(ByteBuffer buffer, boolean zigZag) {
+      this.buffer = buffer;
+      this.zigZag = zigZag;
+    }
+
+    long next() {
+      if (remaining == 0) {
+        remaining = ColumnarFormat.getVarLong(buffer);
+        long raw = ColumnarFormat.getVarLong(buffer);
+        value = zigZag ? ColumnarFormat.unZigZag(raw) : raw;
+      }
+      remaining--;
+      return value;
+    }
+  }
+
+  /** フッターから読み込んだ行グループのメタデータ */
+  private static final class RowGroup {
+    private final int rowCount;
+    private final long[] offsets = new long[COLUMNS.length];
+    private final int[] lengths = new int[COLUMNS.length];
+    private final ColumnStatistics[] statistics = new ColumnStatistics[COLUMNS.length];
+
+    RowGroup(int rowCount) {
+      this.rowCount = rowCount;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.example123.demo.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * スレッド数と待ち行列の長さが固定された名前付きスレッドプール アプリケーション全体で共有し、呼び出しごとのスレッドプールの生成と破棄を避けます
+ *
+ * <p>待ち行列が上限に達した場合は投入したスレッド自身でタスクを実行します（CallerRunsPolicy） 投入側の速度が自然に抑えられるため、タスクが際限なく溜まることはありません
+ *
+ * <p>{@link #close()} は投入済みのタスクの完了を終了待ち時間まで待ち、それを過ぎた場合は残りのタスクを中断して破棄します
+ */
+public class BoundedThreadPoolExecutor extends ThreadPoolExecutor {
+
+  private static final Logger log = LoggerFactory.getLogger(BoundedThreadPoolExecutor.class);
+
+  private final String name;
+  private final Duration shutdownTimeout;
+
+  /**
+   * @param name プール名（スレッド名の接頭辞とメトリクスのタグに使用）
+   * @param threads スレッド数
+   * @param queueCapacity 実行待ちタスクの上限
+   * @param shutdownTimeout 終了時に実行中・実行待ちのタスクの完了を待つ時間
+   */
+  public BoundedThreadPoolExecutor(
+      String name, int threads, int queueCapacity, Duration shutdownTimeout) {
+    super(
+        threads,
+        threads,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(queueCapacity),
+        namedThreadFactory(name),
+        new CallerRunsPolicy());
+    this.name = name;
+    this.shutdownTimeout = shutdownTimeout;
+  }
+
+  private static ThreadFactory namedThreadFactory(String name) {
+    AtomicInteger threadNumber = new AtomicInteger();
+    return runnable -> new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+  }
+
+  /** プール名を返します */
+  public String getName() {
+    return name;
+  }
+
+  /** 実行待ちのタスク数を返します */
+  public int getQueueDepth() {
+    return getQueue().size();
+  }
+
+  /** 新規タスクの受付を停止し、投入済みのタスクの完了を終了待ち時間まで待ちます */
+  @Override
+  public void close() {
+    shutdown();
+    try {
+      if (!awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        log.warn("Executor {} did not terminate in the specified time.", name);
+        List<Runnable> droppedTasks = shutdownNow();
+        log.warn(
+            "Executor {} was abruptly shut down. {} tasks were dropped.",
+            name,
+            droppedTasks.size());
+      }
+    } catch (InterruptedException e) {
+      log.warn("Executor {} termination was interrupted.", name, e);
+      shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+}
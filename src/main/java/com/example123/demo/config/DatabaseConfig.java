@@ -0,0 +1,23 @@
+package com.example123.demo.config;
+
+import com.example123.demo.upsert.DatabaseDialect;
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** データベース方言の設定クラス 接続先の製品名から方言を判定し、方言ごとの処理の選択に使用します */
+@Configuration
+public class DatabaseConfig {
+
+  /** 接続先データベースの方言を判定します 起動時に1度だけ接続してメタデータを参照します */
+  @Bean
+  public DatabaseDialect databaseDialect(DataSource dataSource) {
+    try (Connection connection = dataSource.getConnection()) {
+      return DatabaseDialect.fromProductName(connection.getMetaData().getDatabaseProductName());
+    } catch (SQLException e) {
+      throw new RuntimeException("データベース製品の判定でエラーが発生しました", e);
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package com.example123.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * バッチ処理用の共有スレッドプールの設定クラス データベースへアクセスするタスク用（DB）、計算のみのタスク用（CPU）と
+ * ファイルへの書き込みを行うタスク用（ファイル書き込み）の3つのプールを提供します
+ *
+ * <p>DBプールのスレッド数はコネクションプールの最大接続数から、リクエスト処理用に残す接続数を差し引いた値です 同時に何件の要求が来ても、 バッチ処理のスレッドが接続を奪い合うことはありません
+ * CPUプールのスレッド数は利用可能なプロセッサ数です ファイル書き込みプールのスレッド数は {@code export.partition.writer-threads} です
+ *
+ * <p>DBプールは {@code executor.db.mode=VIRTUAL} で仮想スレッド方式に切り替えられます タスクごとに仮想スレッドを起動し、
+ * 同時実行数を上記のスレッド数と同じ許可数のセマフォで制限します Tomcatのリクエスト処理も仮想スレッドにする場合は virtual プロファイルで起動してください
+ *
+ * <p>各プールの稼働スレッド数・待ち行列の長さなどは {@code executor.*} メトリクスとして公開されます（name タグはプール名）
+ */
+@Configuration
+public class ExecutorConfig {
+
+  private static final Logger log = LoggerFactory.getLogger(ExecutorConfig.class);
+
+  /** DBアクセスを行うタスク用のプールのBean名 */
+  public static final String DB_EXECUTOR = "dbBatchExecutor";
+
+  /** 計算のみのタスク用のプールのBean名 */
+  public static final String CPU_EXECUTOR = "cpuBatchExecutor";
+
+  /** ファイルへの書き込みを行うタスク用のプールのBean名 */
+  public static final String FILE_WRITER_EXECUTOR = "fileWriterExecutor";
+
+  /** コネクションプールの最大接続数を取得できない場合に仮定する値（HikariCPの既定値） */
+  private static final int DEFAULT_CONNECTION_POOL_SIZE = 10;
+
+  /** DBプールの実行方式 */
+  public enum DbExecutorMode {
+    /** 固定数のプラットフォームスレッドで実行します */
+    PLATFORM,
+    /** タスクごとに仮想スレッドを起動し、同時実行数をセマフォで制限します */
+    VIRTUAL
+  }
+
+  /**
+   * DBアクセスを行うタスク用のプールを生成します
+   *
+   * @param mode 実行方式
+   * @param threads スレッド数（仮想スレッド方式では同時実行数 0以下の場合はコネクションプールの最大接続数から算出）
+   * @param reservedConnections リクエスト処理用にバッチ処理から除外する接続数
+   */
+  @Bean(name = DB_EXECUTOR, destroyMethod = "close")
+  public ExecutorService dbBatchExecutor(
+      DataSource dataSource,
+      ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${executor.db.mode:PLATFORM}") DbExecutorMode mode,
+      @Value("${executor.db.threads:0}") int threads,
+      @Value("${executor.db.reserved-connections:2}") int reservedConnections,
+      @Value("${executor.db.queue-capacity:10000}") int queueCapacity,
+      @Value("${executor.shutdown-timeout-seconds:60}") long shutdownTimeoutSeconds) {
+    int poolThreads =
+        threads > 0 ? threads : Math.max(1, connectionPoolSize(dataSource) - reservedConnections);
+    if (mode == DbExecutorMode.VIRTUAL) {
+      return register(
+          new VirtualThreadBatchExecutor(
+              "db-batch", poolThreads, Duration.ofSeconds(shutdownTimeoutSeconds)),
+          meterRegistry);
+    }
+    return register(
+        new BoundedThreadPoolExecutor(
+            "db-batch", poolThreads, queueCapacity, Duration.ofSeconds(shutdownTimeoutSeconds)),
+        meterRegistry);
+  }
+
+  /**
+   * 計算のみのタスク用のプールを生成します
+   *
+   * @param threads スレッド数（0以下の場合は利用可能なプロセッサ数）
+   */
+  @Bean(name = CPU_EXECUTOR, destroyMethod = "close")
+  public BoundedThreadPoolExecutor cpuBatchExecutor(
+      ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${executor.cpu.threads:0}") int threads,
+      @Value("${executor.cpu.queue-capacity:10000}") int queueCapacity,
+      @Value("${executor.shutdown-timeout-seconds:60}") long shutdownTimeoutSeconds) {
+    int poolThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    return register(
+        new BoundedThreadPoolExecutor(
+            "cpu-batch", poolThreads, queueCapacity, Duration.ofSeconds(shutdownTimeoutSeconds)),
+        meterRegistry);
+  }
+
+  /**
+   * ファイルへの書き込みを行うタスク用のプールを生成します 書き込みの完了待ちでスレッドがブロックするため、CPUプールとは分けます
+   *
+   * @param threads スレッド数
+   */
+  @Bean(name = FILE_WRITER_EXECUTOR, destroyMethod = "close")
+  public BoundedThreadPoolExecutor fileWriterExecutor(
+      ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${export.partition.writer-threads:4}") int threads,
+      @Value("${executor.file-writer.queue-capacity:10000}") int queueCapacity,
+      @Value("${executor.shutdown-timeout-seconds:60}") long shutdownTimeoutSeconds) {
+    return register(
+        new BoundedThreadPoolExecutor(
+            "file-writer",
+            Math.max(1, threads),
+            queueCapacity,
+            Duration.ofSeconds(shutdownTimeoutSeconds)),
+        meterRegistry);
+  }
+
+  private static BoundedThreadPoolExecutor register(
+      BoundedThreadPoolExecutor executor, ObjectProvider<MeterRegistry> meterRegistry) {
+    meterRegistry.ifAvailable(
+        registry ->
+            new ExecutorServiceMetrics(executor, executor.getName(), Tags.empty())
+                .bindTo(registry));
+    log.info(
+        "Batch executor {} initialized: threads={}, queueCapacity={}",
+        executor.getName(),
+        executor.getMaximumPoolSize(),
+        executor.getQueue().remainingCapacity());
+    return executor;
+  }
+
+  private static VirtualThreadBatchExecutor register(
+      VirtualThreadBatchExecutor executor, ObjectProvider<MeterRegistry> meterRegistry) {
+    // ExecutorServiceMetricsはThreadPoolExecutor以外に対応しないため、同じ名前のメトリクスを個別に登録する
+    meterRegistry.ifAvailable(
+        registry -> {
+          Gauge.builder("executor.active", executor, VirtualThreadBatchExecutor::getActiveCount)
+              .tag("name", executor.getName())
+              .register(registry);
+          Gauge.builder("executor.queued", executor, VirtualThreadBatchExecutor::getQueueDepth)
+              .tag("name", executor.getName())
+              .register(registry);
+          Gauge.builder(
+                  "executor.pool.max", executor, VirtualThreadBatchExecutor::getMaxConcurrency)
+              .tag("name", executor.getName())
+              .register(registry);
+        });
+    log.info(
+        "Batch executor {} initialized on virtual threads: maxConcurrency={}",
+        executor.getName(),
+        executor.getMaxConcurrency());
+    return executor;
+  }
+
+  /** コネクションプールの最大接続数を返します HikariCP以外のデータソースの場合は既定値を返します */
+  static int connectionPoolSize(DataSource dataSource) {
+    try {
+      if (dataSource.isWrapperFor(HikariDataSource.class)) {
+        return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+      }
+    } catch (SQLException e) {
+      log.warn("Could not determine the connection pool size, assuming the default", e);
+    }
+    return DEFAULT_CONNECTION_POOL_SIZE;
+  }
+}
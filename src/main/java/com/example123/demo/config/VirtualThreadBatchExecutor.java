@@ -0,0 +1,130 @@
+package com.example123.demo.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * タスクごとに仮想スレッドを起動し、同時実行数をセマフォで制限するExecutor JDBCの応答待ちで大半の時間をブロックするタスク向けです
+ *
+ * <p>スレッド数ではなくセマフォの許可数で同時実行数を制限します 許可を待つタスクは仮想スレッド上で待機するため、プラットフォームスレッドを占有しません
+ * 許可数はコネクションプールの接続数に合わせて設定し、接続の取得待ちがコネクションプール内で発生しないようにします
+ *
+ * <p>synchronizedブロック内でJDBCの応答を待つドライバーでは、待機中にキャリアスレッドが固定（pinning）されます 固定の発生は {@code
+ * -Djdk.tracePinnedThreads=full} で確認できます
+ */
+public class VirtualThreadBatchExecutor extends AbstractExecutorService {
+
+  private static final Logger log = LoggerFactory.getLogger(VirtualThreadBatchExecutor.class);
+
+  private final String name;
+  private final int maxConcurrency;
+  private final Semaphore permits;
+  private final ExecutorService delegate;
+  private final Duration shutdownTimeout;
+
+  /**
+   * @param name Executor名（スレッド名の接頭辞とメトリクスのタグに使用）
+   * @param maxConcurrency 同時に実行するタスク数の上限
+   * @param shutdownTimeout 終了時に実行中・許可待ちのタスクの完了を待つ時間
+   */
+  public VirtualThreadBatchExecutor(String name, int maxConcurrency, Duration shutdownTimeout) {
+    this.name = name;
+    this.maxConcurrency = maxConcurrency;
+    this.permits = new Semaphore(maxConcurrency, true);
+    this.delegate =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+    this.shutdownTimeout = shutdownTimeout;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    delegate.execute(
+        () -> {
+          try {
+            permits.acquire();
+          } catch (InterruptedException e) {
+            // 実行前に中断された場合は、結果を待っている呼び出し元が戻れるようタスクを取り消す
+            if (command instanceof Future<?> future) {
+              future.cancel(false);
+            }
+            Thread.currentThread().interrupt();
+            return;
+          }
+          try {
+            command.run();
+          } finally {
+            permits.release();
+          }
+        });
+  }
+
+  /** Executor名を返します */
+  public String getName() {
+    return name;
+  }
+
+  /** 同時に実行するタスク数の上限を返します */
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  /** 実行中のタスク数を返します */
+  public int getActiveCount() {
+    return maxConcurrency - permits.availablePermits();
+  }
+
+  /** 許可を待っているタスク数を返します */
+  public int getQueueDepth() {
+    return permits.getQueueLength();
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    return delegate.shutdownNow();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return delegate.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+
+  /** 新規タスクの受付を停止し、投入済みのタスクの完了を終了待ち時間まで待ちます */
+  @Override
+  public void close() {
+    shutdown();
+    try {
+      if (!awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        log.warn("Executor {} did not terminate in the specified time.", name);
+        shutdownNow();
+        log.warn("Executor {} was abruptly shut down.", name);
+      }
+    } catch (InterruptedException e) {
+      log.warn("Executor {} termination was interrupted.", name, e);
+      shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -4,17 +4,28 @@ import com.example123.demo.aop.Loggable;
 import com.example123.demo.aop.PerformanceMonitoring;
 import com.example123.demo.domain.Employee;
 import com.example123.demo.dto.EmployeeDTO;
+import com.example123.demo.service.CsvExportService;
 import com.example123.demo.service.EmployeeDataService;
+import com.example123.demo.util.AuditTimestamps;
 import jakarta.validation.Valid;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /** 従業員API機能を提供するコントローラークラス 入力値検証を含む基本的なCRUD操作を実装しています */
 @RestController
@@ -22,10 +33,19 @@ import org.springframework.web.bind.annotation.RestController;
 @Validated
 public class EmployeeApiController {
 
+  /** CSVダウンロードのContent-Type */
+  private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+  /** gzip圧縮時の内部バッファサイズ（バイト） */
+  private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
   private final EmployeeDataService employeeDataService;
+  private final CsvExportService csvExportService;
 
-  public EmployeeApiController(EmployeeDataService employeeDataService) {
+  public EmployeeApiController(
+      EmployeeDataService employeeDataService, CsvExportService csvExportService) {
     this.employeeDataService = employeeDataService;
+    this.csvExportService = csvExportService;
   }
 
   /**
@@ -58,6 +78,92 @@ public class EmployeeApiController {
     return ResponseEntity.ok(response);
   }
 
+  /**
+   * 従業員テーブルの全データをCSVとしてダウンロードします データベースからカーソルで読み込みながらチャンク形式で送信するため、 件数に関わらずメモリ使用量は一定です
+   *
+   * <p>送信はレスポンス用の非同期スレッドで行われ、クライアントの受信が遅い場合は書き込みが待機し、 データベースからの読み込みも停止します（バックプレッシャー）
+   * リクエストのAccept-Encodingでgzipが受け入れられている場合（q=0でない場合）は、gzip圧縮して送信します
+   *
+   * @param acceptEncoding リクエストのAccept-Encodingヘッダー
+   * @return CSVを逐次書き込むレスポンスボディ
+   */
+  @GetMapping("/export.csv")
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = true,
+      includeResult = false,
+      value = "従業員CSVダウンロード")
+  @PerformanceMonitoring(threshold = 2000, operation = "API_EMPLOYEE_EXPORT_CSV")
+  public ResponseEntity<StreamingResponseBody> exportCsv(
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    boolean gzip = acceptsGzip(acceptEncoding);
+
+    StreamingResponseBody body =
+        out -> {
+          if (gzip) {
+            try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, GZIP_BUFFER_SIZE)) {
+              csvExportService.writeCsvFromDatabase(gzipOut);
+            }
+          } else {
+            csvExportService.writeCsvFromDatabase(out);
+          }
+        };
+
+    ResponseEntity.BodyBuilder response =
+        ResponseEntity.ok()
+            .contentType(TEXT_CSV)
+            .header(
+                HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("employees.csv").build().toString())
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.body(body);
+  }
+
+  /**
+   * Accept-Encodingヘッダーでgzipが受け入れられているかを判定します
+   *
+   * <p>カンマ区切りの各コーディングを解析し、q値が0のコーディングは受け入れないものとして扱います gzipの指定がない場合は「*」の指定に従います
+   *
+   * @param acceptEncoding Accept-Encodingヘッダーの値（null可）
+   * @return gzipで送信してよい場合はtrue
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    Boolean wildcard = null;
+    for (String element : acceptEncoding.split(",")) {
+      String[] parts = element.split(";");
+      String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+      boolean accepted = qualityOf(parts) > 0;
+      if (coding.equals("gzip") || coding.equals("x-gzip")) {
+        return accepted;
+      }
+      if (coding.equals("*")) {
+        wildcard = accepted;
+      }
+    }
+    return Boolean.TRUE.equals(wildcard);
+  }
+
+  /** コーディングのパラメーターからq値を取り出します（指定がない場合は1、解析できない場合は0） */
+  private static double qualityOf(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String parameter = parts[i].trim();
+      if (parameter.length() > 2 && parameter.regionMatches(true, 0, "q=", 0, 2)) {
+        try {
+          return Double.parseDouble(parameter.substring(2).trim());
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
   /**
    * EmployeeDTOからEmployeeエンティティに変換
    *
@@ -76,6 +182,10 @@ public class EmployeeApiController {
     employee.setPhone_number(dto.getPhone_number());
     employee.setBirth_date(dto.getBirth_date());
     employee.setGender(dto.getGender());
+    // 差分出力の対象となるよう、更新日時は他の登録経路と同じUTCの時刻で設定する
+    LocalDateTime now = AuditTimestamps.now();
+    employee.setCreated_at(now);
+    employee.setUpdated_at(now);
     return employee;
   }
 }
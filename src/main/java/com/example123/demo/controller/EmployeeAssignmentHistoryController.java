@@ -2,9 +2,12 @@ package com.example123.demo.controller;
 
 import com.example123.demo.aop.Loggable;
 import com.example123.demo.aop.PerformanceMonitoring;
+import com.example123.demo.batch.BatchRunReport;
 import com.example123.demo.domain.EmployeeAssignmentHistory;
 import com.example123.demo.service.EmployeeAssignmentHistoryService;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -27,7 +30,7 @@ public class EmployeeAssignmentHistoryController {
    * 指定された件数のダミー配属履歴データを生成し、一時テーブルを利用したUpsert処理を実行します。
    *
    * @param count 生成するデータの件数 (デフォルト: 10000)
-   * @return 処理結果を示すメッセージ
+   * @return 処理件数と、再実行後に成功・失敗したバッチのキー範囲を含む処理結果
    */
   @PostMapping("/upsert")
   @Loggable(
@@ -36,10 +39,18 @@ public class EmployeeAssignmentHistoryController {
       includeResult = false,
       value = "配属履歴UPSERT処理")
   @PerformanceMonitoring(threshold = 10000, operation = "API_ASSIGNMENT_HISTORY_UPSERT")
-  public ResponseEntity<String> triggerUpsert(@RequestParam(defaultValue = "10000") int count) {
+  public ResponseEntity<Map<String, Object>> triggerUpsert(
+      @RequestParam(defaultValue = "10000") int count) {
     List<EmployeeAssignmentHistory> histories = service.createMixedHistories(count, 0.8);
-    service.upsertHistories(histories);
-    return ResponseEntity.ok(
-        String.format("Successfully upserted %d assignment histories.", count));
+    BatchRunReport<EmployeeAssignmentHistory> report = service.upsertHistories(histories);
+
+    Map<String, Object> result = new HashMap<>();
+    result.put("dataCount", count);
+    result.put("updateCount", report.getUpdateCount());
+    result.put("insertCount", report.getInsertCount());
+    result.put("retriedBatches", report.getRetried());
+    result.put("failedBatches", report.getFailed());
+    result.put("status", report.hasFailures() ? "partially_failed" : "completed");
+    return ResponseEntity.ok(result);
   }
 }
@@ -67,11 +67,105 @@ public class EmployeeController {
     result.put("executionTime", executionTime);
     result.put("updateCount", upsertResult.get("updateCount"));
     result.put("insertCount", upsertResult.get("insertCount"));
+    result.put("retriedBatchCount", upsertResult.get("retriedBatchCount"));
+    result.put("failedBatchCount", upsertResult.get("failedBatchCount"));
+    result.put(
+        "status",
+        upsertResult.getOrDefault("failedBatchCount", 0) > 0 ? "partially_failed" : "completed");
+
+    return result;
+  }
+
+  @PostMapping("/test-tvp-upsert")
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = true,
+      includeResult = false,
+      value = "TVP-UPSERT処理")
+  @PerformanceMonitoring(threshold = 10000, operation = "API_TVP_UPSERT")
+  public Map<String, Object> testTvpUpsert(@RequestParam(defaultValue = "6000") int count) {
+    employeeService.truncateEmployeesTable();
+
+    long startTime = System.currentTimeMillis();
+    Map<String, Integer> upsertResult =
+        employeeService.generateAndUpsertRandomEmployeesViaTvp(count);
+    long executionTime = System.currentTimeMillis() - startTime;
+
+    Map<String, Object> result = new HashMap<>();
+    result.put("method", "TVP-based UPSERT");
+    result.put("dataCount", count);
+    result.put("executionTime", executionTime);
+    result.put("updateCount", upsertResult.get("updateCount"));
+    result.put("insertCount", upsertResult.get("insertCount"));
     result.put("status", "completed");
 
     return result;
   }
 
+  @PostMapping("/test-hash-upsert")
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = true,
+      includeResult = false,
+      value = "ハッシュ比較UPSERT処理")
+  @PerformanceMonitoring(threshold = 10000, operation = "API_HASH_UPSERT")
+  public Map<String, Object> testHashUpsert(
+      @RequestParam(defaultValue = "6000") int count,
+      @RequestParam(defaultValue = "0.05") double changeRatio) {
+    employeeService.truncateEmployeesTable();
+
+    long startTime = System.currentTimeMillis();
+    Map<String, Integer> upsertResult =
+        employeeService.generateAndResendRandomEmployeesViaHash(count, changeRatio);
+    long executionTime = System.currentTimeMillis() - startTime;
+
+    Map<String, Object> result = new HashMap<>();
+    result.put("method", "Content hash-based UPSERT (resend)");
+    result.put("dataCount", count);
+    result.put("changeRatio", changeRatio);
+    result.put("executionTime", executionTime);
+    result.put("updateCount", upsertResult.get("updateCount"));
+    result.put("insertCount", upsertResult.get("insertCount"));
+    result.put("unchangedCount", upsertResult.get("unchangedCount"));
+    result.put("retriedBatchCount", upsertResult.get("retriedBatchCount"));
+    result.put("failedBatchCount", upsertResult.get("failedBatchCount"));
+    result.put(
+        "status",
+        upsertResult.getOrDefault("failedBatchCount", 0) > 0 ? "partially_failed" : "completed");
+
+    return result;
+  }
+
+  @PostMapping("/test-pipeline-upsert")
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = true,
+      includeResult = false,
+      value = "パイプラインUPSERT処理")
+  @PerformanceMonitoring(threshold = 10000, operation = "API_PIPELINE_UPSERT")
+  public Map<String, Object> testPipelineUpsert(
+      @RequestParam(defaultValue = "6000") int count,
+      @RequestParam(defaultValue = "merge") String strategy) {
+    employeeService.truncateEmployeesTable();
+
+    long startTime = System.currentTimeMillis();
+    Map<String, Object> upsertResult =
+        employeeService.generateAndUpsertRandomEmployeesPipelined(count, strategy);
+    long executionTime = System.currentTimeMillis() - startTime;
+
+    Map<String, Object> result = new HashMap<>(upsertResult);
+    result.put("method", "Pipelined generate-validate-bind-execute UPSERT (" + strategy + ")");
+    result.put("dataCount", count);
+    result.put("executionTime", executionTime);
+    result.put(
+        "status",
+        ((Integer) upsertResult.getOrDefault("failedBatchCount", 0)) > 0
+            ? "partially_failed"
+            : "completed");
+
+    return result;
+  }
+
   @GetMapping("/test-aop-logging")
   @Loggable(
       level = Loggable.LogLevel.INFO,
@@ -0,0 +1,134 @@
+package com.example123.demo.controller;
+
+import com.example123.demo.aop.Loggable;
+import com.example123.demo.service.ExportJob;
+import com.example123.demo.service.ExportJobService;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 従業員データの非同期エクスポートジョブを操作するコントローラークラス ジョブの投入・進捗確認・キャンセルを提供します
+ *
+ * <p>大量データの出力をリクエストスレッドで実行せず、ジョブIDを返して即座に応答します
+ */
+@RestController
+@RequestMapping("/api/v1/employees/export-jobs")
+public class ExportJobController {
+
+  /** 待ち行列が一杯の場合に再試行を促すまでの秒数 */
+  private static final String RETRY_AFTER_SECONDS = "30";
+
+  private final ExportJobService exportJobService;
+
+  public ExportJobController(ExportJobService exportJobService) {
+    this.exportJobService = exportJobService;
+  }
+
+  /**
+   * CSV出力ジョブを投入します 受け付けた場合は202 Acceptedとジョブの状態を返し、待ち行列が一杯の場合は429を返します
+   *
+   * @param gzip gzip圧縮して出力するかどうか
+   * @return ジョブの状態
+   */
+  @PostMapping
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = true,
+      includeResult = false,
+      value = "エクスポートジョブ投入")
+  public ResponseEntity<Map<String, Object>> submit(
+      @RequestParam(defaultValue = "false") boolean gzip) {
+    ExportJob job;
+    try {
+      job = exportJobService.submit(gzip);
+    } catch (RejectedExecutionException e) {
+      Map<String, Object> response = new LinkedHashMap<>();
+      response.put("status", "queue_full");
+      response.put("message", "実行待ちのエクスポートジョブが上限に達しています しばらくしてから再度実行してください");
+      response.put("timestamp", LocalDateTime.now());
+      return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+          .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+          .body(response);
+    }
+    return ResponseEntity.accepted()
+        .location(URI.create("/api/v1/employees/export-jobs/" + job.getId()))
+        .body(toResponse(job));
+  }
+
+  /**
+   * ジョブの状態と進捗（出力件数・バイト数・スループット・残り時間の見積もり）を返します
+   *
+   * @param jobId ジョブID
+   * @return ジョブの状態（存在しない場合は404）
+   */
+  @GetMapping("/{jobId}")
+  public ResponseEntity<Map<String, Object>> status(@PathVariable String jobId) {
+    return exportJobService
+        .find(jobId)
+        .map(job -> ResponseEntity.ok(toResponse(job)))
+        .orElseGet(() -> notFound(jobId));
+  }
+
+  /**
+   * ジョブのキャンセルを要求します 実行中のジョブは次の書き込みの時点で中断するため、状態の確定はGETで確認します
+   *
+   * @param jobId ジョブID
+   * @return キャンセル要求後のジョブの状態（存在しない場合は404）
+   */
+  @DeleteMapping("/{jobId}")
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = true,
+      includeResult = false,
+      value = "エクスポートジョブキャンセル")
+  public ResponseEntity<Map<String, Object>> cancel(@PathVariable String jobId) {
+    return exportJobService
+        .cancel(jobId)
+        .map(job -> ResponseEntity.accepted().body(toResponse(job)))
+        .orElseGet(() -> notFound(jobId));
+  }
+
+  private static Map<String, Object> toResponse(ExportJob job) {
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("jobId", job.getId());
+    response.put("status", job.getStatus().name());
+    response.put("gzip", job.isGzip());
+    response.put("filePath", job.getFilePath());
+    response.put("totalRows", job.getTotalRows());
+    response.put("rowsWritten", job.getRowsWritten());
+    response.put("bytesWritten", job.getBytesWritten());
+    response.put("rowsPerSecond", Math.round(job.getRowsPerSecond()));
+    response.put("elapsedMillis", job.getElapsed().toMillis());
+    Duration remaining = job.getEstimatedRemaining();
+    response.put("estimatedRemainingMillis", remaining != null ? remaining.toMillis() : null);
+    response.put("cancelRequested", job.isCancelRequested());
+    response.put("submittedAt", job.getSubmittedAt());
+    response.put("finishedAt", job.getFinishedAt());
+    if (job.getErrorMessage() != null) {
+      response.put("errorMessage", job.getErrorMessage());
+    }
+    return response;
+  }
+
+  private static ResponseEntity<Map<String, Object>> notFound(String jobId) {
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("status", "not_found");
+    response.put("message", "指定されたエクスポートジョブが見つかりません: " + jobId);
+    response.put("timestamp", LocalDateTime.now());
+    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+  }
+}
@@ -0,0 +1,143 @@
+package com.example123.demo.pipeline;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * パイプラインの1ステージの計測値 処理件数・処理時間と、ステージの入力キューの滞留数を集計します
+ *
+ * <p>処理時間（busy）はキューの待ち時間を含まない、要素の処理そのものにかかった時間です 稼働率（処理時間 / (実行時間 × 並列数)）が1に近く、
+ * 入力キューが常に満杯に近いステージがパイプライン全体のボトルネックです 並列数が2以上のステージでは、複数のスレッドから同時に記録できます
+ */
+public final class StageMetrics {
+
+  private static final long NOT_STARTED = Long.MIN_VALUE;
+
+  private final String name;
+  private final int workers;
+  private final int inputCapacity;
+  private final LongAdder items = new LongAdder();
+  private final LongAdder busyNanos = new LongAdder();
+  private final LongAdder depthSum = new LongAdder();
+  private final LongAdder depthSamples = new LongAdder();
+  private final AtomicInteger maxDepth = new AtomicInteger();
+  private final AtomicLong startedAt = new AtomicLong(NOT_STARTED);
+  private final AtomicLong finishedAt = new AtomicLong(NOT_STARTED);
+
+  /**
+   * @param name ステージ名
+   * @param workers 同時に要素を処理するスレッド数
+   * @param inputCapacity 入力キューの容量（入力キューのない先頭のステージは0）
+   */
+  public StageMetrics(String name, int workers, int inputCapacity) {
+    this.name = name;
+    this.workers = Math.max(1, workers);
+    this.inputCapacity = inputCapacity;
+  }
+
+  /**
+   * 要素の処理を開始します
+   *
+   * @return 開始時刻（{@link #end} に渡します）
+   */
+  public long begin() {
+    long now = System.nanoTime();
+    startedAt.compareAndSet(NOT_STARTED, now);
+    return now;
+  }
+
+  /**
+   * 要素の処理の終了を記録します
+   *
+   * @param begin {@link #begin} の戻り値
+   * @param count 処理した件数
+   */
+  public void end(long begin, long count) {
+    long now = System.nanoTime();
+    busyNanos.add(now - begin);
+    items.add(count);
+    finishedAt.accumulateAndGet(now, Math::max);
+  }
+
+  /**
+   * 入力キューから取り出す直前の滞留数を記録します
+   *
+   * @param depth キューに滞留している要素数
+   */
+  public void sampleInputDepth(int depth) {
+    depthSum.add(depth);
+    depthSamples.increment();
+    maxDepth.accumulateAndGet(depth, Math::max);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getWorkers() {
+    return workers;
+  }
+
+  public int getInputCapacity() {
+    return inputCapacity;
+  }
+
+  /** 処理した件数 */
+  public long getItems() {
+    return items.sum();
+  }
+
+  /** 要素の処理にかかった時間の合計（ナノ秒 並列数が2以上の場合は全スレッドの合計） */
+  public long getBusyNanos() {
+    return busyNanos.sum();
+  }
+
+  /** 最初の要素の処理を開始してから最後の要素の処理を終えるまでの時間（ナノ秒） */
+  public long getElapsedNanos() {
+    long started = startedAt.get();
+    long finished = finishedAt.get();
+    return started == NOT_STARTED || finished == NOT_STARTED ? 0 : finished - started;
+  }
+
+  /** 実行時間あたりの処理件数（件/秒） */
+  public double getItemsPerSecond() {
+    long elapsed = getElapsedNanos();
+    return elapsed == 0 ? 0 : getItems() * 1_000_000_000.0 / elapsed;
+  }
+
+  /** 稼働率（処理時間 / (実行時間 × 並列数)） キューの待ち時間が長いステージほど小さくなります */
+  public double getUtilization() {
+    long elapsed = getElapsedNanos();
+    return elapsed == 0 ? 0 : Math.min(1.0, (double) getBusyNanos() / elapsed / workers);
+  }
+
+  /** 入力キューの平均の滞留数 */
+  public double getAverageInputDepth() {
+    long samples = depthSamples.sum();
+    return samples == 0 ? 0 : (double) depthSum.sum() / samples;
+  }
+
+  /** 入力キューの最大の滞留数 */
+  public int getMaxInputDepth() {
+    return maxDepth.get();
+  }
+
+  /** APIの応答・ログ用に計測値をMapにまとめます */
+  public Map<String, Object> toMap() {
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("stage", name);
+    map.put("workers", workers);
+    map.put("items", getItems());
+    map.put("elapsedMillis", getElapsedNanos() / 1_000_000);
+    map.put("busyMillis", getBusyNanos() / 1_000_000);
+    map.put("itemsPerSecond", Math.round(getItemsPerSecond()));
+    map.put("utilization", Math.round(getUtilization() * 100) / 100.0);
+    map.put("queueCapacity", inputCapacity);
+    map.put("averageQueueDepth", Math.round(getAverageInputDepth() * 100) / 100.0);
+    map.put("maxQueueDepth", getMaxInputDepth());
+    return map;
+  }
+}
@@ -0,0 +1,98 @@
+package com.example123.demo.pipeline;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 有界キューでつないだ複数のステージを、ステージごとのスレッドで同時に実行するクラス
+ *
+ * <p>各ステージは前段のキューから取り出して処理し、次段のキューへ渡します キューが満杯になると前段が待機するため（バックプレッシャー）、
+ * 速いステージが遅いステージを追い越してデータをメモリにため込むことはありません 全体の処理時間は各ステージの処理時間の合計ではなく、 最も遅いステージの処理時間に近づきます
+ *
+ * <p>ステージのループはキューの待機でブロックする時間が長いため、共有スレッドプールのスレッドを占有しないよう、実行ごとに仮想スレッドで起動します
+ * いずれかのステージが例外で終了した場合は、キューで待機している他のステージに割り込んで終了させ、最初の例外を原因とする例外を送出します
+ */
+public final class StagedPipeline {
+
+  private static final Logger log = LoggerFactory.getLogger(StagedPipeline.class);
+
+  /** パイプラインの1ステージの処理 キューの待機中に割り込まれた場合はInterruptedExceptionで終了します */
+  @FunctionalInterface
+  public interface Stage {
+    void run() throws Exception;
+  }
+
+  private final String name;
+  private final Map<String, Stage> stages = new LinkedHashMap<>();
+
+  /**
+   * @param name パイプライン名（スレッド名とログに使用）
+   */
+  public StagedPipeline(String name) {
+    this.name = name;
+  }
+
+  /**
+   * ステージを追加します
+   *
+   * @param stageName ステージ名（パイプライン内で一意）
+   * @param stage ステージの処理
+   * @return このパイプライン
+   */
+  public StagedPipeline stage(String stageName, Stage stage) {
+    if (stages.putIfAbsent(stageName, stage) != null) {
+      throw new IllegalArgumentException("ステージ名が重複しています: " + stageName);
+    }
+    return this;
+  }
+
+  /**
+   * すべてのステージを起動し、すべてのステージが終了するまで待機します
+   *
+   * @throws IllegalStateException いずれかのステージが例外で終了した場合、または待機中に割り込まれた場合
+   */
+  public void run() {
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> threads = new ArrayList<>(stages.size());
+    stages.forEach(
+        (stageName, stage) ->
+            threads.add(
+                Thread.ofVirtual()
+                    .name(name + "-" + stageName)
+                    .unstarted(() -> runStage(stageName, stage, failure, threads))));
+    threads.forEach(Thread::start);
+
+    try {
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    } catch (InterruptedException e) {
+      threads.forEach(Thread::interrupt);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(name + "の待機中に割り込まれました", e);
+    }
+
+    Throwable cause = failure.get();
+    if (cause != null) {
+      throw new IllegalStateException(name + "のステージでエラーが発生しました", cause);
+    }
+  }
+
+  private void runStage(
+      String stageName, Stage stage, AtomicReference<Throwable> failure, List<Thread> threads) {
+    try {
+      stage.run();
+    } catch (Throwable e) {
+      // 2つ目以降の例外は、最初の例外で割り込まれたステージの終了のため記録しない
+      if (failure.compareAndSet(null, e)) {
+        log.error("Stage {} of {} failed, cancelling the other stages", stageName, name, e);
+        threads.stream().filter(t -> t != Thread.currentThread()).forEach(Thread::interrupt);
+      }
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.example123.demo.repository;
+
+import com.example123.demo.domain.Employee;
+import com.microsoft.sqlserver.jdbc.SQLServerDataTable;
+import com.microsoft.sqlserver.jdbc.SQLServerException;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 従業員情報のリストからテーブル値パラメーター（TVP）用の {@link SQLServerDataTable} を組み立てるビルダー
+ *
+ * <p>列の順序と型はユーザー定義テーブル型 {@value #TYPE_NAME}（schema.sql）と一致させる必要があります
+ */
+public final class EmployeeDataTableBuilder {
+
+  /** ユーザー定義テーブル型の名前 */
+  public static final String TYPE_NAME = "dbo.EmployeeTableType";
+
+  private EmployeeDataTableBuilder() {}
+
+  /**
+   * 従業員情報のリストをTVPとして送信できる形式へ変換します
+   *
+   * @param employees 変換する従業員情報のリスト
+   * @return テーブル値パラメーター
+   * @throws SQLServerException 列定義または行の追加に失敗した場合
+   */
+  public static SQLServerDataTable build(List<Employee> employees) throws SQLServerException {
+    SQLServerDataTable table = new SQLServerDataTable();
+    table.setTvpName(TYPE_NAME);
+    table.addColumnMetadata("id", Types.VARCHAR);
+    table.addColumnMetadata("name", Types.VARCHAR);
+    table.addColumnMetadata("department", Types.VARCHAR);
+    table.addColumnMetadata("position", Types.VARCHAR);
+    table.addColumnMetadata("employment_status", Types.VARCHAR);
+    table.addColumnMetadata("hire_date", Types.DATE);
+    table.addColumnMetadata("phone_number", Types.VARCHAR);
+    table.addColumnMetadata("email", Types.VARCHAR);
+    table.addColumnMetadata("birth_date", Types.DATE);
+    table.addColumnMetadata("gender", Types.VARCHAR);
+    table.addColumnMetadata("created_by", Types.VARCHAR);
+    table.addColumnMetadata("created_at", Types.TIMESTAMP);
+    table.addColumnMetadata("updated_by", Types.VARCHAR);
+    table.addColumnMetadata("updated_at", Types.TIMESTAMP);
+    table.addColumnMetadata("version", Types.BIGINT);
+
+    for (Employee e : employees) {
+      table.addRow(
+          e.getId(),
+          e.getName(),
+          e.getDepartment(),
+          e.getPosition(),
+          e.getEmployment_status(),
+          toDate(e.getHire_date()),
+          e.getPhone_number(),
+          e.getEmail(),
+          toDate(e.getBirth_date()),
+          e.getGender(),
+          e.getCreated_by(),
+          toTimestamp(e.getCreated_at()),
+          e.getUpdated_by(),
+          toTimestamp(e.getUpdated_at()),
+          e.getVersion());
+    }
+    return table;
+  }
+
+  private static Date toDate(LocalDate date) {
+    return date != null ? Date.valueOf(date) : null;
+  }
+
+  private static Timestamp toTimestamp(LocalDateTime dateTime) {
+    return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+  }
+}
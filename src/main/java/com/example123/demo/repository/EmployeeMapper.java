@@ -1,8 +1,11 @@
 package com.example123.demo.repository;
 
 import com.example123.demo.domain.Employee;
+import java.time.LocalDateTime;
 import java.util.List;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 /** 従業員情報のデータベース操作を行うマッパーインターフェース MyBatisを使用してSQLとJavaオブジェクトのマッピングを行います */
 @Mapper
@@ -17,6 +20,13 @@ public interface EmployeeMapper {
    */
   void bulkInsert(List<Employee> employees);
 
+  /**
+   * 従業員情報を1件挿入します SQL文が件数によらず同一のため、ExecutorType.BATCHのSqlSessionから呼び出すとJDBCバッチとしてまとめて送信されます
+   *
+   * @param employee 登録する従業員情報
+   */
+  void insert(Employee employee);
+
   /**
    * 従業員情報を一括でUPSERT（更新または挿入）します MERGE文を使用して効率的な一括処理を行います
    *
@@ -26,6 +36,23 @@ public interface EmployeeMapper {
    */
   void bulkUpsert(List<Employee> employees);
 
+  /**
+   * 従業員情報を一括でUPSERT（更新または挿入）します H2用のMERGE文（MERGE INTO ... USING）で1文にまとめて処理します
+   *
+   * <p>- 既存レコードの場合：バージョンを増分して更新 - 新規レコードの場合：新しいレコードとして挿入
+   *
+   * @param employees UPSERT対象の従業員情報のリスト
+   */
+  void bulkUpsertForH2(List<Employee> employees);
+
+  /**
+   * 指定した従業員のうち、既に登録されている件数を取得します MERGE方式のUPSERTで更新件数を求めるために使用します
+   *
+   * @param employees 確認する従業員情報のリスト（1件以上）
+   * @return 登録済みの件数
+   */
+  int countExisting(List<Employee> employees);
+
   /**
    * 従業員情報を一括でUPSERT（更新または挿入）します 一時テーブルを使用して効率的な一括処理を行います
    *
@@ -35,4 +62,61 @@ public interface EmployeeMapper {
    * @return 処理件数を含むMap（updateCount: 更新件数, insertCount: 挿入件数）
    */
   java.util.Map<String, Integer> bulkUpsertViaTempTable(List<Employee> employees);
+
+  /**
+   * 内容ハッシュが登録済みの値と異なる従業員情報だけを、一時テーブルを使用して一括UPSERTします SQL Server専用です
+   *
+   * <p>- 内容が変わった既存レコードの場合：バージョンを増分して更新 - 内容が変わらない既存レコードの場合：更新しない - 新規レコードの場合：新しいレコードとして挿入
+   *
+   * @param rows UPSERT対象の従業員情報と内容ハッシュの組のリスト
+   * @return 処理件数を含むMap（updateCount: 更新件数, insertCount: 挿入件数, unchangedCount: 内容が変わらず更新しなかった件数）
+   */
+  java.util.Map<String, Integer> bulkUpsertViaTempTableWithHash(List<HashedEmployee> rows);
+
+  /**
+   * 内容ハッシュが登録済みの値と異なる従業員情報だけを、H2用のMERGE文で一括UPSERTします
+   *
+   * @param rows UPSERT対象の従業員情報と内容ハッシュの組のリスト
+   * @return 更新件数と挿入件数の合計（内容が変わらず更新しなかった行は含まない）
+   */
+  int bulkUpsertWithHashForH2(List<HashedEmployee> rows);
+
+  /**
+   * 従業員情報をテーブル値パラメーター（TVP）で一括UPSERTします 1バッチ分の行を1つのパラメーターとしてストアドプロシージャへ渡すため、
+   * バッチごとに1回のRPCで処理され、SQL文も固定のため実行プランが再利用されます SQL Server専用です
+   *
+   * <p>- 既存レコードの場合：バージョンを増分して更新 - 新規レコードの場合：新しいレコードとして挿入
+   *
+   * @param employees UPSERT対象の従業員情報のリスト（IDの重複がないこと）
+   * @return 処理件数を含むMap（updateCount: 更新件数, insertCount: 挿入件数）
+   */
+  java.util.Map<String, Integer> bulkUpsertViaTvp(@Param("employees") List<Employee> employees);
+
+  /**
+   * 従業員テーブルの全レコードをID順にカーソルで取得します 全件をメモリに展開せず、フェッチサイズ単位で逐次読み込みます
+   *
+   * <p>カーソルはトランザクション（SqlSession）が有効な間のみ読み込み可能です
+   *
+   * @return 従業員情報のカーソル
+   */
+  Cursor<Employee> selectAllAsCursor();
+
+  /**
+   * 従業員テーブルの件数を取得します 非同期エクスポートジョブの残り時間の見積もりに使用します
+   *
+   * @return 従業員テーブルの件数
+   */
+  long countAll();
+
+  /**
+   * 指定位置より後に更新された従業員レコードを (updated_at, id) 順にカーソルで取得します 差分出力で使用します
+   *
+   * <p>(updated_at, id) のキーセット条件で範囲検索するため、変更行が少なければ全件走査を行わずに取得できます updatedAtがnullの場合は全件を取得します
+   *
+   * @param updatedAt 前回出力した最後の行のupdated_at（null可）
+   * @param id 前回出力した最後の行のid
+   * @return 従業員情報のカーソル
+   */
+  Cursor<Employee> selectChangedSinceAsCursor(
+      @Param("updatedAt") LocalDateTime updatedAt, @Param("id") String id);
 }
@@ -0,0 +1,43 @@
+package com.example123.demo.repository;
+
+import com.example123.demo.domain.Employee;
+import com.microsoft.sqlserver.jdbc.ISQLServerPreparedStatement;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * 従業員情報のリストをテーブル値パラメーター（{@value EmployeeDataTableBuilder#TYPE_NAME}）としてバインドするタイプハンドラー SQL
+ * Server専用の入力パラメーターとして使用します
+ */
+public class EmployeeTableTypeHandler extends BaseTypeHandler<List<Employee>> {
+
+  @Override
+  public void setNonNullParameter(
+      PreparedStatement ps, int i, List<Employee> parameter, JdbcType jdbcType)
+      throws SQLException {
+    // コネクションプールのラッパーを外してドライバーのステートメントへTVPを設定する
+    ps.unwrap(ISQLServerPreparedStatement.class)
+        .setStructured(
+            i, EmployeeDataTableBuilder.TYPE_NAME, EmployeeDataTableBuilder.build(parameter));
+  }
+
+  @Override
+  public List<Employee> getNullableResult(ResultSet rs, String columnName) {
+    throw new UnsupportedOperationException("テーブル値パラメーターは入力専用です");
+  }
+
+  @Override
+  public List<Employee> getNullableResult(ResultSet rs, int columnIndex) {
+    throw new UnsupportedOperationException("テーブル値パラメーターは入力専用です");
+  }
+
+  @Override
+  public List<Employee> getNullableResult(CallableStatement cs, int columnIndex) {
+    throw new UnsupportedOperationException("テーブル値パラメーターは入力専用です");
+  }
+}
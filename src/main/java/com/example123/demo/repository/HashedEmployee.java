@@ -0,0 +1,103 @@
+package com.example123.demo.repository;
+
+import com.example123.demo.domain.Employee;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 従業員情報と、その業務項目から求めた内容ハッシュの組 ハッシュ比較方式のUPSERTのパラメーターとして使用します
+ *
+ * <p>内容ハッシュは氏名・部署・役職・雇用形態・入社日・電話番号・メールアドレス・生年月日・性別から求めるSHA-256です 登録者・更新者・日時・バージョンは送信のたびに変わるため含めません
+ * 登録済みの行の {@code row_hash} と一致する行は内容が変わっていないとみなし、 更新しません
+ */
+public final class HashedEmployee {
+
+  /** 内容ハッシュのバイト数（SHA-256） */
+  public static final int HASH_LENGTH = 32;
+
+  private final Employee employee;
+  private final byte[] rowHash;
+
+  private HashedEmployee(Employee employee, byte[] rowHash) {
+    this.employee = employee;
+    this.rowHash = rowHash;
+  }
+
+  /**
+   * 従業員情報の内容ハッシュを求めて組にします
+   *
+   * @param employee 従業員情報
+   * @return 従業員情報と内容ハッシュの組
+   */
+  public static HashedEmployee of(Employee employee) {
+    return new HashedEmployee(employee, contentHash(employee));
+  }
+
+  /**
+   * 従業員情報のリストの各要素の内容ハッシュを求めます
+   *
+   * @param employees 従業員情報のリスト
+   * @return 従業員情報と内容ハッシュの組のリスト（入力と同じ順序）
+   */
+  public static List<HashedEmployee> of(List<Employee> employees) {
+    List<HashedEmployee> rows = new ArrayList<>(employees.size());
+    for (Employee employee : employees) {
+      rows.add(of(employee));
+    }
+    return rows;
+  }
+
+  /**
+   * 従業員情報の業務項目から内容ハッシュを求めます
+   *
+   * <p>項目ごとにnullかどうかと長さを含めてハッシュするため、項目の境界をまたいで値がずれた場合やnullと空文字の違いも別のハッシュになります
+   *
+   * @param employee 従業員情報
+   * @return SHA-256の内容ハッシュ（{@value #HASH_LENGTH}バイト）
+   */
+  public static byte[] contentHash(Employee employee) {
+    MessageDigest digest = newDigest();
+    update(digest, employee.getName());
+    update(digest, employee.getDepartment());
+    update(digest, employee.getPosition());
+    update(digest, employee.getEmployment_status());
+    update(digest, employee.getHire_date());
+    update(digest, employee.getPhone_number());
+    update(digest, employee.getEmail());
+    update(digest, employee.getBirth_date());
+    update(digest, employee.getGender());
+    return digest.digest();
+  }
+
+  public Employee getEmployee() {
+    return employee;
+  }
+
+  public byte[] getRowHash() {
+    return rowHash;
+  }
+
+  private static void update(MessageDigest digest, Object value) {
+    if (value == null) {
+      digest.update((byte) 0);
+      return;
+    }
+    byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+    digest.update((byte) 1);
+    digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+    digest.update(bytes);
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // SHA-256はすべてのJava実行環境で提供が必須のアルゴリズム
+      throw new IllegalStateException("SHA-256が利用できません", e);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.example123.demo.service;
+
+import com.example123.demo.aop.Loggable;
+import com.example123.demo.aop.PerformanceMonitoring;
+import com.example123.demo.columnar.EmployeeColumnarWriter;
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 従業員データを列形式ファイルへ出力するサービスクラス 行グループ単位で列ごとに辞書符号化・ランレングス符号化して格納するため、
+ * CSVより大幅に小さく、分析処理では必要な列だけを読み込めます（読み込みは {@link com.example123.demo.columnar.EmployeeColumnarReader}
+ * を使用）
+ */
+@Service
+public class ColumnarExportService {
+
+  private static final Logger log = LoggerFactory.getLogger(ColumnarExportService.class);
+
+  /** ファイル書き込みのバッファサイズ（バイト） */
+  private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
+  private final EmployeeMapper employeeMapper;
+
+  public ColumnarExportService(EmployeeMapper employeeMapper) {
+    this.employeeMapper = employeeMapper;
+  }
+
+  /**
+   * 従業員情報を列形式ファイルに出力します
+   *
+   * @param employees 出力する従業員情報のリスト
+   * @param filePath 出力先のファイルパス
+   */
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "列形式出力処理")
+  @PerformanceMonitoring(threshold = 5000, operation = "COLUMNAR_EXPORT")
+  public void writeToColumnar(List<Employee> employees, String filePath) {
+    try (EmployeeColumnarWriter writer = openWriter(filePath)) {
+      for (Employee employee : employees) {
+        writer.write(employee);
+      }
+    } catch (IOException e) {
+      log.error("Error writing to columnar file", e);
+      throw new RuntimeException("列形式出力処理でエラーが発生しました", e);
+    }
+  }
+
+  /**
+   * 従業員テーブルの全データを列形式ファイルに出力します（カーソルストリーミング処理） メモリ上に保持するのは1行グループ分のみです
+   *
+   * @param filePath 出力先のファイルパス
+   * @return 出力した従業員データの件数
+   */
+  @Transactional(readOnly = true)
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "列形式出力処理（カーソルストリーミング）")
+  @PerformanceMonitoring(threshold = 5000, operation = "COLUMNAR_EXPORT_CURSOR_STREAMING")
+  public long writeToColumnarFromDatabase(String filePath) {
+    long rowCount;
+    try (Cursor<Employee> cursor = employeeMapper.selectAllAsCursor();
+        EmployeeColumnarWriter writer = openWriter(filePath)) {
+      for (Employee employee : cursor) {
+        writer.write(employee);
+      }
+      rowCount = writer.getRowCount();
+    } catch (IOException e) {
+      log.error("Error writing to columnar file in cursor streaming mode", e);
+      throw new RuntimeException("列形式出力処理でエラーが発生しました", e);
+    }
+    log.info("カーソルストリーミング列形式出力完了: 出力件数={}", rowCount);
+    return rowCount;
+  }
+
+  private static EmployeeColumnarWriter openWriter(String filePath) throws IOException {
+    return new EmployeeColumnarWriter(
+        new BufferedOutputStream(new FileOutputStream(filePath), WRITE_BUFFER_SIZE));
+  }
+}
@@ -2,22 +2,38 @@ package com.example123.demo.service;
 
 import com.example123.demo.aop.Loggable;
 import com.example123.demo.aop.PerformanceMonitoring;
+import com.example123.demo.config.ExecutorConfig;
 import com.example123.demo.domain.Employee;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import com.example123.demo.repository.EmployeeMapper;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.BiFunction;
+import java.util.function.LongConsumer;
+import org.apache.ibatis.cursor.Cursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /** 従業員データのCSV出力機能を提供するサービスクラス シングルスレッド処理とマルチスレッド処理の両方をサポートします */
 @Service
@@ -25,8 +41,60 @@ public class CsvExportService {
 
   private static final Logger log = LoggerFactory.getLogger(CsvExportService.class);
 
-  /** バッチ処理のサイズ CSVエクスポート時のパフォーマンス最適化のために使用 */
-  private static final int BATCH_SIZE = 100;
+  /** CSVヘッダー行（全カラム） */
+  static final String CSV_HEADER =
+      "ID,Name,Department,Position,EmploymentStatus,HireDate,PhoneNumber,Email,BirthDate,Gender,"
+          + "CreatedBy,CreatedAt,UpdatedBy,UpdatedAt,Version\n";
+
+  /** 逐次出力時にエンコード済みデータをファイルへ書き出す閾値（バイト） 小さな書き込みをまとめてディスクI/O回数を抑えます */
+  private static final int FLUSH_THRESHOLD_BYTES = 64 * 1024;
+
+  /** 順序保証並列出力で使用するダイレクトバッファの初期容量（バイト） 不足した場合はより大きなバッファに置き換えられます */
+  private static final int ENCODE_BUFFER_CAPACITY = 512 * 1024;
+
+  /** ワーカースレッドごとのCSVエンコーダー バッファを使い回し、バッチごとの確保を避けます */
+  private static final ThreadLocal<EmployeeCsvEncoder> ENCODERS =
+      ThreadLocal.withInitial(EmployeeCsvEncoder::new);
+
+  private final EmployeeMapper employeeMapper;
+
+  /** CSVのエンコード・圧縮を行う共有スレッドプール */
+  private final ExecutorService cpuExecutor;
+
+  /** マルチスレッド出力で1タスクが担当する行数 */
+  private final int batchSize;
+
+  /** 順序保証並列出力・並列gzip出力で1タスクが担当する行数 */
+  private final int orderedBatchSize;
+
+  /**
+   * @param batchSize マルチスレッド出力で1タスクが担当する行数（1以上）
+   * @param orderedBatchSize 順序保証並列出力・並列gzip出力で1タスクが担当する行数（1以上）
+   */
+  public CsvExportService(
+      EmployeeMapper employeeMapper,
+      @Qualifier(ExecutorConfig.CPU_EXECUTOR) ExecutorService cpuExecutor,
+      @Value("${csv.export.batch-size:100}") int batchSize,
+      @Value("${csv.export.ordered-batch-size:1000}") int orderedBatchSize) {
+    this.employeeMapper = employeeMapper;
+    this.cpuExecutor = cpuExecutor;
+    this.batchSize = requirePositive(batchSize);
+    this.orderedBatchSize = requirePositive(orderedBatchSize);
+  }
+
+  private static int requirePositive(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("バッチサイズは1以上を指定してください: " + size);
+    }
+    return size;
+  }
+
+  /** 共有スレッドプールのスレッド数（順序保証並列出力で先行してエンコードするバッチ数の算出に使用） */
+  private int parallelism() {
+    return cpuExecutor instanceof ThreadPoolExecutor pool
+        ? pool.getMaximumPoolSize()
+        : Runtime.getRuntime().availableProcessors();
+  }
 
   /**
    * 従業員情報をCSVファイルに出力します（シングルスレッド処理） 全データを1つのスレッドで逐次的に処理します 出力されるCSVには全カラムの情報が含まれます
@@ -41,32 +109,17 @@ public class CsvExportService {
       value = "CSV出力処理（シングルスレッド）")
   @PerformanceMonitoring(threshold = 5000, operation = "CSV_EXPORT_SINGLE_THREAD")
   public void writeToCsvSingleThread(List<Employee> employees, String filePath) {
-    try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-      writer.write(
-          """
-                ID,Name,Department,Position,EmploymentStatus,HireDate,PhoneNumber,Email,BirthDate,Gender,CreatedBy,CreatedAt,UpdatedBy,UpdatedAt,Version
-                """);
+    EmployeeCsvEncoder encoder = new EmployeeCsvEncoder(FLUSH_THRESHOLD_BYTES * 2);
+    try (OutputStream out = new FileOutputStream(filePath)) {
+      encoder.writeAscii(CSV_HEADER);
 
       for (Employee employee : employees) {
-        writer.write(
-            String.format(
-                "%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%d\n",
-                employee.getId(),
-                employee.getName(),
-                employee.getDepartment(),
-                employee.getPosition(),
-                employee.getEmployment_status(),
-                employee.getHire_date() != null ? employee.getHire_date().toString() : "",
-                employee.getPhone_number(),
-                employee.getEmail(),
-                employee.getBirth_date() != null ? employee.getBirth_date().toString() : "",
-                employee.getGender(),
-                employee.getCreated_by(),
-                employee.getCreated_at() != null ? employee.getCreated_at().toString() : "",
-                employee.getUpdated_by(),
-                employee.getUpdated_at() != null ? employee.getUpdated_at().toString() : "",
-                employee.getVersion()));
+        encoder.encode(employee);
+        if (encoder.size() >= FLUSH_THRESHOLD_BYTES) {
+          encoder.writeTo(out);
+        }
       }
+      encoder.writeTo(out);
     } catch (IOException e) {
       log.error("Error writing to CSV file in single-thread mode", e);
       throw new RuntimeException("CSV出力処理でエラーが発生しました", e);
@@ -74,8 +127,7 @@ public class CsvExportService {
   }
 
   /**
-   * 従業員情報をCSVファイルに出力します（マルチスレッド処理） 利用可能なプロセッサ数に基づいてスレッドプールを作成し、 データを分割して並列で処理します
-   * 出力されるCSVには全カラムの情報が含まれます
+   * 従業員情報をCSVファイルに出力します（マルチスレッド処理） データを分割し、CPU処理用の共有スレッドプールで並列に処理します 出力されるCSVには全カラムの情報が含まれます
    *
    * @param employees 出力する従業員情報のリスト
    * @param filePath 出力先のCSVファイルパス
@@ -87,63 +139,279 @@ public class CsvExportService {
       value = "CSV出力処理（マルチスレッド）")
   @PerformanceMonitoring(threshold = 5000, operation = "CSV_EXPORT_MULTI_THREAD")
   public void writeToCsv(List<Employee> employees, String filePath) {
-    int numThreads = Runtime.getRuntime().availableProcessors();
-    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    List<List<Employee>> batches = new ArrayList<>();
+    for (int i = 0; i < employees.size(); i += batchSize) {
+      batches.add(employees.subList(i, Math.min(i + batchSize, employees.size())));
+    }
 
-    try {
-      List<List<Employee>> batches = new ArrayList<>();
-      for (int i = 0; i < employees.size(); i += BATCH_SIZE) {
-        batches.add(employees.subList(i, Math.min(i + BATCH_SIZE, employees.size())));
+    List<Future<byte[]>> futures = new ArrayList<>();
+    for (List<Employee> batch : batches) {
+      futures.add(cpuExecutor.submit(new CsvGeneratorTask(batch)));
+    }
+
+    List<byte[]> results = new ArrayList<>();
+    for (Future<byte[]> future : futures) {
+      try {
+        results.add(future.get());
+      } catch (ExecutionException e) {
+        log.error("Error getting result from a CSV generator task", e);
+      } catch (InterruptedException e) {
+        // 共有プールに残っている未完了のタスクを取り消す
+        futures.forEach(f -> f.cancel(true));
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("CSV出力処理が中断されました", e);
       }
+    }
 
-      List<Future<String>> futures = new ArrayList<>();
-      for (List<Employee> batch : batches) {
-        futures.add(executor.submit(new CsvGeneratorTask(batch)));
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(filePath))) {
+      out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+      for (byte[] result : results) {
+        out.write(result);
       }
+    } catch (IOException e) {
+      log.error("Error writing to CSV file in multi-thread mode", e);
+      throw new RuntimeException("CSV出力処理でエラーが発生しました", e);
+    }
+  }
 
-      List<String> results = new ArrayList<>();
-      for (Future<String> future : futures) {
-        try {
-          results.add(future.get());
-        } catch (ExecutionException | InterruptedException e) {
-          log.error("Error getting result from a CSV generator task", e);
-          if (e instanceof InterruptedException) {
-            Thread.currentThread().interrupt();
-          }
-        }
+  /**
+   * 従業員情報をCSVファイルに出力します（順序保証付きマルチスレッド処理） 各ワーカーがバッチをプール済みのダイレクトバッファへエンコードし、
+   * 書き込みスレッドがバッチ順にFileChannelの書き込み位置を進めながら出力します
+   *
+   * <p>先行してエンコードできるバッチ数をスレッド数の2倍に制限しているため、全件分の文字列を保持することなく、 メモリ使用量は「ウィンドウ数 × バッファ容量」に収まります
+   *
+   * @param employees 出力する従業員情報のリスト
+   * @param filePath 出力先のCSVファイルパス
+   */
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "CSV出力処理（順序保証マルチスレッド）")
+  @PerformanceMonitoring(threshold = 5000, operation = "CSV_EXPORT_ORDERED_MULTI_THREAD")
+  public void writeToCsvOrdered(List<Employee> employees, String filePath) {
+    writeBatchesInOrder(
+        employees,
+        filePath,
+        ByteBuffer.wrap(CSV_HEADER.getBytes(StandardCharsets.UTF_8)),
+        ByteBufferEncodeTask::new);
+  }
+
+  /**
+   * 従業員情報をgzip圧縮したCSVファイル（.csv.gz）に出力します（並列ブロック圧縮） 各ワーカーが担当バッチを独立したgzipメンバーへ圧縮し、
+   * バッチ順に連結して出力します（pigzと同じ方式）
+   *
+   * <p>連結されたgzipメンバーは標準のgunzipで1つのCSVとして展開できます バッチの分割と順序保証の仕組みは順序保証付きマルチスレッド出力と共通です
+   *
+   * @param employees 出力する従業員情報のリスト
+   * @param filePath 出力先のファイルパス（通常は .csv.gz）
+   */
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "CSV出力処理（並列gzip圧縮）")
+  @PerformanceMonitoring(threshold = 5000, operation = "CSV_EXPORT_PARALLEL_GZIP")
+  public void writeToCsvGzip(List<Employee> employees, String filePath) {
+    byte[] header = CSV_HEADER.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer headerMember = ByteBuffer.allocate(GzipMemberEncoder.maxMemberSize(header.length));
+    new GzipMemberEncoder().writeMember(header, header.length, headerMember);
+    headerMember.flip();
+
+    writeBatchesInOrder(employees, filePath, headerMember, GzipEncodeTask::new);
+  }
+
+  /**
+   * バッチごとのエンコードを並列に実行し、結果をバッチ順にFileChannelへ書き込みます
+   *
+   * <p>先行してエンコードできるバッチ数をスレッド数の2倍に制限しているため、メモリ使用量は「ウィンドウ数 × バッファ容量」に収まります
+   *
+   * @param employees 出力する従業員情報のリスト
+   * @param filePath 出力先のファイルパス
+   * @param header 先頭に書き込むヘッダー（読み取り可能な状態のバッファ）
+   * @param taskFactory バッチとバッファプールからエンコードタスクを生成する関数
+   */
+  private void writeBatchesInOrder(
+      List<Employee> employees,
+      String filePath,
+      ByteBuffer header,
+      BiFunction<List<Employee>, DirectBufferPool, Callable<ByteBuffer>> taskFactory) {
+    int window = parallelism() * 2;
+    int batchSize = orderedBatchSize;
+    int batchCount = (employees.size() + batchSize - 1) / batchSize;
+    DirectBufferPool bufferPool = new DirectBufferPool(window, ENCODE_BUFFER_CAPACITY);
+    // 順序再構成用のリング：先頭のバッチが完了するまで待ち、書き込んだ分だけ次のバッチを投入する
+    ArrayDeque<Future<ByteBuffer>> inFlight = new ArrayDeque<>(window);
+
+    try (FileChannel channel =
+        FileChannel.open(
+            Path.of(filePath),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      long position = writeFully(channel, header, 0);
+
+      int nextBatch = 0;
+      while (nextBatch < batchCount && inFlight.size() < window) {
+        inFlight.add(
+            cpuExecutor.submit(
+                taskFactory.apply(batchOf(employees, nextBatch++, batchSize), bufferPool)));
       }
 
-      try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-        writer.write(
-            """
-                ID,Name,Department,Position,EmploymentStatus,HireDate,PhoneNumber,Email,BirthDate,Gender,CreatedBy,CreatedAt,UpdatedBy,UpdatedAt,Version
-                """);
-        for (String result : results) {
-          writer.write(result);
+      while (!inFlight.isEmpty()) {
+        ByteBuffer encoded = inFlight.poll().get();
+        try {
+          position = writeFully(channel, encoded, position);
+        } finally {
+          bufferPool.release(encoded);
+        }
+        if (nextBatch < batchCount) {
+          inFlight.add(
+              cpuExecutor.submit(
+                  taskFactory.apply(batchOf(employees, nextBatch++, batchSize), bufferPool)));
         }
-      } catch (IOException e) {
-        log.error("Error writing to CSV file in multi-thread mode", e);
-        throw new RuntimeException("CSV出力処理でエラーが発生しました", e);
       }
-
+    } catch (IOException e) {
+      log.error("Error writing to CSV file in ordered batch mode", e);
+      throw new RuntimeException("CSV出力処理でエラーが発生しました", e);
+    } catch (ExecutionException e) {
+      // バッチを欠落させると出力順序と件数が壊れるため、失敗時は出力全体をエラーとする
+      log.error("Error encoding a CSV batch in ordered batch mode", e.getCause());
+      throw new RuntimeException("CSV出力処理でエラーが発生しました", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("CSV出力処理が中断されました", e);
     } finally {
-      executor.shutdown();
-      try {
-        if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
-          log.warn("Executor did not terminate in the specified time.");
-          List<Runnable> droppedTasks = executor.shutdownNow();
-          log.warn("Executor was abruptly shut down. {} tasks were dropped.", droppedTasks.size());
+      // 失敗・中断した場合に、共有プールに残っている先行バッチを取り消す
+      for (Future<ByteBuffer> future : inFlight) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  private static List<Employee> batchOf(List<Employee> employees, int batchIndex, int batchSize) {
+    int from = batchIndex * batchSize;
+    return employees.subList(from, Math.min(from + batchSize, employees.size()));
+  }
+
+  /**
+   * バッファの残り全てを指定位置からチャネルへ書き込みます
+   *
+   * @return 書き込み後の次の書き込み位置
+   */
+  private static long writeFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+    return position;
+  }
+
+  /**
+   * 従業員テーブルの全データをCSVファイルに出力します（カーソルストリーミング処理） MyBatisのカーソルで1件ずつ読み込みながら書き込むため、
+   * 件数に関わらずメモリ使用量は一定で、読み込み完了を待たずに出力が開始されます
+   *
+   * <p>カーソルの読み込み中はSqlSessionを維持する必要があるため、読み取り専用トランザクション内で実行します
+   *
+   * @param filePath 出力先のCSVファイルパス
+   * @return 出力した従業員データの件数
+   */
+  @Transactional(readOnly = true)
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "CSV出力処理（カーソルストリーミング）")
+  @PerformanceMonitoring(threshold = 5000, operation = "CSV_EXPORT_CURSOR_STREAMING")
+  public long writeToCsvFromDatabase(String filePath) {
+    long rowCount;
+    try (OutputStream out = new FileOutputStream(filePath)) {
+      rowCount = streamCursorToCsv(out, rows -> {});
+    } catch (IOException e) {
+      log.error("Error writing to CSV file in cursor streaming mode", e);
+      throw new RuntimeException("CSV出力処理でエラーが発生しました", e);
+    }
+    log.info("カーソルストリーミングCSV出力完了: 出力件数={}", rowCount);
+    return rowCount;
+  }
+
+  /**
+   * 従業員テーブルの全データをCSVとして出力ストリームへ書き込みます（カーソルストリーミング処理） HTTPレスポンスなど、ファイル以外への出力に使用します
+   *
+   * <p>書き込みは一定サイズごとに行われ、書き込み先が詰まっている間は読み込みも停止するため、 受信側が遅い場合でもメモリ使用量は増加しません ストリームのクローズは呼び出し側で行います
+   *
+   * @param out 書き込み先のストリーム
+   * @return 出力した従業員データの件数
+   * @throws IOException 書き込みに失敗した場合（クライアント切断を含む）
+   */
+  @Transactional(readOnly = true)
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "CSVストリーム出力処理（カーソルストリーミング）")
+  @PerformanceMonitoring(threshold = 5000, operation = "CSV_STREAM_CURSOR_STREAMING")
+  public long writeCsvFromDatabase(OutputStream out) throws IOException {
+    long rowCount = streamCursorToCsv(out, rows -> {});
+    out.flush();
+    log.info("カーソルストリーミングCSVストリーム出力完了: 出力件数={}", rowCount);
+    return rowCount;
+  }
+
+  /**
+   * 従業員テーブルの全データをCSVとして出力ストリームへ書き込み、書き込みごとに出力済みの件数を通知します（カーソルストリーミング処理） 非同期エクスポートジョブの進捗表示に使用します
+   *
+   * <p>実行中のスレッドが割り込まれた場合は、次の書き込みの時点で {@link InterruptedIOException} を送出して中断します
+   * ストリームのクローズは呼び出し側で行います
+   *
+   * @param out 書き込み先のストリーム
+   * @param progress 出力済みの件数を受け取る処理（書き込みのたびに呼び出されます）
+   * @return 出力した従業員データの件数
+   * @throws IOException 書き込みに失敗した場合、または中断された場合
+   */
+  @Transactional(readOnly = true)
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "CSVストリーム出力処理（進捗通知付きカーソルストリーミング）")
+  @PerformanceMonitoring(threshold = 5000, operation = "CSV_STREAM_CURSOR_STREAMING_PROGRESS")
+  public long writeCsvFromDatabase(OutputStream out, LongConsumer progress) throws IOException {
+    long rowCount = streamCursorToCsv(out, progress);
+    out.flush();
+    progress.accept(rowCount);
+    return rowCount;
+  }
+
+  /**
+   * カーソルで読み込んだ従業員データをCSVにエンコードしながら書き込みます エンコード済みデータが閾値に達するごとに書き出すため、 保持するのは常に閾値分のバッファのみです
+   *
+   * <p>書き出しのたびに進捗を通知し、スレッドの割り込み状態を確認します（クライアント切断やジョブのキャンセルで早期に終了するため）
+   */
+  private long streamCursorToCsv(OutputStream out, LongConsumer progress) throws IOException {
+    long rowCount = 0;
+    EmployeeCsvEncoder encoder = new EmployeeCsvEncoder(FLUSH_THRESHOLD_BYTES * 2);
+    try (Cursor<Employee> cursor = employeeMapper.selectAllAsCursor()) {
+      encoder.writeAscii(CSV_HEADER);
+
+      for (Employee employee : cursor) {
+        encoder.encode(employee);
+        rowCount++;
+        if (encoder.size() >= FLUSH_THRESHOLD_BYTES) {
+          if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("CSV出力処理が中断されました: 出力件数=" + rowCount);
+          }
+          encoder.writeTo(out);
+          progress.accept(rowCount);
         }
-      } catch (InterruptedException e) {
-        log.warn("Executor termination was interrupted.", e);
-        executor.shutdownNow();
-        Thread.currentThread().interrupt();
       }
+      encoder.writeTo(out);
     }
+    return rowCount;
   }
 
-  /** CSVデータを生成するタスククラス 従業員情報のバッチをCSV形式の文字列に変換します マルチスレッド処理での並列データ変換に使用されます */
-  private static class CsvGeneratorTask implements Callable<String> {
+  /** CSVデータを生成するタスククラス 従業員情報のバッチをCSV形式のバイト列に変換します マルチスレッド処理での並列データ変換に使用されます */
+  private static class CsvGeneratorTask implements Callable<byte[]> {
     private final List<Employee> employees;
 
     /**
@@ -156,33 +424,110 @@ public class CsvExportService {
     }
 
     /**
-     * タスクを実行し、従業員データをCSV形式の文字列に変換します
+     * タスクを実行し、従業員データをCSV形式のバイト列に変換します
+     *
+     * @return CSV形式に変換されたデータ（UTF-8、改行区切り）
+     */
+    @Override
+    public byte[] call() {
+      EmployeeCsvEncoder encoder = ENCODERS.get();
+      encoder.reset();
+      for (Employee employee : employees) {
+        encoder.encode(employee);
+      }
+      return encoder.toByteArray();
+    }
+  }
+
+  /** 従業員情報のバッチをUTF-8のCSVバイト列としてダイレクトバッファへエンコードするタスク 順序保証付きマルチスレッド出力で使用されます */
+  private static class ByteBufferEncodeTask implements Callable<ByteBuffer> {
+    private final List<Employee> employees;
+    private final DirectBufferPool bufferPool;
+
+    ByteBufferEncodeTask(List<Employee> employees, DirectBufferPool bufferPool) {
+      this.employees = employees;
+      this.bufferPool = bufferPool;
+    }
+
+    /**
+     * バッチをエンコードします
      *
-     * @return CSV形式に変換されたデータ（改行区切り）
+     * @return 読み取り可能な状態（flip済み）のバッファ 書き込み後はプールへ返却する必要があります
      */
     @Override
-    public String call() {
-      return employees.stream()
-          .map(
-              employee ->
-                  String.join(
-                      ",",
-                      employee.getId(),
-                      employee.getName(),
-                      employee.getDepartment(),
-                      employee.getPosition(),
-                      employee.getEmployment_status(),
-                      employee.getHire_date() != null ? employee.getHire_date().toString() : "",
-                      employee.getPhone_number(),
-                      employee.getEmail(),
-                      employee.getBirth_date() != null ? employee.getBirth_date().toString() : "",
-                      employee.getGender(),
-                      employee.getCreated_by(),
-                      employee.getCreated_at() != null ? employee.getCreated_at().toString() : "",
-                      employee.getUpdated_by(),
-                      employee.getUpdated_at() != null ? employee.getUpdated_at().toString() : "",
-                      String.valueOf(employee.getVersion())))
-          .collect(Collectors.joining("\n", "", "\n"));
+    public ByteBuffer call() {
+      EmployeeCsvEncoder encoder = ENCODERS.get();
+      encoder.reset();
+      for (Employee employee : employees) {
+        encoder.encode(employee);
+      }
+      ByteBuffer buffer = bufferPool.acquire(encoder.size());
+      encoder.writeTo(buffer);
+      buffer.flip();
+      return buffer;
+    }
+  }
+
+  /** 従業員情報のバッチをCSVにエンコードし、独立したgzipメンバーとしてダイレクトバッファへ圧縮するタスク 並列gzip圧縮出力で使用されます */
+  private static class GzipEncodeTask implements Callable<ByteBuffer> {
+    private static final ThreadLocal<GzipMemberEncoder> GZIP_ENCODERS =
+        ThreadLocal.withInitial(GzipMemberEncoder::new);
+
+    private final List<Employee> employees;
+    private final DirectBufferPool bufferPool;
+
+    GzipEncodeTask(List<Employee> employees, DirectBufferPool bufferPool) {
+      this.employees = employees;
+      this.bufferPool = bufferPool;
+    }
+
+    /**
+     * バッチをエンコードして圧縮します
+     *
+     * @return 読み取り可能な状態（flip済み）のgzipメンバー 書き込み後はプールへ返却する必要があります
+     */
+    @Override
+    public ByteBuffer call() {
+      EmployeeCsvEncoder encoder = ENCODERS.get();
+      encoder.reset();
+      for (Employee employee : employees) {
+        encoder.encode(employee);
+      }
+      ByteBuffer buffer = bufferPool.acquire(GzipMemberEncoder.maxMemberSize(encoder.size()));
+      GZIP_ENCODERS.get().writeMember(encoder.buffer(), encoder.size(), buffer);
+      encoder.reset();
+      buffer.flip();
+      return buffer;
+    }
+  }
+
+  /** エンコード用ダイレクトバッファのプール バッファを使い回し、バッチごとのネイティブメモリ確保を避けます */
+  private static class DirectBufferPool {
+    private final BlockingQueue<ByteBuffer> buffers;
+    private final int capacity;
+
+    DirectBufferPool(int size, int capacity) {
+      this.buffers = new ArrayBlockingQueue<>(size);
+      this.capacity = capacity;
+    }
+
+    /**
+     * 指定サイズ以上の空のバッファを取得します プールが空、またはプール内のバッファが小さい場合は新規に確保します
+     *
+     * @param minCapacity 必要な容量（バイト）
+     */
+    ByteBuffer acquire(int minCapacity) {
+      ByteBuffer buffer = buffers.poll();
+      if (buffer != null && buffer.capacity() >= minCapacity) {
+        return buffer;
+      }
+      return ByteBuffer.allocateDirect(Math.max(capacity, minCapacity));
+    }
+
+    /** バッファをプールへ返却します プールが満杯の場合は破棄します */
+    void release(ByteBuffer buffer) {
+      buffer.clear();
+      buffers.offer(buffer);
     }
   }
 }
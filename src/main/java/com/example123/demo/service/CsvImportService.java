@@ -0,0 +1,340 @@
+package com.example123.demo.service;
+
+import com.example123.demo.aop.Loggable;
+import com.example123.demo.aop.PerformanceMonitoring;
+import com.example123.demo.domain.Employee;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * CSVファイルから従業員データを取り込むサービスクラス
+ *
+ * <p>ファイルをメモリマップして改行位置で区切った区間に分割し、区間ごとに並列で解析します 解析した従業員情報は一定件数ごとにまとめて {@link
+ * EmployeeDataService#upsertEmployees(List)} へ渡します 解析済みで未登録のデータは上限付きのキューで保持するため、
+ * ファイルサイズに関わらずメモリ使用量は一定に収まります
+ *
+ * <p>取込はファイル全体で1つのトランザクションではありません upsertはまとめた件数ごとにコミットされるため、いずれかの区間の解析に失敗した場合は
+ * その時点で以降のupsertを止めて例外を送出しますが、それまでにコミットしたまとまりは登録されたまま残ります upsertは同じ内容で再実行しても
+ * 結果が変わらないため、ファイルを修正して取込全体を再実行してください
+ */
+@Service
+public class CsvImportService {
+
+  private static final Logger log = LoggerFactory.getLogger(CsvImportService.class);
+
+  /** 1区間の目安サイズ（バイト） 実際の区間は次のレコード先頭まで延びます */
+  static final long SEGMENT_SIZE = 64L * 1024 * 1024;
+
+  /** upsert処理へまとめて渡す件数 */
+  private static final int IMPORT_BATCH_SIZE = 10_000;
+
+  /** 解析スレッドの完了を表す目印（キューに投入する） */
+  private static final List<Employee> PARSER_DONE = List.of();
+
+  /** キューが空のまま待つ間に、解析スレッドの異常終了を確認する間隔（ミリ秒） */
+  private static final long POLL_INTERVAL_MILLIS = 1000;
+
+  private final EmployeeDataService employeeDataService;
+
+  public CsvImportService(EmployeeDataService employeeDataService) {
+    this.employeeDataService = employeeDataService;
+  }
+
+  /**
+   * CSVファイル（{@link CsvExportService} の出力形式）を読み込み、従業員テーブルへupsertします
+   *
+   * <p>区間の走査と解析は取込ごとに起動する仮想スレッドで行います 解析スレッドはキューの空きを待ってブロックするため、
+   * 共有のCPUプールでは実行しません（待機中に他の処理のスレッドを占有し、呼び出し元実行の拒否ポリシーでは取込スレッド自身が待ち続けるため）
+   * 解析スレッドの数は利用可能なプロセッサ数で、各スレッドが未処理の区間を順に取って解析します
+   *
+   * @param filePath 読み込むCSVファイルパス
+   * @return 処理結果（rowCount: 読み込んだ件数、updateCount: 更新件数、insertCount: 登録件数、unchangedCount:
+   *     内容が変わらず更新しなかった件数）
+   * @throws RuntimeException ファイルの読み込みまたは解析に失敗した場合（失敗までにコミットしたまとまりは残ります）
+   */
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = true,
+      value = "CSV取込処理（メモリマップ・並列解析）")
+  @PerformanceMonitoring(threshold = 10000, operation = "CSV_IMPORT_PARALLEL_MMAP")
+  public Map<String, Integer> importCsv(String filePath) {
+    int numThreads = Runtime.getRuntime().availableProcessors();
+    BlockingQueue<List<Employee>> queue = new ArrayBlockingQueue<>(numThreads * 2);
+    List<Future<Long>> futures = new ArrayList<>(numThreads);
+    AtomicReference<Exception> parseFailure = new AtomicReference<>();
+
+    int rowCount = 0;
+    int totalUpdateCount = 0;
+    int totalInsertCount = 0;
+    int totalUnchangedCount = 0;
+
+    try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ);
+        ExecutorService parsers =
+            Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("csv-import-", 1).factory())) {
+      try {
+        long[] boundaries = findRecordBoundaries(channel, SEGMENT_SIZE, parsers);
+        AtomicInteger nextSegment = new AtomicInteger();
+
+        for (int i = 0; i < numThreads; i++) {
+          futures.add(
+              parsers.submit(
+                  () -> parseSegments(channel, boundaries, nextSegment, queue, parseFailure)));
+        }
+
+        // 呼び出し元スレッドでupsertを行い、全解析スレッドの完了目印を受け取るまで繰り返す
+        // 解析に失敗したスレッドは完了目印の前に失敗を記録するため、遅くともその目印を受け取った時点で以降のupsertを止める
+        int finishedParsers = 0;
+        while (finishedParsers < numThreads) {
+          List<Employee> batch = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+          throwIfParseFailed(parseFailure);
+          if (batch == null) {
+            throwIfParsersStopped(futures);
+            continue;
+          }
+          if (batch == PARSER_DONE) {
+            finishedParsers++;
+            continue;
+          }
+          Map<String, Integer> result = employeeDataService.upsertEmployees(batch);
+          rowCount += batch.size();
+          totalUpdateCount += result.get("updateCount");
+          totalInsertCount += result.get("insertCount");
+          totalUnchangedCount += result.getOrDefault("unchangedCount", 0);
+        }
+
+        for (Future<Long> future : futures) {
+          future.get();
+        }
+      } finally {
+        // upsertが例外で中断した場合も、キューへの投入待ちの解析スレッドを割り込みで終了させてから閉じる
+        for (Future<Long> future : futures) {
+          future.cancel(true);
+        }
+      }
+    } catch (IOException e) {
+      log.error("Error reading CSV file for import", e);
+      throw new RuntimeException("CSV取込処理でエラーが発生しました", e);
+    } catch (ExecutionException e) {
+      // 境界の走査に失敗した場合（upsert開始前）
+      log.error("Error scanning a CSV file for import", e.getCause());
+      throw new RuntimeException("CSV取込処理でエラーが発生しました", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("CSV取込処理が中断されました", e);
+    }
+
+    Map<String, Integer> result = new HashMap<>();
+    result.put("rowCount", rowCount);
+    result.put("updateCount", totalUpdateCount);
+    result.put("insertCount", totalInsertCount);
+    result.put("unchangedCount", totalUnchangedCount);
+    return result;
+  }
+
+  /**
+   * 解析に失敗した区間があれば、以降のupsertを行わずに取込全体のエラーとします
+   *
+   * @param parseFailure 最初に失敗した区間の例外
+   */
+  private static void throwIfParseFailed(AtomicReference<Exception> parseFailure) {
+    Exception cause = parseFailure.get();
+    if (cause != null) {
+      log.error("Error parsing a CSV segment for import, stopping the import", cause);
+      throw new RuntimeException("CSV取込処理でエラーが発生しました", cause);
+    }
+  }
+
+  /**
+   * キューが空のまま全解析スレッドが終了している場合は、完了目印を受け取れないため取込全体のエラーとします
+   *
+   * @param futures 解析スレッドの結果
+   */
+  private static void throwIfParsersStopped(List<Future<Long>> futures) {
+    for (Future<Long> future : futures) {
+      if (!future.isDone()) {
+        return;
+      }
+    }
+    throw new IllegalStateException("CSV取込処理の解析スレッドが完了目印を投入せずに終了しました");
+  }
+
+  /**
+   * 未処理の区間を順に取ってメモリマップして解析し、IMPORT_BATCH_SIZE件ごとにキューへ投入します 正常・異常に関わらず最後に完了目印を投入します
+   * 解析に失敗した場合は、完了目印より前に失敗を記録します 取込が中断されて割り込まれた場合は、キューの空きを待たずに終了します
+   *
+   * @return 解析した件数
+   */
+  private static long parseSegments(
+      FileChannel channel,
+      long[] boundaries,
+      AtomicInteger nextSegment,
+      BlockingQueue<List<Employee>> queue,
+      AtomicReference<Exception> parseFailure)
+      throws IOException, InterruptedException {
+    boolean interrupted = false;
+    try {
+      long count = 0;
+      for (int i = nextSegment.getAndIncrement();
+          i < boundaries.length - 1 && parseFailure.get() == null;
+          i = nextSegment.getAndIncrement()) {
+        count += parseSegment(channel, boundaries[i], boundaries[i + 1], queue);
+      }
+      return count;
+    } catch (InterruptedException e) {
+      interrupted = true;
+      throw e;
+    } catch (IOException | RuntimeException e) {
+      parseFailure.compareAndSet(null, e);
+      throw e;
+    } finally {
+      if (interrupted || Thread.currentThread().isInterrupted()) {
+        // 取込側は既に受け取りをやめているため、投入できなくても待たない
+        queue.offer(PARSER_DONE);
+      } else {
+        queue.put(PARSER_DONE);
+      }
+    }
+  }
+
+  /**
+   * 1区間をメモリマップして解析し、IMPORT_BATCH_SIZE件ごとにキューへ投入します
+   *
+   * @return 解析した件数
+   */
+  private static long parseSegment(
+      FileChannel channel, long start, long end, BlockingQueue<List<Employee>> queue)
+      throws IOException, InterruptedException {
+    MappedByteBuffer buffer = map(channel, start, end);
+    List<List<Employee>> pending = new ArrayList<>(1);
+    pending.add(new ArrayList<>(IMPORT_BATCH_SIZE));
+    long count =
+        new EmployeeCsvParser()
+            .parse(
+                buffer,
+                0,
+                buffer.limit(),
+                employee -> {
+                  List<Employee> batch = pending.get(0);
+                  batch.add(employee);
+                  if (batch.size() >= IMPORT_BATCH_SIZE) {
+                    put(queue, batch);
+                    pending.set(0, new ArrayList<>(IMPORT_BATCH_SIZE));
+                  }
+                });
+    if (!pending.get(0).isEmpty()) {
+      queue.put(pending.get(0));
+    }
+    return count;
+  }
+
+  /**
+   * ファイルを目安サイズごとの区間に分け、各区間の境界をレコードの先頭位置へ合わせます
+   *
+   * <p>RFC4180ではダブルクォート内のダブルクォートは2つ続けて書かれるため、ファイル先頭からのダブルクォートの数が偶数の位置はクォートの外側です
+   * 各区間のダブルクォート数と「区間内の個数が偶数／奇数の時点で最初に現れる改行の位置」を並列に数え、前の区間までの個数の合計から
+   * クォートの外側にある最初の改行を選ぶことで、ファイルを先頭から逐次走査せずに境界を決定します
+   *
+   * @param channel 読み込むファイル
+   * @param segmentSize 1区間の目安サイズ（バイト）
+   * @param executor 走査に使用するExecutor
+   * @return 境界位置の配列（先頭は0、末尾はファイルサイズ、区間数+1個）
+   */
+  static long[] findRecordBoundaries(
+      FileChannel channel, long segmentSize, ExecutorService executor)
+      throws IOException, ExecutionException, InterruptedException {
+    long size = channel.size();
+    int chunkCount = (int) Math.max(1, (size + segmentSize - 1) / segmentSize);
+
+    List<Future<long[]>> futures = new ArrayList<>(chunkCount);
+    for (int i = 0; i < chunkCount; i++) {
+      long start = i * segmentSize;
+      long end = Math.min(size, start + segmentSize);
+      futures.add(executor.submit(() -> scanQuotes(channel, start, end)));
+    }
+
+    List<Long> boundaries = new ArrayList<>(chunkCount + 1);
+    boundaries.add(0L);
+    long quoteCount = 0;
+    for (int i = 0; i < chunkCount; i++) {
+      long[] scan = futures.get(i).get();
+      if (i > 0) {
+        // 区間先頭がクォートの外側（偶数）なら区間内で偶数個の時点、内側なら奇数個の時点の改行がレコードの区切り
+        long newline = (quoteCount & 1) == 0 ? scan[1] : scan[2];
+        if (newline >= 0 && newline + 1 < size) {
+          boundaries.add(newline + 1);
+        }
+        // 区切りが見つからない区間（巨大なレコードの途中）は前の区間に含める
+      }
+      quoteCount += scan[0];
+    }
+    boundaries.add(size);
+    return boundaries.stream().distinct().mapToLong(Long::longValue).toArray();
+  }
+
+  /**
+   * 区間内のダブルクォート数と、区間内の個数が偶数／奇数の時点で最初に現れる改行の位置を数えます
+   *
+   * @return {ダブルクォート数, 偶数時点の最初の改行位置, 奇数時点の最初の改行位置}（改行がない場合は-1）
+   */
+  private static long[] scanQuotes(FileChannel channel, long start, long end) throws IOException {
+    long quotes = 0;
+    long evenNewline = -1;
+    long oddNewline = -1;
+    if (start < end) {
+      MappedByteBuffer buffer = map(channel, start, end);
+      for (int i = 0, n = buffer.limit(); i < n; i++) {
+        byte b = buffer.get(i);
+        if (b == '"') {
+          quotes++;
+        } else if (b == '\n') {
+          if ((quotes & 1) == 0) {
+            if (evenNewline < 0) {
+              evenNewline = start + i;
+            }
+          } else if (oddNewline < 0) {
+            oddNewline = start + i;
+          }
+        }
+      }
+    }
+    return new long[] {quotes, evenNewline, oddNewline};
+  }
+
+  private static MappedByteBuffer map(FileChannel channel, long start, long end)
+      throws IOException {
+    if (end - start > Integer.MAX_VALUE) {
+      throw new IOException("1区間が2GBを超えるためメモリマップできません: " + start + "-" + end);
+    }
+    return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+  }
+
+  private static void put(BlockingQueue<List<Employee>> queue, List<Employee> batch) {
+    try {
+      queue.put(batch);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("CSV取込処理が中断されました", e);
+    }
+  }
+}
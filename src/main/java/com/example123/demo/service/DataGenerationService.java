@@ -3,6 +3,7 @@ package com.example123.demo.service;
 import com.example123.demo.aop.Loggable;
 import com.example123.demo.aop.PerformanceMonitoring;
 import com.example123.demo.domain.Employee;
+import com.example123.demo.util.AuditTimestamps;
 import jakarta.validation.constraints.Min;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -55,8 +56,24 @@ public class DataGenerationService {
   @PerformanceMonitoring(threshold = 2000, operation = "RANDOM_DATA_GENERATION")
   public List<Employee> createRandomEmployees(
       @Min(value = 1, message = "生成件数は1以上である必要があります") int count) {
-    List<Employee> employees = new ArrayList<>();
-    LocalDateTime now = LocalDateTime.now();
+    List<Employee> employees = new ArrayList<>(count);
+    LocalDateTime now = AuditTimestamps.now();
+    for (String id : createRandomUpsertIds(count)) {
+      employees.add(createEmployeeWithId(id, now));
+    }
+    return employees;
+  }
+
+  /**
+   * UPSERT用の従業員IDを、80%更新・20%新規の比率で重複なく生成します 更新用のIDが先に、新規用のIDが後に並びます 従業員データを一度にすべて生成せず、 {@link
+   * #createEmployeeWithId} で少しずつ生成する場合に使用します
+   *
+   * @param count 生成するIDの件数
+   * @return 従業員IDのリスト
+   */
+  public List<String> createRandomUpsertIds(
+      @Min(value = 1, message = "生成件数は1以上である必要があります") int count) {
+    List<String> ids = new ArrayList<>(count);
 
     // 80%更新、20%新規の比率で生成
     int updateCount = (int) Math.round(count * 0.8);
@@ -70,9 +87,7 @@ public class DataGenerationService {
         id = String.format("E%06d", random.nextInt(10000)); // 既存ID: E000000-E009999
       } while (usedUpdateIds.contains(id));
       usedUpdateIds.add(id);
-
-      Employee employee = createEmployeeWithId(id, now);
-      employees.add(employee);
+      ids.add(id);
     }
 
     // 2) 新規用データ: 新規ID範囲から生成（E010000-E099999）
@@ -83,12 +98,10 @@ public class DataGenerationService {
         id = String.format("E%06d", random.nextInt(90000) + 10000); // 新規ID: E010000-E099999
       } while (usedInsertIds.contains(id));
       usedInsertIds.add(id);
-
-      Employee employee = createEmployeeWithId(id, now);
-      employees.add(employee);
+      ids.add(id);
     }
 
-    return employees;
+    return ids;
   }
 
   /**
@@ -147,7 +160,7 @@ public class DataGenerationService {
   public List<Employee> createDummyEmployees(
       @Min(value = 1, message = "生成件数は1以上である必要があります") int count) {
     List<Employee> employees = new ArrayList<>();
-    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime now = AuditTimestamps.now();
 
     for (int i = 0; i < count; i++) {
       String id = String.valueOf(i + 1);
@@ -187,7 +200,7 @@ public class DataGenerationService {
   @PerformanceMonitoring(threshold = 2000, operation = "BASE_DATA_GENERATION")
   public List<Employee> createBaseDataForUpsert() {
     List<Employee> baseEmployees = new ArrayList<>();
-    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime now = AuditTimestamps.now();
 
     // E000000-E009999の範囲でベースデータを生成
     for (int i = 0; i < 10000; i++) {
@@ -2,6 +2,10 @@ package com.example123.demo.service;
 
 import com.example123.demo.aop.Loggable;
 import com.example123.demo.aop.PerformanceMonitoring;
+import com.example123.demo.batch.AdaptiveBatchSizer;
+import com.example123.demo.batch.AdaptiveBatchSizers;
+import com.example123.demo.batch.BatchRunReport;
+import com.example123.demo.batch.RetryingBatchRunner;
 import com.example123.demo.domain.EmployeeAssignmentHistory;
 import com.example123.demo.repository.EmployeeAssignmentHistoryKey;
 import com.example123.demo.repository.EmployeeAssignmentHistoryMapper;
@@ -12,14 +16,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,25 +38,41 @@ import org.springframework.stereotype.Service;
 public class EmployeeAssignmentHistoryService {
 
   private static final Logger log = LoggerFactory.getLogger(EmployeeAssignmentHistoryService.class);
-  private static final int BATCH_SIZE = 50;
+
+  /** SQL Serverのパラメーター上限(2100)に収まる最大行数（34カラム × 61レコード = 2074パラメーター） */
+  private static final int MAX_BATCH_SIZE = AdaptiveBatchSizer.maxRowsWithinParameterLimit(34);
+
+  /** 結果台帳に記録する処理名 */
+  private static final String OPERATION = "assignment-history-temp-table";
 
   private final EmployeeAssignmentHistoryMapper mapper;
+  private final RetryingBatchRunner batchRunner;
+  private final AdaptiveBatchSizers batchSizers;
   private final Random random = new Random();
 
   /**
    * コンストラクタ
    *
    * @param mapper 配属履歴データアクセス用のMapper
+   * @param batchRunner バッチを一時的なエラーの再実行付きで並列実行するクラス
+   * @param batchSizers SQL文ごとのバッチサイズ調整クラス
    */
   @Autowired
-  public EmployeeAssignmentHistoryService(EmployeeAssignmentHistoryMapper mapper) {
+  public EmployeeAssignmentHistoryService(
+      EmployeeAssignmentHistoryMapper mapper,
+      RetryingBatchRunner batchRunner,
+      AdaptiveBatchSizers batchSizers) {
     this.mapper = mapper;
+    this.batchRunner = batchRunner;
+    this.batchSizers = batchSizers;
   }
 
   /**
-   * 配属履歴を一括でUpsertします。 一時テーブルを利用した UPDATE後INSERT方式 を採用しています。
+   * 配属履歴を一括でUpsertします。 一時テーブルを利用した UPDATE後INSERT方式 を採用しています。 デッドロックなど一時的なエラーで失敗したバッチは個別に再実行されます。
+   * バッチサイズはパラメーター上限に収まる範囲で、実測したスループットから調整されます。
    *
    * @param historyList Upsert対象の配属履歴リスト
+   * @return 成功・再実行後に成功・失敗したバッチとそのキー範囲を含む結果台帳
    */
   @Loggable(
       level = Loggable.LogLevel.INFO,
@@ -66,66 +80,52 @@ public class EmployeeAssignmentHistoryService {
       includeResult = false,
       value = "配属履歴一括UPSERT処理")
   @PerformanceMonitoring(threshold = 5000, operation = "ASSIGNMENT_HISTORY_UPSERT")
-  public void upsertHistories(List<EmployeeAssignmentHistory> historyList) {
-    if (historyList == null || historyList.isEmpty()) {
-      return;
+  public BatchRunReport<EmployeeAssignmentHistory> upsertHistories(
+      List<EmployeeAssignmentHistory> historyList) {
+    if (historyList == null) {
+      historyList = List.of();
     }
 
-    int numThreads = Runtime.getRuntime().availableProcessors();
-    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-
-    try {
-      // バッチ処理
-      List<List<EmployeeAssignmentHistory>> batches = new ArrayList<>();
-      for (int i = 0; i < historyList.size(); i += BATCH_SIZE) {
-        batches.add(
-            new ArrayList<>(historyList.subList(i, Math.min(i + BATCH_SIZE, historyList.size()))));
-      }
-
-      // 並列処理でバッチを実行
-      List<Future<Map<String, Integer>>> futures = new ArrayList<>();
-      for (List<EmployeeAssignmentHistory> batch : batches) {
-        futures.add(executor.submit(() -> mapper.upsertViaTempTable(batch)));
-      }
+    BatchRunReport<EmployeeAssignmentHistory> report =
+        batchRunner.run(
+            OPERATION,
+            historyList,
+            batchSizers.forStatement(OPERATION, MAX_BATCH_SIZE),
+            EmployeeAssignmentHistoryService::keyOf,
+            mapper::upsertViaTempTable);
+
+    // 処理結果をログ出力
+    log.info(
+        "配属履歴一括UPSERT完了: 更新件数={}, 挿入件数={}, 合計件数={}, 再実行バッチ数={}, 失敗バッチ数={}",
+        report.getUpdateCount(),
+        report.getInsertCount(),
+        report.getUpdateCount() + report.getInsertCount(),
+        report.getRetried().size(),
+        report.getFailed().size());
+    return report;
+  }
 
-      // 結果を集計
-      int totalUpdates = 0;
-      int totalInserts = 0;
-
-      for (Future<Map<String, Integer>> future : futures) {
-        try {
-          Map<String, Integer> counts = future.get();
-          totalUpdates += counts.get("updateCount");
-          totalInserts += counts.get("insertCount");
-        } catch (ExecutionException | InterruptedException e) {
-          log.error("Error getting result from an assignment history upsert task", e);
-          if (e instanceof InterruptedException) {
-            Thread.currentThread().interrupt();
-          }
-        }
-      }
+  /**
+   * 結果台帳で失敗したバッチだけを再実行します。 処理全体をやり直す必要はありません。
+   *
+   * @param report 前回のUPSERTの結果台帳
+   * @return 再実行したバッチの結果台帳
+   */
+  public BatchRunReport<EmployeeAssignmentHistory> replayFailedBatches(
+      BatchRunReport<EmployeeAssignmentHistory> report) {
+    return batchRunner.replayFailed(
+        report, EmployeeAssignmentHistoryService::keyOf, mapper::upsertViaTempTable);
+  }
 
-      // 処理結果をログ出力
-      log.info(
-          "配属履歴一括UPSERT完了: 更新件数={}, 挿入件数={}, 合計件数={}",
-          totalUpdates,
-          totalInserts,
-          totalUpdates + totalInserts);
-
-    } finally {
-      executor.shutdown();
-      try {
-        if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
-          log.warn("Executor did not terminate in the specified time.");
-          List<Runnable> droppedTasks = executor.shutdownNow();
-          log.warn("Executor was abruptly shut down. {} tasks were dropped.", droppedTasks.size());
-        }
-      } catch (InterruptedException e) {
-        log.warn("Executor termination was interrupted.", e);
-        executor.shutdownNow();
-        Thread.currentThread().interrupt();
-      }
-    }
+  /** 結果台帳のキー範囲に使用する複合主キーの文字列表現 */
+  private static String keyOf(EmployeeAssignmentHistory history) {
+    return String.join(
+        "/",
+        history.getEmployeeId(),
+        history.getOrgCode(),
+        history.getJobCode(),
+        String.valueOf(history.getEffectiveFrom()),
+        String.valueOf(history.getSeqNo()));
   }
 
   /**
@@ -0,0 +1,161 @@
+package com.example123.demo.service;
+
+import com.example123.demo.domain.Employee;
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 従業員情報をSQLServerBulkCopyへ渡すためのデータソース 行を1件ずつイテレーターから取り出して変換するため、 一括コピー用に全件分の行データを別途用意する必要がありません
+ *
+ * <p>列の順序と型は employees テーブル（id〜version の15列）に対応します インスタンスは1回の一括コピーでのみ使用できます
+ */
+final class EmployeeBulkData implements ISQLServerBulkData {
+
+  private static final long serialVersionUID = 1L;
+
+  /** 列名（1始まりの列番号 - 1 の位置） */
+  static final String[] COLUMN_NAMES = {
+    "id",
+    "name",
+    "department",
+    "position",
+    "employment_status",
+    "hire_date",
+    "phone_number",
+    "email",
+    "birth_date",
+    "gender",
+    "created_by",
+    "created_at",
+    "updated_by",
+    "updated_at",
+    "version"
+  };
+
+  /** 列のJDBC型（{@link java.sql.Types}） */
+  private static final int[] COLUMN_TYPES = {
+    Types.VARCHAR,
+    Types.VARCHAR,
+    Types.VARCHAR,
+    Types.VARCHAR,
+    Types.VARCHAR,
+    Types.DATE,
+    Types.VARCHAR,
+    Types.VARCHAR,
+    Types.DATE,
+    Types.VARCHAR,
+    Types.VARCHAR,
+    Types.TIMESTAMP,
+    Types.VARCHAR,
+    Types.TIMESTAMP,
+    Types.BIGINT
+  };
+
+  private static final Set<Integer> COLUMN_ORDINALS = new LinkedHashSet<>();
+
+  static {
+    for (int i = 1; i <= COLUMN_NAMES.length; i++) {
+      COLUMN_ORDINALS.add(i);
+    }
+  }
+
+  private final transient Iterator<Employee> employees;
+  private transient Employee current;
+  private long rowCount;
+
+  EmployeeBulkData(Iterator<Employee> employees) {
+    this.employees = employees;
+  }
+
+  @Override
+  public Set<Integer> getColumnOrdinals() {
+    return COLUMN_ORDINALS;
+  }
+
+  @Override
+  public String getColumnName(int column) {
+    return COLUMN_NAMES[column - 1];
+  }
+
+  @Override
+  public int getColumnType(int column) {
+    return COLUMN_TYPES[column - 1];
+  }
+
+  @Override
+  public int getPrecision(int column) {
+    switch (COLUMN_TYPES[column - 1]) {
+      case Types.DATE:
+        return 10;
+      case Types.TIMESTAMP:
+        // DATETIME（yyyy-MM-dd HH:mm:ss.fff）
+        return 23;
+      case Types.BIGINT:
+        return 19;
+      default:
+        return 255;
+    }
+  }
+
+  @Override
+  public int getScale(int column) {
+    return COLUMN_TYPES[column - 1] == Types.TIMESTAMP ? 3 : 0;
+  }
+
+  @Override
+  public boolean next() {
+    if (!employees.hasNext()) {
+      current = null;
+      return false;
+    }
+    current = employees.next();
+    rowCount++;
+    return true;
+  }
+
+  @Override
+  public Object[] getRowData() {
+    Employee e = current;
+    if (e == null) {
+      throw new NoSuchElementException("一括コピーの現在行がありません");
+    }
+    return new Object[] {
+      e.getId(),
+      e.getName(),
+      e.getDepartment(),
+      e.getPosition(),
+      e.getEmployment_status(),
+      toDate(e.getHire_date()),
+      e.getPhone_number(),
+      e.getEmail(),
+      toDate(e.getBirth_date()),
+      e.getGender(),
+      e.getCreated_by(),
+      toTimestamp(e.getCreated_at()),
+      e.getUpdated_by(),
+      toTimestamp(e.getUpdated_at()),
+      e.getVersion()
+    };
+  }
+
+  /** これまでに読み出した行数を返します */
+  long getRowCount() {
+    return rowCount;
+  }
+
+  private static Date toDate(LocalDate date) {
+    return date != null ? Date.valueOf(date) : null;
+  }
+
+  private static Timestamp toTimestamp(LocalDateTime dateTime) {
+    return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+  }
+}
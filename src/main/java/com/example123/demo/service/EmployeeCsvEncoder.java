@@ -0,0 +1,297 @@
+package com.example123.demo.service;
+
+import com.example123.demo.domain.Employee;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+/**
+ * 従業員情報をUTF-8のCSV行へエンコードするエンコーダー 再利用可能なバイトバッファへ各項目を直接書き込むため、行ごとの中間文字列を生成しません
+ *
+ * <p>出力形式は従来の {@code LocalDate#toString()} / {@code LocalDateTime#toString()} と同一です nullの項目は空文字、
+ * カンマ・ダブルクォート・改行を含む項目はダブルクォートで囲んで出力します
+ *
+ * <p>インスタンスはスレッドセーフではありません スレッドごとに1つ用意して使い回してください
+ */
+public final class EmployeeCsvEncoder {
+
+  /** バッファの初期容量（バイト） */
+  private static final int DEFAULT_CAPACITY = 64 * 1024;
+
+  /** 00〜99の2桁表現（日付・時刻の各要素の書き込みに使用） */
+  private static final byte[] TWO_DIGITS = new byte[200];
+
+  static {
+    for (int i = 0; i < 100; i++) {
+      TWO_DIGITS[i * 2] = (byte) ('0' + i / 10);
+      TWO_DIGITS[i * 2 + 1] = (byte) ('0' + i % 10);
+    }
+  }
+
+  private byte[] buf;
+  private int count;
+
+  public EmployeeCsvEncoder() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public EmployeeCsvEncoder(int initialCapacity) {
+    this.buf = new byte[Math.max(initialCapacity, 256)];
+  }
+
+  /**
+   * 従業員1件分のCSV行（改行付き）をバッファへ追記します
+   *
+   * @param employee 出力する従業員情報
+   */
+  public void encode(Employee employee) {
+    writeString(employee.getId());
+    writeByte(',');
+    writeString(employee.getName());
+    writeByte(',');
+    writeString(employee.getDepartment());
+    writeByte(',');
+    writeString(employee.getPosition());
+    writeByte(',');
+    writeString(employee.getEmployment_status());
+    writeByte(',');
+    writeDate(employee.getHire_date());
+    writeByte(',');
+    writeString(employee.getPhone_number());
+    writeByte(',');
+    writeString(employee.getEmail());
+    writeByte(',');
+    writeDate(employee.getBirth_date());
+    writeByte(',');
+    writeString(employee.getGender());
+    writeByte(',');
+    writeString(employee.getCreated_by());
+    writeByte(',');
+    writeDateTime(employee.getCreated_at());
+    writeByte(',');
+    writeString(employee.getUpdated_by());
+    writeByte(',');
+    writeDateTime(employee.getUpdated_at());
+    writeByte(',');
+    Long version = employee.getVersion();
+    if (version != null) {
+      writeLong(version.longValue());
+    }
+    writeByte('\n');
+  }
+
+  /**
+   * ASCII文字列をそのままバッファへ追記します ヘッダー行の書き込みに使用します
+   *
+   * @param ascii 追記する文字列（ASCIIのみ）
+   */
+  public void writeAscii(String ascii) {
+    int length = ascii.length();
+    ensureCapacity(length);
+    for (int i = 0; i < length; i++) {
+      buf[count++] = (byte) ascii.charAt(i);
+    }
+  }
+
+  /** バッファに溜まっているバイト数を返します */
+  public int size() {
+    return count;
+  }
+
+  /** バッファを空にします 確保済みの領域はそのまま再利用されます */
+  public void reset() {
+    count = 0;
+  }
+
+  /**
+   * バッファの内容を出力ストリームへ書き込み、バッファを空にします
+   *
+   * @param out 書き込み先のストリーム
+   * @throws IOException 書き込みに失敗した場合
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    out.write(buf, 0, count);
+    count = 0;
+  }
+
+  /**
+   * バッファの内容をByteBufferへコピーし、バッファを空にします
+   *
+   * @param target コピー先（残り容量がsize()以上であること）
+   */
+  public void writeTo(ByteBuffer target) {
+    target.put(buf, 0, count);
+    count = 0;
+  }
+
+  /** 内部バッファをコピーせずに返します 有効なデータは先頭から {@link #size()} バイトです 圧縮処理など、コピーを避けたい同一パッケージ内の処理で使用します */
+  byte[] buffer() {
+    return buf;
+  }
+
+  /** バッファの内容をコピーしたバイト配列を返します */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(buf, count);
+  }
+
+  private void writeByte(char c) {
+    ensureCapacity(1);
+    buf[count++] = (byte) c;
+  }
+
+  private void writeString(String value) {
+    if (value == null) {
+      return;
+    }
+    if (needsQuoting(value)) {
+      writeByte('"');
+      writeUtf8(value, true);
+      writeByte('"');
+    } else {
+      writeUtf8(value, false);
+    }
+  }
+
+  private static boolean needsQuoting(String value) {
+    for (int i = 0, n = value.length(); i < n; i++) {
+      char c = value.charAt(i);
+      if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** 文字列をUTF-8として直接バッファへ書き込みます（1文字あたり最大3バイト、サロゲートペアは4バイト） */
+  private void writeUtf8(String value, boolean escapeQuotes) {
+    int length = value.length();
+    ensureCapacity(length * 3 + (escapeQuotes ? length : 0));
+    byte[] b = buf;
+    int pos = count;
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        if (escapeQuotes && c == '"') {
+          b[pos++] = '"';
+        }
+        b[pos++] = (byte) c;
+      } else if (c < 0x800) {
+        b[pos++] = (byte) (0xC0 | (c >> 6));
+        b[pos++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < length
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, value.charAt(++i));
+        b[pos++] = (byte) (0xF0 | (cp >> 18));
+        b[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+        b[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        b[pos++] = (byte) (0x80 | (cp & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        // 対になっていないサロゲートは String#getBytes と同様に '?' に置換する
+        b[pos++] = '?';
+      } else {
+        b[pos++] = (byte) (0xE0 | (c >> 12));
+        b[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        b[pos++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+    count = pos;
+  }
+
+  /** 日付を yyyy-MM-dd 形式で書き込みます（LocalDate#toString() と同一形式） */
+  private void writeDate(LocalDate date) {
+    if (date == null) {
+      return;
+    }
+    int year = date.getYear();
+    if (year < 0 || year > 9999) {
+      // 4桁に収まらない年は符号付きになるため標準の文字列表現に任せる
+      writeUtf8(date.toString(), false);
+      return;
+    }
+    ensureCapacity(10);
+    writeTwoDigits(year / 100);
+    writeTwoDigits(year % 100);
+    buf[count++] = '-';
+    writeTwoDigits(date.getMonthValue());
+    buf[count++] = '-';
+    writeTwoDigits(date.getDayOfMonth());
+  }
+
+  /** 日時を LocalDateTime#toString() と同一形式（秒・ナノ秒は値がある場合のみ）で書き込みます */
+  private void writeDateTime(LocalDateTime dateTime) {
+    if (dateTime == null) {
+      return;
+    }
+    writeDate(dateTime.toLocalDate());
+    LocalTime time = dateTime.toLocalTime();
+    ensureCapacity(19);
+    buf[count++] = 'T';
+    writeTwoDigits(time.getHour());
+    buf[count++] = ':';
+    writeTwoDigits(time.getMinute());
+    int second = time.getSecond();
+    int nano = time.getNano();
+    if (second > 0 || nano > 0) {
+      buf[count++] = ':';
+      writeTwoDigits(second);
+      if (nano > 0) {
+        buf[count++] = '.';
+        if (nano % 1_000_000 == 0) {
+          writeFixedDigits(nano / 1_000_000, 3);
+        } else if (nano % 1000 == 0) {
+          writeFixedDigits(nano / 1000, 6);
+        } else {
+          writeFixedDigits(nano, 9);
+        }
+      }
+    }
+  }
+
+  /** 0〜99の値を2桁で書き込みます（容量確保は呼び出し側で行う） */
+  private void writeTwoDigits(int value) {
+    buf[count++] = TWO_DIGITS[value * 2];
+    buf[count++] = TWO_DIGITS[value * 2 + 1];
+  }
+
+  /** 非負の値を指定桁数でゼロ埋めして書き込みます（容量確保は呼び出し側で行う） */
+  private void writeFixedDigits(int value, int digits) {
+    for (int i = count + digits - 1; i >= count; i--) {
+      buf[i] = (byte) ('0' + value % 10);
+      value /= 10;
+    }
+    count += digits;
+  }
+
+  /** long値を10進数で書き込みます（ボクシングや文字列変換を行わない） */
+  private void writeLong(long value) {
+    if (value == Long.MIN_VALUE) {
+      writeUtf8(Long.toString(value), false);
+      return;
+    }
+    ensureCapacity(20);
+    if (value < 0) {
+      buf[count++] = '-';
+      value = -value;
+    }
+    int digits = 1;
+    for (long v = value; v >= 10; v /= 10) {
+      digits++;
+    }
+    for (int i = count + digits - 1; i >= count; i--) {
+      buf[i] = (byte) ('0' + (int) (value % 10));
+      value /= 10;
+    }
+    count += digits;
+  }
+
+  private void ensureCapacity(int additional) {
+    if (count + additional > buf.length) {
+      buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + additional));
+    }
+  }
+}
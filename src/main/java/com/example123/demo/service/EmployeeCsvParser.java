@@ -0,0 +1,259 @@
+package com.example123.demo.service;
+
+import com.example123.demo.domain.Employee;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * {@link EmployeeCsvEncoder} が出力する形式（UTF-8、15列、RFC4180のダブルクォート）のCSVを従業員情報へ変換するパーサー
+ *
+ * <p>ByteBuffer（メモリマップしたファイルなど）から直接読み込み、行単位の文字列や分割した配列を生成しません 日付・日時・数値の項目はバイト列から直接変換します
+ * 空の項目はnullとして扱います
+ *
+ * <p>インスタンスはスレッドセーフではありません スレッドごとに1つ用意して使い回してください
+ */
+public final class EmployeeCsvParser {
+
+  /** 1行あたりの列数 */
+  private static final int COLUMN_COUNT = 15;
+
+  /** ヘッダー行の先頭（ヘッダー行の判定に使用） */
+  private static final byte[] HEADER_PREFIX = "ID,Name,".getBytes(StandardCharsets.US_ASCII);
+
+  private byte[] field = new byte[256];
+  private int fieldLength;
+
+  /**
+   * 指定範囲のCSVを解析します 範囲はレコードの区切り（行頭）から始まり、レコードの区切りで終わっている必要があります 範囲の先頭がヘッダー行の場合は読み飛ばします
+   *
+   * @param buffer CSVデータ
+   * @param start 解析開始位置（絶対位置）
+   * @param end 解析終了位置（絶対位置、この位置を含まない）
+   * @param consumer 従業員情報ごとに呼び出す処理
+   * @return 解析した従業員情報の件数
+   * @throws IllegalArgumentException CSVの形式が不正な場合
+   */
+  public long parse(ByteBuffer buffer, int start, int end, Consumer<Employee> consumer) {
+    int pos = start;
+    if (startsWith(buffer, pos, end, HEADER_PREFIX)) {
+      pos = skipLine(buffer, pos, end);
+    }
+    long count = 0;
+    while (pos < end) {
+      byte b = buffer.get(pos);
+      if (b == '\n' || b == '\r') {
+        // 空行は読み飛ばす
+        pos++;
+        continue;
+      }
+      Employee employee = new Employee();
+      for (int column = 0; column < COLUMN_COUNT; column++) {
+        pos = readField(buffer, pos, end);
+        assign(employee, column);
+        if (column < COLUMN_COUNT - 1) {
+          if (pos >= end || buffer.get(pos) != ',') {
+            throw malformed("列数が不足しています", pos);
+          }
+          pos++;
+        }
+      }
+      pos = skipLineEnd(buffer, pos, end);
+      consumer.accept(employee);
+      count++;
+    }
+    return count;
+  }
+
+  /** 項目を1つ読み込みfieldへ格納し、項目直後の位置を返します ダブルクォートで囲まれた項目はエスケープを解除します */
+  private int readField(ByteBuffer buffer, int pos, int end) {
+    fieldLength = 0;
+    if (pos < end && buffer.get(pos) == '"') {
+      pos++;
+      while (true) {
+        int quote = pos;
+        while (quote < end && buffer.get(quote) != '"') {
+          quote++;
+        }
+        if (quote >= end) {
+          throw malformed("ダブルクォートが閉じられていません", pos);
+        }
+        append(buffer, pos, quote - pos);
+        if (quote + 1 < end && buffer.get(quote + 1) == '"') {
+          // "" はダブルクォート1文字
+          append(buffer, quote, 1);
+          pos = quote + 2;
+        } else {
+          return quote + 1;
+        }
+      }
+    }
+    int fieldEnd = pos;
+    while (fieldEnd < end) {
+      byte b = buffer.get(fieldEnd);
+      if (b == ',' || b == '\n' || b == '\r') {
+        break;
+      }
+      fieldEnd++;
+    }
+    append(buffer, pos, fieldEnd - pos);
+    return fieldEnd;
+  }
+
+  private void assign(Employee employee, int column) {
+    switch (column) {
+      case 0 -> employee.setId(fieldString());
+      case 1 -> employee.setName(fieldString());
+      case 2 -> employee.setDepartment(fieldString());
+      case 3 -> employee.setPosition(fieldString());
+      case 4 -> employee.setEmployment_status(fieldString());
+      case 5 -> employee.setHire_date(fieldDate());
+      case 6 -> employee.setPhone_number(fieldString());
+      case 7 -> employee.setEmail(fieldString());
+      case 8 -> employee.setBirth_date(fieldDate());
+      case 9 -> employee.setGender(fieldString());
+      case 10 -> employee.setCreated_by(fieldString());
+      case 11 -> employee.setCreated_at(fieldDateTime());
+      case 12 -> employee.setUpdated_by(fieldString());
+      case 13 -> employee.setUpdated_at(fieldDateTime());
+      case 14 -> employee.setVersion(fieldLong());
+      default -> throw new IllegalStateException("Unexpected column: " + column);
+    }
+  }
+
+  private String fieldString() {
+    return fieldLength == 0 ? null : new String(field, 0, fieldLength, StandardCharsets.UTF_8);
+  }
+
+  /** yyyy-MM-dd 形式の日付を変換します（それ以外の形式は LocalDate#parse に任せる） */
+  private LocalDate fieldDate() {
+    if (fieldLength == 0) {
+      return null;
+    }
+    if (fieldLength == 10 && field[4] == '-' && field[7] == '-') {
+      return LocalDate.of(digits(0, 4), digits(5, 2), digits(8, 2));
+    }
+    return LocalDate.parse(fieldAscii());
+  }
+
+  /** LocalDateTime#toString() 形式（秒・小数秒は省略可）の日時を変換します */
+  private LocalDateTime fieldDateTime() {
+    if (fieldLength == 0) {
+      return null;
+    }
+    if (fieldLength >= 16
+        && field[4] == '-'
+        && field[7] == '-'
+        && field[10] == 'T'
+        && field[13] == ':') {
+      int second = 0;
+      int nano = 0;
+      if (fieldLength >= 19 && field[16] == ':') {
+        second = digits(17, 2);
+        if (fieldLength > 20 && field[19] == '.') {
+          int fractionDigits = fieldLength - 20;
+          if (fractionDigits > 9) {
+            return LocalDateTime.parse(fieldAscii());
+          }
+          nano = digits(20, fractionDigits);
+          for (int i = fractionDigits; i < 9; i++) {
+            nano *= 10;
+          }
+        } else if (fieldLength != 19) {
+          return LocalDateTime.parse(fieldAscii());
+        }
+      } else if (fieldLength != 16) {
+        return LocalDateTime.parse(fieldAscii());
+      }
+      return LocalDateTime.of(
+          digits(0, 4), digits(5, 2), digits(8, 2), digits(11, 2), digits(14, 2), second, nano);
+    }
+    return LocalDateTime.parse(fieldAscii());
+  }
+
+  private Long fieldLong() {
+    if (fieldLength == 0) {
+      return null;
+    }
+    if (fieldLength > 18) {
+      return Long.valueOf(fieldAscii());
+    }
+    boolean negative = field[0] == '-';
+    int from = negative || field[0] == '+' ? 1 : 0;
+    if (from == fieldLength) {
+      throw new NumberFormatException("数値ではありません: " + fieldAscii());
+    }
+    long value = 0;
+    for (int i = from; i < fieldLength; i++) {
+      int d = field[i] - '0';
+      if (d < 0 || d > 9) {
+        throw new NumberFormatException("数値ではありません: " + fieldAscii());
+      }
+      value = value * 10 + d;
+    }
+    return negative ? -value : value;
+  }
+
+  private int digits(int offset, int length) {
+    int value = 0;
+    for (int i = offset; i < offset + length; i++) {
+      int d = field[i] - '0';
+      if (d < 0 || d > 9) {
+        throw new IllegalArgumentException("日付・日時の形式が不正です: " + fieldAscii());
+      }
+      value = value * 10 + d;
+    }
+    return value;
+  }
+
+  private String fieldAscii() {
+    return new String(field, 0, fieldLength, StandardCharsets.US_ASCII);
+  }
+
+  private void append(ByteBuffer buffer, int pos, int length) {
+    if (fieldLength + length > field.length) {
+      field = Arrays.copyOf(field, Math.max(field.length * 2, fieldLength + length));
+    }
+    buffer.get(pos, field, fieldLength, length);
+    fieldLength += length;
+  }
+
+  private static int skipLineEnd(ByteBuffer buffer, int pos, int end) {
+    if (pos < end && buffer.get(pos) == '\r') {
+      pos++;
+    }
+    if (pos < end) {
+      if (buffer.get(pos) != '\n') {
+        throw malformed("列数が多すぎます", pos);
+      }
+      pos++;
+    }
+    return pos;
+  }
+
+  private static int skipLine(ByteBuffer buffer, int pos, int end) {
+    while (pos < end && buffer.get(pos) != '\n') {
+      pos++;
+    }
+    return Math.min(pos + 1, end);
+  }
+
+  private static boolean startsWith(ByteBuffer buffer, int pos, int end, byte[] prefix) {
+    if (end - pos < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (buffer.get(pos + i) != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static IllegalArgumentException malformed(String reason, int pos) {
+    return new IllegalArgumentException("CSVの形式が不正です（" + reason + "）: position=" + pos);
+  }
+}
@@ -2,20 +2,34 @@ package com.example123.demo.service;
 
 import com.example123.demo.aop.Loggable;
 import com.example123.demo.aop.PerformanceMonitoring;
+import com.example123.demo.batch.AdaptiveBatchSizer;
+import com.example123.demo.batch.AdaptiveBatchSizers;
+import com.example123.demo.batch.BatchRunReport;
+import com.example123.demo.batch.RetryingBatchRunner;
+import com.example123.demo.config.ExecutorConfig;
 import com.example123.demo.domain.Employee;
 import com.example123.demo.repository.EmployeeMapper;
+import com.example123.demo.upsert.UpsertStrategies;
+import com.example123.demo.upsert.UpsertStrategy;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.annotation.Validated;
 
 /** 従業員データの操作を行うサービスクラス データベースへの保存、UPSERT処理、並列処理などの機能を提供します */
@@ -28,13 +42,83 @@ public class EmployeeDataService {
   /** バッチ処理のサイズ SQLServerのパラメーター制限(2100)を考慮し、15カラム × 100レコード = 1500パラメーターとなるように設定 */
   private static final int BATCH_SIZE = 100;
 
+  /** 主キー（ID）の順序 SQL Serverのクラスター化インデックスと同じ順序になるよう文字列の自然順序で比較します */
+  private static final Comparator<Employee> ID_ORDER =
+      Comparator.comparing(Employee::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+  /** 従業員情報の一括登録方式 */
+  public enum InsertMode {
+    /** 100件ずつ複数行のVALUES句を持つINSERT文を発行します（従来の方式） */
+    FOREACH,
+    /** 1行のINSERT文を1つのPreparedStatementへaddBatchし、JDBCバッチとして送信します */
+    JDBC_BATCH,
+    /** SQLServerBulkCopyで送信します SQL Server以外のデータソースではJDBC_BATCHで登録します */
+    BULK_COPY
+  }
+
   private final EmployeeMapper employeeMapper;
   private final DataGenerationService dataGenerationService;
+  private final EmployeeBulkCopyService employeeBulkCopyService;
+  private final UpsertStrategies upsertStrategies;
+
+  /** DBアクセスを行うタスク用の共有スレッドプール */
+  private final ExecutorService dbExecutor;
+
+  /** UPSERTのバッチを一時的なエラーの再実行付きで並列実行するクラス */
+  private final RetryingBatchRunner batchRunner;
+
+  /** UPSERT方式ごとのバッチサイズ調整クラス */
+  private final AdaptiveBatchSizers batchSizers;
+
+  /** JDBCバッチ登録用のMapper（ExecutorType.BATCHのSqlSessionTemplate経由） */
+  private final EmployeeMapper batchEmployeeMapper;
+
+  private final SqlSessionTemplate batchSqlSessionTemplate;
+  private final TransactionTemplate transactionTemplate;
 
+  /** 一括登録方式 */
+  private final InsertMode insertMode;
+
+  /** JDBCバッチ登録で1回のexecuteBatch（および1トランザクション）にまとめる行数 */
+  private final int batchFlushSize;
+
+  /** UPSERTの前にIDの範囲ごとに分割し、範囲ごとにID順で処理するかどうか（falseの場合は入力の順に切り出す） */
+  private final boolean partitionByKey;
+
+  /**
+   * @param insertMode 一括登録方式
+   * @param batchFlushSize JDBCバッチ登録で1回のexecuteBatchにまとめる行数（1以上）
+   * @param partitionByKey trueの場合はUPSERTをIDの範囲ごと、falseの場合は入力の順に切り出したバッチで処理します
+   */
   public EmployeeDataService(
-      EmployeeMapper employeeMapper, DataGenerationService dataGenerationService) {
+      EmployeeMapper employeeMapper,
+      DataGenerationService dataGenerationService,
+      EmployeeBulkCopyService employeeBulkCopyService,
+      UpsertStrategies upsertStrategies,
+      SqlSessionFactory sqlSessionFactory,
+      PlatformTransactionManager transactionManager,
+      @Qualifier(ExecutorConfig.DB_EXECUTOR) ExecutorService dbExecutor,
+      RetryingBatchRunner batchRunner,
+      AdaptiveBatchSizers batchSizers,
+      @Value("${employee.insert.mode:FOREACH}") InsertMode insertMode,
+      @Value("${employee.insert.batch-flush-size:1000}") int batchFlushSize,
+      @Value("${employee.upsert.partition-by-key:true}") boolean partitionByKey) {
+    if (batchFlushSize <= 0) {
+      throw new IllegalArgumentException("バッチサイズは1以上を指定してください: " + batchFlushSize);
+    }
     this.employeeMapper = employeeMapper;
     this.dataGenerationService = dataGenerationService;
+    this.employeeBulkCopyService = employeeBulkCopyService;
+    this.upsertStrategies = upsertStrategies;
+    this.dbExecutor = dbExecutor;
+    this.batchRunner = batchRunner;
+    this.batchSizers = batchSizers;
+    this.batchSqlSessionTemplate = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+    this.batchEmployeeMapper = batchSqlSessionTemplate.getMapper(EmployeeMapper.class);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.insertMode = insertMode;
+    this.batchFlushSize = batchFlushSize;
+    this.partitionByKey = partitionByKey;
   }
 
   /**
@@ -53,104 +137,163 @@ public class EmployeeDataService {
   }
 
   /**
-   * 従業員情報を並列処理でデータベースに保存します 利用可能なプロセッサ数に基づいてスレッドプールを作成し、 バッチサイズごとに分割して並列で保存を行います
+   * 従業員情報を並列処理でデータベースに保存します バッチサイズごとに分割し、DBアクセス用の共有スレッドプールで並列に保存を行います
    *
    * @param employees 保存する従業員情報のリスト
    */
   public void saveEmployeesInParallel(
       @NotEmpty(message = "保存する従業員リストが空です") @Valid List<Employee> employees) {
-    int numThreads = Runtime.getRuntime().availableProcessors();
-    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-
-    try {
-      List<List<Employee>> batches = new ArrayList<>();
-      for (int i = 0; i < employees.size(); i += BATCH_SIZE) {
-        batches.add(
-            new ArrayList<>(employees.subList(i, Math.min(i + BATCH_SIZE, employees.size()))));
-      }
+    if (insertMode == InsertMode.BULK_COPY) {
+      insertEmployeesWithBulkCopy(employees);
+      return;
+    }
+    if (insertMode == InsertMode.JDBC_BATCH) {
+      insertEmployeesWithJdbcBatch(employees);
+      return;
+    }
+    List<List<Employee>> batches = new ArrayList<>();
+    for (int i = 0; i < employees.size(); i += BATCH_SIZE) {
+      batches.add(
+          new ArrayList<>(employees.subList(i, Math.min(i + BATCH_SIZE, employees.size()))));
+    }
 
-      List<Future<?>> futures = new ArrayList<>();
-      for (List<Employee> batch : batches) {
-        futures.add(executor.submit(() -> employeeMapper.bulkInsert(batch)));
-      }
+    List<Future<?>> futures = new ArrayList<>();
+    for (List<Employee> batch : batches) {
+      futures.add(dbExecutor.submit(() -> employeeMapper.bulkInsert(batch)));
+    }
 
-      for (Future<?> future : futures) {
-        try {
-          future.get();
-        } catch (ExecutionException | InterruptedException e) {
-          log.error("Error during parallel bulk insert", e);
-          if (e instanceof InterruptedException) {
-            Thread.currentThread().interrupt();
-          }
-        }
-      }
-    } finally {
-      executor.shutdown();
+    for (Future<?> future : futures) {
       try {
-        if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
-          log.warn("Executor did not terminate in the specified time.");
-          List<Runnable> droppedTasks = executor.shutdownNow();
-          log.warn("Executor was abruptly shut down. {} tasks were dropped.", droppedTasks.size());
-        }
+        future.get();
+      } catch (ExecutionException e) {
+        log.error("Error during parallel bulk insert", e);
       } catch (InterruptedException e) {
-        log.warn("Executor termination was interrupted.", e);
-        executor.shutdownNow();
+        log.error("Parallel bulk insert was interrupted", e);
+        cancelAll(futures);
         Thread.currentThread().interrupt();
+        break;
       }
     }
   }
 
   /**
-   * 従業員情報を一括でUPSERTします。 バッチサイズごとに分割して処理を行います。
+   * 従業員情報をJDBCバッチで並列に登録します 1行のINSERT文をExecutorType.BATCHのSqlSessionで繰り返し呼び出すため、
+   * SQL文は件数によらず同一となり、PreparedStatementの再利用とaddBatch/executeBatchによる一括送信が行われます
    *
-   * @param employees UPSERT対象の従業員情報のリスト
+   * <p>複数行のVALUES句と異なりパラメーター数の上限（2100）に縛られないため、{@code employee.insert.batch-flush-size}
+   * 件ごとに1回のexecuteBatchと1回のコミットを行います 各まとまりは独立したトランザクションで並列に実行されます
+   *
+   * @param employees 保存する従業員情報のリスト
+   * @return 登録件数
    */
   @Loggable(
       level = Loggable.LogLevel.INFO,
       includeArgs = false,
-      includeResult = false,
-      value = "従業員MERGE-UPSERT処理")
-  @PerformanceMonitoring(threshold = 5000, operation = "MERGE_UPSERT_BATCH")
-  public void upsertEmployeesInBatches(List<Employee> employees) {
-    int numThreads = Runtime.getRuntime().availableProcessors();
-    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-
-    try {
-      List<List<Employee>> batches = new ArrayList<>();
-      for (int i = 0; i < employees.size(); i += BATCH_SIZE) {
-        batches.add(
-            new ArrayList<>(employees.subList(i, Math.min(i + BATCH_SIZE, employees.size()))));
-      }
-
-      List<Future<?>> futures = new ArrayList<>();
-      for (List<Employee> batch : batches) {
-        futures.add(executor.submit(() -> employeeMapper.bulkUpsert(batch)));
-      }
+      includeResult = true,
+      value = "従業員データJDBCバッチ登録処理")
+  @PerformanceMonitoring(threshold = 3000, operation = "EMPLOYEE_JDBC_BATCH_INSERT")
+  public int insertEmployeesWithJdbcBatch(List<Employee> employees) {
+    List<Future<Integer>> futures = new ArrayList<>();
+    for (int i = 0; i < employees.size(); i += batchFlushSize) {
+      List<Employee> batch = employees.subList(i, Math.min(i + batchFlushSize, employees.size()));
+      futures.add(dbExecutor.submit(() -> insertBatchInTransaction(batch)));
+    }
 
-      for (Future<?> future : futures) {
-        try {
-          future.get();
-        } catch (ExecutionException | InterruptedException e) {
-          log.error("Error during parallel MERGE upsert", e);
-          if (e instanceof InterruptedException) {
-            Thread.currentThread().interrupt();
-          }
-        }
-      }
-    } finally {
-      executor.shutdown();
+    int totalInserted = 0;
+    for (Future<Integer> future : futures) {
       try {
-        if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
-          log.warn("Executor did not terminate in the specified time.");
-          List<Runnable> droppedTasks = executor.shutdownNow();
-          log.warn("Executor was abruptly shut down. {} tasks were dropped.", droppedTasks.size());
-        }
+        totalInserted += future.get();
+      } catch (ExecutionException e) {
+        log.error("Error during parallel JDBC batch insert", e);
       } catch (InterruptedException e) {
-        log.warn("Executor termination was interrupted.", e);
-        executor.shutdownNow();
+        log.error("Parallel JDBC batch insert was interrupted", e);
+        cancelAll(futures);
         Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    return totalInserted;
+  }
+
+  /**
+   * 従業員情報をSQL Serverの一括コピーで登録します データソースがSQL Server以外の場合は {@link
+   * #insertEmployeesWithJdbcBatch(List)} で登録します
+   *
+   * @param employees 保存する従業員情報のリスト
+   * @return 登録件数
+   */
+  public long insertEmployeesWithBulkCopy(List<Employee> employees) {
+    if (!employeeBulkCopyService.isSupported()) {
+      log.debug("Bulk copy is not supported by the datasource, falling back to JDBC batch insert");
+      return insertEmployeesWithJdbcBatch(employees);
+    }
+    return employeeBulkCopyService.bulkCopy(employees.iterator());
+  }
+
+  /** 1トランザクション内で全件をaddBatchし、1回のexecuteBatchで送信します */
+  private int insertBatchInTransaction(List<Employee> batch) {
+    Integer inserted =
+        transactionTemplate.execute(
+            status -> {
+              for (Employee employee : batch) {
+                batchEmployeeMapper.insert(employee);
+              }
+              return countUpdated(batchSqlSessionTemplate.flushStatements());
+            });
+    return inserted != null ? inserted : 0;
+  }
+
+  /** executeBatchの更新件数を合計します 件数を返さないドライバー（SUCCESS_NO_INFO）の場合は1件として数えます */
+  private static int countUpdated(List<BatchResult> results) {
+    int total = 0;
+    for (BatchResult result : results) {
+      for (int count : result.getUpdateCounts()) {
+        total += count >= 0 ? count : 1;
       }
     }
+    return total;
+  }
+
+  /**
+   * 従業員情報を設定（{@code employee.upsert.strategy}）で指定された方式で一括UPSERTします。 方式ごとのバッチサイズに分割して並列で処理を行います。
+   *
+   * @param employees UPSERT対象の従業員情報のリスト
+   * @return 全体の処理件数を含むMap（updateCount: 更新件数合計, insertCount: 挿入件数合計）
+   */
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "従業員UPSERT処理")
+  @PerformanceMonitoring(threshold = 5000, operation = "UPSERT_BATCH")
+  public java.util.Map<String, Integer> upsertEmployees(List<Employee> employees) {
+    return upsertInBatches(upsertStrategies.getDefault(), employees);
+  }
+
+  /**
+   * 従業員情報を指定した方式で一括UPSERTします。 接続先で利用できない方式の場合はMERGE方式で処理します。
+   *
+   * @param employees UPSERT対象の従業員情報のリスト
+   * @param strategy 方式名（merge、temp-table、tvp、hash）
+   * @return 全体の処理件数を含むMap（updateCount: 更新件数合計, insertCount: 挿入件数合計）
+   */
+  public java.util.Map<String, Integer> upsertEmployees(List<Employee> employees, String strategy) {
+    return upsertInBatches(upsertStrategies.get(strategy), employees);
+  }
+
+  /**
+   * 従業員情報をMERGE方式で一括UPSERTします。 バッチサイズごとに分割して処理を行います。
+   *
+   * @param employees UPSERT対象の従業員情報のリスト
+   */
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "従業員MERGE-UPSERT処理")
+  @PerformanceMonitoring(threshold = 5000, operation = "MERGE_UPSERT_BATCH")
+  public void upsertEmployeesInBatches(List<Employee> employees) {
+    upsertInBatches(upsertStrategies.get("merge"), employees);
   }
 
   /**
@@ -167,57 +310,102 @@ public class EmployeeDataService {
   @PerformanceMonitoring(threshold = 5000, operation = "TEMP_TABLE_UPSERT_BATCH")
   public java.util.Map<String, Integer> upsertEmployeesViaTempTableInBatches(
       List<Employee> employees) {
-    int numThreads = Runtime.getRuntime().availableProcessors();
-    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-
-    int totalUpdateCount = 0;
-    int totalInsertCount = 0;
-
-    try {
-      // バッチ処理
-      List<List<Employee>> batches = new ArrayList<>();
-      for (int i = 0; i < employees.size(); i += BATCH_SIZE) {
-        batches.add(
-            new ArrayList<>(employees.subList(i, Math.min(i + BATCH_SIZE, employees.size()))));
-      }
+    return upsertInBatches(upsertStrategies.get("temp-table"), employees);
+  }
 
-      // 並列処理でバッチを実行
-      List<Future<java.util.Map<String, Integer>>> futures = new ArrayList<>();
-      for (List<Employee> batch : batches) {
-        futures.add(executor.submit(() -> employeeMapper.bulkUpsertViaTempTable(batch)));
-      }
+  /**
+   * 従業員情報をテーブル値パラメーター（TVP）方式で一括UPSERTします {@code employee.upsert.tvp-batch-size}
+   * 件ごとに1回のストアドプロシージャ呼び出しとして並列に処理します
+   *
+   * <p>一時テーブル方式と異なり、行ごとのINSERT文やバッチごとに異なる動的SQLを送信しないため、往復回数と解析コストが最小になります
+   *
+   * @param employees UPSERT対象の従業員情報のリスト
+   * @return 全体の処理件数を含むMap（updateCount: 更新件数合計, insertCount: 挿入件数合計）
+   */
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "従業員TVP-UPSERT処理")
+  @PerformanceMonitoring(threshold = 5000, operation = "TVP_UPSERT_BATCH")
+  public java.util.Map<String, Integer> upsertEmployeesViaTvpInBatches(List<Employee> employees) {
+    return upsertInBatches(upsertStrategies.get("tvp"), employees);
+  }
 
-      for (Future<java.util.Map<String, Integer>> future : futures) {
-        try {
-          java.util.Map<String, Integer> result = future.get();
-          totalUpdateCount += result.get("updateCount");
-          totalInsertCount += result.get("insertCount");
-        } catch (ExecutionException | InterruptedException e) {
-          log.error("Error during parallel Temp Table upsert", e);
-          if (e instanceof InterruptedException) {
-            Thread.currentThread().interrupt();
-          }
-        }
-      }
-    } finally {
-      executor.shutdown();
-      try {
-        if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
-          log.warn("Executor did not terminate in the specified time.");
-          List<Runnable> droppedTasks = executor.shutdownNow();
-          log.warn("Executor was abruptly shut down. {} tasks were dropped.", droppedTasks.size());
-        }
-      } catch (InterruptedException e) {
-        log.warn("Executor termination was interrupted.", e);
-        executor.shutdownNow();
-        Thread.currentThread().interrupt();
-      }
+  /**
+   * 従業員情報を内容ハッシュ比較方式で一括UPSERTします 内容ハッシュが登録済みの値と一致する既存レコードは更新しないため、
+   * 大半が前回と同じ内容で再送されるデータでは更新件数・トランザクションログ・ロック時間が減ります
+   *
+   * @param employees UPSERT対象の従業員情報のリスト
+   * @return 全体の処理件数を含むMap（updateCount: 更新件数合計, insertCount: 挿入件数合計, unchangedCount:
+   *     内容が変わらず更新しなかった件数合計）
+   */
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "従業員ハッシュ比較UPSERT処理")
+  @PerformanceMonitoring(threshold = 5000, operation = "HASH_UPSERT_BATCH")
+  public java.util.Map<String, Integer> upsertEmployeesViaHashInBatches(List<Employee> employees) {
+    return upsertInBatches(upsertStrategies.get("hash"), employees);
+  }
+
+  /** 方式ごとに調整したバッチサイズで分割し、並列でUPSERTして件数を合計します */
+  private java.util.Map<String, Integer> upsertInBatches(
+      UpsertStrategy strategy, List<Employee> employees) {
+    return runUpsert(strategy, employees).toCounts();
+  }
+
+  /**
+   * 従業員情報を指定した方式で一括UPSERTし、バッチごとの結果台帳を返します デッドロックなど一時的なエラーで失敗したバッチは個別に再実行されます
+   *
+   * @param employees UPSERT対象の従業員情報のリスト
+   * @param strategy 方式名（merge、temp-table、tvp、hash）
+   * @return 成功・再実行後に成功・失敗したバッチとそのキー範囲を含む結果台帳
+   */
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "従業員UPSERT処理（結果台帳付き）")
+  @PerformanceMonitoring(threshold = 5000, operation = "UPSERT_BATCH_WITH_REPORT")
+  public BatchRunReport<Employee> upsertEmployeesWithReport(
+      List<Employee> employees, String strategy) {
+    return runUpsert(upsertStrategies.get(strategy), employees);
+  }
+
+  /**
+   * 結果台帳で失敗したバッチだけを、同じ方式で再実行します 処理全体をやり直す必要はありません
+   *
+   * @param report 前回のUPSERTの結果台帳
+   * @return 再実行したバッチの結果台帳
+   */
+  public BatchRunReport<Employee> replayFailedBatches(BatchRunReport<Employee> report) {
+    UpsertStrategy strategy = upsertStrategies.get(report.getOperation());
+    return batchRunner.replayFailed(report, Employee::getId, strategy::upsert);
+  }
+
+  /**
+   * 方式の最大件数を上限に、実測したスループットから調整したバッチサイズで分割して並列にUPSERTします
+   *
+   * <p>IDの範囲ごとに分割する場合は、同時に実行されるバッチが主キー（クラスター化インデックス）の別の範囲を更新するため、
+   * ランダムな順序の入力でもバッチ同士のロック待ち・デッドロックが起きにくくなります
+   */
+  private BatchRunReport<Employee> runUpsert(UpsertStrategy strategy, List<Employee> employees) {
+    AdaptiveBatchSizer sizer =
+        batchSizers.forStatement(strategy.getName(), strategy.getBatchSize());
+    if (partitionByKey) {
+      return batchRunner.runPartitioned(
+          strategy.getName(), employees, ID_ORDER, sizer, Employee::getId, strategy::upsert);
     }
+    return batchRunner.run(strategy.getName(), employees, sizer, Employee::getId, strategy::upsert);
+  }
 
-    java.util.Map<String, Integer> result = new java.util.HashMap<>();
-    result.put("updateCount", totalUpdateCount);
-    result.put("insertCount", totalInsertCount);
-    return result;
+  /** 割り込まれた場合に、共有プールに残っている未完了のタスクを取り消します */
+  private static void cancelAll(List<? extends Future<?>> futures) {
+    for (Future<?> future : futures) {
+      future.cancel(true);
+    }
   }
 
   /** 従業員テーブルのデータを全て削除します。 */
@@ -3,7 +3,11 @@ package com.example123.demo.service;
 import com.example123.demo.aop.Loggable;
 import com.example123.demo.aop.PerformanceMonitoring;
 import com.example123.demo.domain.Employee;
+import com.example123.demo.util.AuditTimestamps;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.springframework.stereotype.Service;
 
 /** 従業員情報を管理するコアサービスクラス 基本的なCRUD操作とデータベース接続機能を提供します */
@@ -13,14 +17,17 @@ public class EmployeeService {
   private final DataGenerationService dataGenerationService;
   private final CsvExportService csvExportService;
   private final EmployeeDataService employeeDataService;
+  private final EmployeeUpsertPipelineService employeeUpsertPipelineService;
 
   public EmployeeService(
       DataGenerationService dataGenerationService,
       CsvExportService csvExportService,
-      EmployeeDataService employeeDataService) {
+      EmployeeDataService employeeDataService,
+      EmployeeUpsertPipelineService employeeUpsertPipelineService) {
     this.dataGenerationService = dataGenerationService;
     this.csvExportService = csvExportService;
     this.employeeDataService = employeeDataService;
+    this.employeeUpsertPipelineService = employeeUpsertPipelineService;
   }
 
   /**
@@ -77,6 +84,76 @@ public class EmployeeService {
     return employeeDataService.upsertEmployeesViaTempTableInBatches(employees);
   }
 
+  /**
+   * 指定件数のランダムな従業員データを生成し、テーブル値パラメーター（TVP）を使用した一括UPSERTを行います。
+   * 既存データとの重複を含み、ストアドプロシージャによるUPSERT処理をテストします。
+   *
+   * @param count 生成する従業員データの件数
+   * @return 処理件数を含むMap（updateCount: 更新件数, insertCount: 挿入件数）
+   */
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = true,
+      includeResult = false,
+      value = "TVP-UPSERT処理")
+  @PerformanceMonitoring(threshold = 5000, operation = "TVP_UPSERT_WITH_DATA_GENERATION")
+  public java.util.Map<String, Integer> generateAndUpsertRandomEmployeesViaTvp(int count) {
+    // 1) 基礎データ（更新対象）を事前投入
+    employeeDataService.prepareBaseDataForUpsert();
+
+    // 2) UPSERT用データを生成（80%更新・20%新規）
+    List<Employee> employees = dataGenerationService.createRandomEmployees(count);
+
+    // 3) TVP経由バッチUPSERT実行
+    return employeeDataService.upsertEmployeesViaTvpInBatches(employees);
+  }
+
+  /**
+   * 指定件数のランダムな従業員データを内容ハッシュ比較方式で一括UPSERTした後、同じデータのうち指定した割合の行だけ内容を変えて再送します。
+   * 再送時は内容が変わらない行を更新しないため、大半が前回と同じ内容の定期連携データを想定した処理をテストします。
+   *
+   * @param count 生成する従業員データの件数
+   * @param changeRatio 再送時に内容を変える行の割合（0.0〜1.0）
+   * @return 再送時の処理件数を含むMap（updateCount: 更新件数, insertCount: 挿入件数, unchangedCount: 更新しなかった件数）
+   */
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = true,
+      includeResult = false,
+      value = "ハッシュ比較UPSERT処理（再送）")
+  @PerformanceMonitoring(threshold = 5000, operation = "HASH_UPSERT_WITH_DATA_GENERATION")
+  public java.util.Map<String, Integer> generateAndResendRandomEmployeesViaHash(
+      int count, double changeRatio) {
+    // 1) 基礎データ（更新対象）を事前投入
+    employeeDataService.prepareBaseDataForUpsert();
+
+    // 2) UPSERT用データを生成（80%更新・20%新規）し、内容ハッシュを登録
+    List<Employee> employees = dataGenerationService.createRandomEmployees(count);
+    employeeDataService.upsertEmployeesViaHashInBatches(employees);
+
+    // 3) 先頭から指定割合の行だけ内容を作り直して再送（先頭は既存IDの更新用データ）
+    List<Employee> resend = new ArrayList<>(employees);
+    int changedCount = (int) Math.round(resend.size() * changeRatio);
+    LocalDateTime now = AuditTimestamps.now();
+    for (int i = 0; i < changedCount; i++) {
+      resend.set(i, dataGenerationService.createEmployeeWithId(resend.get(i).getId(), now));
+    }
+    return employeeDataService.upsertEmployeesViaHashInBatches(resend);
+  }
+
+  /**
+   * 指定件数のランダムな従業員データの生成・検証・UPSERTを、基礎データの投入と同時にパイプラインで進めます。 {@link
+   * #generateAndUpsertRandomEmployees(int)} と同じデータを、各段階の完了を待たずに処理します。 ログと処理時間の計測は委譲先の {@link
+   * EmployeeUpsertPipelineService#generateAndUpsertRandomEmployees(int, String)} で行います。
+   *
+   * @param count 生成する従業員データの件数
+   * @param strategy UPSERT方式の名前（merge / temp-table / tvp / hash）
+   * @return 処理件数と、ステージごとのスループット・キューの滞留数を含むMap
+   */
+  public Map<String, Object> generateAndUpsertRandomEmployeesPipelined(int count, String strategy) {
+    return employeeUpsertPipelineService.generateAndUpsertRandomEmployees(count, strategy);
+  }
+
   @Loggable(
       level = Loggable.LogLevel.INFO,
       includeArgs = false,
@@ -132,4 +209,34 @@ public class EmployeeService {
   public void writeToCsv(List<Employee> employees, String filePath) {
     csvExportService.writeToCsv(employees, filePath);
   }
+
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "CSV出力処理（順序保証マルチスレッド）")
+  @PerformanceMonitoring(threshold = 5000, operation = "CSV_EXPORT_ORDERED_MULTI_THREAD")
+  public void writeToCsvOrdered(List<Employee> employees, String filePath) {
+    csvExportService.writeToCsvOrdered(employees, filePath);
+  }
+
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "CSV出力処理（並列gzip圧縮）")
+  @PerformanceMonitoring(threshold = 5000, operation = "CSV_EXPORT_PARALLEL_GZIP")
+  public void writeToCsvGzip(List<Employee> employees, String filePath) {
+    csvExportService.writeToCsvGzip(employees, filePath);
+  }
+
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "CSV出力処理（カーソルストリーミング）")
+  @PerformanceMonitoring(threshold = 5000, operation = "CSV_EXPORT_CURSOR_STREAMING")
+  public long writeToCsvFromDatabase(String filePath) {
+    return csvExportService.writeToCsvFromDatabase(filePath);
+  }
 }
@@ -0,0 +1,115 @@
+package com.example123.demo.service;
+
+import com.example123.demo.domain.Employee;
+import com.example123.demo.sort.SortKey;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/** 従業員情報を外部ソートする際のソートキーとメモリ見積もりを提供するクラス */
+public final class EmployeeSorting {
+
+  /** Employeeオブジェクト本体（ヘッダー + 15項目の参照） */
+  private static final long EMPLOYEE_SHALLOW_SIZE = 80;
+
+  /** Stringオブジェクトと内部配列のヘッダー */
+  private static final long STRING_OVERHEAD = 40;
+
+  /** LocalDate 1件のサイズ */
+  private static final long DATE_SIZE = 24;
+
+  /** LocalDateTime 1件のサイズ（LocalDate + LocalTimeを含む） */
+  private static final long DATE_TIME_SIZE = 72;
+
+  /** Long 1件のサイズ */
+  private static final long LONG_SIZE = 16;
+
+  private EmployeeSorting() {}
+
+  /**
+   * カンマ区切りの列名からソートキーを作成します 列名はEmployeeの項目名で、後ろに {@code desc} を付けると降順になります IDは自然順（数字部分を数値として比較）で並びます
+   *
+   * <p>例: {@code "department, hire_date desc, id"}
+   *
+   * @param columns ソートする列（先頭から優先）
+   * @return ソートキー
+   * @throws IllegalArgumentException 存在しない列名が指定された場合
+   */
+  public static SortKey<Employee> sortKey(String columns) {
+    SortKey.Builder<Employee> builder = SortKey.builder();
+    for (String spec : columns.split(",")) {
+      String[] parts = spec.trim().split("\\s+");
+      if (parts.length == 0 || parts.length > 2 || parts[0].isEmpty()) {
+        throw new IllegalArgumentException("ソート列の指定が不正です: " + columns);
+      }
+      addColumn(builder, parts[0].toLowerCase(Locale.ROOT));
+      if (parts.length == 2) {
+        String direction = parts[1].toLowerCase(Locale.ROOT);
+        if (direction.equals("desc")) {
+          builder.descending();
+        } else if (!direction.equals("asc")) {
+          throw new IllegalArgumentException("ソート順はascまたはdescで指定してください: " + spec.trim());
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * 従業員1件のヒープ上のサイズを見積もります 文字列は日本語を含む前提で1文字2バイトとして計算します
+   *
+   * @param employee 従業員情報
+   * @return 推定サイズ（バイト）
+   */
+  public static long estimateSize(Employee employee) {
+    return EMPLOYEE_SHALLOW_SIZE
+        + sizeOf(employee.getId())
+        + sizeOf(employee.getName())
+        + sizeOf(employee.getDepartment())
+        + sizeOf(employee.getPosition())
+        + sizeOf(employee.getEmployment_status())
+        + sizeOf(employee.getHire_date())
+        + sizeOf(employee.getPhone_number())
+        + sizeOf(employee.getEmail())
+        + sizeOf(employee.getBirth_date())
+        + sizeOf(employee.getGender())
+        + sizeOf(employee.getCreated_by())
+        + sizeOf(employee.getCreated_at())
+        + sizeOf(employee.getUpdated_by())
+        + sizeOf(employee.getUpdated_at())
+        + (employee.getVersion() == null ? 0 : LONG_SIZE);
+  }
+
+  private static void addColumn(SortKey.Builder<Employee> builder, String column) {
+    switch (column) {
+      case "id" -> builder.natural(Employee::getId);
+      case "name" -> builder.string(Employee::getName);
+      case "department" -> builder.string(Employee::getDepartment);
+      case "position" -> builder.string(Employee::getPosition);
+      case "employment_status" -> builder.string(Employee::getEmployment_status);
+      case "hire_date" -> builder.date(Employee::getHire_date);
+      case "phone_number" -> builder.string(Employee::getPhone_number);
+      case "email" -> builder.string(Employee::getEmail);
+      case "birth_date" -> builder.date(Employee::getBirth_date);
+      case "gender" -> builder.string(Employee::getGender);
+      case "created_by" -> builder.string(Employee::getCreated_by);
+      case "created_at" -> builder.dateTime(Employee::getCreated_at);
+      case "updated_by" -> builder.string(Employee::getUpdated_by);
+      case "updated_at" -> builder.dateTime(Employee::getUpdated_at);
+      case "version" -> builder.longValue(Employee::getVersion);
+      default -> throw new IllegalArgumentException("ソートできない列です: " + column);
+    }
+  }
+
+  private static long sizeOf(String value) {
+    return value == null ? 0 : STRING_OVERHEAD + 2L * value.length();
+  }
+
+  private static long sizeOf(LocalDate value) {
+    return value == null ? 0 : DATE_SIZE;
+  }
+
+  private static long sizeOf(LocalDateTime value) {
+    return value == null ? 0 : DATE_TIME_SIZE;
+  }
+}
@@ -0,0 +1,329 @@
+package com.example123.demo.service;
+
+import com.example123.demo.aop.Loggable;
+import com.example123.demo.aop.PerformanceMonitoring;
+import com.example123.demo.batch.AdaptiveBatchSizer;
+import com.example123.demo.batch.AdaptiveBatchSizers;
+import com.example123.demo.batch.BatchOutcome;
+import com.example123.demo.batch.BatchRunReport;
+import com.example123.demo.batch.RetryingBatchRunner;
+import com.example123.demo.config.ExecutorConfig;
+import com.example123.demo.domain.Employee;
+import com.example123.demo.pipeline.StageMetrics;
+import com.example123.demo.pipeline.StagedPipeline;
+import com.example123.demo.upsert.UpsertStrategies;
+import com.example123.demo.upsert.UpsertStrategy;
+import com.example123.demo.util.AuditTimestamps;
+import jakarta.validation.Validator;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * ランダムな従業員データの生成からUPSERTまでを、有界キューでつないだステージで同時に進めるサービスクラス
+ *
+ * <p>{@link EmployeeService#generateAndUpsertRandomEmployees(int)} は基礎データの投入・全件の生成・UPSERTを順に実行するため、
+ * 処理時間は各段階の合計になります このクラスは次のステージを同時に実行し、前段が生成した分から順に後段へ渡します
+ *
+ * <ol>
+ *   <li>seed: 更新対象となる基礎データの投入
+ *   <li>generate: UPSERT用データの生成（チャンク単位）
+ *   <li>validate: Bean Validationによる検証（違反した行は除外）
+ *   <li>bind: 調整後のバッチサイズでのバッチの切り出しとID順の並べ替え（SQL文1回分のパラメーターの組み立て）
+ *   <li>execute: DBアクセス用スレッドプールでのバッチの並列実行（一時的なエラーは再実行）
+ * </ol>
+ *
+ * <p>キューが満杯になると前段が待機するため、メモリに保持するデータはキューの容量分に抑えられます 処理時間は最も遅いステージ（通常はexecute） の処理時間に近づきます
+ * 結果にはステージごとの処理件数・スループット・稼働率・入力キューの滞留数を含めます
+ *
+ * <p>データ全体を受け取る前にバッチを実行するため、 {@link EmployeeDataService} のようにデータ全体をIDの範囲で分割することはできません
+ * バッチ内だけをID順に並べ替えます
+ */
+@Service
+public class EmployeeUpsertPipelineService {
+
+  private static final Logger log = LoggerFactory.getLogger(EmployeeUpsertPipelineService.class);
+
+  /** キューの終端を表す要素（同一性で比較するため、空のチャンク・バッチはキューに入れません） */
+  private static final List<Employee> END_OF_STREAM = List.of();
+
+  /** 主キー（ID）の順序 */
+  private static final Comparator<Employee> ID_ORDER =
+      Comparator.comparing(Employee::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+  private final DataGenerationService dataGenerationService;
+  private final EmployeeDataService employeeDataService;
+  private final UpsertStrategies upsertStrategies;
+  private final AdaptiveBatchSizers batchSizers;
+  private final RetryingBatchRunner batchRunner;
+  private final Validator validator;
+
+  /** DBアクセスを行うタスク用の共有スレッドプール */
+  private final ExecutorService dbExecutor;
+
+  /** generateステージが1回に生成する件数 */
+  private final int chunkSize;
+
+  /** ステージ間のキューの容量（チャンク・バッチの数） */
+  private final int queueCapacity;
+
+  /**
+   * @param chunkSize generateステージが1回に生成してキューに渡す件数
+   * @param queueCapacity ステージ間のキューの容量（チャンク・バッチの数）
+   */
+  public EmployeeUpsertPipelineService(
+      DataGenerationService dataGenerationService,
+      EmployeeDataService employeeDataService,
+      UpsertStrategies upsertStrategies,
+      AdaptiveBatchSizers batchSizers,
+      RetryingBatchRunner batchRunner,
+      Validator validator,
+      @Qualifier(ExecutorConfig.DB_EXECUTOR) ExecutorService dbExecutor,
+      @Value("${employee.pipeline.chunk-size:500}") int chunkSize,
+      @Value("${employee.pipeline.queue-capacity:4}") int queueCapacity) {
+    if (chunkSize <= 0 || queueCapacity <= 0) {
+      throw new IllegalArgumentException(
+          "チャンクの件数とキューの容量は1以上を指定してください: " + chunkSize + ", " + queueCapacity);
+    }
+    this.dataGenerationService = dataGenerationService;
+    this.employeeDataService = employeeDataService;
+    this.upsertStrategies = upsertStrategies;
+    this.batchSizers = batchSizers;
+    this.batchRunner = batchRunner;
+    this.validator = validator;
+    this.dbExecutor = dbExecutor;
+    this.chunkSize = chunkSize;
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * 基礎データの投入と、指定件数のランダムな従業員データ（80%更新・20%新規）の生成・検証・UPSERTを同時に進めます
+   *
+   * @param count 生成する従業員データの件数
+   * @param strategyName UPSERT方式の名前（merge / temp-table / tvp / hash）
+   * @return 処理件数（updateCount・insertCount・unchangedCount・rejectedCount・retriedBatchCount・
+   *     failedBatchCount）、全体の処理時間（wallTimeMillis）、最も遅いステージ（bottleneckStage）とステージごとの計測値（stages）を含むMap
+   */
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = true,
+      includeResult = false,
+      value = "パイプラインUPSERT処理")
+  @PerformanceMonitoring(threshold = 5000, operation = "PIPELINED_UPSERT_WITH_DATA_GENERATION")
+  public Map<String, Object> generateAndUpsertRandomEmployees(int count, String strategyName) {
+    UpsertStrategy strategy = upsertStrategies.get(strategyName);
+    AdaptiveBatchSizer sizer =
+        batchSizers.forStatement(strategy.getName(), strategy.getBatchSize());
+    int parallelism = batchRunner.getParallelism();
+
+    BlockingQueue<List<Employee>> generated = new ArrayBlockingQueue<>(queueCapacity);
+    BlockingQueue<List<Employee>> validated = new ArrayBlockingQueue<>(queueCapacity);
+    // 実行待ちのバッチは、すべてのDBワーカーが次のバッチをすぐに受け取れるだけ保持する
+    BlockingQueue<List<Employee>> bound =
+        new ArrayBlockingQueue<>(Math.max(queueCapacity, parallelism));
+
+    StageMetrics seed = new StageMetrics("seed", 1, 0);
+    StageMetrics generate = new StageMetrics("generate", 1, 0);
+    StageMetrics validate = new StageMetrics("validate", 1, generated.remainingCapacity());
+    StageMetrics bind = new StageMetrics("bind", 1, validated.remainingCapacity());
+    StageMetrics execute = new StageMetrics("execute", parallelism, bound.remainingCapacity());
+    CountDownLatch seeded = new CountDownLatch(1);
+    AtomicInteger rejected = new AtomicInteger();
+    List<BatchOutcome<Employee>> outcomes = Collections.synchronizedList(new ArrayList<>());
+
+    long start = System.nanoTime();
+    new StagedPipeline("upsert-pipeline")
+        .stage("seed", () -> seed(seed, seeded))
+        .stage("generate", () -> generate(count, generated, generate))
+        .stage("validate", () -> validate(generated, validated, validate, rejected))
+        .stage("bind", () -> bind(validated, bound, sizer, bind))
+        .stage(
+            "execute",
+            () -> execute(strategy, sizer, parallelism, seeded, bound, execute, outcomes))
+        .run();
+    long wallTimeMillis = (System.nanoTime() - start) / 1_000_000;
+
+    BatchRunReport<Employee> report = batchRunner.summarize(strategy.getName(), outcomes);
+    List<StageMetrics> stages = List.of(seed, generate, validate, bind, execute);
+    StageMetrics bottleneck =
+        stages.stream()
+            .max(Comparator.comparingDouble(s -> (double) s.getBusyNanos() / s.getWorkers()))
+            .orElseThrow();
+
+    Map<String, Object> result = new LinkedHashMap<>(report.toCounts());
+    result.put("rejectedCount", rejected.get());
+    result.put("wallTimeMillis", wallTimeMillis);
+    result.put("bottleneckStage", bottleneck.getName());
+    result.put("stages", stages.stream().map(StageMetrics::toMap).toList());
+    for (StageMetrics stage : stages) {
+      log.info("Pipeline stage {}", stage.toMap());
+    }
+    log.info(
+        "Pipelined {} upsert of {} rows finished in {} ms (bottleneck: {})",
+        strategy.getName(),
+        count,
+        wallTimeMillis,
+        bottleneck.getName());
+    return result;
+  }
+
+  /** 更新対象の基礎データを投入し、executeステージの開始を許可します */
+  private void seed(StageMetrics metrics, CountDownLatch seeded) {
+    long begin = metrics.begin();
+    List<Employee> baseEmployees = dataGenerationService.createBaseDataForUpsert();
+    employeeDataService.saveEmployeesInParallel(baseEmployees);
+    metrics.end(begin, baseEmployees.size());
+    seeded.countDown();
+  }
+
+  /** UPSERT用のIDを決め、チャンク単位で従業員データを生成して次段へ渡します */
+  private void generate(int count, BlockingQueue<List<Employee>> out, StageMetrics metrics)
+      throws InterruptedException {
+    long begin = metrics.begin();
+    List<String> ids = dataGenerationService.createRandomUpsertIds(count);
+    LocalDateTime now = AuditTimestamps.now();
+    metrics.end(begin, 0);
+
+    for (int i = 0; i < ids.size(); i += chunkSize) {
+      begin = metrics.begin();
+      List<String> chunkIds = ids.subList(i, Math.min(i + chunkSize, ids.size()));
+      List<Employee> chunk = new ArrayList<>(chunkIds.size());
+      for (String id : chunkIds) {
+        chunk.add(dataGenerationService.createEmployeeWithId(id, now));
+      }
+      metrics.end(begin, chunk.size());
+      out.put(chunk);
+    }
+    out.put(END_OF_STREAM);
+  }
+
+  /** Bean Validationの制約に違反した行を除外して次段へ渡します */
+  private void validate(
+      BlockingQueue<List<Employee>> in,
+      BlockingQueue<List<Employee>> out,
+      StageMetrics metrics,
+      AtomicInteger rejected)
+      throws InterruptedException {
+    while (true) {
+      metrics.sampleInputDepth(in.size());
+      List<Employee> chunk = in.take();
+      if (chunk == END_OF_STREAM) {
+        break;
+      }
+      long begin = metrics.begin();
+      List<Employee> valid = new ArrayList<>(chunk.size());
+      for (Employee employee : chunk) {
+        if (validator.validate(employee).isEmpty()) {
+          valid.add(employee);
+        } else {
+          rejected.incrementAndGet();
+          log.debug("Employee {} rejected by validation", employee.getId());
+        }
+      }
+      metrics.end(begin, chunk.size());
+      if (!valid.isEmpty()) {
+        out.put(valid);
+      }
+    }
+    out.put(END_OF_STREAM);
+  }
+
+  /** 検証済みの行を、その時点の調整後のバッチサイズで切り出してID順に並べ、次段へ渡します */
+  private void bind(
+      BlockingQueue<List<Employee>> in,
+      BlockingQueue<List<Employee>> out,
+      AdaptiveBatchSizer sizer,
+      StageMetrics metrics)
+      throws InterruptedException {
+    List<Employee> pending = new ArrayList<>();
+    while (true) {
+      metrics.sampleInputDepth(in.size());
+      List<Employee> chunk = in.take();
+      if (chunk == END_OF_STREAM) {
+        break;
+      }
+      long begin = metrics.begin();
+      pending.addAll(chunk);
+      List<List<Employee>> batches = new ArrayList<>();
+      for (int size = sizer.nextBatchSize(); pending.size() >= size; size = sizer.nextBatchSize()) {
+        List<Employee> head = pending.subList(0, size);
+        List<Employee> batch = new ArrayList<>(head);
+        head.clear();
+        batch.sort(ID_ORDER);
+        batches.add(batch);
+      }
+      metrics.end(begin, chunk.size());
+      for (List<Employee> batch : batches) {
+        out.put(batch);
+      }
+    }
+    if (!pending.isEmpty()) {
+      pending.sort(ID_ORDER);
+      out.put(pending);
+    }
+    out.put(END_OF_STREAM);
+  }
+
+  /**
+   * 基礎データの投入を待ってから、バッチをDBアクセス用スレッドプールで並列に実行します 実行中のバッチ数は並列数までとし、
+   * すべてのワーカーが処理中の間はキューから取り出しません（取り出さない間は前段が待機します）
+   */
+  private void execute(
+      UpsertStrategy strategy,
+      AdaptiveBatchSizer sizer,
+      int parallelism,
+      CountDownLatch seeded,
+      BlockingQueue<List<Employee>> in,
+      StageMetrics metrics,
+      List<BatchOutcome<Employee>> outcomes)
+      throws InterruptedException {
+    // 基礎データより先に実行すると、更新対象の行が新規として挿入され、基礎データの投入が主キー違反になる
+    seeded.await();
+
+    Semaphore slots = new Semaphore(parallelism);
+    int index = 0;
+    while (true) {
+      metrics.sampleInputDepth(in.size());
+      List<Employee> batch = in.take();
+      if (batch == END_OF_STREAM) {
+        break;
+      }
+      slots.acquire();
+      int batchIndex = index++;
+      dbExecutor.execute(
+          () -> {
+            try {
+              long begin = metrics.begin();
+              outcomes.add(
+                  batchRunner.runBatch(
+                      strategy.getName(),
+                      batchIndex,
+                      batch,
+                      sizer,
+                      Employee::getId,
+                      strategy::upsert));
+              metrics.end(begin, batch.size());
+            } finally {
+              slots.release();
+            }
+          });
+    }
+    // 実行中のバッチがすべて終わるまで待機する
+    slots.acquire(parallelism);
+  }
+}
@@ -0,0 +1,179 @@
+package com.example123.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** 非同期エクスポートジョブの状態 進捗（出力件数・バイト数）はジョブ実行スレッドが更新し、参照は任意のスレッドから行えます */
+public final class ExportJob {
+
+  /** ジョブの状態 */
+  public enum Status {
+    /** 実行待ち */
+    QUEUED,
+    /** 実行中 */
+    RUNNING,
+    /** 正常終了 */
+    COMPLETED,
+    /** 異常終了 */
+    FAILED,
+    /** キャンセル済み */
+    CANCELLED;
+
+    /** 終了状態（これ以上状態が変わらない）かどうか */
+    public boolean isFinished() {
+      return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
+  }
+
+  private final String id;
+  private final String filePath;
+  private final boolean gzip;
+  private final LocalDateTime submittedAt = LocalDateTime.now();
+
+  private final AtomicReference<Status> status = new AtomicReference<>(Status.QUEUED);
+  private volatile long totalRows = -1;
+  private volatile long rowsWritten;
+  private volatile long bytesWritten;
+  private volatile long startedNanos;
+  private volatile long finishedNanos;
+  private volatile LocalDateTime finishedAt;
+  private volatile String errorMessage;
+  private volatile boolean cancelRequested;
+  private volatile Future<?> future;
+
+  ExportJob(String id, String filePath, boolean gzip) {
+    this.id = id;
+    this.filePath = filePath;
+    this.gzip = gzip;
+  }
+
+  /** ジョブID */
+  public String getId() {
+    return id;
+  }
+
+  /** 出力先のファイルパス */
+  public String getFilePath() {
+    return filePath;
+  }
+
+  /** gzip圧縮して出力するかどうか */
+  public boolean isGzip() {
+    return gzip;
+  }
+
+  /** ジョブの状態 */
+  public Status getStatus() {
+    return status.get();
+  }
+
+  /** 受付日時 */
+  public LocalDateTime getSubmittedAt() {
+    return submittedAt;
+  }
+
+  /** 終了日時（終了していない場合はnull） */
+  public LocalDateTime getFinishedAt() {
+    return finishedAt;
+  }
+
+  /** 出力対象の件数（開始前は-1） 開始時点の件数のため、実行中の更新により実際の出力件数と異なる場合があります */
+  public long getTotalRows() {
+    return totalRows;
+  }
+
+  /** 出力済みの件数 */
+  public long getRowsWritten() {
+    return rowsWritten;
+  }
+
+  /** 出力済みのバイト数（gzip圧縮時は圧縮後のバイト数） */
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  /** 異常終了時のエラーメッセージ */
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  /** キャンセルが要求されたかどうか */
+  public boolean isCancelRequested() {
+    return cancelRequested;
+  }
+
+  /** 実行時間（開始前はゼロ、実行中は現在までの時間） */
+  public Duration getElapsed() {
+    long started = startedNanos;
+    if (started == 0) {
+      return Duration.ZERO;
+    }
+    long finished = finishedNanos;
+    return Duration.ofNanos((finished != 0 ? finished : System.nanoTime()) - started);
+  }
+
+  /** 1秒あたりの出力件数（開始前は0） */
+  public double getRowsPerSecond() {
+    long elapsedNanos = getElapsed().toNanos();
+    return elapsedNanos == 0 ? 0 : rowsWritten * 1_000_000_000.0 / elapsedNanos;
+  }
+
+  /** 残り時間の見積もり（実行中で見積もりができる場合のみ、それ以外はnull） */
+  public Duration getEstimatedRemaining() {
+    double rowsPerSecond = getRowsPerSecond();
+    long total = totalRows;
+    if (status.get() != Status.RUNNING || rowsPerSecond <= 0 || total < 0) {
+      return null;
+    }
+    long remaining = Math.max(0, total - rowsWritten);
+    return Duration.ofMillis((long) (remaining * 1000 / rowsPerSecond));
+  }
+
+  void setFuture(Future<?> future) {
+    this.future = future;
+  }
+
+  Future<?> getFuture() {
+    return future;
+  }
+
+  void requestCancel() {
+    cancelRequested = true;
+  }
+
+  /** 実行待ちから実行中へ移行します キャンセル済みの場合はfalseを返します */
+  boolean start() {
+    if (!status.compareAndSet(Status.QUEUED, Status.RUNNING)) {
+      return false;
+    }
+    this.startedNanos = System.nanoTime();
+    return true;
+  }
+
+  /** 実行待ちのままキャンセルします 既に実行が始まっている場合はfalseを返します */
+  boolean cancelIfQueued() {
+    if (!status.compareAndSet(Status.QUEUED, Status.CANCELLED)) {
+      return false;
+    }
+    this.finishedAt = LocalDateTime.now();
+    return true;
+  }
+
+  void setTotalRows(long totalRows) {
+    this.totalRows = totalRows;
+  }
+
+  void updateProgress(long rowsWritten, long bytesWritten) {
+    this.rowsWritten = rowsWritten;
+    this.bytesWritten = bytesWritten;
+  }
+
+  void finish(Status status, String errorMessage) {
+    this.finishedNanos = System.nanoTime();
+    this.finishedAt = LocalDateTime.now();
+    this.errorMessage = errorMessage;
+    this.status.set(status);
+  }
+}
@@ -0,0 +1,233 @@
+package com.example123.demo.service;
+
+import com.example123.demo.repository.EmployeeMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * 従業員データのCSV出力を非同期ジョブとして実行するサービスクラス
+ *
+ * <p>ジョブは同時実行数と待ち行列の長さが上限付きの専用スレッドプールで実行され、上限を超えた投入は {@link RejectedExecutionException} で拒否されます
+ * 共有ノードで大量の出力が同時に走り、CPUやディスクを奪い合うことを防ぎます
+ *
+ * <p>キャンセルは協調的に行います 実行中のジョブはスレッドへの割り込みにより次の書き込みの時点で中断し、書きかけのファイルは削除されます
+ * 終了したジョブの情報と出力ファイルは保持期間を過ぎると削除されます 削除は次のジョブの投入時に行うため、投入がない間は保持期間を過ぎても残ります
+ */
+@Service
+public class ExportJobService {
+
+  private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+
+  /** 出力ファイルの書き込みバッファサイズ（バイト） */
+  private static final int OUTPUT_BUFFER_SIZE = 256 * 1024;
+
+  private final CsvExportService csvExportService;
+  private final EmployeeMapper employeeMapper;
+  private final Path outputDirectory;
+  private final Duration retention;
+  private final ThreadPoolExecutor executor;
+  private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+  public ExportJobService(
+      CsvExportService csvExportService,
+      EmployeeMapper employeeMapper,
+      @Value("${export.job.directory:exports/jobs}") String outputDirectory,
+      @Value("${export.job.concurrency:2}") int concurrency,
+      @Value("${export.job.queue-capacity:8}") int queueCapacity,
+      @Value("${export.job.retention-minutes:60}") long retentionMinutes) {
+    this.csvExportService = csvExportService;
+    this.employeeMapper = employeeMapper;
+    this.outputDirectory = Path.of(outputDirectory);
+    this.retention = Duration.ofMinutes(retentionMinutes);
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            concurrency,
+            concurrency,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread = new Thread(runnable, "export-job-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * CSV出力ジョブを投入します
+   *
+   * @param gzip gzip圧縮して出力するかどうか
+   * @return 投入したジョブ
+   * @throws RejectedExecutionException 実行待ちのジョブが上限に達している場合
+   */
+  public ExportJob submit(boolean gzip) {
+    purgeExpiredJobs();
+    String id = UUID.randomUUID().toString();
+    Path file = outputDirectory.resolve("employees-" + id + (gzip ? ".csv.gz" : ".csv"));
+    ExportJob job = new ExportJob(id, file.toString(), gzip);
+    try {
+      job.setFuture(executor.submit(() -> run(job, file)));
+    } catch (RejectedExecutionException e) {
+      log.warn(
+          "Export job queue is full: active={}, queued={}",
+          executor.getActiveCount(),
+          executor.getQueue().size());
+      throw e;
+    }
+    jobs.put(id, job);
+    log.info("エクスポートジョブ受付: jobId={}, gzip={}", id, gzip);
+    return job;
+  }
+
+  /**
+   * ジョブを取得します
+   *
+   * @param jobId ジョブID
+   * @return ジョブ（存在しない場合は空）
+   */
+  public Optional<ExportJob> find(String jobId) {
+    return Optional.ofNullable(jobs.get(jobId));
+  }
+
+  /**
+   * ジョブのキャンセルを要求します 実行待ちのジョブはそのままキャンセルされ、実行中のジョブは次の書き込みの時点で中断します
+   *
+   * @param jobId ジョブID
+   * @return キャンセルを要求したジョブ（存在しない場合は空）
+   */
+  public Optional<ExportJob> cancel(String jobId) {
+    ExportJob job = jobs.get(jobId);
+    if (job == null || job.getStatus().isFinished()) {
+      return Optional.ofNullable(job);
+    }
+    job.requestCancel();
+    if (job.cancelIfQueued()) {
+      // 実行待ちのジョブは待ち行列から取り除き、枠を空ける
+      job.getFuture().cancel(false);
+      executor.purge();
+    } else {
+      // 実行中のジョブはスレッドへの割り込みで書き込みを中断させる（状態は実行スレッドが確定させる）
+      job.getFuture().cancel(true);
+    }
+    log.info("エクスポートジョブのキャンセル要求: jobId={}, status={}", jobId, job.getStatus());
+    return Optional.of(job);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private void run(ExportJob job, Path file) {
+    if (!job.start()) {
+      return;
+    }
+    try {
+      job.setTotalRows(employeeMapper.countAll());
+      Files.createDirectories(file.getParent());
+      try (CountingOutputStream counter = new CountingOutputStream(Files.newOutputStream(file));
+          OutputStream out = wrap(counter, job.isGzip())) {
+        csvExportService.writeCsvFromDatabase(
+            out, rows -> job.updateProgress(rows, counter.getCount()));
+      }
+      job.finish(ExportJob.Status.COMPLETED, null);
+      log.info(
+          "エクスポートジョブ完了: jobId={}, rows={}, bytes={}",
+          job.getId(),
+          job.getRowsWritten(),
+          job.getBytesWritten());
+    } catch (InterruptedIOException e) {
+      deleteQuietly(file);
+      job.finish(ExportJob.Status.CANCELLED, null);
+      log.info("エクスポートジョブを中断しました: jobId={}, rows={}", job.getId(), job.getRowsWritten());
+    } catch (IOException | RuntimeException e) {
+      deleteQuietly(file);
+      if (job.isCancelRequested()) {
+        // 割り込みによりJDBCドライバーなどが別の例外で中断した場合もキャンセルとして扱う
+        job.finish(ExportJob.Status.CANCELLED, null);
+      } else {
+        job.finish(ExportJob.Status.FAILED, e.getMessage());
+        log.error("Export job failed: jobId={}", job.getId(), e);
+      }
+    }
+  }
+
+  private static OutputStream wrap(OutputStream out, boolean gzip) throws IOException {
+    return gzip
+        ? new GZIPOutputStream(out, OUTPUT_BUFFER_SIZE)
+        : new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE);
+  }
+
+  /** 保持期間を過ぎた終了済みのジョブを削除します 完了したジョブの出力ファイルも削除し、出力先ディレクトリに残さないようにします */
+  private void purgeExpiredJobs() {
+    LocalDateTime threshold = LocalDateTime.now().minus(retention);
+    Iterator<ExportJob> iterator = jobs.values().iterator();
+    while (iterator.hasNext()) {
+      ExportJob job = iterator.next();
+      if (job.getStatus().isFinished()
+          && job.getFinishedAt() != null
+          && job.getFinishedAt().isBefore(threshold)) {
+        iterator.remove();
+        deleteQuietly(Path.of(job.getFilePath()));
+        log.info("保持期間を過ぎたエクスポートジョブを削除しました: jobId={}", job.getId());
+      }
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("Failed to delete export file: {}", file, e);
+    }
+  }
+
+  /** 書き込んだバイト数を数える出力ストリーム（実行スレッドが書き込み、進捗参照時に読み取る） */
+  private static final class CountingOutputStream extends FilterOutputStream {
+    private volatile long count;
+
+    CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+
+    long getCount() {
+      return count;
+    }
+  }
+}
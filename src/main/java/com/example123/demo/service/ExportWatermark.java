@@ -0,0 +1,140 @@
+package com.example123.demo.service;
+
+import com.example123.demo.domain.Employee;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * 差分出力の基準位置（ウォーターマーク） 前回出力した最後の行の (updated_at, id) を保持し、次回はこの位置より後の行だけを出力します
+ *
+ * <p>updated_atが同じ行が複数ある場合もidで順序が一意に決まるため、前回の出力途中の行を重複・欠落なく再開できます
+ */
+public final class ExportWatermark {
+
+  /** 一度も出力していない状態（全行が出力対象） */
+  public static final ExportWatermark INITIAL = new ExportWatermark(null, null);
+
+  private static final String KEY_UPDATED_AT = "updatedAt";
+  private static final String KEY_ID = "id";
+
+  private final LocalDateTime updatedAt;
+  private final String id;
+
+  public ExportWatermark(LocalDateTime updatedAt, String id) {
+    this.updatedAt = updatedAt;
+    this.id = id;
+  }
+
+  /**
+   * 指定した従業員情報の位置を表すウォーターマークを返します updated_atがnullの行は位置を持たないため、その場合は現在の値を返します
+   *
+   * @param employee 出力した従業員情報
+   * @return 新しいウォーターマーク
+   */
+  public ExportWatermark advanceTo(Employee employee) {
+    if (employee.getUpdated_at() == null) {
+      return this;
+    }
+    return new ExportWatermark(employee.getUpdated_at(), employee.getId());
+  }
+
+  /** 最後に出力した行のupdated_at（未出力の場合はnull） */
+  public LocalDateTime getUpdatedAt() {
+    return updatedAt;
+  }
+
+  /** 最後に出力した行のid（未出力の場合はnull） */
+  public String getId() {
+    return id;
+  }
+
+  /** 一度も出力していない状態かどうか */
+  public boolean isInitial() {
+    return updatedAt == null;
+  }
+
+  /**
+   * ファイルからウォーターマークを読み込みます ファイルが存在しない場合は {@link #INITIAL} を返します
+   *
+   * @param file ウォーターマークファイル
+   * @return 読み込んだウォーターマーク
+   * @throws IOException 読み込みに失敗した場合
+   */
+  public static ExportWatermark load(Path file) throws IOException {
+    if (!Files.exists(file)) {
+      return INITIAL;
+    }
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+    }
+    return fromProperties(properties, "");
+  }
+
+  /**
+   * ウォーターマークをファイルへ保存します 一時ファイルへ書き込んでから置き換えるため、途中で異常終了しても前回の値が壊れることはありません
+   *
+   * @param file ウォーターマークファイル
+   * @throws IOException 書き込みに失敗した場合
+   */
+  public void store(Path file) throws IOException {
+    Properties properties = new Properties();
+    putTo(properties, "");
+    storeAtomically(properties, file, "employees export watermark");
+  }
+
+  void putTo(Properties properties, String prefix) {
+    if (updatedAt != null) {
+      properties.setProperty(prefix + KEY_UPDATED_AT, updatedAt.toString());
+      properties.setProperty(prefix + KEY_ID, id);
+    }
+  }
+
+  static ExportWatermark fromProperties(Properties properties, String prefix) {
+    String updatedAt = properties.getProperty(prefix + KEY_UPDATED_AT);
+    if (updatedAt == null || updatedAt.isEmpty()) {
+      return INITIAL;
+    }
+    return new ExportWatermark(
+        LocalDateTime.parse(updatedAt), properties.getProperty(prefix + KEY_ID, ""));
+  }
+
+  /** プロパティを一時ファイルへ書き込み、アトミックに置き換えます */
+  static void storeAtomically(Properties properties, Path file, String comment) throws IOException {
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      properties.store(writer, comment);
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ExportWatermark)) {
+      return false;
+    }
+    ExportWatermark other = (ExportWatermark) o;
+    return Objects.equals(updatedAt, other.updatedAt) && Objects.equals(id, other.id);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(updatedAt, id);
+  }
+
+  @Override
+  public String toString() {
+    return "ExportWatermark{updatedAt=" + updatedAt + ", id=" + id + "}";
+  }
+}
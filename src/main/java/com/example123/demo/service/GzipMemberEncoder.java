@@ -0,0 +1,64 @@
+package com.example123.demo.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * データ片を独立したgzipメンバー（ヘッダー + deflate圧縮データ + CRC32/サイズのトレーラー）へ圧縮するエンコーダー
+ *
+ * <p>gzipメンバーを順番に連結したファイルは、標準のgunzipや {@link java.util.zip.GZIPInputStream}
+ * でそのまま1つのファイルとして展開できます（pigzと同じ方式） 各メンバーは独立しているため、複数スレッドで並列に圧縮できます
+ *
+ * <p>インスタンスはスレッドセーフではありません スレッドごとに1つ用意して使い回してください
+ */
+final class GzipMemberEncoder {
+
+  /** gzipヘッダー（マジックナンバー、deflate、フラグなし、更新時刻なし、OS不明） */
+  private static final byte[] HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+  /** ヘッダーとトレーラー（CRC32 + 元サイズ）のバイト数 */
+  private static final int OVERHEAD = HEADER.length + 8;
+
+  private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+  private final CRC32 crc = new CRC32();
+
+  /**
+   * 指定サイズのデータを圧縮した場合のgzipメンバーの最大サイズを返します（圧縮できないデータでも収まる上限）
+   *
+   * @param length 圧縮前のバイト数
+   * @return gzipメンバーの最大バイト数
+   */
+  static int maxMemberSize(int length) {
+    return length + (length >> 10) + 64 + OVERHEAD;
+  }
+
+  /**
+   * データを1つのgzipメンバーとして書き込みます
+   *
+   * @param data 圧縮するデータ
+   * @param length 先頭からの有効バイト数
+   * @param target 書き込み先（残り容量が {@link #maxMemberSize(int)} 以上であること）
+   */
+  void writeMember(byte[] data, int length, ByteBuffer target) {
+    crc.reset();
+    crc.update(data, 0, length);
+
+    target.put(HEADER);
+    deflater.reset();
+    deflater.setInput(data, 0, length);
+    deflater.finish();
+    while (!deflater.finished()) {
+      if (deflater.deflate(target) == 0 && !target.hasRemaining()) {
+        throw new IllegalStateException("gzipメンバーの書き込み先バッファが不足しています");
+      }
+    }
+
+    ByteOrder order = target.order();
+    target.order(ByteOrder.LITTLE_ENDIAN);
+    target.putInt((int) crc.getValue());
+    target.putInt(length);
+    target.order(order);
+  }
+}
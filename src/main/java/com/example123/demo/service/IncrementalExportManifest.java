@@ -0,0 +1,87 @@
+package com.example123.demo.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Properties;
+
+/**
+ * 差分出力1回分のマニフェスト 出力したファイル、件数、出力範囲（前回と今回のウォーターマーク）を記録します
+ *
+ * <p>マニフェストはデータファイルの書き込み完了後に作成されるため、マニフェストが存在するデータファイルだけを取り込めば書きかけのファイルを読むことはありません
+ */
+public final class IncrementalExportManifest {
+
+  private final String dataFile;
+  private final long rowCount;
+  private final ExportWatermark fromWatermark;
+  private final ExportWatermark toWatermark;
+  private final LocalDateTime exportedAt;
+
+  public IncrementalExportManifest(
+      String dataFile,
+      long rowCount,
+      ExportWatermark fromWatermark,
+      ExportWatermark toWatermark,
+      LocalDateTime exportedAt) {
+    this.dataFile = dataFile;
+    this.rowCount = rowCount;
+    this.fromWatermark = fromWatermark;
+    this.toWatermark = toWatermark;
+    this.exportedAt = exportedAt;
+  }
+
+  /** 出力したCSVファイル名（マニフェストと同じディレクトリ） */
+  public String getDataFile() {
+    return dataFile;
+  }
+
+  /** 出力した件数 */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /** 出力範囲の開始位置（この位置を含まない） */
+  public ExportWatermark getFromWatermark() {
+    return fromWatermark;
+  }
+
+  /** 出力範囲の終了位置（次回の開始位置） 変更がなかった場合は開始位置と同じです */
+  public ExportWatermark getToWatermark() {
+    return toWatermark;
+  }
+
+  /** 出力日時 */
+  public LocalDateTime getExportedAt() {
+    return exportedAt;
+  }
+
+  /**
+   * マニフェストをファイルへ保存します
+   *
+   * @param file マニフェストファイル
+   * @throws IOException 書き込みに失敗した場合
+   */
+  public void store(Path file) throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty("dataFile", dataFile);
+    properties.setProperty("rowCount", String.valueOf(rowCount));
+    properties.setProperty("exportedAt", exportedAt.toString());
+    fromWatermark.putTo(properties, "from.");
+    toWatermark.putTo(properties, "to.");
+    ExportWatermark.storeAtomically(properties, file, "employees incremental export manifest");
+  }
+
+  @Override
+  public String toString() {
+    return "IncrementalExportManifest{dataFile="
+        + dataFile
+        + ", rowCount="
+        + rowCount
+        + ", from="
+        + fromWatermark
+        + ", to="
+        + toWatermark
+        + "}";
+  }
+}
@@ -0,0 +1,126 @@
+package com.example123.demo.service;
+
+import com.example123.demo.aop.Loggable;
+import com.example123.demo.aop.PerformanceMonitoring;
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 従業員データの差分CSV出力機能を提供するサービスクラス 前回出力した位置（ウォーターマーク）より後に更新された行だけを出力します
+ *
+ * <p>出力先ディレクトリには実行ごとに次のファイルを作成します
+ *
+ * <ul>
+ *   <li>{@code employees-changes-<日時>.csv}：変更行のCSV（{@link CsvExportService} と同じ形式、(updated_at, id)
+ *       順）
+ *   <li>{@code employees-changes-<日時>.manifest}：件数と出力範囲を記録したマニフェスト
+ *   <li>{@code watermark.properties}：次回の開始位置（全ファイルの書き込み完了後に更新）
+ * </ul>
+ *
+ * <p>ウォーターマークは最後に更新するため、途中で失敗した場合は次回同じ範囲から出力し直します 出力時点で未コミットのトランザクションが
+ * ウォーターマークより前のupdated_atでコミットされた行は検出できないため、updated_atはコミット順に近い時刻で設定されることを前提とします
+ *
+ * <p>updated_atはすべての書き込み経路でUTCに揃えています SQL ServerのUPSERT（MERGE・一時テーブル・TVP・内容ハッシュ）はデータベースの {@code
+ * SYSUTCDATETIME()}、アプリケーションが値を渡す登録（INSERT・一括コピー・H2のUPSERT）は {@link
+ * com.example123.demo.util.AuditTimestamps#now()} で設定します 次の行は出力されない場合があります
+ *
+ * <ul>
+ *   <li>アプリケーションサーバーとデータベースサーバーの時計のずれより短い間隔で、両方の経路から書き込まれた行
+ *   <li>UTC以外の時刻やnullのupdated_atを明示して登録した行（初回以降はウォーターマークより前、またはキーセット条件の対象外となるため）
+ * </ul>
+ */
+@Service
+public class IncrementalExportService {
+
+  private static final Logger log = LoggerFactory.getLogger(IncrementalExportService.class);
+
+  /** ウォーターマークファイル名 */
+  static final String WATERMARK_FILE = "watermark.properties";
+
+  /** 出力ファイル名に付ける日時の形式 */
+  private static final DateTimeFormatter FILE_TIMESTAMP =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS");
+
+  /** エンコード済みデータをファイルへ書き出す閾値（バイト） */
+  private static final int FLUSH_THRESHOLD_BYTES = 64 * 1024;
+
+  private final EmployeeMapper employeeMapper;
+
+  public IncrementalExportService(EmployeeMapper employeeMapper) {
+    this.employeeMapper = employeeMapper;
+  }
+
+  /**
+   * 前回のウォーターマークより後に更新された従業員データをCSVファイルに出力し、ウォーターマークを進めます
+   *
+   * <p>初回（ウォーターマークファイルがない場合）は全件を出力します
+   *
+   * @param outputDirectory 出力先ディレクトリ（ウォーターマークファイルもここに保存します）
+   * @return 今回の出力のマニフェスト
+   */
+  @Transactional(readOnly = true)
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = true,
+      includeResult = true,
+      value = "差分CSV出力処理")
+  @PerformanceMonitoring(threshold = 5000, operation = "CSV_EXPORT_INCREMENTAL")
+  public IncrementalExportManifest exportChanges(String outputDirectory) {
+    Path directory = Path.of(outputDirectory);
+    try {
+      Files.createDirectories(directory);
+      Path watermarkFile = directory.resolve(WATERMARK_FILE);
+      ExportWatermark from = ExportWatermark.load(watermarkFile);
+
+      LocalDateTime exportedAt = LocalDateTime.now();
+      String baseName = "employees-changes-" + exportedAt.format(FILE_TIMESTAMP);
+      for (int n = 1; Files.exists(directory.resolve(baseName + ".csv")); n++) {
+        // 同一ミリ秒内に再実行された場合も既存のファイルを上書きしない
+        baseName = "employees-changes-" + exportedAt.format(FILE_TIMESTAMP) + "-" + n;
+      }
+      Path dataFile = directory.resolve(baseName + ".csv");
+
+      ExportWatermark to = from;
+      long rowCount = 0;
+      EmployeeCsvEncoder encoder = new EmployeeCsvEncoder(FLUSH_THRESHOLD_BYTES * 2);
+      try (OutputStream out = Files.newOutputStream(dataFile, StandardOpenOption.CREATE_NEW);
+          Cursor<Employee> cursor =
+              employeeMapper.selectChangedSinceAsCursor(from.getUpdatedAt(), from.getId())) {
+        encoder.writeAscii(CsvExportService.CSV_HEADER);
+        for (Employee employee : cursor) {
+          encoder.encode(employee);
+          to = to.advanceTo(employee);
+          rowCount++;
+          if (encoder.size() >= FLUSH_THRESHOLD_BYTES) {
+            encoder.writeTo(out);
+          }
+        }
+        encoder.writeTo(out);
+      }
+
+      IncrementalExportManifest manifest =
+          new IncrementalExportManifest(
+              dataFile.getFileName().toString(), rowCount, from, to, exportedAt);
+      manifest.store(directory.resolve(baseName + ".manifest"));
+      to.store(watermarkFile);
+
+      log.info("差分CSV出力完了: 出力件数={}, 開始位置={}, 終了位置={}", rowCount, from, to);
+      return manifest;
+    } catch (IOException e) {
+      log.error("Error writing incremental CSV export", e);
+      throw new RuntimeException("差分CSV出力処理でエラーが発生しました", e);
+    }
+  }
+}
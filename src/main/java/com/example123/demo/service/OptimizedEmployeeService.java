@@ -1,31 +1,38 @@
 package com.example123.demo.service;
 
 import com.example123.demo.domain.Employee;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import com.example123.demo.sort.ExternalSorter;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class OptimizedEmployeeService {
   private static final Logger log = LoggerFactory.getLogger(OptimizedEmployeeService.class);
-  private static final int BATCH_SIZE = 1000;
+
+  /** 出力ファイルの書き込みバッファサイズ（バイト） */
+  private static final int OUTPUT_BUFFER_SIZE = 1024 * 1024;
+
+  /** 出力CSVのヘッダー */
+  private static final byte[] CSV_HEADER =
+      "ID,Name,Department,Email\n".getBytes(StandardCharsets.UTF_8);
+
+  /** ソート時にメモリ上へ溜める従業員データの推定サイズの上限（MB） 超えた分だけ一時ファイルへ退避する */
+  @Value("${sort.memory-budget-mb:256}")
+  private long memoryBudgetMb = 256;
+
+  /** 一時ファイルへ退避するランをブロック単位で圧縮するかどうか（一時ディスクの容量・I/Oを優先する場合に有効化） */
+  @Value("${sort.compress-runs:false}")
+  private boolean compressRuns;
 
   public List<Employee> createDummyEmployees(int count) {
     List<Employee> employees = new ArrayList<>();
@@ -41,156 +48,53 @@ public class OptimizedEmployeeService {
     return employees;
   }
 
+  /** 従業員IDの順にソートしてCSVを出力します */
   public void writeToCsv(List<Employee> employees, String filePath) throws IOException {
-    int numThreads = Runtime.getRuntime().availableProcessors();
-    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-    List<File> tempFiles = new ArrayList<>();
-
-    try {
-      // ステップ1 & 2: 並列でソート済み一時ファイルを作成
-      List<Future<File>> futures = new ArrayList<>();
-      for (int i = 0; i < employees.size(); i += BATCH_SIZE) {
-        List<Employee> batch = employees.subList(i, Math.min(i + BATCH_SIZE, employees.size()));
-        futures.add(executor.submit(new SortAndWriteTask(batch)));
-      }
-
-      for (Future<File> future : futures) {
-        tempFiles.add(future.get());
-      }
-
-      // ステップ3: 一時ファイルをマージ
-      mergeSortedFiles(tempFiles, filePath);
-
-    } catch (InterruptedException | java.util.concurrent.ExecutionException e) {
-      log.error("Error during parallel CSV writing", e);
-      if (e instanceof InterruptedException) {
-        Thread.currentThread().interrupt();
-      }
-    } finally {
-      executor.shutdown();
-      try {
-        if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
-          log.warn("Executor did not terminate in the specified time.");
-          executor.shutdownNow();
-        }
-      } catch (InterruptedException e) {
-        log.error("Executor termination interrupted", e);
-        Thread.currentThread().interrupt();
-      }
-      // ステップ4: クリーンアップ
-      for (File tempFile : tempFiles) {
-        if (!tempFile.delete()) {
-          log.warn("Failed to delete temporary file: {}", tempFile.getAbsolutePath());
-        }
-      }
-    }
-  }
-
-  /** チャンクをソートして一時ファイルに書き込むタスク (Java 6互換) */
-  private static class SortAndWriteTask implements Callable<File> {
-    private final List<Employee> employees;
-
-    public SortAndWriteTask(List<Employee> employees) {
-      this.employees = new ArrayList<>(employees); // defensive copy
-    }
-
-    @Override
-    public File call() throws IOException {
-      // 従業員IDでソート (Comparatorを匿名クラスで実装)
-      Collections.sort(
-          this.employees,
-          (e1, e2) -> {
-            // IDを整数として比較
-            return Integer.valueOf(e1.getId()).compareTo(Integer.valueOf(e2.getId()));
-          });
-
-      // 一時ファイルを作成（セキュアな権限で）
-      Path tempFile = Files.createTempFile("sort-", ".csv");
-
-      try (BufferedWriter writer = Files.newBufferedWriter(tempFile)) {
-        // 拡張forループとStringBuilderでCSV文字列を生成
-        for (Employee employee : this.employees) {
-          StringBuilder sb = new StringBuilder();
-          sb.append(employee.getId()).append(",");
-          sb.append(employee.getName()).append(",");
-          sb.append(employee.getDepartment()).append(",");
-          sb.append(employee.getEmail()).append("\n");
-          writer.write(sb.toString());
-        }
-      }
-      return tempFile.toFile();
-    }
+    writeToCsv(employees, filePath, "id");
   }
 
-  /** 複数のソート済み一時ファイルをマージする (Java 6互換) */
-  private void mergeSortedFiles(List<File> files, String outputPath) throws IOException {
-    PriorityQueue<FileRecord> pq =
-        new PriorityQueue<>(
-            files.size(),
-            (r1, r2) ->
-                Integer.valueOf(r1.getEmployeeId()).compareTo(Integer.valueOf(r2.getEmployeeId())));
-
-    List<BufferedReader> readers = new ArrayList<>();
-
-    try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputPath))) {
-      // ヘッダーを書き込み
-      writer.write("ID,Name,Department,Email\n");
-
-      // 各ファイルを開き、最初の行を読み込んでキューに追加
-      for (File file : files) {
-        BufferedReader reader = new BufferedReader(new FileReader(file));
-        readers.add(reader);
-        String line = reader.readLine();
-        if (line != null) {
-          pq.add(new FileRecord(reader, line));
-        }
-      }
-
-      // キューが空になるまでマージ処理
-      while (!pq.isEmpty()) {
-        FileRecord record = pq.poll();
-        writer.write(record.getLine());
-        writer.newLine();
-
-        // 同じファイルから次の行を読み込んでキューに追加
-        String nextLine = record.getReader().readLine();
-        if (nextLine != null) {
-          pq.add(new FileRecord(record.getReader(), nextLine));
-        }
-      }
-    } finally {
-      for (BufferedReader reader : readers) {
-        try {
-          reader.close();
-        } catch (IOException e) {
-          log.error("Failed to close reader for a temporary file.", e);
-        }
-      }
+  /**
+   * 指定した列の順にソートしてCSVを出力します
+   *
+   * <p>メモリ予算内に収まる件数はメモリ上だけでソートし、超える場合のみ予算単位のランを一時ファイルへ退避して k-wayマージします（ランの数は件数ではなく予算で決まります）
+   *
+   * @param employees 出力する従業員リスト
+   * @param filePath 出力先のファイルパス
+   * @param sortColumns ソートする列（例: {@code "department, hire_date, id"}、列名の後ろにdescで降順）
+   * @return ソートの実行結果（退避したランの数など）
+   * @throws IOException 一時ファイルまたは出力ファイルの読み書きに失敗した場合
+   */
+  public ExternalSorter.Result writeToCsv(
+      List<Employee> employees, String filePath, String sortColumns) throws IOException {
+    ExternalSorter<Employee> sorter =
+        ExternalSorter.builder(
+                EmployeeSorting.sortKey(sortColumns), OptimizedEmployeeService::writeCsvLine)
+            .memoryBudgetBytes(memoryBudgetMb * 1024 * 1024)
+            .sizeEstimator(EmployeeSorting::estimateSize)
+            .compressRuns(compressRuns)
+            .build();
+
+    try (OutputStream out =
+        new BufferedOutputStream(new FileOutputStream(filePath), OUTPUT_BUFFER_SIZE)) {
+      out.write(CSV_HEADER);
+      ExternalSorter.Result result = sorter.sort(employees.iterator(), out);
+      log.info(
+          "Sorted {} employees by [{}] ({} spilled runs, {} bytes)",
+          result.getRecordCount(),
+          sortColumns,
+          result.getSpilledRuns(),
+          result.getSpilledBytes());
+      return result;
     }
   }
 
-  /** マージ処理で使うヘルパークラス */
-  private static class FileRecord {
-    private final BufferedReader reader;
-    private final String line;
-    private final String employeeId;
-
-    public FileRecord(BufferedReader reader, String line) {
-      this.reader = reader;
-      this.line = line;
-      this.employeeId = line.split(",")[0];
-    }
-
-    public BufferedReader getReader() {
-      return reader;
-    }
-
-    public String getLine() {
-      return line;
-    }
-
-    public String getEmployeeId() {
-      return employeeId;
-    }
+  /** 従業員1件をCSV行として書き込む */
+  private static void writeCsvLine(Employee employee, OutputStream out) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    sb.append(employee.getId()).append(",");
+    sb.append(employee.getName()).append(",");
+    sb.append(employee.getDepartment()).append(",");
+    sb.append(employee.getEmail()).append("\n");
+    out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
   }
 }
@@ -0,0 +1,96 @@
+package com.example123.demo.service;
+
+import com.example123.demo.columnar.EmployeeColumn;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 分割出力の分割方法 列の値ごとにファイルを分ける方法と、ファイルサイズの目安で分ける方法があり、両方を組み合わせることもできます
+ *
+ * <p>例：{@code PartitionSpec.byColumn("department")}、{@code PartitionSpec.bySize(128L << 20)}、
+ * {@code PartitionSpec.byColumn("department").withTargetFileBytes(128L << 20)}
+ *
+ * <p>ID・電話番号・メールアドレス・登録日時・更新日時のように行ごとにほぼ異なる値を持つ列は、行ごとにファイルができるため分割に使用できません
+ */
+public final class PartitionSpec {
+
+  /** 行ごとにほぼ異なる値を持つため、分割に使用できない列 */
+  private static final Set<EmployeeColumn> HIGH_CARDINALITY_COLUMNS =
+      EnumSet.of(
+          EmployeeColumn.ID,
+          EmployeeColumn.PHONE_NUMBER,
+          EmployeeColumn.EMAIL,
+          EmployeeColumn.CREATED_AT,
+          EmployeeColumn.UPDATED_AT);
+
+  private final EmployeeColumn column;
+  private final long targetFileBytes;
+
+  private PartitionSpec(EmployeeColumn column, long targetFileBytes) {
+    this.column = column;
+    this.targetFileBytes = targetFileBytes;
+  }
+
+  /**
+   * 列の値ごとにファイルを分ける分割方法を返します 値ごとに {@code 列名=値/} のディレクトリを作成します
+   *
+   * @param column 列名（例：department、hire_date）
+   * @return 分割方法
+   * @throws IllegalArgumentException 存在しない列名、または行ごとにほぼ異なる値を持つ列の場合
+   */
+  public static PartitionSpec byColumn(String column) {
+    EmployeeColumn employeeColumn;
+    try {
+      employeeColumn = EmployeeColumn.valueOf(column.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("分割に使用できない列です: " + column, e);
+    }
+    if (HIGH_CARDINALITY_COLUMNS.contains(employeeColumn)) {
+      throw new IllegalArgumentException("値の種類が多すぎるため分割に使用できない列です: " + column);
+    }
+    return new PartitionSpec(employeeColumn, 0);
+  }
+
+  /**
+   * ファイルサイズの目安ごとにファイルを分ける分割方法を返します
+   *
+   * @param targetFileBytes 1ファイルのサイズの目安（バイト） 行の途中では分割しないため、目安を最大1行分超えることがあります
+   * @return 分割方法
+   */
+  public static PartitionSpec bySize(long targetFileBytes) {
+    return new PartitionSpec(null, requirePositive(targetFileBytes));
+  }
+
+  /**
+   * 列の値ごとに分けたうえで、さらにファイルサイズの目安で分ける分割方法を返します
+   *
+   * @param targetFileBytes 1ファイルのサイズの目安（バイト）
+   * @return 分割方法
+   */
+  public PartitionSpec withTargetFileBytes(long targetFileBytes) {
+    return new PartitionSpec(column, requirePositive(targetFileBytes));
+  }
+
+  /** 分割に使用する列（列で分けない場合はnull） */
+  public EmployeeColumn getColumn() {
+    return column;
+  }
+
+  /** 1ファイルのサイズの目安（サイズで分けない場合は0） */
+  public long getTargetFileBytes() {
+    return targetFileBytes;
+  }
+
+  private static long requirePositive(long targetFileBytes) {
+    if (targetFileBytes <= 0) {
+      throw new IllegalArgumentException("ファイルサイズの目安は1以上を指定してください: " + targetFileBytes);
+    }
+    return targetFileBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "PartitionSpec{column=" + column + ", targetFileBytes=" + targetFileBytes + "}";
+  }
+}
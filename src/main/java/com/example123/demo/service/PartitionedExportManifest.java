@@ -0,0 +1,97 @@
+package com.example123.demo.service;
+
+import java.util.List;
+
+/**
+ * 分割出力のマニフェスト 出力ディレクトリの {@code _manifest.json} に保存され、各ファイルの件数とチェックサムを記録します
+ *
+ * <p>読み込み側はマニフェストに記載されたファイルだけを読むことで、出力途中のファイルや失敗した実行の残骸を避けられます
+ */
+public final class PartitionedExportManifest {
+
+  private final String partitionColumn;
+  private final long targetFileBytes;
+  private final long rowCount;
+  private final String createdAt;
+  private final List<Part> parts;
+
+  public PartitionedExportManifest(
+      String partitionColumn,
+      long targetFileBytes,
+      long rowCount,
+      String createdAt,
+      List<Part> parts) {
+    this.partitionColumn = partitionColumn;
+    this.targetFileBytes = targetFileBytes;
+    this.rowCount = rowCount;
+    this.createdAt = createdAt;
+    this.parts = List.copyOf(parts);
+  }
+
+  /** 分割に使用した列名（列で分けていない場合はnull） */
+  public String getPartitionColumn() {
+    return partitionColumn;
+  }
+
+  /** 1ファイルのサイズの目安（サイズで分けていない場合は0） */
+  public long getTargetFileBytes() {
+    return targetFileBytes;
+  }
+
+  /** 全ファイルの合計件数 */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /** 出力日時（UTC、末尾にZを付けたISO-8601形式） */
+  public String getCreatedAt() {
+    return createdAt;
+  }
+
+  /** 出力したファイルの一覧（作成順） */
+  public List<Part> getParts() {
+    return parts;
+  }
+
+  /** 分割出力した1ファイル分の情報 */
+  public static final class Part {
+    private final String path;
+    private final String partitionValue;
+    private final long rowCount;
+    private final long bytes;
+    private final String crc32c;
+
+    public Part(String path, String partitionValue, long rowCount, long bytes, String crc32c) {
+      this.path = path;
+      this.partitionValue = partitionValue;
+      this.rowCount = rowCount;
+      this.bytes = bytes;
+      this.crc32c = crc32c;
+    }
+
+    /** 出力ディレクトリからの相対パス（区切り文字は '/'） */
+    public String getPath() {
+      return path;
+    }
+
+    /** 分割に使用した列の値（列で分けていない場合、または値がnullの場合はnull） */
+    public String getPartitionValue() {
+      return partitionValue;
+    }
+
+    /** データ行の件数（ヘッダー行を除く） */
+    public long getRowCount() {
+      return rowCount;
+    }
+
+    /** ファイルサイズ（バイト） */
+    public long getBytes() {
+      return bytes;
+    }
+
+    /** ファイル全体のCRC32C（16進数8桁） */
+    public String getCrc32c() {
+      return crc32c;
+    }
+  }
+}
@@ -0,0 +1,423 @@
+package com.example123.demo.service;
+
+import com.example123.demo.aop.Loggable;
+import com.example123.demo.aop.PerformanceMonitoring;
+import com.example123.demo.columnar.EmployeeColumn;
+import com.example123.demo.config.ExecutorConfig;
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 従業員データを複数のCSVファイルへ分割して出力するサービスクラス 読み込み側は各ファイルを並列に処理できます
+ *
+ * <p>行の振り分けとエンコードは呼び出し元スレッドで行い、エンコード済みのデータを一定サイズごとに書き込みスレッドへ渡します
+ * 同じファイルへの書き込みは順番に、異なるファイルへの書き込みは並列に実行され、未書き込みのデータ量は上限付きです
+ *
+ * <p>各ファイルは {@code .inprogress} の名前で書き込み、完了した時点で本来の名前へ変更します サイズで分割する場合は、
+ * 後続のファイルを書き込んでいる間に完了済みのファイルから読み込みを開始できます 全ファイルの完了後に {@code _manifest.json}
+ * を作成し、各ファイルの件数とチェックサム（CRC32C）を記録します
+ *
+ * <p>列で分割する場合、同時に書き込み中にするファイル数は {@code export.partition.max-open-partitions} までです 上限に達すると
+ * 最も長く使われていないファイルを完了させ、その値の以降の行は次の番号のファイルへ出力します 値の種類が多い列では、入力を分割に使う列の順に 並べるとファイル数が最小になります
+ * エンコード用のバッファはファイルへ行を書き始めた時点で小さく確保し、完了時に解放します
+ */
+@Service
+public class PartitionedExportService {
+
+  private static final Logger log = LoggerFactory.getLogger(PartitionedExportService.class);
+
+  /** マニフェストファイル名 */
+  static final String MANIFEST_FILE = "_manifest.json";
+
+  /** 書き込み中のファイルに付ける拡張子 */
+  private static final String IN_PROGRESS_SUFFIX = ".inprogress";
+
+  /** 列の値がnullの場合のディレクトリ名（Hiveと同じ表記） */
+  private static final String NULL_PARTITION = "__HIVE_DEFAULT_PARTITION__";
+
+  /** 書き込みスレッドへ渡す1回分のデータ量（バイト） */
+  private static final int CHUNK_BYTES = 1024 * 1024;
+
+  /** ファイルごとのエンコード用バッファの初期サイズ（バイト） 行が増えるとCHUNK_BYTES程度まで拡張されます */
+  private static final int INITIAL_BUFFER_BYTES = 8 * 1024;
+
+  /** 書き込みスレッドあたりの未書き込みチャンク数の上限 */
+  private static final int IN_FLIGHT_CHUNKS_PER_THREAD = 4;
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final byte[] HEADER = CsvExportService.CSV_HEADER.getBytes(StandardCharsets.UTF_8);
+
+  private final EmployeeMapper employeeMapper;
+
+  /** ファイルへの書き込みを行うタスク用の共有スレッドプール */
+  private final ExecutorService writerExecutor;
+
+  /** 同時に書き込み中にするファイル数の上限 */
+  private final int maxOpenPartitions;
+
+  /**
+   * @param maxOpenPartitions 同時に書き込み中にするファイル数の上限（開いたままのファイルとバッファの数の上限）
+   */
+  public PartitionedExportService(
+      EmployeeMapper employeeMapper,
+      @Qualifier(ExecutorConfig.FILE_WRITER_EXECUTOR) ExecutorService writerExecutor,
+      @Value("${export.partition.max-open-partitions:64}") int maxOpenPartitions) {
+    if (maxOpenPartitions <= 0) {
+      throw new IllegalArgumentException("同時に書き込むファイル数の上限は1以上を指定してください: " + maxOpenPartitions);
+    }
+    this.employeeMapper = employeeMapper;
+    this.writerExecutor = writerExecutor;
+    this.maxOpenPartitions = maxOpenPartitions;
+  }
+
+  /**
+   * 従業員情報を分割してCSVファイルに出力します
+   *
+   * @param employees 出力する従業員情報のリスト
+   * @param outputDirectory 出力先ディレクトリ
+   * @param spec 分割方法
+   * @return 出力結果のマニフェスト
+   */
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "CSV分割出力処理")
+  @PerformanceMonitoring(threshold = 5000, operation = "CSV_EXPORT_PARTITIONED")
+  public PartitionedExportManifest writePartitioned(
+      List<Employee> employees, String outputDirectory, PartitionSpec spec) {
+    return export(employees.iterator(), Path.of(outputDirectory), spec);
+  }
+
+  /**
+   * 従業員テーブルの全データを分割してCSVファイルに出力します（カーソルストリーミング処理）
+   *
+   * <p>カーソルの読み込み中はSqlSessionを維持する必要があるため、読み取り専用トランザクション内で実行します
+   *
+   * @param outputDirectory 出力先ディレクトリ
+   * @param spec 分割方法
+   * @return 出力結果のマニフェスト
+   */
+  @Transactional(readOnly = true)
+  @Loggable(
+      level = Loggable.LogLevel.INFO,
+      includeArgs = false,
+      includeResult = false,
+      value = "CSV分割出力処理（カーソルストリーミング）")
+  @PerformanceMonitoring(threshold = 5000, operation = "CSV_EXPORT_PARTITIONED_CURSOR")
+  public PartitionedExportManifest writePartitionedFromDatabase(
+      String outputDirectory, PartitionSpec spec) {
+    try (Cursor<Employee> cursor = employeeMapper.selectAllAsCursor()) {
+      return export(cursor.iterator(), Path.of(outputDirectory), spec);
+    } catch (IOException e) {
+      log.error("Error closing cursor in partitioned export", e);
+      throw new RuntimeException("CSV分割出力処理でエラーが発生しました", e);
+    }
+  }
+
+  private PartitionedExportManifest export(
+      Iterator<Employee> employees, Path directory, PartitionSpec spec) {
+    Semaphore inFlight = new Semaphore(writerThreads() * IN_FLIGHT_CHUNKS_PER_THREAD);
+    List<PartWriter> parts = new ArrayList<>();
+    // アクセス順に並べ、上限に達したら最も長く使われていないファイルから完了させる
+    Map<String, PartWriter> openParts = new LinkedHashMap<>(16, 0.75f, true);
+    Map<String, Integer> nextPartIndex = new HashMap<>();
+    EmployeeColumn column = spec.getColumn();
+    long targetFileBytes = spec.getTargetFileBytes();
+    long rowCount = 0;
+
+    try {
+      Files.createDirectories(directory);
+      while (employees.hasNext()) {
+        Employee employee = employees.next();
+        Object value = column == null ? null : column.get(employee);
+        String partitionValue = value == null ? null : value.toString();
+        String partitionKey = value == null ? NULL_PARTITION : partitionValue;
+
+        PartWriter part = openParts.get(partitionKey);
+        if (part != null && targetFileBytes > 0 && part.size() >= targetFileBytes) {
+          part.seal(writerExecutor, inFlight);
+          part = null;
+        }
+        if (part == null) {
+          if (openParts.size() >= maxOpenPartitions) {
+            Iterator<PartWriter> eldest = openParts.values().iterator();
+            eldest.next().seal(writerExecutor, inFlight);
+            eldest.remove();
+          }
+          int index = nextPartIndex.merge(partitionKey, 1, Integer::sum) - 1;
+          String relativePath = relativePath(column, partitionValue, index);
+          part = new PartWriter(directory, relativePath, partitionValue);
+          parts.add(part);
+          openParts.put(partitionKey, part);
+        }
+
+        part.encode(employee);
+        rowCount++;
+        if (part.pendingBytes() >= CHUNK_BYTES) {
+          part.submitChunk(writerExecutor, inFlight);
+        }
+      }
+      for (PartWriter part : openParts.values()) {
+        part.seal(writerExecutor, inFlight);
+      }
+      CompletableFuture.allOf(parts.stream().map(p -> p.tail).toArray(CompletableFuture[]::new))
+          .join();
+
+      List<PartitionedExportManifest.Part> entries = new ArrayList<>(parts.size());
+      for (PartWriter part : parts) {
+        entries.add(part.toManifestEntry());
+      }
+      PartitionedExportManifest manifest =
+          new PartitionedExportManifest(
+              column == null ? null : column.name().toLowerCase(Locale.ROOT),
+              targetFileBytes,
+              rowCount,
+              Instant.now().toString(),
+              entries);
+      writeManifest(directory.resolve(MANIFEST_FILE), manifest);
+      log.info("CSV分割出力完了: 出力件数={}, ファイル数={}", rowCount, entries.size());
+      return manifest;
+    } catch (IOException e) {
+      abort(parts);
+      log.error("Error writing partitioned CSV export", e);
+      throw new RuntimeException("CSV分割出力処理でエラーが発生しました", e);
+    } catch (CompletionException e) {
+      // 一部のファイルだけが揃った状態はマニフェストと一致しないため、失敗時は完了済みのファイルも含めて削除する
+      abort(parts);
+      log.error("Error writing a partition in partitioned export", e.getCause());
+      throw new RuntimeException("CSV分割出力処理でエラーが発生しました", e.getCause());
+    } catch (InterruptedException e) {
+      abort(parts);
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("CSV分割出力処理が中断されました", e);
+    }
+  }
+
+  /** 書き込みスレッド数（共有プールのスレッド数） */
+  private int writerThreads() {
+    if (writerExecutor instanceof ThreadPoolExecutor pool) {
+      return pool.getMaximumPoolSize();
+    }
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  /** 出力ディレクトリからの相対パスを返します 列で分割する場合は {@code 列名=値/part-00000.csv}、それ以外は {@code part-00000.csv} */
+  private static String relativePath(EmployeeColumn column, String partitionValue, int index) {
+    String fileName = String.format("part-%05d.csv", index);
+    if (column == null) {
+      return fileName;
+    }
+    String directoryName =
+        column.name().toLowerCase(Locale.ROOT)
+            + "="
+            + (partitionValue == null ? NULL_PARTITION : escapePathName(partitionValue));
+    return directoryName + "/" + fileName;
+  }
+
+  /** ファイル名に使用できない文字をHiveと同じく %XX 形式にエスケープします（異なる値が同じ名前になることはありません） */
+  static String escapePathName(String value) {
+    StringBuilder sb = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c < 0x20 || c == 0x7F || "\"#%'*/:=?\\{[]^<>|".indexOf(c) >= 0) {
+        sb.append('%').append(String.format("%02X", (int) c));
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  private static void writeManifest(Path file, PartitionedExportManifest manifest)
+      throws IOException {
+    Path temp = file.resolveSibling(file.getFileName() + IN_PROGRESS_SUFFIX);
+    try (OutputStream out = Files.newOutputStream(temp)) {
+      OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(out, manifest);
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static void abort(List<PartWriter> parts) {
+    for (PartWriter part : parts) {
+      part.discard();
+    }
+  }
+
+  /** 1ファイル分の書き込み状態 エンコードは呼び出し元スレッドで行い、書き込みとチェックサム計算は {@link #tail} に連結したタスクとして順番に実行します */
+  private static final class PartWriter {
+    private final String relativePath;
+    private final String partitionValue;
+    private final Path target;
+    private final Path inProgress;
+    private final CRC32C crc = new CRC32C();
+
+    /** エンコード用のバッファ 最初の行で確保し、完了時に解放します */
+    private EmployeeCsvEncoder encoder;
+
+    private FileChannel channel;
+    private long rowCount;
+    private long submittedBytes;
+    private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+    /** 本来の名前へ変更済みかどうか（書き込みスレッドで設定し、失敗時の後始末で参照します） */
+    private volatile boolean renamed;
+
+    PartWriter(Path directory, String relativePath, String partitionValue) throws IOException {
+      this.relativePath = relativePath;
+      this.partitionValue = partitionValue;
+      this.target = directory.resolve(relativePath);
+      this.inProgress = target.resolveSibling(target.getFileName() + IN_PROGRESS_SUFFIX);
+      Files.createDirectories(target.getParent());
+    }
+
+    void encode(Employee employee) {
+      if (encoder == null) {
+        encoder = new EmployeeCsvEncoder(INITIAL_BUFFER_BYTES);
+        encoder.writeAscii(CsvExportService.CSV_HEADER);
+      }
+      encoder.encode(employee);
+      rowCount++;
+    }
+
+    int pendingBytes() {
+      return encoder == null ? 0 : encoder.size();
+    }
+
+    /** 書き込み済みと未書き込みを合わせたファイルサイズ */
+    long size() {
+      return submittedBytes + pendingBytes();
+    }
+
+    /** エンコード済みのデータを書き込みタスクとして投入します 未書き込みのチャンク数が上限に達している場合は空きを待ちます */
+    void submitChunk(ExecutorService executor, Semaphore inFlight) throws InterruptedException {
+      if (tail.isCompletedExceptionally()) {
+        // 書き込みに失敗したファイルがあれば、残りの入力を処理せずに中断する
+        tail.join();
+      }
+      if (pendingBytes() == 0) {
+        return;
+      }
+      byte[] chunk = encoder.toByteArray();
+      encoder.reset();
+      submittedBytes += chunk.length;
+      inFlight.acquire();
+      tail = tail.handleAsync((ignored, failure) -> write(chunk, failure, inFlight), executor);
+    }
+
+    /** 残りのデータを書き込み、ファイルを閉じて本来の名前へ変更するタスクを投入します */
+    void seal(ExecutorService executor, Semaphore inFlight) throws InterruptedException {
+      submitChunk(executor, inFlight);
+      encoder = null;
+      tail =
+          tail.thenRunAsync(
+              () -> {
+                try {
+                  openIfNeeded();
+                  channel.close();
+                  Files.move(inProgress, target, StandardCopyOption.ATOMIC_MOVE);
+                  renamed = true;
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              },
+              executor);
+    }
+
+    /** 書き込みタスク 前のタスクが失敗している場合は書き込まずに失敗を引き継ぎますが、上限の枠は必ず返却します */
+    private Void write(byte[] chunk, Throwable previousFailure, Semaphore inFlight) {
+      try {
+        if (previousFailure != null) {
+          throw previousFailure instanceof CompletionException completion
+              ? completion
+              : new CompletionException(previousFailure);
+        }
+        openIfNeeded();
+        crc.update(chunk, 0, chunk.length);
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        return null;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } finally {
+        inFlight.release();
+      }
+    }
+
+    private void openIfNeeded() throws IOException {
+      if (channel == null) {
+        channel =
+            FileChannel.open(
+                inProgress,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+      }
+    }
+
+    PartitionedExportManifest.Part toManifestEntry() {
+      return new PartitionedExportManifest.Part(
+          relativePath,
+          partitionValue,
+          rowCount,
+          submittedBytes,
+          String.format("%08x", crc.getValue()));
+    }
+
+    /** 書き込み中のファイルと、本来の名前へ変更済みのファイルを削除します（失敗時の後始末） */
+    void discard() {
+      try {
+        tail.exceptionally(ignored -> null).get(60, TimeUnit.SECONDS);
+      } catch (Exception e) {
+        log.warn("Partition writer did not finish before cleanup: {}", relativePath);
+      }
+      try {
+        if (channel != null) {
+          channel.close();
+        }
+        Files.deleteIfExists(inProgress);
+        if (renamed) {
+          Files.deleteIfExists(target);
+        }
+      } catch (IOException e) {
+        log.warn("Failed to delete partition file: {}", relativePath, e);
+      }
+    }
+  }
+}
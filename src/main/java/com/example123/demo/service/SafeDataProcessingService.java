@@ -1,16 +1,16 @@
 package com.example123.demo.service;
 
+import com.example123.demo.config.ExecutorConfig;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -19,6 +19,13 @@ public class SafeDataProcessingService {
   private static final Logger log = LoggerFactory.getLogger(SafeDataProcessingService.class);
   private static final int CHUNK_SIZE = 10000;
 
+  private final ExecutorService cpuExecutor;
+
+  public SafeDataProcessingService(
+      @Qualifier(ExecutorConfig.CPU_EXECUTOR) ExecutorService cpuExecutor) {
+    this.cpuExecutor = cpuExecutor;
+  }
+
   public List<Integer> processData(int dataSize) {
     // 元データ生成
     List<Integer> data = new ArrayList<>(dataSize);
@@ -26,41 +33,28 @@ public class SafeDataProcessingService {
       data.add(i);
     }
 
-    int numThreads = Runtime.getRuntime().availableProcessors();
-    ExecutorService pool = Executors.newFixedThreadPool(numThreads);
-    CompletionService<List<Integer>> cs = new ExecutorCompletionService<>(pool);
+    CompletionService<List<Integer>> cs = new ExecutorCompletionService<>(cpuExecutor);
 
-    int taskCount = 0;
+    List<Future<List<Integer>>> futures = new ArrayList<>();
     for (int i = 0; i < data.size(); i += CHUNK_SIZE) {
       final int from = i;
       final int to = Math.min(i + CHUNK_SIZE, data.size());
-      cs.submit(() -> new ArrayList<>(data.subList(from, to)));
-      taskCount++;
+      futures.add(cs.submit(() -> new ArrayList<>(data.subList(from, to))));
     }
 
     List<Integer> result = new ArrayList<>(dataSize);
     try {
-      for (int i = 0; i < taskCount; i++) {
+      for (int i = 0; i < futures.size(); i++) {
         Future<List<Integer>> f = cs.take();
         result.addAll(f.get());
       }
     } catch (ExecutionException | InterruptedException e) {
       log.error("Error during safe data processing", e);
+      // 共有プールに残っている未完了のタスクを取り消す
+      futures.forEach(f -> f.cancel(true));
       if (e instanceof InterruptedException) {
         Thread.currentThread().interrupt();
       }
-    } finally {
-      pool.shutdown();
-      try {
-        if (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
-          log.warn("Executor did not terminate in the specified time.");
-          pool.shutdownNow();
-        }
-      } catch (InterruptedException e) {
-        log.warn("Executor termination was interrupted.", e);
-        pool.shutdownNow();
-        Thread.currentThread().interrupt();
-      }
     }
 
     log.info("[Safe] Processing finished.");
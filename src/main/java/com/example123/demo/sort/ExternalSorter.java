@@ -0,0 +1,265 @@
+package com.example123.demo.sort;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * メモリ使用量の上限（予算）に基づいてレコードをソートする外部ソーター
+ *
+ * <p>レコードの推定サイズが予算に達するまでメモリ上に溜め、予算を超えた時点で並列ソートしてランファイルへ退避します 全件が予算内に収まった場合は
+ * ディスクを一切使わずにメモリ上でソートして出力し、収まらない場合は退避したランを {@link KWayMerger} でマージします
+ *
+ * <p>ランは {@link KeyedRunFormat} のバイナリ形式で退避するため、マージ時にレコードを再解析することはありません
+ *
+ * <p>ソートは安定です（キーが等しいレコードは入力順に出力されます） ソート処理はインスタンスの状態を変更しないため、複数スレッドから同時に呼び出せます
+ *
+ * @param <T> ソート対象の型
+ */
+public final class ExternalSorter<T> {
+
+  private static final Logger log = LoggerFactory.getLogger(ExternalSorter.class);
+
+  /** エントリ1件あたりの管理領域の見積もり（エントリ本体、配列の参照、キー配列のヘッダー） */
+  private static final long ENTRY_OVERHEAD_BYTES = 56;
+
+  /** ランファイルの書き込みバッファサイズ（バイト） */
+  private static final int SPILL_BUFFER_SIZE = 1024 * 1024;
+
+  private static final Comparator<Entry<?>> ENTRY_ORDER =
+      (a, b) -> Arrays.compareUnsigned(a.key, b.key);
+
+  private final SortKey<T> sortKey;
+  private final RecordEncoder<? super T> encoder;
+  private final long memoryBudgetBytes;
+  private final ToLongFunction<? super T> sizeEstimator;
+  private final Path tempDirectory;
+  private final KWayMerger merger;
+  private final KeyedRunFormat runFormat;
+
+  private ExternalSorter(Builder<T> builder) {
+    this.sortKey = builder.sortKey;
+    this.encoder = builder.encoder;
+    this.memoryBudgetBytes = builder.memoryBudgetBytes;
+    this.sizeEstimator = builder.sizeEstimator;
+    this.tempDirectory = builder.tempDirectory;
+    this.merger = new KWayMerger(builder.maxFanIn, builder.readBufferSize, builder.tempDirectory);
+    this.runFormat = new KeyedRunFormat(builder.compressRuns);
+  }
+
+  /**
+   * ビルダーを作成します
+   *
+   * @param sortKey ソートキーの定義
+   * @param encoder 出力するレコードのエンコーダー
+   * @return ビルダー
+   */
+  public static <T> Builder<T> builder(SortKey<T> sortKey, RecordEncoder<? super T> encoder) {
+    return new Builder<>(sortKey, encoder);
+  }
+
+  /**
+   * 入力をソートしてエンコードしたレコードを出力します
+   *
+   * @param input ソートするレコード（先頭から1回だけ読み込みます）
+   * @param out 出力先（クローズはしません）
+   * @return ソートの実行結果
+   * @throws IOException ランファイルまたは出力先への読み書きに失敗した場合
+   */
+  public Result sort(Iterator<? extends T> input, OutputStream out) throws IOException {
+    SortKeyBuilder keyBuilder = new SortKeyBuilder();
+    List<Entry<T>> buffer = new ArrayList<>();
+    List<Path> runs = new ArrayList<>();
+    long bufferedBytes = 0;
+    long recordCount = 0;
+
+    try {
+      while (input.hasNext()) {
+        T record = input.next();
+        byte[] key = sortKey.encode(record, keyBuilder);
+        buffer.add(new Entry<>(key, record));
+        bufferedBytes += sizeEstimator.applyAsLong(record) + key.length + ENTRY_OVERHEAD_BYTES;
+        recordCount++;
+        if (bufferedBytes >= memoryBudgetBytes) {
+          runs.add(spill(buffer));
+          buffer.clear();
+          bufferedBytes = 0;
+        }
+      }
+
+      if (runs.isEmpty()) {
+        // 予算内に収まった場合はディスクを使わずにメモリ上でソートして出力する
+        for (Entry<T> entry : sortInMemory(buffer)) {
+          encoder.encode(entry.record, out);
+        }
+        return new Result(recordCount, 0, 0);
+      }
+
+      if (!buffer.isEmpty()) {
+        runs.add(spill(buffer));
+        buffer.clear();
+      }
+      long spilledBytes = 0;
+      for (Path run : runs) {
+        spilledBytes += Files.size(run);
+      }
+      log.debug("{}件を{}本のラン（{}バイト）に退避しました", recordCount, runs.size(), spilledBytes);
+      merger.merge(runs, runFormat, out);
+      return new Result(recordCount, runs.size(), spilledBytes);
+    } finally {
+      for (Path run : runs) {
+        Files.deleteIfExists(run);
+      }
+    }
+  }
+
+  /** バッファを並列ソートしてランファイルへ書き込みます */
+  private Path spill(List<Entry<T>> buffer) throws IOException {
+    Entry<T>[] sorted = sortInMemory(buffer);
+    Path run =
+        tempDirectory == null
+            ? Files.createTempFile("sort-", ".run")
+            : Files.createTempFile(tempDirectory, "sort-", ".run");
+    RecordBuffer recordBuffer = new RecordBuffer();
+    try (RunWriter writer = runFormat.create(run, SPILL_BUFFER_SIZE)) {
+      for (Entry<T> entry : sorted) {
+        recordBuffer.reset();
+        encoder.encode(entry.record, recordBuffer);
+        writer.write(entry.key, 0, entry.key.length, recordBuffer.array(), 0, recordBuffer.size());
+      }
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(run);
+      throw e;
+    }
+    return run;
+  }
+
+  /** Arrays.parallelSort（安定なマージソート）で共通ForkJoinPoolを使って並列にソートします */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static <T> Entry<T>[] sortInMemory(List<Entry<T>> buffer) {
+    Entry<T>[] entries = buffer.toArray(new Entry[0]);
+    Arrays.parallelSort(entries, ENTRY_ORDER);
+    return entries;
+  }
+
+  /** ソートキーを付与したレコード */
+  private static final class Entry<T> {
+    private final byte[] key;
+    private final T record;
+
+    Entry(byte[] key, T record) {
+      this.key = key;
+      this.record = record;
+    }
+  }
+
+  /** 内部配列をコピーせずに参照できるバッファ */
+  private static final class RecordBuffer extends ByteArrayOutputStream {
+    RecordBuffer() {
+      super(512);
+    }
+
+    byte[] array() {
+      return buf;
+    }
+  }
+
+  /** ソートの実行結果 */
+  public static final class Result {
+    private final long recordCount;
+    private final int spilledRuns;
+    private final long spilledBytes;
+
+    Result(long recordCount, int spilledRuns, long spilledBytes) {
+      this.recordCount = recordCount;
+      this.spilledRuns = spilledRuns;
+      this.spilledBytes = spilledBytes;
+    }
+
+    /** 出力したレコード数 */
+    public long getRecordCount() {
+      return recordCount;
+    }
+
+    /** ディスクへ退避したランの数（0の場合はメモリ上だけでソートした） */
+    public int getSpilledRuns() {
+      return spilledRuns;
+    }
+
+    /** ディスクへ退避したランの合計バイト数 */
+    public long getSpilledBytes() {
+      return spilledBytes;
+    }
+  }
+
+  /** {@link ExternalSorter} のビルダー */
+  public static final class Builder<T> {
+    private final SortKey<T> sortKey;
+    private final RecordEncoder<? super T> encoder;
+    private long memoryBudgetBytes = 256L * 1024 * 1024;
+    private ToLongFunction<? super T> sizeEstimator = record -> 256;
+    private Path tempDirectory;
+    private int maxFanIn = 128;
+    private int readBufferSize = 256 * 1024;
+    private boolean compressRuns;
+
+    private Builder(SortKey<T> sortKey, RecordEncoder<? super T> encoder) {
+      this.sortKey = sortKey;
+      this.encoder = encoder;
+    }
+
+    /** メモリ上に溜めるレコードの推定サイズの上限（バイト、デフォルト256MB） */
+    public Builder<T> memoryBudgetBytes(long memoryBudgetBytes) {
+      if (memoryBudgetBytes <= 0) {
+        throw new IllegalArgumentException(
+            "memoryBudgetBytes must be positive: " + memoryBudgetBytes);
+      }
+      this.memoryBudgetBytes = memoryBudgetBytes;
+      return this;
+    }
+
+    /** レコード1件のヒープ上の推定サイズ（バイト、デフォルトは一律256バイト） */
+    public Builder<T> sizeEstimator(ToLongFunction<? super T> sizeEstimator) {
+      this.sizeEstimator = sizeEstimator;
+      return this;
+    }
+
+    /** ランファイルを作成するディレクトリ（デフォルトはシステムの一時ディレクトリ） */
+    public Builder<T> tempDirectory(Path tempDirectory) {
+      this.tempDirectory = tempDirectory;
+      return this;
+    }
+
+    /** 1回のマージで同時に開くランの最大数（デフォルト128） */
+    public Builder<T> maxFanIn(int maxFanIn) {
+      this.maxFanIn = maxFanIn;
+      return this;
+    }
+
+    /** マージ時のランごとの先読みバッファのサイズ（バイト、デフォルト256KB） */
+    public Builder<T> readBufferSize(int readBufferSize) {
+      this.readBufferSize = readBufferSize;
+      return this;
+    }
+
+    /** ランファイルをブロック単位で圧縮するかどうか（デフォルトは圧縮なし） 一時ディスクの容量やI/O帯域が不足する場合に有効にします */
+    public Builder<T> compressRuns(boolean compressRuns) {
+      this.compressRuns = compressRuns;
+      return this;
+    }
+
+    public ExternalSorter<T> build() {
+      return new ExternalSorter<>(this);
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package com.example123.demo.sort;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ソート済みランを敗者木でk-wayマージする外部ソートのマージエンジン
+ *
+ * <p>同時に開くランの数（ファンイン）を上限で抑え、ランがそれより多い場合は中間ランへの多段マージを行います 各ランは大きな先読みバッファで読み込むため、
+ * ランの数に関わらずディスクへのアクセスは大きな連続読み込みになります
+ *
+ * <p>インスタンスはスレッドセーフです（状態を持たないため複数のマージで共有できます）
+ */
+public final class KWayMerger {
+
+  private static final Logger log = LoggerFactory.getLogger(KWayMerger.class);
+
+  /** 出力バッファのサイズ（バイト） */
+  private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+
+  private final int maxFanIn;
+  private final int readBufferSize;
+  private final Path tempDirectory;
+
+  /**
+   * @param maxFanIn 1回のマージで同時に開くランの最大数（2以上）
+   * @param readBufferSize ランごとの先読みバッファのサイズ（バイト）
+   * @param tempDirectory 中間ランを作成するディレクトリ（nullの場合はシステムの一時ディレクトリ）
+   */
+  public KWayMerger(int maxFanIn, int readBufferSize, Path tempDirectory) {
+    if (maxFanIn < 2) {
+      throw new IllegalArgumentException("maxFanIn must be at least 2: " + maxFanIn);
+    }
+    if (readBufferSize <= 0) {
+      throw new IllegalArgumentException("readBufferSize must be positive: " + readBufferSize);
+    }
+    this.maxFanIn = maxFanIn;
+    this.readBufferSize = readBufferSize;
+    this.tempDirectory = tempDirectory;
+  }
+
+  /**
+   * ソート済みランをマージして出力します ランの数がファンインを超える場合は、ファンイン単位で中間ランへマージする処理を 残りのランがファンイン以下になるまで繰り返します
+   *
+   * <p>引数で渡したランは削除しません（呼び出し側の責任） 中間ランはこのメソッド内で削除します
+   *
+   * @param runs ソート済みラン（キーが等しいレコードはリストの前にあるランのものが先に出力されます）
+   * @param format ランの形式
+   * @param out 出力先（レコード本体のみを書き込み、クローズはしません）
+   * @return 出力したレコード数
+   * @throws IOException 読み書きに失敗した場合
+   */
+  public long merge(List<Path> runs, RunFormat format, OutputStream out) throws IOException {
+    List<Path> current = runs;
+    List<Path> intermediates = new ArrayList<>();
+    try {
+      int pass = 0;
+      while (current.size() > maxFanIn) {
+        pass++;
+        List<Path> next = new ArrayList<>();
+        for (int i = 0; i < current.size(); i += maxFanIn) {
+          List<Path> group = current.subList(i, Math.min(i + maxFanIn, current.size()));
+          if (group.size() == 1) {
+            next.add(group.get(0));
+            continue;
+          }
+          Path merged = createTempRun();
+          intermediates.add(merged);
+          try (RunWriter writer = format.create(merged, WRITE_BUFFER_SIZE)) {
+            mergeGroup(group, format, writer::write);
+          }
+          next.add(merged);
+        }
+        log.debug("マージパス{}: {}本のランを{}本に統合", pass, current.size(), next.size());
+        deleteConsumed(current, intermediates, next);
+        current = next;
+      }
+      return mergeGroup(
+          current,
+          format,
+          (key, keyOffset, keyLength, record, recordOffset, recordLength) ->
+              out.write(record, recordOffset, recordLength));
+    } finally {
+      for (Path intermediate : intermediates) {
+        Files.deleteIfExists(intermediate);
+      }
+    }
+  }
+
+  /** 1回分のk-wayマージを行い、レコードをソート順に書き込み先へ渡します */
+  private long mergeGroup(List<Path> group, RunFormat format, EntrySink sink) throws IOException {
+    List<RunReader> readers = new ArrayList<>(group.size());
+    try {
+      for (Path run : group) {
+        readers.add(format.open(run, readBufferSize));
+      }
+      LoserTree tree = new LoserTree(readers);
+      long count = 0;
+      for (RunReader winner = tree.winner(); winner != null; winner = tree.winner()) {
+        sink.accept(
+            winner.key(),
+            winner.keyOffset(),
+            winner.keyLength(),
+            winner.record(),
+            winner.recordOffset(),
+            winner.recordLength());
+        count++;
+        tree.advance();
+      }
+      return count;
+    } finally {
+      IOException failure = null;
+      for (RunReader reader : readers) {
+        try {
+          reader.close();
+        } catch (IOException e) {
+          failure = e;
+        }
+      }
+      if (failure != null) {
+        log.warn("ランファイルのクローズに失敗しました", failure);
+      }
+    }
+  }
+
+  /** 前のパスで作成した中間ランのうち、次のパスへ引き継がないものを削除します */
+  private static void deleteConsumed(List<Path> consumed, List<Path> intermediates, List<Path> next)
+      throws IOException {
+    for (Path run : consumed) {
+      if (intermediates.contains(run) && !next.contains(run)) {
+        Files.deleteIfExists(run);
+        intermediates.remove(run);
+      }
+    }
+  }
+
+  /** マージ結果の書き込み先（中間ランまたは最終出力） */
+  @FunctionalInterface
+  private interface EntrySink {
+    void accept(
+        byte[] key, int keyOffset, int keyLength, byte[] record, int recordOffset, int recordLength)
+        throws IOException;
+  }
+
+  private Path createTempRun() throws IOException {
+    return tempDirectory == null
+        ? Files.createTempFile("merge-", ".run")
+        : Files.createTempFile(tempDirectory, "merge-", ".run");
+  }
+}
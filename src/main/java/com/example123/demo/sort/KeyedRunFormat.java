@@ -0,0 +1,303 @@
+package com.example123.demo.sort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * ソートキーとレコード本体を長さ付きで並べたバイナリ形式のランファイル
+ *
+ * <p>ファイルはブロック（非圧縮で約64KB）の並びで、各ブロックは「形式(1バイト) + 元サイズ(int) + 格納サイズ(int) + データ」です
+ * 圧縮を有効にした場合は各ブロックを最速レベルのdeflateで圧縮し、圧縮しても小さくならないブロックはそのまま格納します
+ *
+ * <p>ブロック内の各エントリは「キー長(可変長整数) + キー(8バイト未満の場合は0で埋めて8バイト) + レコード長(可変長整数) + レコード」です
+ * キーの先頭8バイトは常に固定幅で格納されるため、マージ時はそれをlong値として読むだけで大半の比較が済み、 レコード本体は解析せずにそのまま出力へコピーします
+ */
+public final class KeyedRunFormat implements RunFormat {
+
+  /** ブロックの目安サイズ（非圧縮、バイト） */
+  private static final int BLOCK_SIZE = 64 * 1024;
+
+  /** 固定幅で格納するキーの先頭部分のバイト数 */
+  private static final int PREFIX_LENGTH = 8;
+
+  private static final byte STORED = 0;
+  private static final byte DEFLATED = 1;
+
+  private final boolean compress;
+
+  /** 圧縮なしの形式を作成します */
+  public KeyedRunFormat() {
+    this(false);
+  }
+
+  /**
+   * @param compress ブロックを圧縮する場合はtrue（ディスク使用量とI/Oは減り、CPU使用量は増える）
+   */
+  public KeyedRunFormat(boolean compress) {
+    this.compress = compress;
+  }
+
+  @Override
+  public RunReader open(Path run, int bufferSize) throws IOException {
+    return new KeyedRunReader(
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(run), bufferSize)));
+  }
+
+  @Override
+  public RunWriter create(Path run, int bufferSize) throws IOException {
+    return new KeyedRunWriter(
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), bufferSize)),
+        compress);
+  }
+
+  private static final class KeyedRunWriter implements RunWriter {
+    private final DataOutputStream out;
+    private final Deflater deflater;
+    private byte[] block = new byte[BLOCK_SIZE + 1024];
+    private int blockLength;
+    private byte[] compressed;
+
+    KeyedRunWriter(DataOutputStream out, boolean compress) {
+      this.out = out;
+      this.deflater = compress ? new Deflater(Deflater.BEST_SPEED, true) : null;
+    }
+
+    @Override
+    public void write(
+        byte[] key, int keyOffset, int keyLength, byte[] record, int recordOffset, int recordLength)
+        throws IOException {
+      int paddedKeyLength = Math.max(keyLength, PREFIX_LENGTH);
+      ensureCapacity(10 + paddedKeyLength + recordLength);
+      putVarInt(keyLength);
+      System.arraycopy(key, keyOffset, block, blockLength, keyLength);
+      Arrays.fill(block, blockLength + keyLength, blockLength + paddedKeyLength, (byte) 0);
+      blockLength += paddedKeyLength;
+      putVarInt(recordLength);
+      System.arraycopy(record, recordOffset, block, blockLength, recordLength);
+      blockLength += recordLength;
+      if (blockLength >= BLOCK_SIZE) {
+        flushBlock();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if (blockLength > 0) {
+          flushBlock();
+        }
+        out.close();
+      } finally {
+        if (deflater != null) {
+          deflater.end();
+        }
+      }
+    }
+
+    private void flushBlock() throws IOException {
+      if (deflater != null) {
+        int compressedLength = deflate();
+        if (compressedLength < blockLength) {
+          writeBlock(DEFLATED, compressed, compressedLength);
+          return;
+        }
+      }
+      writeBlock(STORED, block, blockLength);
+    }
+
+    /** ブロックを圧縮し、圧縮後のバイト数を返します（元のサイズ以上になる場合は打ち切ってblockLengthを返す） */
+    private int deflate() {
+      if (compressed == null || compressed.length < blockLength) {
+        compressed = new byte[block.length];
+      }
+      deflater.reset();
+      deflater.setInput(block, 0, blockLength);
+      deflater.finish();
+      int length = 0;
+      while (!deflater.finished()) {
+        if (length == blockLength) {
+          return blockLength;
+        }
+        length += deflater.deflate(compressed, length, blockLength - length);
+      }
+      return length;
+    }
+
+    private void writeBlock(byte type, byte[] data, int length) throws IOException {
+      out.writeByte(type);
+      out.writeInt(blockLength);
+      out.writeInt(length);
+      out.write(data, 0, length);
+      blockLength = 0;
+    }
+
+    private void putVarInt(int value) {
+      while ((value & ~0x7F) != 0) {
+        block[blockLength++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      block[blockLength++] = (byte) value;
+    }
+
+    private void ensureCapacity(int additional) {
+      if (blockLength + additional > block.length) {
+        block = Arrays.copyOf(block, Math.max(block.length * 2, blockLength + additional));
+      }
+    }
+  }
+
+  private static final class KeyedRunReader implements RunReader {
+    private final DataInputStream in;
+    private Inflater inflater;
+    private byte[] block = new byte[BLOCK_SIZE + 1024];
+    private byte[] stored;
+    private int blockLength;
+    private int position;
+    private int keyOffset;
+    private int keyLength;
+    private long keyPrefix;
+    private int recordOffset;
+    private int recordLength;
+
+    KeyedRunReader(DataInputStream in) {
+      this.in = in;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+      if (position == blockLength && !readBlock()) {
+        return false;
+      }
+      keyLength = getVarInt();
+      keyOffset = position;
+      keyPrefix = readPrefix(keyOffset);
+      position += Math.max(keyLength, PREFIX_LENGTH);
+      recordLength = getVarInt();
+      recordOffset = position;
+      position += recordLength;
+      return true;
+    }
+
+    @Override
+    public byte[] key() {
+      return block;
+    }
+
+    @Override
+    public int keyOffset() {
+      return keyOffset;
+    }
+
+    @Override
+    public int keyLength() {
+      return keyLength;
+    }
+
+    @Override
+    public long keyPrefix() {
+      return keyPrefix;
+    }
+
+    @Override
+    public byte[] record() {
+      return block;
+    }
+
+    @Override
+    public int recordOffset() {
+      return recordOffset;
+    }
+
+    @Override
+    public int recordLength() {
+      return recordLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        in.close();
+      } finally {
+        if (inflater != null) {
+          inflater.end();
+        }
+      }
+    }
+
+    /** 次のブロックを読み込みます ファイルの末尾に達した場合はfalseを返します */
+    private boolean readBlock() throws IOException {
+      int type = in.read();
+      if (type < 0) {
+        return false;
+      }
+      int rawLength = in.readInt();
+      int storedLength = in.readInt();
+      if (block.length < rawLength) {
+        block = new byte[rawLength];
+      }
+      if (type == STORED) {
+        in.readFully(block, 0, rawLength);
+      } else if (type == DEFLATED) {
+        inflate(rawLength, storedLength);
+      } else {
+        throw new IOException("Unknown run block type: " + type);
+      }
+      blockLength = rawLength;
+      position = 0;
+      return true;
+    }
+
+    private void inflate(int rawLength, int storedLength) throws IOException {
+      if (stored == null || stored.length < storedLength) {
+        stored = new byte[Math.max(storedLength, BLOCK_SIZE)];
+      }
+      in.readFully(stored, 0, storedLength);
+      if (inflater == null) {
+        inflater = new Inflater(true);
+      }
+      inflater.reset();
+      inflater.setInput(stored, 0, storedLength);
+      try {
+        int length = 0;
+        while (length < rawLength) {
+          int n = inflater.inflate(block, length, rawLength - length);
+          if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+            throw new EOFException("Truncated run block");
+          }
+          length += n;
+        }
+      } catch (DataFormatException e) {
+        throw new IOException("Corrupted run block", e);
+      }
+    }
+
+    private long readPrefix(int offset) {
+      long prefix = 0;
+      for (int i = 0; i < PREFIX_LENGTH; i++) {
+        prefix = (prefix << 8) | (block[offset + i] & 0xFF);
+      }
+      return prefix;
+    }
+
+    private int getVarInt() {
+      int value = 0;
+      for (int shift = 0; ; shift += 7) {
+        byte b = block[position++];
+        value |= (b & 0x7F) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.example123.demo.sort;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * k本のランをマージするための敗者木（トーナメント木） 最小のレコードを取り出した後は、そのランの葉から根までの log2(k)
+ * 回の比較だけで次の最小を決定します（PriorityQueueのように取り出しと再挿入で2回木を辿る必要がありません）
+ *
+ * <p>キーが等しい場合はランの番号が小さい方を先に出力するため、ランを入力順に渡せば安定なマージになります
+ */
+final class LoserTree {
+
+  private final RunReader[] sources;
+
+  /** 各ランの現在のキーの先頭8バイト（大半の比較はこの値だけで決まる） */
+  private final long[] prefixes;
+
+  /** ランの末尾に達したかどうか（末尾に達したランは無限大として扱う） */
+  private final boolean[] exhausted;
+
+  /** tree[0]は勝者、tree[1..k-1]は各内部節点で負けたランの番号 */
+  private final int[] tree;
+
+  private final int k;
+
+  /**
+   * 敗者木を構築します 各ランの最初のレコードを読み込みます
+   *
+   * @param sources マージするラン（開いた直後の状態）
+   * @throws IOException 読み込みに失敗した場合
+   */
+  LoserTree(List<RunReader> sources) throws IOException {
+    this.k = sources.size();
+    this.sources = sources.toArray(new RunReader[0]);
+    this.prefixes = new long[k];
+    this.exhausted = new boolean[k];
+    this.tree = new int[Math.max(k, 1)];
+    for (int i = 0; i < k; i++) {
+      load(i);
+    }
+    // 番号kを「負の無限大」の仮想ランとして全節点を初期化し、各葉から順に勝ち上がらせる
+    Arrays.fill(tree, k);
+    for (int i = k - 1; i >= 0; i--) {
+      replay(i);
+    }
+  }
+
+  /** 現在の最小レコードを持つランを返します 全てのランが末尾に達した場合はnull */
+  RunReader winner() {
+    int w = tree[0];
+    return k == 0 || exhausted[w] ? null : sources[w];
+  }
+
+  /**
+   * 勝者のランを次のレコードへ進め、木を更新します
+   *
+   * @throws IOException 読み込みに失敗した場合
+   */
+  void advance() throws IOException {
+    int w = tree[0];
+    load(w);
+    replay(w);
+  }
+
+  /** ランiを次のレコードへ進め、キーの先頭8バイトを取り込みます */
+  private void load(int i) throws IOException {
+    RunReader source = sources[i];
+    exhausted[i] = !source.next();
+    if (!exhausted[i]) {
+      prefixes[i] = source.keyPrefix();
+    }
+  }
+
+  /** ランsの葉から根までを辿り、各節点で負けた側を残して勝者を上へ進めます */
+  private void replay(int s) {
+    int winner = s;
+    for (int t = (s + k) >> 1; t > 0; t >>= 1) {
+      if (beats(tree[t], winner)) {
+        int loser = winner;
+        winner = tree[t];
+        tree[t] = loser;
+      }
+    }
+    tree[0] = winner;
+  }
+
+  /** ランaがランbより先に出力されるべき場合にtrueを返します */
+  private boolean beats(int a, int b) {
+    if (a == k) {
+      return true;
+    }
+    if (b == k) {
+      return false;
+    }
+    if (exhausted[a]) {
+      return false;
+    }
+    if (exhausted[b]) {
+      return true;
+    }
+    int cmp = Long.compareUnsigned(prefixes[a], prefixes[b]);
+    if (cmp == 0) {
+      // 先頭8バイトが等しい場合のみキー全体を比較する
+      RunReader ra = sources[a];
+      RunReader rb = sources[b];
+      cmp =
+          Arrays.compareUnsigned(
+              ra.key(),
+              ra.keyOffset(),
+              ra.keyOffset() + ra.keyLength(),
+              rb.key(),
+              rb.keyOffset(),
+              rb.keyOffset() + rb.keyLength());
+    }
+    return cmp < 0 || (cmp == 0 && a < b);
+  }
+}
@@ -0,0 +1,22 @@
+package com.example123.demo.sort;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * ソート結果として出力するレコードのバイト表現を書き込む関数 外部ソートではランファイルへの退避と最終出力の両方で使用します
+ *
+ * @param <T> レコードの型
+ */
+@FunctionalInterface
+public interface RecordEncoder<T> {
+
+  /**
+   * レコードを書き込みます
+   *
+   * @param record 書き込むレコード
+   * @param out 書き込み先
+   * @throws IOException 書き込みに失敗した場合
+   */
+  void encode(T record, OutputStream out) throws IOException;
+}
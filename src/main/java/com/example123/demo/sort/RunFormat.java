@@ -0,0 +1,28 @@
+package com.example123.demo.sort;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/** ランファイルの形式 マージ処理はこのインターフェースを通じてランを読み書きするため、ランの形式に依存しません */
+public interface RunFormat {
+
+  /**
+   * ランファイルを開きます
+   *
+   * @param run ランファイルのパス
+   * @param bufferSize 先読みバッファのサイズ（バイト）
+   * @return ランの先頭に位置するリーダー（最初のレコードを読むには {@link RunReader#next()} を呼び出す）
+   * @throws IOException ファイルを開けない場合
+   */
+  RunReader open(Path run, int bufferSize) throws IOException;
+
+  /**
+   * ランファイルを作成します 多段マージの中間ランや、ソート済みデータの退避に使用します
+   *
+   * @param run 作成するランファイルのパス
+   * @param bufferSize 書き込みバッファのサイズ（バイト）
+   * @return ランの書き込み先
+   * @throws IOException ファイルを作成できない場合
+   */
+  RunWriter create(Path run, int bufferSize) throws IOException;
+}
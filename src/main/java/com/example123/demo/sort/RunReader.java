@@ -0,0 +1,61 @@
+package com.example123.demo.sort;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * ソート済みランファイルを先頭から1件ずつ読み込むリーダー マージ処理はキーのバイト比較だけで順序を決め、 レコードの中身は解析せずに出力先へコピーします
+ *
+ * <p>{@link #key()} と {@link #record()} が返す配列はリーダー内部のバッファです 次に {@link #next()}
+ * を呼び出すまでの間だけ有効で、内容を保持する場合はコピーしてください
+ */
+public interface RunReader extends Closeable {
+
+  /**
+   * 次のレコードへ進みます
+   *
+   * @return 次のレコードがある場合はtrue、ランの末尾に達した場合はfalse
+   * @throws IOException 読み込みに失敗した場合
+   */
+  boolean next() throws IOException;
+
+  /** 現在のレコードのソートキーを含む配列を返します */
+  byte[] key();
+
+  /** {@link #key()} の配列内でのキーの開始位置を返します */
+  int keyOffset();
+
+  /** キーのバイト数を返します */
+  int keyLength();
+
+  /**
+   * キーの先頭8バイトをビッグエンディアンのlong値として返します（8バイトに満たない部分は0） 符号なしで比較した大小はキー全体の大小と矛盾しないため、
+   * マージ処理はまずこの値を比較し、等しい場合だけキー全体を比較します
+   */
+  long keyPrefix();
+
+  /** 現在のレコード本体（最終出力に書き込むバイト列）を含む配列を返します */
+  byte[] record();
+
+  /** {@link #record()} の配列内でのレコードの開始位置を返します */
+  int recordOffset();
+
+  /** レコードのバイト数を返します */
+  int recordLength();
+
+  /**
+   * キーの先頭8バイトをlong値として読み込みます
+   *
+   * @param key キーを含む配列
+   * @param offset キーの開始位置
+   * @param length キーのバイト数
+   * @return 先頭8バイトのビッグエンディアン値（8バイトに満たない部分は0）
+   */
+  static long prefixOf(byte[] key, int offset, int length) {
+    long prefix = 0;
+    for (int i = 0; i < 8; i++) {
+      prefix = (prefix << 8) | (i < length ? key[offset + i] & 0xFF : 0);
+    }
+    return prefix;
+  }
+}
@@ -0,0 +1,23 @@
+package com.example123.demo.sort;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/** ランファイルへキーとレコードをソート順に書き込むライター */
+public interface RunWriter extends Closeable {
+
+  /**
+   * エントリを1件書き込みます
+   *
+   * @param key キーを含む配列
+   * @param keyOffset キーの開始位置
+   * @param keyLength キーのバイト数
+   * @param record レコード本体を含む配列
+   * @param recordOffset レコードの開始位置
+   * @param recordLength レコードのバイト数
+   * @throws IOException 書き込みに失敗した場合
+   */
+  void write(
+      byte[] key, int keyOffset, int keyLength, byte[] record, int recordOffset, int recordLength)
+      throws IOException;
+}
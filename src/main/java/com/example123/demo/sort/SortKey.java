@@ -0,0 +1,140 @@
+package com.example123.demo.sort;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 複数列からなるソートキーの定義 「department, hire_date, id」のような列の並びを、{@link SortKeyBuilder} によるバイト列のキーへ変換します
+ *
+ * <pre>{@code
+ * SortKey<Employee> key =
+ *     SortKey.<Employee>builder()
+ *         .string(Employee::getDepartment)
+ *         .date(Employee::getHire_date).descending()
+ *         .natural(Employee::getId)
+ *         .build();
+ * }</pre>
+ *
+ * <p>昇順の列ではnullが先頭、降順の列ではnullが末尾に並びます インスタンスは不変でスレッドセーフです
+ *
+ * @param <T> ソート対象の型
+ */
+public final class SortKey<T> {
+
+  /** 1列分のキーを追記する処理 */
+  @FunctionalInterface
+  private interface Column<T> {
+    void append(T value, SortKeyBuilder builder);
+  }
+
+  private final List<Column<T>> columns;
+  private final boolean[] descending;
+
+  private SortKey(List<Column<T>> columns, boolean[] descending) {
+    this.columns = List.copyOf(columns);
+    this.descending = descending.clone();
+  }
+
+  public static <T> Builder<T> builder() {
+    return new Builder<>();
+  }
+
+  /**
+   * 値のソートキーをビルダーへ追記します
+   *
+   * @param value ソート対象の値
+   * @param builder 追記先のビルダー
+   */
+  public void appendTo(T value, SortKeyBuilder builder) {
+    for (int i = 0; i < columns.size(); i++) {
+      int start = builder.size();
+      columns.get(i).append(value, builder);
+      if (descending[i]) {
+        builder.invertFrom(start);
+      }
+    }
+  }
+
+  /**
+   * 値のソートキーを作成します
+   *
+   * @param value ソート対象の値
+   * @param builder 作業用のビルダー（内容は破棄されます）
+   * @return ソートキー
+   */
+  public byte[] encode(T value, SortKeyBuilder builder) {
+    appendTo(value, builder.reset());
+    return builder.toByteArray();
+  }
+
+  /** 列の数を返します */
+  public int columnCount() {
+    return columns.size();
+  }
+
+  /** {@link SortKey} のビルダー 列は追加した順に比較されます */
+  public static final class Builder<T> {
+    private final List<Column<T>> columns = new ArrayList<>();
+    private final List<Boolean> descending = new ArrayList<>();
+
+    private Builder() {}
+
+    /** 文字列の列を追加します（UTF-8のバイト順で比較） */
+    public Builder<T> string(Function<? super T, String> getter) {
+      return add((value, builder) -> builder.appendString(getter.apply(value)));
+    }
+
+    /** 文字列の列を自然順（数字部分を数値として比較）で追加します IDなどの列に使用します */
+    public Builder<T> natural(Function<? super T, String> getter) {
+      return add((value, builder) -> builder.appendNatural(getter.apply(value)));
+    }
+
+    /** 数値の列を追加します */
+    public Builder<T> longValue(Function<? super T, ? extends Number> getter) {
+      return add(
+          (value, builder) -> {
+            Number number = getter.apply(value);
+            builder.appendLong(number == null ? null : number.longValue());
+          });
+    }
+
+    /** 日付の列を追加します */
+    public Builder<T> date(Function<? super T, LocalDate> getter) {
+      return add((value, builder) -> builder.appendDate(getter.apply(value)));
+    }
+
+    /** 日時の列を追加します */
+    public Builder<T> dateTime(Function<? super T, LocalDateTime> getter) {
+      return add((value, builder) -> builder.appendDateTime(getter.apply(value)));
+    }
+
+    /** 直前に追加した列を降順にします */
+    public Builder<T> descending() {
+      if (columns.isEmpty()) {
+        throw new IllegalStateException("descending() must follow a column definition");
+      }
+      descending.set(descending.size() - 1, Boolean.TRUE);
+      return this;
+    }
+
+    public SortKey<T> build() {
+      if (columns.isEmpty()) {
+        throw new IllegalStateException("At least one sort column is required");
+      }
+      boolean[] flags = new boolean[descending.size()];
+      for (int i = 0; i < flags.length; i++) {
+        flags[i] = descending.get(i);
+      }
+      return new SortKey<>(columns, flags);
+    }
+
+    private Builder<T> add(Column<T> column) {
+      columns.add(column);
+      descending.add(Boolean.FALSE);
+      return this;
+    }
+  }
+}
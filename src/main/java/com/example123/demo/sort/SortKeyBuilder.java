@@ -0,0 +1,251 @@
+package com.example123.demo.sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * ソートキーをバイト列として組み立てるビルダー 生成したキーは {@link Arrays#compareUnsigned(byte[], byte[])}
+ * で比較するだけで元の値の順序と一致するため、比較のたびに文字列の分割や数値変換を行う必要がありません
+ *
+ * <p>可変長の項目はエスケープと終端記号で区切るため、複数の項目を続けて追記すると「第1キー → 第2キー → …」の複合キーになります nullは常に非nullより前に並びます
+ *
+ * <p>インスタンスはスレッドセーフではありません スレッドごとに1つ用意して使い回してください
+ */
+public final class SortKeyBuilder {
+
+  /** null項目のマーカー（非nullより前に並ぶ） */
+  private static final byte NULL_MARKER = 0x00;
+
+  /** 非null項目のマーカー */
+  private static final byte VALUE_MARKER = 0x01;
+
+  /** 可変長項目の終端記号（0x00 0x01） エスケープした0x00（0x00 0xFF）より前に並ぶ */
+  private static final byte TERMINATOR = 0x01;
+
+  /** 値に含まれる0x00のエスケープ用の後続バイト */
+  private static final byte ESCAPE = (byte) 0xFF;
+
+  /** 数字列の有効桁数として表現できる上限（長さバイトに桁数+1を格納するため） */
+  private static final int MAX_NATURAL_DIGITS = 254;
+
+  private byte[] buf = new byte[64];
+  private int count;
+
+  /** 組み立て中のキーを破棄します */
+  public SortKeyBuilder reset() {
+    count = 0;
+    return this;
+  }
+
+  /**
+   * 文字列をUTF-8のバイト順（コードポイント順）で比較されるキー項目として追記します
+   *
+   * @param value 追記する値（null可）
+   * @return このビルダー
+   */
+  public SortKeyBuilder appendString(String value) {
+    if (value == null) {
+      return appendNull();
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    return appendUtf8(bytes, 0, bytes.length);
+  }
+
+  /**
+   * UTF-8のバイト列をそのままの順序で比較されるキー項目として追記します
+   *
+   * @param utf8 追記するバイト列
+   * @param offset 開始位置
+   * @param length バイト数
+   * @return このビルダー
+   */
+  public SortKeyBuilder appendUtf8(byte[] utf8, int offset, int length) {
+    ensureCapacity(length * 2 + 3);
+    buf[count++] = VALUE_MARKER;
+    for (int i = offset, end = offset + length; i < end; i++) {
+      putEscaped(utf8[i]);
+    }
+    putTerminator();
+    return this;
+  }
+
+  /**
+   * 文字列を数字部分を数値として比較する「自然順」のキー項目として追記します 例えば {@code "9" < "10"}、{@code "E000123" < "E000124"}
+   * の順になるため、数値のみのIDと英字接頭辞付きのIDのどちらでも期待どおりに並びます
+   *
+   * @param value 追記する値（null可）
+   * @return このビルダー
+   */
+  public SortKeyBuilder appendNatural(String value) {
+    if (value == null) {
+      return appendNull();
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    return appendNaturalUtf8(bytes, 0, bytes.length);
+  }
+
+  /**
+   * UTF-8のバイト列を「自然順」のキー項目として追記します（{@link #appendNatural(String)} と同じ順序になります）
+   *
+   * <p>数字列は「'0' + 有効桁数 + 有効数字 + 先頭ゼロの数」に変換します 有効桁数を先に置くことで桁数の多い数値が後ろに並び、先頭ゼロの数は {@code "E123"} と
+   * {@code "E000123"} のように数値が等しい場合の順序を決めるためだけに使います
+   *
+   * @param utf8 追記するバイト列
+   * @param offset 開始位置
+   * @param length バイト数
+   * @return このビルダー
+   */
+  public SortKeyBuilder appendNaturalUtf8(byte[] utf8, int offset, int length) {
+    ensureCapacity(length * 2 + 3);
+    buf[count++] = VALUE_MARKER;
+    int end = offset + length;
+    int i = offset;
+    while (i < end) {
+      byte b = utf8[i];
+      if (!isDigit(b)) {
+        putEscaped(b);
+        i++;
+        continue;
+      }
+      int start = i;
+      while (i < end && isDigit(utf8[i])) {
+        i++;
+      }
+      int significant = start;
+      while (significant < i - 1 && utf8[significant] == '0') {
+        significant++;
+      }
+      int digits = i - significant;
+      if (digits > MAX_NATURAL_DIGITS) {
+        // 現実的なIDでは発生しない桁数のため、数値としての比較は諦めてそのまま書き込む
+        for (int j = start; j < i; j++) {
+          putEscaped(utf8[j]);
+        }
+        continue;
+      }
+      ensureCapacity(digits + 3);
+      buf[count++] = '0';
+      buf[count++] = (byte) (digits + 1);
+      System.arraycopy(utf8, significant, buf, count, digits);
+      count += digits;
+      buf[count++] = (byte) (Math.min(significant - start, 254) + 1);
+    }
+    putTerminator();
+    return this;
+  }
+
+  /**
+   * long値を数値の大小で比較されるキー項目として追記します
+   *
+   * @param value 追記する値（null可）
+   * @return このビルダー
+   */
+  public SortKeyBuilder appendLong(Long value) {
+    if (value == null) {
+      return appendNull();
+    }
+    return appendLong(value.longValue());
+  }
+
+  /**
+   * long値を数値の大小で比較されるキー項目として追記します（符号ビットを反転したビッグエンディアンの8バイト）
+   *
+   * @param value 追記する値
+   * @return このビルダー
+   */
+  public SortKeyBuilder appendLong(long value) {
+    ensureCapacity(9);
+    buf[count++] = VALUE_MARKER;
+    long flipped = value ^ Long.MIN_VALUE;
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      buf[count++] = (byte) (flipped >>> shift);
+    }
+    return this;
+  }
+
+  /**
+   * 日付を日付順で比較されるキー項目として追記します
+   *
+   * @param value 追記する値（null可）
+   * @return このビルダー
+   */
+  public SortKeyBuilder appendDate(LocalDate value) {
+    if (value == null) {
+      return appendNull();
+    }
+    return appendLong(value.toEpochDay());
+  }
+
+  /**
+   * 日時を日時順で比較されるキー項目として追記します（エポック秒とナノ秒の2つの数値）
+   *
+   * @param value 追記する値（null可）
+   * @return このビルダー
+   */
+  public SortKeyBuilder appendDateTime(LocalDateTime value) {
+    if (value == null) {
+      return appendNull();
+    }
+    appendLong(value.toLocalDate().toEpochDay() * 86_400L + value.toLocalTime().toSecondOfDay());
+    ensureCapacity(4);
+    int nano = value.getNano();
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      buf[count++] = (byte) (nano >>> shift);
+    }
+    return this;
+  }
+
+  /**
+   * 指定位置以降に追記した項目を降順にします 各バイトを反転させるため、項目の符号化が前方一致しない（終端記号またはマーカーで区切られる）ことを前提とします
+   *
+   * @param start 降順にする項目の開始位置（項目を追記する前の {@link #size()}）
+   * @return このビルダー
+   */
+  SortKeyBuilder invertFrom(int start) {
+    for (int i = start; i < count; i++) {
+      buf[i] = (byte) ~buf[i];
+    }
+    return this;
+  }
+
+  /** null項目を追記します */
+  public SortKeyBuilder appendNull() {
+    ensureCapacity(1);
+    buf[count++] = NULL_MARKER;
+    return this;
+  }
+
+  /** 組み立て中のキーのバイト数を返します */
+  public int size() {
+    return count;
+  }
+
+  /** 組み立てたキーをコピーしたバイト配列を返します */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(buf, count);
+  }
+
+  private static boolean isDigit(byte b) {
+    return b >= '0' && b <= '9';
+  }
+
+  private void putEscaped(byte b) {
+    buf[count++] = b;
+    if (b == 0) {
+      buf[count++] = ESCAPE;
+    }
+  }
+
+  private void putTerminator() {
+    buf[count++] = 0;
+    buf[count++] = TERMINATOR;
+  }
+
+  private void ensureCapacity(int additional) {
+    if (count + additional > buf.length) {
+      buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + additional));
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.example123.demo.upsert;
+
+import com.example123.demo.batch.AdaptiveBatchSizer;
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** MERGE文によるUPSERT方式の共通処理 MERGE文は更新件数と挿入件数を区別して返さないため、同一トランザクション内で MERGE前に既存IDの件数を数えて件数を求めます */
+abstract class AbstractMergeUpsertStrategy implements UpsertStrategy {
+
+  /** SQL Serverのパラメーター上限(2100)に収まる最大行数（14カラム × 149レコード = 2086パラメーター） */
+  private static final int BATCH_SIZE = AdaptiveBatchSizer.maxRowsWithinParameterLimit(14);
+
+  protected final EmployeeMapper employeeMapper;
+  private final TransactionTemplate transactionTemplate;
+
+  AbstractMergeUpsertStrategy(
+      EmployeeMapper employeeMapper, PlatformTransactionManager transactionManager) {
+    this.employeeMapper = employeeMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @Override
+  public String getName() {
+    return UpsertStrategies.FALLBACK_NAME;
+  }
+
+  @Override
+  public int getBatchSize() {
+    return BATCH_SIZE;
+  }
+
+  @Override
+  public Map<String, Integer> upsert(List<Employee> employees) {
+    Map<String, Integer> result = new HashMap<>();
+    if (employees.isEmpty()) {
+      result.put("updateCount", 0);
+      result.put("insertCount", 0);
+      return result;
+    }
+    int existing =
+        transactionTemplate.execute(
+            status -> {
+              int count = employeeMapper.countExisting(employees);
+              merge(employees);
+              return count;
+            });
+    result.put("updateCount", existing);
+    result.put("insertCount", employees.size() - existing);
+    return result;
+  }
+
+  /** 方言ごとのMERGE文を実行します */
+  protected abstract void merge(List<Employee> employees);
+}
@@ -0,0 +1,30 @@
+package com.example123.demo.upsert;
+
+import java.util.Locale;
+
+/** 接続先データベースの方言 方言ごとに利用できるSQL構文（一時テーブル、TVP、MERGE文の書式など）が異なります */
+public enum DatabaseDialect {
+  /** Microsoft SQL Server（本番環境） */
+  SQL_SERVER,
+  /** H2 Database（テスト環境） */
+  H2,
+  /** 上記以外のデータベース */
+  OTHER;
+
+  /**
+   * JDBCドライバーが返すデータベース製品名から方言を判定します
+   *
+   * @param productName {@link java.sql.DatabaseMetaData#getDatabaseProductName()} の値
+   * @return 方言
+   */
+  public static DatabaseDialect fromProductName(String productName) {
+    String name = productName != null ? productName.toLowerCase(Locale.ROOT) : "";
+    if (name.contains("sql server")) {
+      return SQL_SERVER;
+    }
+    if (name.equals("h2")) {
+      return H2;
+    }
+    return OTHER;
+  }
+}
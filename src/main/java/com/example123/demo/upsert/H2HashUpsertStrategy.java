@@ -0,0 +1,75 @@
+package com.example123.demo.upsert;
+
+import com.example123.demo.batch.AdaptiveBatchSizer;
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import com.example123.demo.repository.HashedEmployee;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * H2のMERGE文と内容ハッシュを使用した一括UPSERT方式 内容ハッシュ（row_hash）が登録済みの値と異なる行だけを更新します
+ *
+ * <p>MERGE文は更新件数と挿入件数を区別して返さないため、MERGE方式と同様に同一トランザクション内でMERGE前に既存IDの件数を数え、 MERGE文が返す処理件数（更新件数 +
+ * 挿入件数）から更新件数と内容が変わらなかった件数を求めます
+ */
+@Component
+public class H2HashUpsertStrategy implements UpsertStrategy {
+
+  /** 15カラム（内容ハッシュを含む） × 139レコード = 2085パラメーター（SQL Serverの方式と同じ上限に揃える） */
+  private static final int BATCH_SIZE = AdaptiveBatchSizer.maxRowsWithinParameterLimit(15);
+
+  private final EmployeeMapper employeeMapper;
+  private final TransactionTemplate transactionTemplate;
+
+  public H2HashUpsertStrategy(
+      EmployeeMapper employeeMapper, PlatformTransactionManager transactionManager) {
+    this.employeeMapper = employeeMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @Override
+  public String getName() {
+    return "hash";
+  }
+
+  @Override
+  public DatabaseDialect getDialect() {
+    return DatabaseDialect.H2;
+  }
+
+  @Override
+  public int getBatchSize() {
+    return BATCH_SIZE;
+  }
+
+  @Override
+  public Map<String, Integer> upsert(List<Employee> employees) {
+    Map<String, Integer> result = new HashMap<>();
+    if (employees.isEmpty()) {
+      result.put("updateCount", 0);
+      result.put("insertCount", 0);
+      result.put("unchangedCount", 0);
+      return result;
+    }
+    List<HashedEmployee> rows = HashedEmployee.of(employees);
+    int[] counts =
+        transactionTemplate.execute(
+            status -> {
+              int existing = employeeMapper.countExisting(employees);
+              int affected = employeeMapper.bulkUpsertWithHashForH2(rows);
+              return new int[] {existing, affected};
+            });
+    int existing = counts[0];
+    int insertCount = employees.size() - existing;
+    int updateCount = counts[1] - insertCount;
+    result.put("updateCount", updateCount);
+    result.put("insertCount", insertCount);
+    result.put("unchangedCount", existing - updateCount);
+    return result;
+  }
+}
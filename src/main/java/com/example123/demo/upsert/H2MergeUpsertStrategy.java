@@ -0,0 +1,32 @@
+package com.example123.demo.upsert;
+
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import java.util.List;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * H2のMERGE文による一括UPSERT方式 複数行のVALUESを1つのMERGE文の入力にします
+ *
+ * <p>H2の {@code MERGE INTO ... KEY(id)} は行全体を置き換えるためバージョンの増分ができません SQL ServerのMERGE方式と同じ結果になるよう、
+ * 標準SQLの {@code MERGE INTO ... USING ... ON} 構文を使用します
+ */
+@Component
+public class H2MergeUpsertStrategy extends AbstractMergeUpsertStrategy {
+
+  public H2MergeUpsertStrategy(
+      EmployeeMapper employeeMapper, PlatformTransactionManager transactionManager) {
+    super(employeeMapper, transactionManager);
+  }
+
+  @Override
+  public DatabaseDialect getDialect() {
+    return DatabaseDialect.H2;
+  }
+
+  @Override
+  protected void merge(List<Employee> employees) {
+    employeeMapper.bulkUpsertForH2(employees);
+  }
+}
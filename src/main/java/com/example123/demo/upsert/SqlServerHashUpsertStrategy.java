@@ -0,0 +1,48 @@
+package com.example123.demo.upsert;
+
+import com.example123.demo.batch.AdaptiveBatchSizer;
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import com.example123.demo.repository.HashedEmployee;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+/**
+ * SQL Serverの一時テーブルと内容ハッシュを使用した一括UPSERT方式 内容ハッシュ（row_hash）が登録済みの値と異なる行だけを更新します
+ *
+ * <p>大半の行が前回と同じ内容で再送されるデータでは、一時テーブル方式と比べて更新する行が減り、バージョンの増分・トランザクションログの書き込み・ 行ロックの保持時間が減ります
+ * 結果には更新件数・挿入件数に加えて、内容が変わらず更新しなかった件数（unchangedCount）を含みます
+ */
+@Component
+public class SqlServerHashUpsertStrategy implements UpsertStrategy {
+
+  /** SQL Serverのパラメーター上限(2100)に収まる最大行数（16カラム × 131レコード = 2096パラメーター） */
+  private static final int BATCH_SIZE = AdaptiveBatchSizer.maxRowsWithinParameterLimit(16);
+
+  private final EmployeeMapper employeeMapper;
+
+  public SqlServerHashUpsertStrategy(EmployeeMapper employeeMapper) {
+    this.employeeMapper = employeeMapper;
+  }
+
+  @Override
+  public String getName() {
+    return "hash";
+  }
+
+  @Override
+  public DatabaseDialect getDialect() {
+    return DatabaseDialect.SQL_SERVER;
+  }
+
+  @Override
+  public int getBatchSize() {
+    return BATCH_SIZE;
+  }
+
+  @Override
+  public Map<String, Integer> upsert(List<Employee> employees) {
+    return employeeMapper.bulkUpsertViaTempTableWithHash(HashedEmployee.of(employees));
+  }
+}
@@ -0,0 +1,27 @@
+package com.example123.demo.upsert;
+
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import java.util.List;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/** SQL ServerのMERGE文による一括UPSERT方式（1行1文のMERGEを連結して送信） */
+@Component
+public class SqlServerMergeUpsertStrategy extends AbstractMergeUpsertStrategy {
+
+  public SqlServerMergeUpsertStrategy(
+      EmployeeMapper employeeMapper, PlatformTransactionManager transactionManager) {
+    super(employeeMapper, transactionManager);
+  }
+
+  @Override
+  public DatabaseDialect getDialect() {
+    return DatabaseDialect.SQL_SERVER;
+  }
+
+  @Override
+  protected void merge(List<Employee> employees) {
+    employeeMapper.bulkUpsert(employees);
+  }
+}
@@ -0,0 +1,42 @@
+package com.example123.demo.upsert;
+
+import com.example123.demo.batch.AdaptiveBatchSizer;
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+/** SQL Serverの一時テーブル（#TempEMP）を使用した一括UPSERT方式 一時テーブルへ投入後、UPDATEとINSERTを集合演算で実行します */
+@Component
+public class SqlServerTempTableUpsertStrategy implements UpsertStrategy {
+
+  /** SQL Serverのパラメーター上限(2100)に収まる最大行数（15カラム × 139レコード = 2085パラメーター） */
+  private static final int BATCH_SIZE = AdaptiveBatchSizer.maxRowsWithinParameterLimit(15);
+
+  private final EmployeeMapper employeeMapper;
+
+  public SqlServerTempTableUpsertStrategy(EmployeeMapper employeeMapper) {
+    this.employeeMapper = employeeMapper;
+  }
+
+  @Override
+  public String getName() {
+    return "temp-table";
+  }
+
+  @Override
+  public DatabaseDialect getDialect() {
+    return DatabaseDialect.SQL_SERVER;
+  }
+
+  @Override
+  public int getBatchSize() {
+    return BATCH_SIZE;
+  }
+
+  @Override
+  public Map<String, Integer> upsert(List<Employee> employees) {
+    return employeeMapper.bulkUpsertViaTempTable(employees);
+  }
+}
@@ -0,0 +1,49 @@
+package com.example123.demo.upsert;
+
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * SQL Serverのテーブル値パラメーター（TVP）を使用した一括UPSERT方式 1バッチを1回のストアドプロシージャ呼び出しで処理します
+ *
+ * <p>パラメーター数の上限を受けないため、他の方式より大きなバッチで処理できます
+ */
+@Component
+public class SqlServerTvpUpsertStrategy implements UpsertStrategy {
+
+  private final EmployeeMapper employeeMapper;
+
+  /** 1回の呼び出しにまとめる行数 */
+  private final int batchSize;
+
+  public SqlServerTvpUpsertStrategy(
+      EmployeeMapper employeeMapper,
+      @Value("${employee.upsert.tvp-batch-size:5000}") int batchSize) {
+    this.employeeMapper = employeeMapper;
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public String getName() {
+    return "tvp";
+  }
+
+  @Override
+  public DatabaseDialect getDialect() {
+    return DatabaseDialect.SQL_SERVER;
+  }
+
+  @Override
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  @Override
+  public Map<String, Integer> upsert(List<Employee> employees) {
+    return employeeMapper.bulkUpsertViaTvp(employees);
+  }
+}
@@ -0,0 +1,77 @@
+package com.example123.demo.upsert;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 接続先の方言で利用できるUPSERT方式の一覧 方式名から実装を選択します
+ *
+ * <p>指定した方式が接続先で利用できない場合（テスト環境のH2で一時テーブル方式を指定した場合など）は、 その方言の {@value #FALLBACK_NAME} 方式を使用します
+ * これにより本番と同じ呼び出し経路をH2でもテストできます
+ */
+@Component
+public class UpsertStrategies {
+
+  private static final Logger log = LoggerFactory.getLogger(UpsertStrategies.class);
+
+  /** 全ての方言で実装されている方式名 */
+  public static final String FALLBACK_NAME = "merge";
+
+  private final DatabaseDialect dialect;
+  private final Map<String, UpsertStrategy> strategies = new TreeMap<>();
+  private final UpsertStrategy defaultStrategy;
+
+  public UpsertStrategies(
+      List<UpsertStrategy> allStrategies,
+      DatabaseDialect dialect,
+      @Value("${employee.upsert.strategy:temp-table}") String defaultName) {
+    this.dialect = dialect;
+    for (UpsertStrategy strategy : allStrategies) {
+      if (strategy.getDialect() == dialect) {
+        strategies.put(strategy.getName(), strategy);
+      }
+    }
+    if (!strategies.containsKey(FALLBACK_NAME)) {
+      throw new IllegalStateException("UPSERT方式が実装されていないデータベースです: " + dialect);
+    }
+    log.info(
+        "Upsert strategies for {}: {} (default: {})", dialect, strategies.keySet(), defaultName);
+    this.defaultStrategy = get(defaultName);
+  }
+
+  /** 設定（{@code employee.upsert.strategy}）で指定された方式を返します */
+  public UpsertStrategy getDefault() {
+    return defaultStrategy;
+  }
+
+  /**
+   * 方式名に対応する実装を返します 接続先で利用できない方式の場合は {@value #FALLBACK_NAME} 方式を返します
+   *
+   * @param name 方式名（merge、temp-table、tvp）
+   * @return UPSERT方式
+   */
+  public UpsertStrategy get(String name) {
+    UpsertStrategy strategy = strategies.get(name);
+    if (strategy == null) {
+      log.warn(
+          "Upsert strategy '{}' is not available for {}, using '{}'", name, dialect, FALLBACK_NAME);
+      return strategies.get(FALLBACK_NAME);
+    }
+    return strategy;
+  }
+
+  /** 接続先の方言で利用できる方式名の一覧を返します */
+  public List<String> getAvailableNames() {
+    return List.copyOf(strategies.keySet());
+  }
+
+  /** 接続先データベースの方言を返します */
+  public DatabaseDialect getDialect() {
+    return dialect;
+  }
+}
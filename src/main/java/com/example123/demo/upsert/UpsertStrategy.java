@@ -0,0 +1,32 @@
+package com.example123.demo.upsert;
+
+import com.example123.demo.domain.Employee;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 従業員情報の一括UPSERT方式 1回の呼び出しで {@link #getBatchSize()} 件以下の従業員情報を更新または挿入します
+ *
+ * <p>実装はデータベースの方言ごとに用意し、{@link UpsertStrategies} が接続先の方言と設定値（方式名）から選択します
+ * どの方式でも、既存レコードはバージョンを増分して更新し、新規レコードはバージョン0で挿入します
+ */
+public interface UpsertStrategy {
+
+  /** 方式名（{@code employee.upsert.strategy} に指定する値） */
+  String getName();
+
+  /** 対応するデータベースの方言 */
+  DatabaseDialect getDialect();
+
+  /** 1回の呼び出しで処理できる最大件数 実際のバッチサイズはこの件数を上限に、実測したスループットから調整されます */
+  int getBatchSize();
+
+  /**
+   * 従業員情報を一括でUPSERTします
+   *
+   * @param employees UPSERT対象の従業員情報のリスト（{@link #getBatchSize()} 件以下、IDの重複がないこと）
+   * @return 処理件数を含むMap（updateCount: 更新件数, insertCount: 挿入件数, 内容が変わらない行を更新しない方式ではunchangedCount:
+   *     更新しなかった件数）
+   */
+  Map<String, Integer> upsert(List<Employee> employees);
+}
@@ -0,0 +1,24 @@
+package com.example123.demo.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 従業員レコードの登録日時・更新日時（created_at、updated_at）に設定する時刻を返すユーティリティクラス
+ *
+ * <p>SQL Serverの一時テーブル・TVP・内容ハッシュ・MERGE方式のUPSERTはデータベース側で {@code SYSUTCDATETIME()} を設定するため、
+ * アプリケーション側で設定する時刻もUTCに揃えます ホストのタイムゾーンで設定すると、差分出力のウォーターマーク（updated_at）より 前の時刻で書き込まれた行が出力されなくなります
+ */
+public final class AuditTimestamps {
+
+  private AuditTimestamps() {}
+
+  /**
+   * 現在時刻（UTC）を返します
+   *
+   * @return タイムゾーンを含まないUTCの現在時刻
+   */
+  public static LocalDateTime now() {
+    return LocalDateTime.now(ZoneOffset.UTC);
+  }
+}
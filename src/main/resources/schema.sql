@@ -15,10 +15,87 @@ CREATE TABLE dbo.employees (
     updated_by           VARCHAR(255)      NULL,
     updated_at           DATETIME          NULL,
     version              BIGINT            NULL,
+    row_hash             BINARY(32)        NULL,
     
     CONSTRAINT PK_employees PRIMARY KEY CLUSTERED (id)
 );
 
+-- ★ ハッシュ比較方式UPSERT用の内容ハッシュ列（列追加前に作成されたテーブル向け）
+IF COL_LENGTH('dbo.employees', 'row_hash') IS NULL
+    ALTER TABLE dbo.employees ADD row_hash BINARY(32) NULL;
+
+-- ★ 差分出力（updated_at, id のキーセット検索）用インデックス
+CREATE INDEX IX_employees_updated_at_id ON dbo.employees (updated_at, id);
+
+-- ★ 従業員UPSERT用のテーブル型（TVP）：列の順序は EmployeeDataTableBuilder と一致させる
+IF TYPE_ID(N'dbo.EmployeeTableType') IS NULL
+    CREATE TYPE dbo.EmployeeTableType AS TABLE (
+        id                   VARCHAR(255)      NOT NULL PRIMARY KEY,
+        name                 VARCHAR(255)      NULL,
+        department           VARCHAR(255)      NULL,
+        position             VARCHAR(255)      NULL,
+        employment_status    VARCHAR(255)      NULL,
+        hire_date            DATE              NULL,
+        phone_number         VARCHAR(255)      NULL,
+        email                VARCHAR(255)      NULL,
+        birth_date           DATE              NULL,
+        gender               VARCHAR(50)       NULL,
+        created_by           VARCHAR(255)      NULL,
+        created_at           DATETIME          NULL,
+        updated_by           VARCHAR(255)      NULL,
+        updated_at           DATETIME          NULL,
+        version              BIGINT            NULL
+    );
+
+-- ★ 従業員のTVP一括UPSERT：既存行を更新したうえで未存在の行を挿入し、件数を返す
+--   （スクリプトはセミコロン区切りで実行されるため、プロシージャ本体ではセミコロンを使用しない）
+CREATE OR ALTER PROCEDURE dbo.usp_upsert_employees
+    @employees dbo.EmployeeTableType READONLY
+AS
+BEGIN
+    SET NOCOUNT ON
+
+    UPDATE tgt
+       SET tgt.name = src.name,
+           tgt.department = src.department,
+           tgt.position = src.position,
+           tgt.employment_status = src.employment_status,
+           tgt.hire_date = src.hire_date,
+           tgt.phone_number = src.phone_number,
+           tgt.email = src.email,
+           tgt.birth_date = src.birth_date,
+           tgt.gender = src.gender,
+           tgt.updated_by = src.updated_by,
+           tgt.updated_at = SYSUTCDATETIME(),
+           tgt.row_hash = NULL,
+           tgt.version = tgt.version + 1
+      FROM dbo.employees AS tgt
+      JOIN @employees AS src
+        ON tgt.id = src.id
+
+    DECLARE @UpdateCount int = @@ROWCOUNT
+
+    INSERT INTO dbo.employees (
+        id, name, department, position, employment_status,
+        hire_date, phone_number, email, birth_date, gender,
+        created_by, created_at, updated_by, updated_at, version
+    )
+    SELECT
+        src.id, src.name, src.department, src.position, src.employment_status,
+        src.hire_date, src.phone_number, src.email, src.birth_date, src.gender,
+        src.created_by, ISNULL(src.created_at, SYSUTCDATETIME()), src.updated_by, SYSUTCDATETIME(), 0
+    FROM @employees AS src
+    WHERE NOT EXISTS (
+        SELECT 1
+        FROM dbo.employees
+        WHERE id = src.id
+    )
+
+    DECLARE @InsertCount int = @@ROWCOUNT
+
+    SELECT @UpdateCount AS updateCount, @InsertCount AS insertCount
+END;
+
 -- ★ 従業員配属履歴テーブル
 CREATE TABLE dbo.employee_assignment_history (
     -- ★ 複合主キー（5要素）
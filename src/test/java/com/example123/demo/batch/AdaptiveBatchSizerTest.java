@@ -0,0 +1,71 @@
+package com.example123.demo.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/** AdaptiveBatchSizer単体テストクラス スループットに応じたバッチサイズの増減と上限・下限を確認します */
+public class AdaptiveBatchSizerTest {
+
+  /** 1行あたり1ミリ秒の速度（1000行/秒）で処理した場合の処理時間 */
+  private static long nanosAt1000RowsPerSecond(int rows) {
+    return rows * 1_000_000L;
+  }
+
+  @Test
+  void testParameterLimitBoundsMaxRows() {
+    assertEquals(139, AdaptiveBatchSizer.maxRowsWithinParameterLimit(15));
+    assertEquals(149, AdaptiveBatchSizer.maxRowsWithinParameterLimit(14));
+    assertEquals(61, AdaptiveBatchSizer.maxRowsWithinParameterLimit(34));
+  }
+
+  @Test
+  void testGrowsAdditivelyUntilMaxWhileThroughputHolds() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer("temp-table", 10, 139, 0.5, 0.1, true);
+    int start = sizer.nextBatchSize();
+    assertEquals(74, start);
+
+    int size = sizer.nextBatchSize();
+    sizer.record(size, nanosAt1000RowsPerSecond(size), true);
+    assertEquals(start + 6, sizer.nextBatchSize(), "Should grow by (max - min) / 20");
+
+    for (int i = 0; i < 50; i++) {
+      size = sizer.nextBatchSize();
+      sizer.record(size, nanosAt1000RowsPerSecond(size), true);
+    }
+    assertEquals(139, sizer.nextBatchSize(), "Should never exceed the parameter-limit bound");
+  }
+
+  @Test
+  void testShrinksMultiplicativelyOnThroughputDropOrRetry() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer("merge", 10, 149, 0.5, 0.1, true);
+    int size = sizer.nextBatchSize();
+    sizer.record(size, nanosAt1000RowsPerSecond(size), true);
+    int beforeDrop = sizer.nextBatchSize();
+
+    // スループットが半分に下がった
+    sizer.record(beforeDrop, nanosAt1000RowsPerSecond(beforeDrop) * 2, true);
+    assertEquals(beforeDrop / 2, sizer.nextBatchSize());
+
+    // デッドロックで再実行した
+    int beforeRetry = sizer.nextBatchSize();
+    sizer.record(beforeRetry, nanosAt1000RowsPerSecond(beforeRetry), false);
+    assertEquals(beforeRetry / 2, sizer.nextBatchSize());
+
+    for (int i = 0; i < 10; i++) {
+      sizer.record(10, 1, false);
+    }
+    assertEquals(10, sizer.nextBatchSize(), "Should never fall below the minimum");
+    assertTrue(sizer.getSmoothedRowsPerSecond() > 0);
+  }
+
+  @Test
+  void testFixedSizeWhenDisabled() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer("tvp", 10, 5000, 0.5, 0.1, false);
+
+    sizer.record(5000, nanosAt1000RowsPerSecond(5000) * 10, false);
+
+    assertEquals(5000, sizer.nextBatchSize());
+  }
+}
@@ -0,0 +1,69 @@
+package com.example123.demo.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/** KeyRangePartitioner単体テストクラス ランダムな順序のデータが重ならない連続したキー範囲に分割されることを確認します */
+public class KeyRangePartitionerTest {
+
+  @Test
+  void testSplitsShuffledKeysIntoDisjointSortedRanges() {
+    List<String> keys =
+        new ArrayList<>(IntStream.range(0, 1000).mapToObj(i -> String.format("E%06d", i)).toList());
+    Collections.shuffle(keys, new Random(42));
+
+    List<List<String>> ranges = KeyRangePartitioner.partition(keys, Comparator.naturalOrder(), 4);
+
+    assertEquals(4, ranges.size());
+    String previousLast = null;
+    int total = 0;
+    for (List<String> range : ranges) {
+      assertEquals(250, range.size());
+      List<String> sorted = new ArrayList<>(range);
+      Collections.sort(sorted);
+      assertEquals(sorted, range, "Each range should be in key order");
+      assertTrue(previousLast == null || previousLast.compareTo(range.get(0)) < 0);
+      previousLast = range.get(range.size() - 1);
+      total += range.size();
+    }
+    assertEquals(1000, total);
+    assertEquals("E000000", ranges.get(0).get(0));
+    assertEquals("E000999", ranges.get(3).get(249));
+  }
+
+  @Test
+  void testDuplicateKeysStayInTheSameRange() {
+    List<String> keys = List.of("B", "A", "B", "B", "C", "B", "D", "A");
+
+    List<List<String>> ranges = KeyRangePartitioner.partition(keys, Comparator.naturalOrder(), 4);
+
+    for (List<String> range : ranges) {
+      for (List<String> other : ranges) {
+        if (range != other) {
+          assertTrue(Collections.disjoint(range, other), ranges + " share a key");
+        }
+      }
+    }
+    assertEquals(8, ranges.stream().mapToInt(List::size).sum());
+  }
+
+  @Test
+  void testFewerRangesThanPartitionsForSmallInput() {
+    assertEquals(
+        2, KeyRangePartitioner.partition(List.of("b", "a"), Comparator.naturalOrder(), 8).size());
+    assertTrue(
+        KeyRangePartitioner.partition(List.<String>of(), Comparator.naturalOrder(), 8).isEmpty());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> KeyRangePartitioner.partition(List.of("a"), Comparator.naturalOrder(), 0));
+  }
+}
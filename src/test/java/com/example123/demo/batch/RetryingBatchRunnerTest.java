@@ -0,0 +1,253 @@
+package com.example123.demo.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example123.demo.batch.BatchOutcome.Status;
+import com.example123.demo.batch.TransientErrorClassifier.TransientError;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** RetryingBatchRunner単体テストクラス 一時的なエラーの再実行・結果台帳・失敗したバッチの再実行を確認します */
+public class RetryingBatchRunnerTest {
+
+  private static final List<String> KEYS =
+      IntStream.range(0, 10).mapToObj(i -> String.format("E%03d", i)).toList();
+
+  private ExecutorService executor;
+  private RetryingBatchRunner runner;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+    runner = new RetryingBatchRunner(executor, 3, 1, 5);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testDeadlockedBatchIsRetriedAndCounted() {
+    Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+    BatchRunReport<String> report =
+        runner.run(
+            "temp-table",
+            KEYS,
+            4,
+            Function.identity(),
+            batch -> {
+              AtomicInteger call = calls.computeIfAbsent(batch.get(0), k -> new AtomicInteger());
+              if (batch.get(0).equals("E004") && call.incrementAndGet() == 1) {
+                throw new RuntimeException(new SQLException("deadlock", "40001", 1205));
+              }
+              return Map.of("updateCount", batch.size(), "insertCount", 0);
+            });
+
+    assertFalse(report.hasFailures());
+    assertEquals(10, report.getUpdateCount());
+    assertEquals(2, report.getSucceeded().size());
+    BatchOutcome<String> retried = report.getRetried().get(0);
+    assertEquals(1, retried.getIndex());
+    assertEquals(2, retried.getAttempts());
+    assertEquals(TransientError.DEADLOCK, retried.getTransientError());
+    assertEquals("E004", retried.getFirstKey());
+    assertEquals("E007", retried.getLastKey());
+    assertEquals(1, report.toCounts().get("retriedBatchCount").intValue());
+  }
+
+  @Test
+  void testFailedBatchesAreRecordedWithKeyRangeAndCanBeReplayed() {
+    AtomicInteger permanentCalls = new AtomicInteger();
+    AtomicInteger transientCalls = new AtomicInteger();
+
+    BatchRunReport<String> report =
+        runner.run(
+            "merge",
+            KEYS,
+            4,
+            Function.identity(),
+            batch -> {
+              if (batch.contains("E001")) {
+                permanentCalls.incrementAndGet();
+                throw new IllegalStateException("constraint violation");
+              }
+              if (batch.contains("E009")) {
+                transientCalls.incrementAndGet();
+                throw new RuntimeException(new SQLException("lock timeout", "HY000", 1222));
+              }
+              return Map.of("updateCount", 0, "insertCount", batch.size());
+            });
+
+    assertEquals(4, report.getInsertCount(), "Only the middle batch should be counted");
+    assertEquals(1, permanentCalls.get(), "Non-transient errors should not be retried");
+    assertEquals(3, transientCalls.get(), "Transient errors should be retried up to max attempts");
+    List<BatchOutcome<String>> failed = report.getFailed();
+    assertEquals(2, failed.size());
+    assertEquals("E000", failed.get(0).getFirstKey());
+    assertEquals("E003", failed.get(0).getLastKey());
+    assertEquals(Status.FAILED, failed.get(1).getStatus());
+    assertEquals(TransientError.LOCK_TIMEOUT, failed.get(1).getTransientError());
+    assertEquals(List.of("E008", "E009"), failed.get(1).getItems());
+
+    AtomicInteger replayed = new AtomicInteger();
+    BatchRunReport<String> replay =
+        runner.replayFailed(
+            report,
+            Function.identity(),
+            batch -> {
+              replayed.addAndGet(batch.size());
+              return Map.of("updateCount", 0, "insertCount", batch.size());
+            });
+
+    assertFalse(replay.hasFailures());
+    assertEquals("merge", replay.getOperation());
+    assertEquals(6, replayed.get(), "Only the failed batches should be replayed");
+    assertEquals(6, replay.getInsertCount());
+  }
+
+  @Test
+  void testAdaptiveRunCutsBatchesInOrderAndShrinksAfterRetry() {
+    List<String> keys = IntStream.range(0, 300).mapToObj(i -> String.format("E%03d", i)).toList();
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer("temp-table", 10, 100, 0.5, 0.1, true);
+    AtomicInteger calls = new AtomicInteger();
+    ExecutorService single = Executors.newFixedThreadPool(1);
+    try {
+      RetryingBatchRunner sequentialRunner = new RetryingBatchRunner(single, 3, 1, 5);
+
+      BatchRunReport<String> report =
+          sequentialRunner.run(
+              "temp-table",
+              keys,
+              sizer,
+              Function.identity(),
+              batch -> {
+                if (calls.incrementAndGet() == 1) {
+                  throw new RuntimeException(new SQLException("deadlock", "40001", 1205));
+                }
+                return Map.of("updateCount", batch.size(), "insertCount", 0);
+              });
+
+      assertFalse(report.hasFailures());
+      assertEquals(300, report.getUpdateCount());
+      List<BatchOutcome<String>> outcomes = report.getOutcomes();
+      assertEquals(55, outcomes.get(0).getSize());
+      assertEquals(Status.RETRIED, outcomes.get(0).getStatus());
+      assertEquals(27, outcomes.get(1).getSize(), "Retried batch should halve the next batch");
+      String previousLastKey = null;
+      for (int i = 0; i < outcomes.size(); i++) {
+        BatchOutcome<String> outcome = outcomes.get(i);
+        assertEquals(i, outcome.getIndex());
+        // 最後のバッチは残りの件数のため下限を下回ることがある
+        boolean last = i == outcomes.size() - 1;
+        assertTrue((last || outcome.getSize() >= 10) && outcome.getSize() <= 100);
+        assertTrue(previousLastKey == null || previousLastKey.compareTo(outcome.getFirstKey()) < 0);
+        previousLastKey = outcome.getLastKey();
+      }
+    } finally {
+      single.shutdownNow();
+    }
+  }
+
+  @Test
+  void testPermanentFailureDoesNotShrinkBatches() {
+    List<String> keys = IntStream.range(0, 200).mapToObj(i -> String.format("E%03d", i)).toList();
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer("merge", 10, 100, 0.5, 0.1, true);
+    AtomicInteger calls = new AtomicInteger();
+    ExecutorService single = Executors.newFixedThreadPool(1);
+    try {
+      RetryingBatchRunner sequentialRunner = new RetryingBatchRunner(single, 3, 1, 5);
+
+      BatchRunReport<String> report =
+          sequentialRunner.run(
+              "merge",
+              keys,
+              sizer,
+              Function.identity(),
+              batch -> {
+                if (calls.incrementAndGet() == 1) {
+                  // 制約違反はデータの問題で混雑ではないため、バッチサイズを縮小しない
+                  throw new IllegalStateException("constraint violation");
+                }
+                return Map.of("updateCount", batch.size(), "insertCount", 0);
+              });
+
+      List<BatchOutcome<String>> outcomes = report.getOutcomes();
+      assertEquals(Status.FAILED, outcomes.get(0).getStatus());
+      assertEquals(55, outcomes.get(0).getSize());
+      assertEquals(55, outcomes.get(1).getSize(), "A permanent failure should not halve the batch");
+    } finally {
+      single.shutdownNow();
+    }
+  }
+
+  @Test
+  void testPartitionedRunProcessesDisjointKeyRangesInKeyOrder() {
+    List<String> shuffled =
+        new ArrayList<>(IntStream.range(0, 200).mapToObj(i -> String.format("E%03d", i)).toList());
+    Collections.shuffle(shuffled, new Random(7));
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer("merge", 10, 30, 0.5, 0.1, false);
+    Map<String, String> workerOfKey = new ConcurrentHashMap<>();
+
+    BatchRunReport<String> report =
+        runner.runPartitioned(
+            "merge",
+            shuffled,
+            Comparator.naturalOrder(),
+            sizer,
+            Function.identity(),
+            batch -> {
+              batch.forEach(key -> workerOfKey.put(key, Thread.currentThread().getName()));
+              return Map.of("updateCount", batch.size(), "insertCount", 0);
+            });
+
+    assertFalse(report.hasFailures());
+    assertEquals(200, report.getUpdateCount());
+    String previousLastKey = null;
+    for (int i = 0; i < report.getOutcomes().size(); i++) {
+      BatchOutcome<String> outcome = report.getOutcomes().get(i);
+      assertEquals(i, outcome.getIndex());
+      List<String> sorted = new ArrayList<>(outcome.getItems());
+      Collections.sort(sorted);
+      assertEquals(sorted, outcome.getItems(), "Batches should be cut in key order");
+      assertTrue(previousLastKey == null || previousLastKey.compareTo(outcome.getFirstKey()) < 0);
+      previousLastKey = outcome.getLastKey();
+    }
+    // 4スレッドに50件ずつのキー範囲を割り当てるため、各範囲は1つのスレッドだけが処理する
+    for (int start = 0; start < 200; start += 50) {
+      String owner = workerOfKey.get(String.format("E%03d", start));
+      for (int i = start; i < start + 50; i++) {
+        assertEquals(owner, workerOfKey.get(String.format("E%03d", i)));
+      }
+    }
+  }
+
+  @Test
+  void testBackoffIsCappedAndJittered() {
+    RetryingBatchRunner slowRunner = new RetryingBatchRunner(executor, 5, 100, 1000);
+
+    for (int i = 0; i < 100; i++) {
+      long first = slowRunner.backoffMillis(1);
+      long fifth = slowRunner.backoffMillis(5);
+      assertTrue(first >= 50 && first <= 100, "first backoff out of range: " + first);
+      assertTrue(fifth >= 500 && fifth <= 1000, "capped backoff out of range: " + fifth);
+    }
+  }
+}
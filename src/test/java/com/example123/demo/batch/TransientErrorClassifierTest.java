@@ -0,0 +1,47 @@
+package com.example123.demo.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example123.demo.batch.TransientErrorClassifier.TransientError;
+import java.net.SocketException;
+import java.sql.SQLException;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+/** TransientErrorClassifier単体テストクラス SQL Server・H2のエラー番号とSQLSTATEから一時的なエラーを判定できることを確認します */
+public class TransientErrorClassifierTest {
+
+  @Test
+  void testDeadlockIsDetectedThroughWrappedCauses() {
+    SQLException deadlock = new SQLException("deadlock victim", "40001", 1205);
+    RuntimeException wrapped = new RuntimeException("translated", new RuntimeException(deadlock));
+
+    assertEquals(Optional.of(TransientError.DEADLOCK), TransientErrorClassifier.classify(wrapped));
+  }
+
+  @Test
+  void testLockTimeoutAndConnectionResetAreTransient() {
+    assertEquals(
+        Optional.of(TransientError.LOCK_TIMEOUT),
+        TransientErrorClassifier.classify(new SQLException("lock timeout", "HY000", 1222)));
+    assertEquals(
+        Optional.of(TransientError.CONNECTION_RESET),
+        TransientErrorClassifier.classify(new SQLException("link failure", "08S01", 0)));
+    assertEquals(
+        Optional.of(TransientError.CONNECTION_RESET),
+        TransientErrorClassifier.classify(
+            new RuntimeException(new SocketException("Connection reset"))));
+  }
+
+  @Test
+  void testNonTransientErrorsAreNotRetried() {
+    assertTrue(
+        TransientErrorClassifier.classify(new SQLException("syntax error", "S0001", 102))
+            .isEmpty());
+    assertTrue(
+        TransientErrorClassifier.classify(new SQLException("duplicate key", "23000", 2627))
+            .isEmpty());
+    assertTrue(TransientErrorClassifier.classify(new IllegalStateException("bug")).isEmpty());
+  }
+}
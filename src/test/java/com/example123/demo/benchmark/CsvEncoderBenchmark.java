@@ -0,0 +1,106 @@
+package com.example123.demo.benchmark;
+
+import com.example123.demo.domain.Employee;
+import com.example123.demo.service.EmployeeCsvEncoder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CSV行エンコードの比較ベンチマーク 1操作 = 1行のエンコードです
+ *
+ * <p>実行方法: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="CsvEncoderBenchmark -prof gc"}
+ *
+ * <p>GCプロファイラの {@code gc.alloc.rate.norm} が1行あたりの確保バイト数を示します
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvEncoderBenchmark {
+
+  private static final int ROWS = 1024;
+
+  private Employee[] employees;
+  private EmployeeCsvEncoder encoder;
+  private int index;
+
+  @Setup
+  public void setUp() {
+    SyntheticEmployeeList source = new SyntheticEmployeeList(ROWS);
+    employees = source.toArray(new Employee[0]);
+    encoder = new EmployeeCsvEncoder();
+  }
+
+  private Employee next() {
+    Employee employee = employees[index];
+    index = (index + 1) & (ROWS - 1);
+    return employee;
+  }
+
+  /** 従来のシングルスレッド出力と同じ String.format による変換 */
+  @Benchmark
+  public String stringFormat() {
+    Employee employee = next();
+    return String.format(
+        "%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%d\n",
+        employee.getId(),
+        employee.getName(),
+        employee.getDepartment(),
+        employee.getPosition(),
+        employee.getEmployment_status(),
+        employee.getHire_date() != null ? employee.getHire_date().toString() : "",
+        employee.getPhone_number(),
+        employee.getEmail(),
+        employee.getBirth_date() != null ? employee.getBirth_date().toString() : "",
+        employee.getGender(),
+        employee.getCreated_by(),
+        employee.getCreated_at() != null ? employee.getCreated_at().toString() : "",
+        employee.getUpdated_by(),
+        employee.getUpdated_at() != null ? employee.getUpdated_at().toString() : "",
+        employee.getVersion());
+  }
+
+  /** 従来のマルチスレッド出力と同じ String.join による変換 */
+  @Benchmark
+  public String stringJoin() {
+    Employee employee = next();
+    return String.join(
+        ",",
+        employee.getId(),
+        employee.getName(),
+        employee.getDepartment(),
+        employee.getPosition(),
+        employee.getEmployment_status(),
+        employee.getHire_date() != null ? employee.getHire_date().toString() : "",
+        employee.getPhone_number(),
+        employee.getEmail(),
+        employee.getBirth_date() != null ? employee.getBirth_date().toString() : "",
+        employee.getGender(),
+        employee.getCreated_by(),
+        employee.getCreated_at() != null ? employee.getCreated_at().toString() : "",
+        employee.getUpdated_by(),
+        employee.getUpdated_at() != null ? employee.getUpdated_at().toString() : "",
+        String.valueOf(employee.getVersion()));
+  }
+
+  /** EmployeeCsvEncoder による再利用バッファへの直接エンコード */
+  @Benchmark
+  public int encoder() {
+    if (encoder.size() > 60 * 1024) {
+      encoder.reset();
+    }
+    encoder.encode(next());
+    return encoder.size();
+  }
+}
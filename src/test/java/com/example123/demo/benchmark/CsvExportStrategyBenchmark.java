@@ -0,0 +1,107 @@
+package com.example123.demo.benchmark;
+
+import com.example123.demo.config.BoundedThreadPoolExecutor;
+import com.example123.demo.domain.Employee;
+import com.example123.demo.service.CsvExportService;
+import com.example123.demo.service.OptimizedEmployeeService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CSV出力方式の比較ベンチマーク 1操作 = 指定件数のCSVファイル1つの出力です
+ *
+ * <p>実行方法: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="CsvExportStrategyBenchmark"}
+ * （benchmarkプロファイルではGCプロファイラが有効になり、結果は target/jmh-result.json に保存されます）
+ *
+ * <p>スループット（ops/s）に加えて、GCプロファイラの {@code gc.alloc.rate} が確保速度、補助カウンターの {@code bytes}
+ * が1秒あたりの出力バイト数を示します OptimizedEmployeeServiceはソート付きで4列のみを出力するため、出力バイト数は他の方式より小さくなります
+ *
+ * <p>writeToCsvは全件分の文字列を保持するため、1000万件ではヒープを大きく確保して実行します
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class CsvExportStrategyBenchmark {
+
+  @Param({"10000", "1000000", "10000000"})
+  private int rows;
+
+  private List<Employee> employees;
+  private BoundedThreadPoolExecutor cpuExecutor;
+  private CsvExportService csvExportService;
+  private OptimizedEmployeeService optimizedEmployeeService;
+  private Path outputFile;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    employees = new SyntheticEmployeeList(rows);
+    // リストを入力とする出力方式はMapperを使用しない
+    cpuExecutor =
+        new BoundedThreadPoolExecutor(
+            "bench-cpu",
+            Runtime.getRuntime().availableProcessors(),
+            10_000,
+            Duration.ofSeconds(60));
+    csvExportService = new CsvExportService(null, cpuExecutor, 100, 1000);
+    optimizedEmployeeService = new OptimizedEmployeeService();
+    outputFile = Files.createTempFile("csv-bench-", ".csv");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    cpuExecutor.close();
+    Files.deleteIfExists(outputFile);
+  }
+
+  @Benchmark
+  public void singleThread(OutputBytesCounter counter) {
+    csvExportService.writeToCsvSingleThread(employees, outputFile.toString());
+    counter.add(outputFile);
+  }
+
+  @Benchmark
+  public void multiThread(OutputBytesCounter counter) {
+    csvExportService.writeToCsv(employees, outputFile.toString());
+    counter.add(outputFile);
+  }
+
+  @Benchmark
+  public void orderedMultiThread(OutputBytesCounter counter) {
+    csvExportService.writeToCsvOrdered(employees, outputFile.toString());
+    counter.add(outputFile);
+  }
+
+  @Benchmark
+  public void parallelGzip(OutputBytesCounter counter) {
+    csvExportService.writeToCsvGzip(employees, outputFile.toString());
+    counter.add(outputFile);
+  }
+
+  @Benchmark
+  public void sortedExternal(OutputBytesCounter counter) throws IOException {
+    optimizedEmployeeService.writeToCsv(employees, outputFile.toString());
+    counter.add(outputFile);
+  }
+}
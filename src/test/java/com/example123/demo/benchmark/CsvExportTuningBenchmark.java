@@ -0,0 +1,85 @@
+package com.example123.demo.benchmark;
+
+import com.example123.demo.config.BoundedThreadPoolExecutor;
+import com.example123.demo.domain.Employee;
+import com.example123.demo.service.CsvExportService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 並列CSV出力のスレッド数・バッチサイズの比較ベンチマーク {@code executor.cpu.threads} と {@code csv.export.batch-size} /
+ * {@code csv.export.ordered-batch-size} の設定値を決めるために使用します
+ *
+ * <p>実行方法: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="CsvExportTuningBenchmark"}
+ *
+ * <p>threadsの0は利用可能なプロセッサ数を表します batchSizeはwriteToCsvとwriteToCsvOrderedの両方のバッチサイズに設定します
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CsvExportTuningBenchmark {
+
+  @Param({"1000000"})
+  private int rows;
+
+  @Param({"1", "2", "4", "8", "0"})
+  private int threads;
+
+  @Param({"100", "1000", "10000"})
+  private int batchSize;
+
+  private List<Employee> employees;
+  private BoundedThreadPoolExecutor cpuExecutor;
+  private CsvExportService csvExportService;
+  private Path outputFile;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    employees = new SyntheticEmployeeList(rows);
+    int poolThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    cpuExecutor =
+        new BoundedThreadPoolExecutor("bench-cpu", poolThreads, 10_000, Duration.ofSeconds(60));
+    csvExportService = new CsvExportService(null, cpuExecutor, batchSize, batchSize);
+    outputFile = Files.createTempFile("csv-bench-", ".csv");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    cpuExecutor.close();
+    Files.deleteIfExists(outputFile);
+  }
+
+  @Benchmark
+  public void multiThread(OutputBytesCounter counter) {
+    csvExportService.writeToCsv(employees, outputFile.toString());
+    counter.add(outputFile);
+  }
+
+  @Benchmark
+  public void orderedMultiThread(OutputBytesCounter counter) {
+    csvExportService.writeToCsvOrdered(employees, outputFile.toString());
+    counter.add(outputFile);
+  }
+}
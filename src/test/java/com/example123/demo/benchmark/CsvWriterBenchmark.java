@@ -0,0 +1,79 @@
+package com.example123.demo.benchmark;
+
+import com.example123.demo.config.BoundedThreadPoolExecutor;
+import com.example123.demo.domain.Employee;
+import com.example123.demo.service.CsvExportService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * マルチスレッドCSV出力の比較ベンチマーク 既存の文字列集約方式（writeToCsv）と順序保証FileChannel方式（writeToCsvOrdered）を比較します
+ *
+ * <p>実行方法: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="CsvWriterBenchmark"}
+ *
+ * <p>writeToCsvは全件分の文字列を保持するため、1000万件ではヒープを大きく確保して実行します
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class CsvWriterBenchmark {
+
+  @Param({"1000000", "10000000"})
+  private int rows;
+
+  private List<Employee> employees;
+  private BoundedThreadPoolExecutor cpuExecutor;
+  private CsvExportService csvExportService;
+  private Path outputFile;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    employees = new SyntheticEmployeeList(rows);
+    cpuExecutor =
+        new BoundedThreadPoolExecutor(
+            "bench-cpu",
+            Runtime.getRuntime().availableProcessors(),
+            10_000,
+            Duration.ofSeconds(60));
+    csvExportService = new CsvExportService(null, cpuExecutor, 100, 1000);
+    outputFile = Files.createTempFile("csv-bench-", ".csv");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    cpuExecutor.close();
+    Files.deleteIfExists(outputFile);
+  }
+
+  @Benchmark
+  public void stringAggregation() {
+    csvExportService.writeToCsv(employees, outputFile.toString());
+  }
+
+  @Benchmark
+  public void orderedFileChannel() {
+    csvExportService.writeToCsvOrdered(employees, outputFile.toString());
+  }
+}
@@ -0,0 +1,94 @@
+package com.example123.demo.benchmark;
+
+import com.example123.demo.DemoApplication;
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import com.example123.demo.service.EmployeeDataService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 従業員データの一括登録方式の比較ベンチマーク 1操作 = 空の従業員テーブルへの指定件数の登録です
+ *
+ * <p>実行方法: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="EmployeeInsertBenchmark"}
+ *
+ * <p>既定ではtestプロファイル（H2インメモリDB）で実行します SQL Serverで計測する場合は {@code -Djmh.args="EmployeeInsertBenchmark
+ * -jvmArgsAppend -Dspring.datasource.url=jdbc:sqlserver://..."} のように接続先を上書きしてください BULK_COPYはSQL
+ * Server以外ではJDBC_BATCHと同じ処理になります
+ *
+ * <p>JDBCバッチの送信単位は {@code -p flushSize=100,1000,5000} で比較できます（FOREACHでは使用しません）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class EmployeeInsertBenchmark {
+
+  @Param({"10000", "100000"})
+  private int rows;
+
+  @Param({"FOREACH", "JDBC_BATCH", "BULK_COPY"})
+  private EmployeeDataService.InsertMode mode;
+
+  @Param({"1000"})
+  private int flushSize;
+
+  private ConfigurableApplicationContext context;
+  private EmployeeDataService employeeDataService;
+  private EmployeeMapper employeeMapper;
+  private List<Employee> employees;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context =
+        new SpringApplicationBuilder(DemoApplication.class)
+            .profiles("test")
+            .web(WebApplicationType.NONE)
+            // SQLのDEBUGログが計測値に含まれないようにする
+            .properties(
+                "logging.level.com.example123.demo=WARN",
+                "logging.level.sql=WARN",
+                "employee.insert.mode=" + mode,
+                "employee.insert.batch-flush-size=" + flushSize)
+            .run();
+    employeeDataService = context.getBean(EmployeeDataService.class);
+    employeeMapper = context.getBean(EmployeeMapper.class);
+    employees = new SyntheticEmployeeList(rows);
+  }
+
+  @Setup(Level.Invocation)
+  public void truncate() {
+    employeeMapper.truncateTable();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    employeeMapper.truncateTable();
+    context.close();
+  }
+
+  @Benchmark
+  public void saveEmployees() {
+    employeeDataService.saveEmployeesInParallel(employees);
+  }
+}
@@ -0,0 +1,87 @@
+package com.example123.demo.benchmark;
+
+import com.example123.demo.DemoApplication;
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import com.example123.demo.service.EmployeeDataService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * UPSERT方式の比較ベンチマーク 1操作 = 指定件数の半数が登録済みのテーブルへの指定件数のUPSERT（半数更新・半数挿入）です
+ *
+ * <p>実行方法: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="EmployeeUpsertBenchmark"}
+ *
+ * <p>既定ではtestプロファイル（H2インメモリDB）で実行し、H2で利用できないtemp-table・tvpはmerge方式で処理されます SQL Serverで比較する場合は {@link
+ * EmployeeInsertBenchmark} と同様に {@code spring.datasource.url} を上書きしてください
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class EmployeeUpsertBenchmark {
+
+  @Param({"10000", "100000"})
+  private int rows;
+
+  @Param({"merge", "temp-table", "tvp"})
+  private String strategy;
+
+  private ConfigurableApplicationContext context;
+  private EmployeeDataService employeeDataService;
+  private EmployeeMapper employeeMapper;
+  private List<Employee> baseEmployees;
+  private List<Employee> employees;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context =
+        new SpringApplicationBuilder(DemoApplication.class)
+            .profiles("test")
+            .web(WebApplicationType.NONE)
+            // SQLのDEBUGログが計測値に含まれないようにする
+            .properties("logging.level.com.example123.demo=WARN", "logging.level.sql=WARN")
+            .run();
+    employeeDataService = context.getBean(EmployeeDataService.class);
+    employeeMapper = context.getBean(EmployeeMapper.class);
+    baseEmployees = new SyntheticEmployeeList(rows / 2);
+    employees = new SyntheticEmployeeList(rows);
+  }
+
+  @Setup(Level.Invocation)
+  public void prepareBaseData() {
+    employeeMapper.truncateTable();
+    employeeDataService.saveEmployeesInParallel(baseEmployees);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    employeeMapper.truncateTable();
+    context.close();
+  }
+
+  @Benchmark
+  public int upsert() {
+    return employeeDataService.upsertEmployees(employees, strategy).get("insertCount");
+  }
+}
@@ -0,0 +1,38 @@
+package com.example123.demo.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 出力バイト数の補助カウンター JMHの結果に {@code bytes}（1秒あたりの出力バイト数）として表示されます
+ *
+ * <p>スループット計測時のみ秒あたりの値に換算されます（SingleShotTimeでは使用しないでください）
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class OutputBytesCounter {
+
+  /** 出力したバイト数 */
+  public long bytes;
+
+  @Setup(Level.Iteration)
+  public void reset() {
+    bytes = 0;
+  }
+
+  /** 出力ファイルのサイズを加算します */
+  void add(Path outputFile) {
+    try {
+      bytes += Files.size(outputFile);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
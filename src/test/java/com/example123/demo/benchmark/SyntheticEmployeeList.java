@@ -0,0 +1,56 @@
+package com.example123.demo.benchmark;
+
+import com.example123.demo.domain.Employee;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * ベンチマーク用の従業員リスト 要素をインデックスから都度生成するため、1000万件規模でもリスト自体はメモリを消費しません
+ *
+ * <p>同じインデックスからは常に同じ内容の従業員データが生成されます
+ */
+public class SyntheticEmployeeList extends AbstractList<Employee> implements RandomAccess {
+
+  private static final String[] DEPARTMENTS = {"営業部", "総務部", "人事部", "経理部", "開発部"};
+  private static final String[] POSITIONS = {"部長", "課長", "係長", "主任", "担当"};
+  private static final String[] STATUSES = {"正社員", "契約社員", "パートタイマー", "アルバイト"};
+  private static final LocalDate BASE_DATE = LocalDate.of(2020, 4, 1);
+  private static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 1, 1, 9, 0, 0);
+
+  private final int size;
+
+  public SyntheticEmployeeList(int size) {
+    this.size = size;
+  }
+
+  @Override
+  public Employee get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    Employee employee = new Employee();
+    employee.setId(String.format("E%08d", index));
+    employee.setName("社員 " + index);
+    employee.setDepartment(DEPARTMENTS[index % DEPARTMENTS.length]);
+    employee.setPosition(POSITIONS[index % POSITIONS.length]);
+    employee.setEmployment_status(STATUSES[index % STATUSES.length]);
+    employee.setHire_date(BASE_DATE.minusDays(index % 3650));
+    employee.setPhone_number(String.format("03-%04d-%04d", index % 10000, (index / 10000) % 10000));
+    employee.setEmail("employee" + index + "@example.com");
+    employee.setBirth_date(BASE_DATE.minusYears(22 + index % 38).minusDays(index % 365));
+    employee.setGender(index % 2 == 0 ? "男性" : "女性");
+    employee.setCreated_by("SYSTEM");
+    employee.setCreated_at(BASE_TIME.plusSeconds(index));
+    employee.setUpdated_by("SYSTEM");
+    employee.setUpdated_at(BASE_TIME.plusSeconds(index));
+    employee.setVersion((long) (index % 5));
+    return employee;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+}
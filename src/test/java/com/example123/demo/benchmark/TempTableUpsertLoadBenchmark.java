@@ -0,0 +1,96 @@
+package com.example123.demo.benchmark;
+
+import com.example123.demo.DemoApplication;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 一時テーブルUPSERT APIの負荷テスト 50の呼び出し元から同時に {@code POST /api/employees/test-temp-table-upsert}
+ * を呼び出し、応答時間の分布をプラットフォームスレッド方式と仮想スレッド方式（virtualプロファイル）で比較します
+ *
+ * <p>実行方法: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="TempTableUpsertLoadBenchmark"}
+ * （結果の {@code p0.99} が99パーセンタイルの応答時間です）
+ *
+ * <p>既定ではtestプロファイル（H2インメモリDB）で実行し、temp-tableはmerge方式で処理されます SQL Serverで計測する場合は {@link
+ * EmployeeInsertBenchmark} と同様に {@code spring.datasource.url} を上書きしてください
+ * APIは呼び出しごとにテーブルを初期化するため、同時実行時の件数は検証せず応答時間のみを計測します
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(50)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TempTableUpsertLoadBenchmark {
+
+  @Param({"platform", "virtual"})
+  private String threading;
+
+  @Param({"1000"})
+  private int count;
+
+  private ConfigurableApplicationContext context;
+  private HttpClient httpClient;
+  private HttpRequest request;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SpringApplicationBuilder builder =
+        new SpringApplicationBuilder(DemoApplication.class)
+            .profiles("test")
+            // SQLのDEBUGログが計測値に含まれないようにする
+            .properties(
+                "server.port=0",
+                "logging.level.com.example123.demo=WARN",
+                "logging.level.sql=WARN");
+    if ("virtual".equals(threading)) {
+      builder.profiles("virtual");
+    }
+    context = builder.run();
+    String port = context.getEnvironment().getProperty("local.server.port");
+
+    httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    String url =
+        "http://localhost:" + port + "/api/employees/test-temp-table-upsert?count=" + count;
+    request =
+        HttpRequest.newBuilder(URI.create(url)).POST(HttpRequest.BodyPublishers.noBody()).build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    httpClient.close();
+    context.close();
+  }
+
+  @Benchmark
+  public int upsert() throws IOException, InterruptedException {
+    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException("Unexpected status: " + response.statusCode());
+    }
+    return response.statusCode();
+  }
+}
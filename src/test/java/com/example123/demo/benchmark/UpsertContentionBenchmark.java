@@ -0,0 +1,154 @@
+package com.example123.demo.benchmark;
+
+import com.example123.demo.DemoApplication;
+import com.example123.demo.batch.BatchRunReport;
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import com.example123.demo.service.DataGenerationService;
+import com.example123.demo.service.EmployeeDataService;
+import com.example123.demo.upsert.DatabaseDialect;
+import com.example123.demo.upsert.UpsertStrategies;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 並列UPSERTのロック競合の比較ベンチマーク 1操作 = 1万件が登録済みのテーブルへの、ランダムなID順の指定件数のUPSERT（80%更新・20%新規）です
+ *
+ * <p>入力の順に切り出したバッチを並列に実行する方式（random）と、IDの範囲ごとに分割して範囲ごとにID順で処理する方式（key-range）を比較します
+ * 処理時間に加えて、補助カウンターとしてロック待ち時間（{@code lockWaitMillis}）と一時的なエラーで再実行・失敗したバッチ数を出力します スループット（行/秒）は件数 /
+ * 1操作あたりの処理時間です
+ *
+ * <p>実行方法: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="UpsertContentionBenchmark"}
+ *
+ * <p>既定ではtestプロファイル（H2インメモリDB）で実行し、ロック待ち時間は0になります SQL Serverで計測する場合は {@link
+ * EmployeeInsertBenchmark} と同様に {@code spring.datasource.url} を上書きしてください ロック待ち時間は {@code
+ * sys.dm_os_wait_stats} のロック待機（LCK_M_*）の増分のため、VIEW SERVER STATE権限と他の負荷のないサーバーが必要です
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class UpsertContentionBenchmark {
+
+  private static final String LOCK_WAIT_SQL =
+      "SELECT SUM(wait_time_ms) FROM sys.dm_os_wait_stats WHERE wait_type LIKE 'LCK_M_%'";
+
+  @Param({"6000", "60000"})
+  private int rows;
+
+  @Param({"merge", "temp-table"})
+  private String strategy;
+
+  @Param({"random", "key-range"})
+  private String partitioning;
+
+  private ConfigurableApplicationContext context;
+  private EmployeeDataService employeeDataService;
+  private EmployeeMapper employeeMapper;
+  private DataSource dataSource;
+  private boolean sqlServer;
+  private List<Employee> baseEmployees;
+  private List<Employee> employees;
+  private long lockWaitBefore;
+
+  /** 1操作ごとの競合の指標 イテレーション内の合計が出力されます */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ContentionCounters {
+    /** ロック待ち時間（ミリ秒、SQL Serverのみ） */
+    public long lockWaitMillis;
+
+    /** デッドロック・ロックタイムアウトなどで再実行したバッチ数 */
+    public long retriedBatches;
+
+    /** 再実行しても成功しなかったバッチ数 */
+    public long failedBatches;
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context =
+        new SpringApplicationBuilder(DemoApplication.class)
+            .profiles("test")
+            .web(WebApplicationType.NONE)
+            // SQLのDEBUGログが計測値に含まれないようにする
+            .properties(
+                "logging.level.com.example123.demo=WARN",
+                "logging.level.sql=WARN",
+                "employee.upsert.partition-by-key=" + "key-range".equals(partitioning))
+            .run();
+    employeeDataService = context.getBean(EmployeeDataService.class);
+    employeeMapper = context.getBean(EmployeeMapper.class);
+    dataSource = context.getBean(DataSource.class);
+    sqlServer = context.getBean(UpsertStrategies.class).getDialect() == DatabaseDialect.SQL_SERVER;
+
+    // createRandomEmployeesの出力はIDの並びがランダムで、更新対象はベースデータの範囲に散らばる
+    DataGenerationService dataGenerationService = context.getBean(DataGenerationService.class);
+    baseEmployees = dataGenerationService.createBaseDataForUpsert();
+    employees = dataGenerationService.createRandomEmployees(rows);
+  }
+
+  @Setup(Level.Invocation)
+  public void prepareBaseData() {
+    employeeMapper.truncateTable();
+    employeeDataService.saveEmployeesInParallel(baseEmployees);
+    lockWaitBefore = lockWaitMillis();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    employeeMapper.truncateTable();
+    context.close();
+  }
+
+  @Benchmark
+  public int upsert(ContentionCounters counters) {
+    BatchRunReport<Employee> report =
+        employeeDataService.upsertEmployeesWithReport(employees, strategy);
+    // 待機統計の取得（1回の単純な集計）は処理時間に含まれるが、比較する方式間で同じ
+    counters.lockWaitMillis += lockWaitMillis() - lockWaitBefore;
+    counters.retriedBatches += report.getRetried().size();
+    counters.failedBatches += report.getFailed().size();
+    return report.getUpdateCount() + report.getInsertCount();
+  }
+
+  /** サーバー全体のロック待機の累積時間（SQL Server以外は0） */
+  private long lockWaitMillis() {
+    if (!sqlServer) {
+      return 0;
+    }
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(LOCK_WAIT_SQL)) {
+      return resultSet.next() ? resultSet.getLong(1) : 0;
+    } catch (SQLException e) {
+      throw new IllegalStateException("ロック待ち時間を取得できませんでした", e);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.example123.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** BoundedThreadPoolExecutor単体テストクラス スレッド名・待ち行列が上限に達した場合の動作・終了時の待機を確認します */
+public class BoundedThreadPoolExecutorTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private BoundedThreadPoolExecutor executor;
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testThreadsAreNamedAfterPool() throws Exception {
+    executor = new BoundedThreadPoolExecutor("db-batch", 2, 10, Duration.ofSeconds(10));
+
+    Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+
+    assertTrue(name.get(10, TimeUnit.SECONDS).startsWith("db-batch-"));
+  }
+
+  @Test
+  void testRunsInCallerWhenQueueIsFull() throws Exception {
+    executor = new BoundedThreadPoolExecutor("cpu-batch", 1, 1, Duration.ofSeconds(10));
+    CountDownLatch started = new CountDownLatch(1);
+    executor.submit(
+        () -> {
+          started.countDown();
+          release.await();
+          return null;
+        });
+    started.await(10, TimeUnit.SECONDS);
+    // 1件目で唯一のスレッドが埋まり、2件目で待ち行列が埋まる
+    executor.submit(() -> null);
+
+    Future<String> overflow = executor.submit(() -> Thread.currentThread().getName());
+
+    assertEquals(1, executor.getQueueDepth(), "The queued task should still be waiting");
+    assertEquals(Thread.currentThread().getName(), overflow.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testCloseWaitsForQueuedTasks() {
+    executor = new BoundedThreadPoolExecutor("db-batch", 1, 10, Duration.ofSeconds(10));
+    AtomicInteger completed = new AtomicInteger();
+    for (int i = 0; i < 5; i++) {
+      executor.execute(completed::incrementAndGet);
+    }
+
+    executor.close();
+
+    assertTrue(executor.isTerminated());
+    assertEquals(5, completed.get(), "Queued tasks should complete before the pool terminates");
+  }
+}
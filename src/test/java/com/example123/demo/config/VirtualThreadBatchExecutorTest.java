@@ -0,0 +1,105 @@
+package com.example123.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** VirtualThreadBatchExecutor単体テストクラス 仮想スレッドでの実行とセマフォによる同時実行数の制限を確認します */
+public class VirtualThreadBatchExecutorTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private VirtualThreadBatchExecutor executor;
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testRunsOnNamedVirtualThreads() throws Exception {
+    executor = new VirtualThreadBatchExecutor("db-batch", 2, Duration.ofSeconds(10));
+
+    Future<Thread> thread = executor.submit(Thread::currentThread);
+
+    assertTrue(thread.get(10, TimeUnit.SECONDS).isVirtual());
+    assertTrue(thread.get().getName().startsWith("db-batch-"));
+  }
+
+  @Test
+  void testConcurrencyIsLimitedByPermits() throws Exception {
+    executor = new VirtualThreadBatchExecutor("db-batch", 2, Duration.ofSeconds(10));
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(5);
+                running.decrementAndGet();
+                return null;
+              }));
+    }
+
+    for (Future<?> future : futures) {
+      future.get(10, TimeUnit.SECONDS);
+    }
+
+    assertTrue(maxRunning.get() <= 2, "At most 2 tasks should run at once: " + maxRunning.get());
+    // 許可はFutureTaskの完了後に返却されるため、get()が戻った直後はまだ0になっていないことがある
+    awaitActiveCount(0);
+  }
+
+  @Test
+  void testWaitingTaskCanBeCancelled() throws Exception {
+    executor = new VirtualThreadBatchExecutor("db-batch", 1, Duration.ofSeconds(10));
+    CountDownLatch started = new CountDownLatch(1);
+    executor.submit(
+        () -> {
+          started.countDown();
+          release.await();
+          return null;
+        });
+    started.await(10, TimeUnit.SECONDS);
+    AtomicInteger executed = new AtomicInteger();
+    Future<?> waiting = executor.submit(executed::incrementAndGet);
+    awaitQueueDepth(1);
+
+    assertEquals(1, executor.getActiveCount());
+    waiting.cancel(true);
+    release.countDown();
+    executor.close();
+
+    assertTrue(executor.isTerminated());
+    assertEquals(0, executed.get(), "A cancelled task should never run");
+  }
+
+  private void awaitQueueDepth(int expected) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (executor.getQueueDepth() != expected && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(expected, executor.getQueueDepth());
+  }
+
+  private void awaitActiveCount(int expected) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (executor.getActiveCount() != expected && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(expected, executor.getActiveCount());
+  }
+}
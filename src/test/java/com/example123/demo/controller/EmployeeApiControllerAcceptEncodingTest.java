@@ -0,0 +1,33 @@
+package com.example123.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/** EmployeeApiController Accept-Encoding判定テストクラス カンマ区切りのコーディングとq値に従ってgzipの可否を判定することを確認します */
+public class EmployeeApiControllerAcceptEncodingTest {
+
+  @Test
+  void testGzipIsAcceptedWhenListed() {
+    assertTrue(EmployeeApiController.acceptsGzip("gzip"));
+    assertTrue(EmployeeApiController.acceptsGzip("GZIP"));
+    assertTrue(EmployeeApiController.acceptsGzip("deflate, gzip;q=0.5"));
+    assertTrue(EmployeeApiController.acceptsGzip("br, *;q=0.1"));
+  }
+
+  @Test
+  void testZeroQualityRefusesGzip() {
+    assertFalse(EmployeeApiController.acceptsGzip("gzip;q=0"));
+    assertFalse(EmployeeApiController.acceptsGzip("gzip; q=0.0, deflate"));
+    assertFalse(EmployeeApiController.acceptsGzip("gzip;q=0, *"));
+    assertFalse(EmployeeApiController.acceptsGzip("*;q=0"));
+  }
+
+  @Test
+  void testGzipIsNotAcceptedWhenAbsent() {
+    assertFalse(EmployeeApiController.acceptsGzip(null));
+    assertFalse(EmployeeApiController.acceptsGzip("identity"));
+    assertFalse(EmployeeApiController.acceptsGzip("x-gzipped"));
+  }
+}
@@ -0,0 +1,120 @@
+package com.example123.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import com.example123.demo.service.DataGenerationService;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+/** EmployeeApiController CSVダウンロードAPIテストクラス 実際のHTTPリクエストでCSVがストリーミング送信されることを確認します */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class EmployeeApiControllerExportTest {
+
+  @LocalServerPort private int port;
+
+  @Autowired private TestRestTemplate restTemplate;
+
+  @Autowired private DataGenerationService dataGenerationService;
+
+  @Autowired private EmployeeMapper employeeMapper;
+
+  private String idPrefix;
+
+  @BeforeEach
+  void setUp() {
+    // サーバー側は別スレッド・別接続で読み込むため、コミット済みのデータを他テストと重複しないIDで投入する
+    idPrefix = "HX" + UUID.randomUUID().toString().substring(0, 6);
+    List<Employee> employees = dataGenerationService.createDummyEmployees(10);
+    for (int i = 0; i < employees.size(); i++) {
+      employees.get(i).setId(idPrefix + i);
+    }
+    employeeMapper.bulkInsert(employees);
+  }
+
+  @Test
+  public void testExportCsv() {
+    ResponseEntity<byte[]> response = download(null);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode(), "Response status should be 200 OK");
+    MediaType contentType = response.getHeaders().getContentType();
+    assertNotNull(contentType, "Content-Type should be set");
+    assertTrue(contentType.isCompatibleWith(MediaType.parseMediaType("text/csv")));
+    assertTrue(
+        response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains("employees.csv"),
+        "Content-Disposition should contain the file name");
+
+    assertCsvBody(new String(response.getBody(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testExportCsvWithGzip() throws IOException {
+    ResponseEntity<byte[]> response = download("gzip");
+
+    assertEquals(HttpStatus.OK, response.getStatusCode(), "Response status should be 200 OK");
+    assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+      assertCsvBody(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void testExportCsvWithGzipRefused() {
+    // q=0はそのコーディングを受け入れないことを表すため、圧縮せずに送信する
+    ResponseEntity<byte[]> response = download("gzip;q=0, identity");
+
+    assertEquals(HttpStatus.OK, response.getStatusCode(), "Response status should be 200 OK");
+    assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    assertCsvBody(new String(response.getBody(), StandardCharsets.UTF_8));
+  }
+
+  private ResponseEntity<byte[]> download(String acceptEncoding) {
+    HttpHeaders headers = new HttpHeaders();
+    if (acceptEncoding != null) {
+      headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+    }
+    return restTemplate.exchange(
+        "http://localhost:" + port + "/api/v1/employees/export.csv",
+        HttpMethod.GET,
+        new HttpEntity<>(headers),
+        byte[].class);
+  }
+
+  private void assertCsvBody(String csv) {
+    String[] lines = csv.split("\n");
+    assertTrue(lines[0].startsWith("ID,Name,Department"), "Header should be written first");
+
+    long exported = 0;
+    for (String line : lines) {
+      if (line.startsWith(idPrefix)) {
+        assertEquals(15, line.split(",", -1).length, "Each row should have 15 columns");
+        exported++;
+      }
+    }
+    assertEquals(10, exported, "All inserted employees should be exported");
+  }
+}
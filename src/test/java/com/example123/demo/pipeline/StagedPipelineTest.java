@@ -0,0 +1,119 @@
+package com.example123.demo.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.junit.jupiter.api.Test;
+
+/** StagedPipeline単体テストクラス ステージが同時に進むこと、キューの容量で前段が待機すること、ステージの例外で全体が停止することを確認します */
+public class StagedPipelineTest {
+
+  private static final int END = -1;
+
+  @Test
+  void testStagesOverlapAndQueuesStayBounded() {
+    int items = 10;
+    long stepMillis = 20;
+    BlockingQueue<Integer> first = new ArrayBlockingQueue<>(2);
+    BlockingQueue<Integer> second = new ArrayBlockingQueue<>(2);
+    StageMetrics produce = new StageMetrics("produce", 1, 0);
+    StageMetrics transform = new StageMetrics("transform", 1, 2);
+    StageMetrics consume = new StageMetrics("consume", 1, 2);
+    List<Integer> results = new ArrayList<>();
+
+    long start = System.nanoTime();
+    new StagedPipeline("test-pipeline")
+        .stage(
+            "produce",
+            () -> {
+              for (int i = 0; i < items; i++) {
+                long begin = produce.begin();
+                Thread.sleep(stepMillis);
+                produce.end(begin, 1);
+                first.put(i);
+              }
+              first.put(END);
+            })
+        .stage("transform", () -> relay(first, second, transform, stepMillis))
+        .stage(
+            "consume",
+            () -> {
+              for (int item = take(second, consume); item != END; item = take(second, consume)) {
+                long begin = consume.begin();
+                Thread.sleep(stepMillis);
+                results.add(item * 2);
+                consume.end(begin, 1);
+              }
+            })
+        .run();
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    assertEquals(items, results.size());
+    assertEquals(18, results.get(items - 1).intValue());
+    assertEquals(items, consume.getItems());
+    // 順に実行すると3ステージ × 10件 × 20ミリ秒 = 600ミリ秒、同時に進めば約240ミリ秒
+    assertTrue(elapsedMillis < 450, "Stages should overlap, took " + elapsedMillis + " ms");
+    assertTrue(transform.getMaxInputDepth() <= 2, "Queue depth must not exceed its capacity");
+    assertTrue(consume.getUtilization() > 0.5, "The slowest stage should stay busy");
+  }
+
+  @Test
+  void testFailingStageCancelsBlockedStages() {
+    BlockingQueue<Integer> queue = new ArrayBlockingQueue<>(1);
+    IllegalArgumentException cause = new IllegalArgumentException("broken");
+
+    IllegalStateException thrown =
+        assertThrows(
+            IllegalStateException.class,
+            () ->
+                new StagedPipeline("failing-pipeline")
+                    .stage(
+                        "produce",
+                        () -> {
+                          // 後段が止まるとキューが満杯のまま待機し続けるため、割り込まれないと終了しない
+                          for (int i = 0; ; i++) {
+                            queue.put(i);
+                          }
+                        })
+                    .stage(
+                        "consume",
+                        () -> {
+                          queue.take();
+                          throw cause;
+                        })
+                    .run());
+
+    assertSame(cause, thrown.getCause());
+  }
+
+  @Test
+  void testDuplicateStageNameIsRejected() {
+    StagedPipeline pipeline = new StagedPipeline("duplicate").stage("a", () -> {});
+
+    assertThrows(IllegalArgumentException.class, () -> pipeline.stage("a", () -> {}));
+  }
+
+  private static void relay(
+      BlockingQueue<Integer> in, BlockingQueue<Integer> out, StageMetrics metrics, long stepMillis)
+      throws InterruptedException {
+    for (int item = take(in, metrics); item != END; item = take(in, metrics)) {
+      long begin = metrics.begin();
+      Thread.sleep(stepMillis);
+      metrics.end(begin, 1);
+      out.put(item);
+    }
+    out.put(END);
+  }
+
+  private static int take(BlockingQueue<Integer> queue, StageMetrics metrics)
+      throws InterruptedException {
+    metrics.sampleInputDepth(queue.size());
+    return queue.take();
+  }
+}
@@ -0,0 +1,63 @@
+package com.example123.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.example123.demo.domain.Employee;
+import com.microsoft.sqlserver.jdbc.SQLServerDataTable;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/** EmployeeDataTableBuilder単体テストクラス 従業員情報がテーブル型の列順どおりにTVPへ変換されることを確認します */
+public class EmployeeDataTableBuilderTest {
+
+  @Test
+  void testBuildConvertsEmployeesInTableTypeOrder() throws Exception {
+    Employee employee = new Employee();
+    employee.setId("E000001");
+    employee.setName("山田 太郎");
+    employee.setDepartment("営業部");
+    employee.setBirth_date(LocalDate.of(1990, 5, 6));
+    employee.setUpdated_at(LocalDateTime.of(2025, 1, 2, 3, 4, 5));
+    employee.setVersion(2L);
+    Employee empty = new Employee();
+    empty.setId("E000002");
+
+    SQLServerDataTable table = EmployeeDataTableBuilder.build(List.of(employee, empty));
+
+    assertEquals(EmployeeDataTableBuilder.TYPE_NAME, table.getTvpName());
+    assertEquals(15, table.getColumnMetadata().size());
+
+    Iterator<Map.Entry<Integer, Object[]>> rows = table.getIterator();
+    Object[] first = rows.next().getValue();
+    assertEquals("E000001", first[0]);
+    assertEquals("山田 太郎", first[1]);
+    assertEquals("営業部", first[2]);
+    // ドライバーは日付・日時を文字列表現で保持するため、文字列として比較する
+    assertEquals(Date.valueOf("1990-05-06").toString(), String.valueOf(first[8]));
+    assertEquals(Timestamp.valueOf("2025-01-02 03:04:05").toString(), String.valueOf(first[13]));
+    assertEquals(Long.valueOf(2), first[14]);
+
+    Object[] second = rows.next().getValue();
+    assertEquals("E000002", second[0]);
+    for (int i = 1; i < second.length; i++) {
+      assertNull(second[i], "Unset columns should be passed as null");
+    }
+    assertFalse(rows.hasNext());
+  }
+
+  @Test
+  void testBuildEmptyList() throws Exception {
+    SQLServerDataTable table = EmployeeDataTableBuilder.build(List.of());
+
+    assertEquals(15, table.getColumnMetadata().size());
+    assertFalse(table.getIterator().hasNext());
+  }
+}
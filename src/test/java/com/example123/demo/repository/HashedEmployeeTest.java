@@ -0,0 +1,76 @@
+package com.example123.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.example123.demo.domain.Employee;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** HashedEmployee単体テストクラス 内容ハッシュが業務項目の変更だけを検出することを確認します */
+public class HashedEmployeeTest {
+
+  private static Employee employee() {
+    Employee employee = new Employee("E000001", "山田 太郎", "営業部", "taro@example.com");
+    employee.setPosition("主任");
+    employee.setEmployment_status("正社員");
+    employee.setHire_date(LocalDate.of(2015, 4, 1));
+    employee.setBirth_date(LocalDate.of(1990, 5, 6));
+    employee.setGender("男性");
+    employee.setCreated_by("system");
+    employee.setCreated_at(LocalDateTime.of(2025, 1, 1, 0, 0));
+    employee.setUpdated_by("system");
+    employee.setUpdated_at(LocalDateTime.of(2025, 1, 1, 0, 0));
+    employee.setVersion(0L);
+    return employee;
+  }
+
+  @Test
+  void testHashIgnoresAuditColumns() {
+    Employee resent = employee();
+    resent.setUpdated_by("batch");
+    resent.setUpdated_at(LocalDateTime.of(2025, 6, 1, 12, 0));
+    resent.setVersion(5L);
+
+    byte[] hash = HashedEmployee.contentHash(employee());
+
+    assertEquals(HashedEmployee.HASH_LENGTH, hash.length);
+    assertArrayEquals(hash, HashedEmployee.contentHash(resent));
+  }
+
+  @Test
+  void testHashDetectsBusinessColumnChanges() {
+    byte[] original = HashedEmployee.contentHash(employee());
+
+    Employee moved = employee();
+    moved.setDepartment("開発部");
+    Employee noPhone = employee();
+    noPhone.setPhone_number("");
+    // 項目の境界をまたいで値がずれた場合も別のハッシュになる
+    Employee shifted = employee();
+    shifted.setName("山田 太郎営業");
+    shifted.setDepartment("部");
+
+    assertFalse(Arrays.equals(original, HashedEmployee.contentHash(moved)));
+    assertFalse(Arrays.equals(original, HashedEmployee.contentHash(noPhone)));
+    assertFalse(Arrays.equals(original, HashedEmployee.contentHash(shifted)));
+  }
+
+  @Test
+  void testOfKeepsInputOrder() {
+    Employee first = employee();
+    Employee second = employee();
+    second.setId("E000002");
+
+    List<HashedEmployee> rows = HashedEmployee.of(List.of(first, second));
+
+    assertSame(first, rows.get(0).getEmployee());
+    assertSame(second, rows.get(1).getEmployee());
+    assertArrayEquals(rows.get(0).getRowHash(), rows.get(1).getRowHash());
+  }
+}
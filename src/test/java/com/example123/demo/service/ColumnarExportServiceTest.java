@@ -0,0 +1,125 @@
+package com.example123.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example123.demo.columnar.ColumnStatistics;
+import com.example123.demo.columnar.EmployeeColumn;
+import com.example123.demo.columnar.EmployeeColumnarReader;
+import com.example123.demo.domain.Employee;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** ColumnarExportService単体テストクラス 列形式ファイルが元のデータどおりに読み戻せることを確認します */
+public class ColumnarExportServiceTest {
+
+  @TempDir Path tempDir;
+
+  private ColumnarExportService columnarExportService;
+  private DataGenerationService dataGenerationService;
+
+  @BeforeEach
+  void setUp() {
+    // リストを入力とする出力方式はMapperを使用しない
+    columnarExportService = new ColumnarExportService(null);
+    dataGenerationService = new DataGenerationService();
+  }
+
+  @Test
+  void testRoundTripAllColumns() throws Exception {
+    // 複数の行グループにまたがる件数で検証し、null項目も含める
+    List<Employee> employees = dataGenerationService.createDummyEmployees(70_000);
+    employees.get(3).setPosition(null);
+    employees.get(4).setHire_date(null);
+    employees.get(5).setVersion(null);
+    Path file = tempDir.resolve("employees.empc");
+
+    columnarExportService.writeToColumnar(employees, file.toString());
+
+    try (EmployeeColumnarReader reader = EmployeeColumnarReader.open(file)) {
+      assertEquals(employees.size(), reader.getRowCount());
+      assertEquals(2, reader.getRowGroupCount());
+      List<Employee> read = new ArrayList<>();
+      reader.forEach(EnumSet.allOf(EmployeeColumn.class), read::add);
+      assertEquals(employees, read);
+    }
+  }
+
+  @Test
+  void testReadSelectedColumnsAndStatistics() throws Exception {
+    List<Employee> employees = dataGenerationService.createDummyEmployees(1_000);
+    Path file = tempDir.resolve("employees.empc");
+    columnarExportService.writeToColumnar(employees, file.toString());
+
+    try (EmployeeColumnarReader reader = EmployeeColumnarReader.open(file)) {
+      List<Employee> read =
+          reader.readRowGroup(0, EnumSet.of(EmployeeColumn.ID, EmployeeColumn.DEPARTMENT));
+      for (int i = 0; i < employees.size(); i++) {
+        assertEquals(employees.get(i).getId(), read.get(i).getId());
+        assertEquals(employees.get(i).getDepartment(), read.get(i).getDepartment());
+        assertNull(read.get(i).getName(), "Columns not requested should stay null");
+      }
+
+      ColumnStatistics hireDate = reader.getStatistics(0, EmployeeColumn.HIRE_DATE);
+      assertEquals(
+          employees.stream().map(Employee::getHire_date).min(Comparable::compareTo).get(),
+          hireDate.getMin());
+      assertEquals(
+          employees.stream().map(Employee::getHire_date).max(Comparable::compareTo).get(),
+          hireDate.getMax());
+      assertEquals(0, hireDate.getNullCount());
+    }
+  }
+
+  @Test
+  void testRoundTripDateTimesOutsideNanosecondRange() throws Exception {
+    // エポックからのナノ秒をlongで表せない範囲（1677年以前・2262年以降）の日時も読み戻せること
+    LocalDateTime farFuture = LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999_999_999);
+    LocalDateTime farPast = LocalDateTime.of(1, 1, 1, 0, 0);
+    List<Employee> employees = dataGenerationService.createDummyEmployees(3);
+    employees.get(0).setCreated_at(farFuture);
+    employees.get(1).setCreated_at(farPast);
+    employees.get(2).setUpdated_at(farFuture);
+    Path file = tempDir.resolve("employees.empc");
+
+    columnarExportService.writeToColumnar(employees, file.toString());
+
+    try (EmployeeColumnarReader reader = EmployeeColumnarReader.open(file)) {
+      List<Employee> read = new ArrayList<>();
+      reader.forEach(EnumSet.allOf(EmployeeColumn.class), read::add);
+      assertEquals(employees, read);
+
+      ColumnStatistics createdAt = reader.getStatistics(0, EmployeeColumn.CREATED_AT);
+      assertEquals(farPast, createdAt.getMin());
+      assertEquals(farFuture, createdAt.getMax());
+    }
+  }
+
+  @Test
+  void testColumnarFileIsSmallerThanCsv() throws Exception {
+    List<Employee> employees = dataGenerationService.createDummyEmployees(20_000);
+    Path columnar = tempDir.resolve("employees.empc");
+    Path csv = tempDir.resolve("employees.csv");
+
+    columnarExportService.writeToColumnar(employees, columnar.toString());
+    new CsvExportService(null, null, 100, 1000).writeToCsvSingleThread(employees, csv.toString());
+
+    long columnarSize = Files.size(columnar);
+    long csvSize = Files.size(csv);
+    assertTrue(
+        columnarSize * 4 < csvSize,
+        "Columnar file ("
+            + columnarSize
+            + " bytes) should be much smaller than CSV ("
+            + csvSize
+            + ")");
+  }
+}
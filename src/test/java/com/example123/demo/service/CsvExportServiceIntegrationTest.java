@@ -0,0 +1,60 @@
+package com.example123.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+/** CsvExportService統合テストクラス データベースから直接CSVを出力する処理が正しく動作することを確認します */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class CsvExportServiceIntegrationTest {
+
+  @Autowired private CsvExportService csvExportService;
+
+  @Autowired private DataGenerationService dataGenerationService;
+
+  @Autowired private EmployeeMapper employeeMapper;
+
+  @Test
+  public void testWriteToCsvFromDatabase() throws Exception {
+    // テスト用データをテストトランザクション内で投入（他テストのデータと区別できるIDを付与）
+    List<Employee> employees = dataGenerationService.createDummyEmployees(25);
+    for (int i = 0; i < employees.size(); i++) {
+      employees.get(i).setId(String.format("CSVCUR%05d", i));
+    }
+    employeeMapper.bulkInsert(employees);
+
+    Path testFile = Paths.get("test_employees_cursor.csv");
+    try {
+      long rowCount = csvExportService.writeToCsvFromDatabase(testFile.toString());
+
+      List<String> lines = Files.readAllLines(testFile);
+      assertEquals(rowCount + 1, lines.size(), "Should have header + all data rows");
+      assertTrue(lines.get(0).startsWith("ID,Name,Department"), "Header should be written first");
+
+      // 投入したデータがID順で連続して出力されていることを確認
+      List<String> inserted = lines.stream().filter(line -> line.startsWith("CSVCUR")).toList();
+      assertEquals(25, inserted.size(), "All inserted employees should be exported");
+      for (int i = 0; i < inserted.size(); i++) {
+        assertTrue(
+            inserted.get(i).startsWith(String.format("CSVCUR%05d,", i)),
+            "Rows should be in ID order");
+        assertEquals(15, inserted.get(i).split(",", -1).length, "Each row should have 15 columns");
+      }
+    } finally {
+      Files.deleteIfExists(testFile);
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package com.example123.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example123.demo.config.BoundedThreadPoolExecutor;
+import com.example123.demo.domain.Employee;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** CsvExportService単体テストクラス 各出力方式が同一内容のCSVを生成することを確認します */
+public class CsvExportServiceTest {
+
+  @TempDir Path tempDir;
+
+  private BoundedThreadPoolExecutor cpuExecutor;
+  private CsvExportService csvExportService;
+  private DataGenerationService dataGenerationService;
+
+  @BeforeEach
+  void setUp() {
+    // リストを入力とする出力方式はMapperを使用しない
+    cpuExecutor = new BoundedThreadPoolExecutor("test-cpu", 4, 100, Duration.ofSeconds(10));
+    csvExportService = new CsvExportService(null, cpuExecutor, 100, 1000);
+    dataGenerationService = new DataGenerationService();
+  }
+
+  @AfterEach
+  void tearDown() {
+    cpuExecutor.close();
+  }
+
+  @Test
+  void testNonPositiveBatchSizesAreRejected() {
+    // 0件のバッチでは分割のループが終わらない・0除算になるため、起動時に拒否する
+    assertThrows(
+        IllegalArgumentException.class, () -> new CsvExportService(null, cpuExecutor, 0, 1000));
+    assertThrows(
+        IllegalArgumentException.class, () -> new CsvExportService(null, cpuExecutor, 100, 0));
+  }
+
+  @Test
+  void testWriteToCsvOrderedMatchesSingleThread() throws Exception {
+    // 複数バッチ・複数ウィンドウにまたがる件数で検証
+    List<Employee> employees = dataGenerationService.createDummyEmployees(25_123);
+    Path single = tempDir.resolve("single.csv");
+    Path ordered = tempDir.resolve("ordered.csv");
+
+    csvExportService.writeToCsvSingleThread(employees, single.toString());
+    csvExportService.writeToCsvOrdered(employees, ordered.toString());
+
+    assertArrayEquals(
+        Files.readAllBytes(single),
+        Files.readAllBytes(ordered),
+        "Ordered multi-thread output should be byte-identical to single-thread output");
+  }
+
+  @Test
+  void testWriteToCsvGzipDecompressesToSameCsv() throws Exception {
+    List<Employee> employees = dataGenerationService.createDummyEmployees(12_345);
+    Path single = tempDir.resolve("single.csv");
+    Path gzip = tempDir.resolve("parallel.csv.gz");
+
+    csvExportService.writeToCsvSingleThread(employees, single.toString());
+    csvExportService.writeToCsvGzip(employees, gzip.toString());
+
+    // 連結されたgzipメンバーは1つのストリームとして展開できること
+    byte[] decompressed;
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(gzip))) {
+      decompressed = in.readAllBytes();
+    }
+    assertArrayEquals(
+        Files.readAllBytes(single),
+        decompressed,
+        "Decompressed parallel gzip output should match single-thread output");
+    assertTrue(Files.size(gzip) < Files.size(single), "Gzip output should be smaller than CSV");
+  }
+
+  @Test
+  void testWriteToCsvOrderedWithEmptyList() throws Exception {
+    Path ordered = tempDir.resolve("empty.csv");
+
+    csvExportService.writeToCsvOrdered(List.of(), ordered.toString());
+
+    List<String> lines = Files.readAllLines(ordered);
+    assertEquals(1, lines.size(), "Only the header should be written");
+  }
+}
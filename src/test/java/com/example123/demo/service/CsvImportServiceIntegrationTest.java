@@ -0,0 +1,125 @@
+package com.example123.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * CsvImportService統合テストクラス CsvExportServiceで出力したCSVを取り込むと同じ内容の従業員データが登録されること、
+ * 解析できない行を含むファイルは取り込まずにエラーとなることを確認します
+ *
+ * <p>取込は呼び出し元とは別の接続でコミットされるため、前後でテーブルを空にします
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class CsvImportServiceIntegrationTest {
+
+  @Autowired private CsvImportService csvImportService;
+
+  @Autowired private CsvExportService csvExportService;
+
+  @Autowired private DataGenerationService dataGenerationService;
+
+  @Autowired private EmployeeMapper employeeMapper;
+
+  @TempDir Path tempDir;
+
+  @BeforeEach
+  void setUp() {
+    employeeMapper.truncateTable();
+  }
+
+  @AfterEach
+  void tearDown() {
+    employeeMapper.truncateTable();
+  }
+
+  @Test
+  public void testExportedCsvRoundTrips() throws IOException {
+    List<Employee> employees = dataGenerationService.createDummyEmployees(30);
+    for (int i = 0; i < employees.size(); i++) {
+      employees.get(i).setId(String.format("CSVIMP%05d", i));
+    }
+    // クォートが必要な値も往復で変わらないことを確認する
+    employees.get(0).setName("山田, \"太郎\"");
+    employees.get(1).setPosition(null);
+    employeeMapper.bulkInsert(employees);
+
+    Path exported = tempDir.resolve("exported.csv");
+    assertEquals(30, csvExportService.writeToCsvFromDatabase(exported.toString()));
+    employeeMapper.truncateTable();
+
+    Map<String, Integer> result = csvImportService.importCsv(exported.toString());
+
+    assertEquals(30, result.get("rowCount").intValue(), "rowCount");
+    assertEquals(30, result.get("insertCount").intValue(), "insertCount");
+    assertEquals(0, result.get("updateCount").intValue(), "updateCount");
+    assertEquals(30, employeeMapper.countAll());
+
+    // 登録者・日時・バージョンは取込時に設定されるため、業務項目（先頭10列）を比較する
+    Path reexported = tempDir.resolve("reexported.csv");
+    csvExportService.writeToCsvFromDatabase(reexported.toString());
+    List<Employee> before = parse(exported);
+    List<Employee> after = parse(reexported);
+    assertEquals(before.size(), after.size());
+    for (int i = 0; i < before.size(); i++) {
+      assertEquals(businessFields(before.get(i)), businessFields(after.get(i)), "Row " + i);
+    }
+  }
+
+  @Test
+  public void testMalformedRowFailsWithoutImporting() throws IOException {
+    Path file = tempDir.resolve("malformed.csv");
+    Files.writeString(
+        file,
+        "ID,Name,Department,Position,EmploymentStatus,HireDate,PhoneNumber,Email,BirthDate,Gender,"
+            + "CreatedBy,CreatedAt,UpdatedBy,UpdatedAt,Version\n"
+            + "CSVBAD00001,山田太郎,開発部,主任,正社員,2020-04-01,03-1234-5678,a@example.com,"
+            + "1990-01-01,男性,system,2024-01-01T00:00:00,system,2024-01-01T00:00:00,0\n"
+            + "CSVBAD00002,列が足りない行\n",
+        StandardCharsets.UTF_8);
+
+    assertThrows(RuntimeException.class, () -> csvImportService.importCsv(file.toString()));
+
+    assertEquals(0, employeeMapper.countAll(), "No batch should be upserted after a parse error");
+  }
+
+  private static List<Employee> parse(Path file) throws IOException {
+    List<Employee> employees = new ArrayList<>();
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+    new EmployeeCsvParser().parse(buffer, 0, buffer.limit(), employees::add);
+    return employees;
+  }
+
+  private static List<Object> businessFields(Employee employee) {
+    List<Object> fields = new ArrayList<>();
+    fields.add(employee.getId());
+    fields.add(employee.getName());
+    fields.add(employee.getDepartment());
+    fields.add(employee.getPosition());
+    fields.add(employee.getEmployment_status());
+    fields.add(employee.getHire_date());
+    fields.add(employee.getPhone_number());
+    fields.add(employee.getEmail());
+    fields.add(employee.getBirth_date());
+    fields.add(employee.getGender());
+    return fields;
+  }
+}
@@ -1,11 +1,15 @@
 package com.example123.demo.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.example123.demo.domain.Employee;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.TimeZone;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -174,4 +178,21 @@ public class DataGenerationServiceTest {
     assertEquals("SYSTEM", emp.getUpdated_by(), "Updated by should be SYSTEM");
     assertEquals(Long.valueOf(0), emp.getVersion(), "Version should be 0");
   }
+
+  @Test
+  void testTimestampsAreUtcRegardlessOfHostTimeZone() {
+    // 差分出力のウォーターマークはUTCのため、UTCより遅れたタイムゾーンのホストでもUTCで設定されること
+    TimeZone original = TimeZone.getDefault();
+    try {
+      TimeZone.setDefault(TimeZone.getTimeZone("America/Los_Angeles"));
+      LocalDateTime before = LocalDateTime.now(ZoneOffset.UTC);
+      Employee emp = dataGenerationService.createDummyEmployees(1).get(0);
+      LocalDateTime after = LocalDateTime.now(ZoneOffset.UTC);
+
+      assertFalse(emp.getUpdated_at().isBefore(before), "Updated timestamp should be UTC");
+      assertFalse(emp.getUpdated_at().isAfter(after), "Updated timestamp should be UTC");
+    } finally {
+      TimeZone.setDefault(original);
+    }
+  }
 }
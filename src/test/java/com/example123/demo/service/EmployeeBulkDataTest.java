@@ -0,0 +1,79 @@
+package com.example123.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example123.demo.domain.Employee;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+
+/** EmployeeBulkData単体テストクラス 一括コピーへ渡す列定義と行データが employees テーブルに対応していることを確認します */
+public class EmployeeBulkDataTest {
+
+  @Test
+  void testColumnMetadata() {
+    EmployeeBulkData data = new EmployeeBulkData(List.<Employee>of().iterator());
+
+    assertEquals(15, data.getColumnOrdinals().size());
+    assertEquals("id", data.getColumnName(1));
+    assertEquals("version", data.getColumnName(15));
+    assertEquals(Types.DATE, data.getColumnType(6));
+    assertEquals(Types.TIMESTAMP, data.getColumnType(12));
+    assertEquals(3, data.getScale(12));
+    assertEquals(Types.BIGINT, data.getColumnType(15));
+  }
+
+  @Test
+  void testRowDataConvertsTemporalValues() {
+    Employee employee = new Employee();
+    employee.setId("E000001");
+    employee.setName("山田 太郎");
+    employee.setHire_date(LocalDate.of(2020, 4, 1));
+    employee.setCreated_at(LocalDateTime.of(2025, 1, 2, 3, 4, 5, 6_000_000));
+    employee.setVersion(3L);
+    Employee empty = new Employee();
+    empty.setId("E000002");
+
+    EmployeeBulkData data = new EmployeeBulkData(List.of(employee, empty).iterator());
+
+    assertTrue(data.next());
+    Object[] row = data.getRowData();
+    assertEquals(15, row.length);
+    assertEquals("E000001", row[0]);
+    assertEquals("山田 太郎", row[1]);
+    assertEquals(Date.valueOf("2020-04-01"), row[5]);
+    assertEquals(Timestamp.valueOf("2025-01-02 03:04:05.006"), row[11]);
+    assertEquals(Long.valueOf(3), row[14]);
+
+    assertTrue(data.next());
+    Object[] nulls = data.getRowData();
+    assertEquals("E000002", nulls[0]);
+    for (int i = 1; i < nulls.length; i++) {
+      assertNull(nulls[i], "Unset columns should be passed as null");
+    }
+
+    assertFalse(data.next());
+    assertEquals(2, data.getRowCount());
+    assertThrows(NoSuchElementException.class, data::getRowData);
+  }
+
+  @Test
+  void testColumnNamesFollowTableOrder() {
+    String[] expected = {
+      "id", "name", "department", "position", "employment_status", "hire_date", "phone_number",
+      "email", "birth_date", "gender", "created_by", "created_at", "updated_by", "updated_at",
+      "version"
+    };
+    assertArrayEquals(expected, EmployeeBulkData.COLUMN_NAMES);
+  }
+}
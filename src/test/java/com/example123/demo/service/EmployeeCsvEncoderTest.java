@@ -0,0 +1,136 @@
+package com.example123.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example123.demo.domain.Employee;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** EmployeeCsvEncoder単体テストクラス 従来の文字列変換と同一のCSV行が出力されることを確認します */
+public class EmployeeCsvEncoderTest {
+
+  private EmployeeCsvEncoder encoder;
+
+  @BeforeEach
+  void setUp() {
+    encoder = new EmployeeCsvEncoder();
+  }
+
+  @Test
+  void testEncodeMatchesToStringFormat() {
+    List<Employee> employees = new DataGenerationService().createRandomEmployees(50);
+
+    for (Employee employee : employees) {
+      encoder.reset();
+      encoder.encode(employee);
+      assertEquals(expectedRow(employee), decode(), "Encoded row should match toString format");
+    }
+  }
+
+  @Test
+  void testEncodeDateTimePrecision() {
+    Employee employee = createEmployee("E000001");
+    LocalDateTime base = LocalDateTime.of(2025, 1, 2, 3, 4);
+
+    // 秒なし・秒あり・ミリ秒・マイクロ秒・ナノ秒の各表現がLocalDateTime#toString()と一致すること
+    for (LocalDateTime dateTime :
+        List.of(
+            base,
+            base.withSecond(5),
+            base.withNano(120_000_000),
+            base.withNano(123_456_000),
+            base.withNano(123_456_789),
+            base.withSecond(59).withNano(1))) {
+      employee.setCreated_at(dateTime);
+      encoder.reset();
+      encoder.encode(employee);
+      assertEquals(expectedRow(employee), decode(), "DateTime should be encoded as " + dateTime);
+    }
+  }
+
+  @Test
+  void testEncodeNullFieldsAsEmpty() {
+    Employee employee = new Employee("E000002", "山田 花子", "開発部", null);
+
+    encoder.encode(employee);
+
+    assertEquals("E000002,山田 花子,開発部,,,,,,,,,,,,\n", decode(), "Null fields should be empty");
+  }
+
+  @Test
+  void testEncodeQuotesSpecialCharacters() {
+    Employee employee = createEmployee("E000003");
+    employee.setName("Doe, \"John\"");
+    employee.setDepartment("A\nB");
+
+    encoder.encode(employee);
+
+    assertTrue(
+        decode().startsWith("E000003,\"Doe, \"\"John\"\"\",\"A\nB\",課長,"),
+        "Fields containing comma, quote or newline should be quoted");
+  }
+
+  @Test
+  void testEncodeNegativeAndLargeVersion() {
+    Employee employee = createEmployee("E000004");
+    employee.setVersion(Long.MAX_VALUE);
+    encoder.encode(employee);
+    employee.setVersion(-42L);
+    encoder.encode(employee);
+
+    String[] rows = decode().split("\n");
+    assertEquals(String.valueOf(Long.MAX_VALUE), lastField(rows[0]));
+    assertEquals("-42", lastField(rows[1]));
+  }
+
+  private String decode() {
+    return new String(encoder.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static String lastField(String row) {
+    return row.substring(row.lastIndexOf(',') + 1);
+  }
+
+  private static Employee createEmployee(String id) {
+    Employee employee = new Employee(id, "佐藤 翔太", "営業部", id + "@example.com");
+    employee.setPosition("課長");
+    employee.setEmployment_status("正社員");
+    employee.setHire_date(LocalDate.of(2015, 4, 1));
+    employee.setPhone_number("03-1234-5678");
+    employee.setBirth_date(LocalDate.of(1985, 12, 31));
+    employee.setGender("男性");
+    employee.setCreated_by("SYSTEM");
+    employee.setCreated_at(LocalDateTime.of(2025, 1, 1, 9, 0));
+    employee.setUpdated_by("SYSTEM");
+    employee.setUpdated_at(LocalDateTime.of(2025, 1, 1, 9, 0, 30));
+    employee.setVersion(3L);
+    return employee;
+  }
+
+  /** 従来のマルチスレッド出力と同じ方法（String.join + toString）で期待値を組み立てる */
+  private static String expectedRow(Employee employee) {
+    return String.join(
+            ",",
+            employee.getId(),
+            employee.getName(),
+            employee.getDepartment(),
+            employee.getPosition(),
+            employee.getEmployment_status(),
+            employee.getHire_date().toString(),
+            employee.getPhone_number(),
+            employee.getEmail(),
+            employee.getBirth_date().toString(),
+            employee.getGender(),
+            employee.getCreated_by(),
+            employee.getCreated_at().toString(),
+            employee.getUpdated_by(),
+            employee.getUpdated_at().toString(),
+            String.valueOf(employee.getVersion()))
+        + "\n";
+  }
+}
@@ -0,0 +1,128 @@
+package com.example123.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example123.demo.domain.Employee;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** EmployeeCsvParser単体テストクラス EmployeeCsvEncoderの出力を元の従業員情報へ戻せること、区間の境界がレコード先頭に揃うことを確認します */
+public class EmployeeCsvParserTest {
+
+  private static final String CSV_HEADER =
+      "ID,Name,Department,Position,EmploymentStatus,HireDate,PhoneNumber,Email,BirthDate,Gender,"
+          + "CreatedBy,CreatedAt,UpdatedBy,UpdatedAt,Version\n";
+
+  @TempDir Path tempDir;
+
+  @Test
+  void testParseRoundTrip() {
+    List<Employee> employees = new DataGenerationService().createRandomEmployees(200);
+
+    assertEquals(employees, parse(encode(employees)), "Parsed employees should match the source");
+  }
+
+  @Test
+  void testParseQuotedFieldsAndNulls() {
+    Employee quoted = createEmployee("E000001");
+    quoted.setName("Doe, \"John\"");
+    quoted.setDepartment("A\nB");
+    quoted.setCreated_at(LocalDateTime.of(2025, 1, 2, 3, 4, 5, 123_456_789));
+    Employee nulls = new Employee("E000002", "山田 花子", "開発部", null);
+
+    List<Employee> parsed = parse(encode(List.of(quoted, nulls)));
+
+    assertEquals(List.of(quoted, nulls), parsed);
+    assertNull(parsed.get(1).getHire_date(), "Empty fields should be parsed as null");
+  }
+
+  @Test
+  void testParseCrLfAndMalformedRows() {
+    String row =
+        "E1,a,b,c,d,2020-01-01,p,e,1990-05-06,g,u,2025-01-01T09:00,u,2025-01-01T09:00:30,7";
+    List<Employee> parsed = parse((row + "\r\n" + row + "\r\n").getBytes(StandardCharsets.UTF_8));
+    assertEquals(2, parsed.size());
+    assertEquals(Long.valueOf(7), parsed.get(1).getVersion());
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> parse("E1,a,b\n".getBytes(StandardCharsets.UTF_8)),
+        "Rows with missing columns should be rejected");
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> parse((row + ",extra\n").getBytes(StandardCharsets.UTF_8)),
+        "Rows with extra columns should be rejected");
+  }
+
+  @Test
+  void testRecordBoundariesSkipQuotedNewlines() throws Exception {
+    List<Employee> employees = new DataGenerationService().createRandomEmployees(300);
+    for (int i = 0; i < employees.size(); i += 3) {
+      employees.get(i).setName("改行\n\"引用\"\n, 入り " + i);
+    }
+    byte[] csv = encode(employees);
+    Path file = tempDir.resolve("employees.csv");
+    Files.write(file, csv);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // 1区間を数行程度にして、クォート内の改行を境界にまたぐケースを多数発生させる
+      long[] boundaries = CsvImportService.findRecordBoundaries(channel, 700, executor);
+
+      assertEquals(0, boundaries[0]);
+      assertEquals(csv.length, boundaries[boundaries.length - 1]);
+      List<Employee> parsed = new ArrayList<>();
+      ByteBuffer buffer = ByteBuffer.wrap(csv);
+      for (int i = 0; i + 1 < boundaries.length; i++) {
+        new EmployeeCsvParser()
+            .parse(buffer, (int) boundaries[i], (int) boundaries[i + 1], parsed::add);
+      }
+      assertEquals(employees, parsed, "Segments should split only at record boundaries");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static byte[] encode(List<Employee> employees) {
+    EmployeeCsvEncoder encoder = new EmployeeCsvEncoder();
+    encoder.writeAscii(CSV_HEADER);
+    employees.forEach(encoder::encode);
+    return encoder.toByteArray();
+  }
+
+  private static List<Employee> parse(byte[] csv) {
+    List<Employee> parsed = new ArrayList<>();
+    new EmployeeCsvParser().parse(ByteBuffer.wrap(csv), 0, csv.length, parsed::add);
+    return parsed;
+  }
+
+  private static Employee createEmployee(String id) {
+    Employee employee = new Employee(id, "佐藤 翔太", "営業部", id + "@example.com");
+    employee.setPosition("課長");
+    employee.setEmployment_status("正社員");
+    employee.setHire_date(LocalDate.of(2015, 4, 1));
+    employee.setPhone_number("03-1234-5678");
+    employee.setBirth_date(LocalDate.of(1985, 12, 31));
+    employee.setGender("男性");
+    employee.setCreated_by("SYSTEM");
+    employee.setCreated_at(LocalDateTime.of(2025, 1, 1, 9, 0));
+    employee.setUpdated_by("SYSTEM");
+    employee.setUpdated_at(LocalDateTime.of(2025, 1, 1, 9, 0, 30));
+    employee.setVersion(3L);
+    return employee;
+  }
+}
@@ -0,0 +1,101 @@
+package com.example123.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * EmployeeDataService統合テストクラス 一括コピー方式の一括登録がH2ではJDBCバッチ方式で全件を登録すること、 各UPSERT方式がH2でも同じ更新件数・挿入件数を返すこと、
+ * ハッシュ比較方式が内容の変わらない行を更新しないことを確認します
+ *
+ * <p>JDBCバッチ登録とUPSERTはワーカースレッドごとに独立したトランザクションでコミットするため、テストのトランザクションでは巻き戻せません 他テストと重複しないIDで投入します
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class EmployeeDataServiceIntegrationTest {
+
+  @Autowired private EmployeeDataService employeeDataService;
+
+  @Autowired private DataGenerationService dataGenerationService;
+
+  @Autowired private EmployeeMapper employeeMapper;
+
+  @Autowired private EmployeeBulkCopyService employeeBulkCopyService;
+
+  @Test
+  public void testBulkCopyFallsBackToJdbcBatchOnH2() {
+    assertFalse(employeeBulkCopyService.isSupported(), "Bulk copy should be SQL Server only");
+    List<Employee> employees = employees("BC", 12);
+    long before = employeeMapper.countAll();
+
+    long inserted = employeeDataService.insertEmployeesWithBulkCopy(employees);
+
+    assertEquals(12, inserted);
+    assertEquals(before + 12, employeeMapper.countAll());
+  }
+
+  @Test
+  public void testUpsertStrategiesReturnSameCountsOnH2() {
+    // H2では一時テーブル方式・TVP方式もMERGE方式で処理され、同じ件数を返す
+    for (String strategy : List.of("merge", "temp-table", "tvp")) {
+      List<Employee> existing = employees("UP", 5);
+      employeeDataService.saveEmployees(existing);
+
+      List<Employee> upsert = new ArrayList<>(existing);
+      for (Employee employee : employees("UN", 3)) {
+        upsert.add(employee);
+      }
+      long before = employeeMapper.countAll();
+
+      Map<String, Integer> result = employeeDataService.upsertEmployees(upsert, strategy);
+
+      assertEquals(5, result.get("updateCount").intValue(), strategy + ": updateCount");
+      assertEquals(3, result.get("insertCount").intValue(), strategy + ": insertCount");
+      assertEquals(before + 3, employeeMapper.countAll(), strategy + ": inserted rows");
+    }
+  }
+
+  @Test
+  public void testHashUpsertSkipsUnchangedRowsOnH2() {
+    List<Employee> existing = employees("HS", 6);
+    employeeDataService.saveEmployees(existing);
+
+    // 内容ハッシュが未登録の既存行は比較できないため更新され、ハッシュが登録される
+    List<Employee> feed = new ArrayList<>(existing);
+    feed.addAll(employees("HN", 2));
+    Map<String, Integer> first = employeeDataService.upsertEmployees(feed, "hash");
+    assertEquals(6, first.get("updateCount").intValue(), "first: updateCount");
+    assertEquals(2, first.get("insertCount").intValue(), "first: insertCount");
+    assertEquals(0, first.get("unchangedCount").intValue(), "first: unchangedCount");
+
+    // 同じ内容の再送では更新しない（更新日時・バージョンだけが異なる行も内容は同じとみなす）
+    feed.get(0).setUpdated_by("resend");
+    feed.get(1).setDepartment(feed.get(1).getDepartment() + "2");
+    long before = employeeMapper.countAll();
+    Map<String, Integer> resend = employeeDataService.upsertEmployees(feed, "hash");
+
+    assertEquals(1, resend.get("updateCount").intValue(), "resend: updateCount");
+    assertEquals(0, resend.get("insertCount").intValue(), "resend: insertCount");
+    assertEquals(7, resend.get("unchangedCount").intValue(), "resend: unchangedCount");
+    assertEquals(before, employeeMapper.countAll());
+  }
+
+  private List<Employee> employees(String prefix, int count) {
+    String idPrefix = prefix + UUID.randomUUID().toString().substring(0, 6);
+    List<Employee> employees = dataGenerationService.createDummyEmployees(count);
+    for (int i = 0; i < employees.size(); i++) {
+      employees.get(i).setId(idPrefix + i);
+    }
+    return employees;
+  }
+}
@@ -0,0 +1,82 @@
+package com.example123.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * EmployeeDataService統合テストクラス（JDBCバッチ方式） {@code employee.insert.mode=JDBC_BATCH} の設定でsaveEmployeesが
+ * JDBCバッチ方式で登録すること、送信単位で割り切れない件数でも最後の端数のまとまりが登録されることを確認します
+ *
+ * <p>登録方式と送信単位は起動時の設定でのみ指定できるため、設定を変えたアプリケーションコンテキストで実行します
+ */
+@SpringBootTest(
+    properties = {"employee.insert.mode=JDBC_BATCH", "employee.insert.batch-flush-size=7"})
+@ActiveProfiles("test")
+public class EmployeeDataServiceJdbcBatchIntegrationTest {
+
+  @Autowired private EmployeeDataService employeeDataService;
+
+  @Autowired private DataGenerationService dataGenerationService;
+
+  @Autowired private EmployeeMapper employeeMapper;
+
+  @Test
+  public void testInsertEmployeesWithJdbcBatch() {
+    List<Employee> employees = employees("JB", 25);
+    long before = employeeMapper.countAll();
+
+    int inserted = employeeDataService.insertEmployeesWithJdbcBatch(employees);
+
+    assertEquals(25, inserted, "All rows should be reported as inserted");
+    assertEquals(before + 25, employeeMapper.countAll());
+  }
+
+  @Test
+  public void testSaveEmployeesUsesConfiguredInsertMode() {
+    List<Employee> employees = employees("JS", 10);
+    long before = employeeMapper.countAll();
+
+    employeeDataService.saveEmployees(employees);
+
+    assertEquals(before + 10, employeeMapper.countAll());
+  }
+
+  @Test
+  public void testNonPositiveFlushSizeIsRejected() {
+    // 0件の送信単位では分割のループが終わらないため、起動時に拒否する
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new EmployeeDataService(
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                EmployeeDataService.InsertMode.JDBC_BATCH,
+                0,
+                true));
+  }
+
+  private List<Employee> employees(String prefix, int count) {
+    String idPrefix = prefix + UUID.randomUUID().toString().substring(0, 6);
+    List<Employee> employees = dataGenerationService.createDummyEmployees(count);
+    for (int i = 0; i < employees.size(); i++) {
+      employees.get(i).setId(idPrefix + i);
+    }
+    return employees;
+  }
+}
@@ -28,6 +28,8 @@ public class EmployeeServiceUnitTest {
 
   @Mock private EmployeeDataService employeeDataService;
 
+  @Mock private EmployeeUpsertPipelineService employeeUpsertPipelineService;
+
   private EmployeeService employeeService;
 
   @BeforeEach
@@ -36,7 +38,11 @@ public class EmployeeServiceUnitTest {
     // EmployeeServiceインスタンスを初期化
     // このメソッドは@BeforeEachにより各テスト実行前に自動で呼び出される
     employeeService =
-        new EmployeeService(dataGenerationService, csvExportService, employeeDataService);
+        new EmployeeService(
+            dataGenerationService,
+            csvExportService,
+            employeeDataService,
+            employeeUpsertPipelineService);
   }
 
   @Test
@@ -0,0 +1,57 @@
+package com.example123.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example123.demo.repository.EmployeeMapper;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * EmployeeUpsertPipelineService統合テストクラス 基礎データの投入と生成・検証・UPSERTを同時に進めても、順に実行した場合と同じ件数になることを確認します
+ *
+ * <p>基礎データは固定のID（E000000-E009999）で投入するため、前後でテーブルを空にします
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class EmployeeUpsertPipelineServiceIntegrationTest {
+
+  @Autowired private EmployeeUpsertPipelineService employeeUpsertPipelineService;
+
+  @Autowired private EmployeeMapper employeeMapper;
+
+  @BeforeEach
+  void setUp() {
+    employeeMapper.truncateTable();
+  }
+
+  @AfterEach
+  void tearDown() {
+    employeeMapper.truncateTable();
+  }
+
+  @Test
+  public void testPipelinedUpsertMatchesSequentialCounts() {
+    // チャンク・バッチの件数で割り切れない件数にして、最後の端数も処理されることを確認する
+    Map<String, Object> result =
+        employeeUpsertPipelineService.generateAndUpsertRandomEmployees(1234, "merge");
+
+    // 80%（987件）は基礎データの更新、残りは新規
+    assertEquals(987, ((Integer) result.get("updateCount")).intValue(), "updateCount");
+    assertEquals(247, ((Integer) result.get("insertCount")).intValue(), "insertCount");
+    assertEquals(0, ((Integer) result.get("rejectedCount")).intValue(), "rejectedCount");
+    assertEquals(0, ((Integer) result.get("failedBatchCount")).intValue(), "failedBatchCount");
+    assertEquals(10000 + 247, employeeMapper.countAll());
+
+    List<?> stages = (List<?>) result.get("stages");
+    assertEquals(5, stages.size(), "Each stage should report its metrics");
+    Map<?, ?> execute = (Map<?, ?>) stages.get(4);
+    assertEquals("execute", execute.get("stage"));
+    assertEquals(1234L, execute.get("items"));
+  }
+}
@@ -0,0 +1,155 @@
+package com.example123.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example123.demo.repository.EmployeeMapper;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** ExportJobService単体テストクラス ジョブの進捗・キャンセル・待ち行列の上限・保持期間後の削除が正しく動作することを確認します */
+public class ExportJobServiceTest {
+
+  private static final byte[] ROW = "E1,name,dept\n".getBytes(StandardCharsets.UTF_8);
+
+  @TempDir Path tempDir;
+
+  private EmployeeMapper employeeMapper;
+  private FakeCsvExportService csvExportService;
+  private ExportJobService exportJobService;
+
+  @BeforeEach
+  void setUp() {
+    employeeMapper = mock(EmployeeMapper.class);
+    when(employeeMapper.countAll()).thenReturn(1_000L);
+    csvExportService = new FakeCsvExportService();
+    // 同時実行数1、待ち行列1
+    exportJobService =
+        new ExportJobService(csvExportService, employeeMapper, tempDir.toString(), 1, 1, 60);
+  }
+
+  @AfterEach
+  void tearDown() {
+    csvExportService.release.countDown();
+    exportJobService.shutdown();
+  }
+
+  @Test
+  void testJobCompletesWithProgress() throws Exception {
+    csvExportService.release.countDown();
+
+    ExportJob job = exportJobService.submit(false);
+    awaitStatus(job, ExportJob.Status.COMPLETED);
+
+    assertEquals(1_000, job.getTotalRows());
+    assertEquals(1_000, job.getRowsWritten());
+    assertEquals(Files.size(Path.of(job.getFilePath())), job.getBytesWritten());
+    assertEquals(1_000L * ROW.length, job.getBytesWritten());
+    assertEquals(job, exportJobService.find(job.getId()).orElseThrow());
+  }
+
+  @Test
+  void testCancelRunningJobDeletesFile() throws Exception {
+    ExportJob job = exportJobService.submit(false);
+    assertTrue(csvExportService.started.await(5, TimeUnit.SECONDS), "Job should start");
+
+    exportJobService.cancel(job.getId());
+    awaitStatus(job, ExportJob.Status.CANCELLED);
+
+    assertTrue(job.isCancelRequested());
+    assertFalse(Files.exists(Path.of(job.getFilePath())), "Partial file should be deleted");
+  }
+
+  @Test
+  void testQueueIsBoundedAndQueuedJobCanBeCancelled() throws Exception {
+    ExportJob running = exportJobService.submit(false);
+    assertTrue(csvExportService.started.await(5, TimeUnit.SECONDS), "Job should start");
+    ExportJob queued = exportJobService.submit(true);
+
+    assertThrows(
+        RejectedExecutionException.class,
+        () -> exportJobService.submit(false),
+        "Submissions beyond the queue capacity should be rejected");
+
+    exportJobService.cancel(queued.getId());
+    assertEquals(ExportJob.Status.CANCELLED, queued.getStatus(), "Queued job is cancelled at once");
+
+    // 取り消したジョブの枠が空くため、再度投入できる
+    ExportJob next = exportJobService.submit(false);
+    csvExportService.release.countDown();
+    awaitStatus(running, ExportJob.Status.COMPLETED);
+    awaitStatus(next, ExportJob.Status.COMPLETED);
+  }
+
+  @Test
+  void testExpiredJobIsPurgedWithItsFile() throws Exception {
+    // 保持期間0分：終了したジョブは次の投入時に削除される
+    exportJobService.shutdown();
+    exportJobService =
+        new ExportJobService(csvExportService, employeeMapper, tempDir.toString(), 1, 1, 0);
+    csvExportService.release.countDown();
+    ExportJob expired = exportJobService.submit(false);
+    awaitStatus(expired, ExportJob.Status.COMPLETED);
+    assertTrue(Files.exists(Path.of(expired.getFilePath())));
+    Thread.sleep(5);
+
+    ExportJob next = exportJobService.submit(false);
+
+    assertTrue(exportJobService.find(expired.getId()).isEmpty(), "Expired job should be purged");
+    assertFalse(Files.exists(Path.of(expired.getFilePath())), "Its output file should be deleted");
+    awaitStatus(next, ExportJob.Status.COMPLETED);
+  }
+
+  private static void awaitStatus(ExportJob job, ExportJob.Status expected)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (job.getStatus() != expected && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(expected, job.getStatus());
+  }
+
+  /** データベースの代わりに固定の行を書き込むCSV出力 releaseが開放されるまで書き込みを続けながら待機します */
+  private static class FakeCsvExportService extends CsvExportService {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+
+    FakeCsvExportService() {
+      super(null, null, 100, 1000);
+    }
+
+    @Override
+    public long writeCsvFromDatabase(OutputStream out, LongConsumer progress) throws IOException {
+      started.countDown();
+      try {
+        while (!release.await(10, TimeUnit.MILLISECONDS)) {
+          // 待機中も割り込みを検知できるよう、短い間隔で確認する
+        }
+      } catch (InterruptedException e) {
+        throw new InterruptedIOException("interrupted");
+      }
+      for (int i = 1; i <= 1_000; i++) {
+        out.write(ROW);
+      }
+      out.flush();
+      progress.accept(1_000);
+      return 1_000;
+    }
+  }
+}
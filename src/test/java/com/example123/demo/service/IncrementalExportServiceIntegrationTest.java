@@ -0,0 +1,125 @@
+package com.example123.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example123.demo.domain.Employee;
+import com.example123.demo.repository.EmployeeMapper;
+import com.example123.demo.util.AuditTimestamps;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TimeZone;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * IncrementalExportService統合テストクラス 前回のウォーターマーク以降に更新された行だけが出力されること、
+ * ホストのタイムゾーンに関わらず更新された行が出力されることを確認します
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class IncrementalExportServiceIntegrationTest {
+
+  /** 他テストのデータと重ならない更新日時 */
+  private static final LocalDateTime BASE = LocalDateTime.of(2999, 1, 1, 0, 0);
+
+  @TempDir Path tempDir;
+
+  @Autowired private IncrementalExportService incrementalExportService;
+
+  @Autowired private DataGenerationService dataGenerationService;
+
+  @Autowired private EmployeeMapper employeeMapper;
+
+  @Test
+  public void testExportChangesAdvancesWatermark() throws Exception {
+    // 他テストで投入された行を除外するため、テスト用の更新日時の直前から開始する
+    new ExportWatermark(BASE.minusSeconds(1), "").store(tempDir.resolve("watermark.properties"));
+    insert("INC000", 0, 5);
+
+    IncrementalExportManifest first = incrementalExportService.exportChanges(tempDir.toString());
+    assertEquals(5, first.getRowCount());
+    assertEquals(new ExportWatermark(BASE.plusSeconds(4), "INC0004"), first.getToWatermark());
+    List<String> rows = dataRows(first);
+    for (int i = 0; i < rows.size(); i++) {
+      assertTrue(
+          rows.get(i).startsWith("INC000" + i + ","), "Rows should be in (updated_at, id) order");
+    }
+
+    IncrementalExportManifest unchanged =
+        incrementalExportService.exportChanges(tempDir.toString());
+    assertEquals(0, unchanged.getRowCount(), "No rows should be exported without changes");
+    assertEquals(first.getToWatermark(), unchanged.getToWatermark());
+
+    // 最後の行と同じupdated_atでidが大きい行、およびより新しい行だけが次の出力に含まれる
+    insert("INC000", 5, 1, BASE.plusSeconds(4));
+    insert("INC000", 6, 2);
+
+    IncrementalExportManifest next = incrementalExportService.exportChanges(tempDir.toString());
+    assertEquals(3, next.getRowCount());
+    assertEquals(first.getToWatermark(), next.getFromWatermark());
+    assertEquals(new ExportWatermark(BASE.plusSeconds(7), "INC0007"), next.getToWatermark());
+    assertEquals(
+        List.of("INC0005", "INC0006", "INC0007"),
+        dataRows(next).stream().map(row -> row.substring(0, row.indexOf(','))).toList());
+
+    assertEquals(
+        next.getToWatermark(), ExportWatermark.load(tempDir.resolve("watermark.properties")));
+    assertTrue(
+        Files.exists(tempDir.resolve(next.getDataFile().replace(".csv", ".manifest"))),
+        "Manifest should be written next to the data file");
+  }
+
+  @Test
+  public void testRowsStampedOnNonUtcHostAreExported() throws Exception {
+    // UTCより遅れたタイムゾーンのホストでも、アプリケーションが設定するupdated_atはウォーターマーク（UTC）より後になる
+    TimeZone original = TimeZone.getDefault();
+    try {
+      TimeZone.setDefault(TimeZone.getTimeZone("America/Los_Angeles"));
+      new ExportWatermark(AuditTimestamps.now().minusSeconds(1), "")
+          .store(tempDir.resolve("watermark.properties"));
+      List<Employee> employees = dataGenerationService.createDummyEmployees(3);
+      for (int i = 0; i < employees.size(); i++) {
+        employees.get(i).setId("INCUTC" + i);
+      }
+      employeeMapper.bulkInsert(employees);
+
+      IncrementalExportManifest manifest =
+          incrementalExportService.exportChanges(tempDir.toString());
+
+      assertEquals(
+          3,
+          dataRows(manifest).stream().filter(row -> row.startsWith("INCUTC")).count(),
+          "Rows stamped by the application should not fall behind the UTC watermark");
+    } finally {
+      TimeZone.setDefault(original);
+    }
+  }
+
+  private void insert(String prefix, int from, int count) {
+    insert(prefix, from, count, null);
+  }
+
+  private void insert(String prefix, int from, int count, LocalDateTime updatedAt) {
+    List<Employee> employees = dataGenerationService.createDummyEmployees(count);
+    for (int i = 0; i < count; i++) {
+      Employee employee = employees.get(i);
+      employee.setId(prefix + (from + i));
+      employee.setUpdated_at(updatedAt != null ? updatedAt : BASE.plusSeconds(from + i));
+    }
+    employeeMapper.bulkInsert(employees);
+  }
+
+  private List<String> dataRows(IncrementalExportManifest manifest) throws Exception {
+    List<String> lines = Files.readAllLines(tempDir.resolve(manifest.getDataFile()));
+    assertTrue(lines.get(0).startsWith("ID,Name,Department"), "Header should be written first");
+    return lines.subList(1, lines.size());
+  }
+}
@@ -0,0 +1,180 @@
+package com.example123.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example123.demo.columnar.EmployeeColumn;
+import com.example123.demo.config.BoundedThreadPoolExecutor;
+import com.example123.demo.domain.Employee;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * PartitionedExportService単体テストクラス 分割したファイルの内容とマニフェストの件数・チェックサムが一致すること、
+ * 同時に書き込み中にするファイル数が上限を超えないこと、失敗時に出力済みのファイルが残らないことを確認します
+ */
+public class PartitionedExportServiceTest {
+
+  @TempDir Path tempDir;
+
+  private BoundedThreadPoolExecutor writerExecutor;
+  private PartitionedExportService partitionedExportService;
+  private List<Employee> employees;
+
+  @BeforeEach
+  void setUp() {
+    writerExecutor = new BoundedThreadPoolExecutor("file-writer", 4, 100, Duration.ofSeconds(10));
+    // リストを入力とする出力方式はMapperを使用しない
+    partitionedExportService = new PartitionedExportService(null, writerExecutor, 64);
+    employees = new DataGenerationService().createRandomEmployees(5_000);
+  }
+
+  @AfterEach
+  void tearDown() {
+    writerExecutor.close();
+  }
+
+  @Test
+  void testPartitionByDepartment() throws Exception {
+    employees.get(0).setDepartment("企画/開発");
+
+    PartitionedExportManifest manifest =
+        partitionedExportService.writePartitioned(
+            employees, tempDir.toString(), PartitionSpec.byColumn("department"));
+
+    Map<String, Long> expected =
+        employees.stream()
+            .collect(Collectors.groupingBy(Employee::getDepartment, Collectors.counting()));
+    assertEquals(expected.size(), manifest.getParts().size(), "One file per department");
+    assertEquals(employees.size(), manifest.getRowCount());
+    assertTrue(Files.exists(tempDir.resolve(PartitionedExportService.MANIFEST_FILE)));
+
+    for (PartitionedExportManifest.Part part : manifest.getParts()) {
+      assertEquals(expected.get(part.getPartitionValue()).longValue(), part.getRowCount());
+      assertTrue(
+          part.getPath()
+              .startsWith(
+                  "department="
+                      + PartitionedExportService.escapePathName(part.getPartitionValue())
+                      + "/"),
+          "Files should be placed in the department directory");
+      for (String row : verifyAndReadRows(part)) {
+        assertEquals(part.getPartitionValue(), row.split(",", -1)[2]);
+      }
+    }
+    assertTrue(
+        manifest.getParts().stream().anyMatch(p -> p.getPath().startsWith("department=企画%2F開発/")),
+        "Path separators in values should be escaped");
+  }
+
+  @Test
+  void testPartitionBySize() throws Exception {
+    long targetFileBytes = 64 * 1024;
+
+    PartitionedExportManifest manifest =
+        partitionedExportService.writePartitioned(
+            employees, tempDir.toString(), PartitionSpec.bySize(targetFileBytes));
+
+    assertTrue(manifest.getParts().size() > 1, "Output should be split into multiple files");
+    List<String> rows = new ArrayList<>();
+    for (PartitionedExportManifest.Part part : manifest.getParts()) {
+      assertTrue(
+          part.getBytes() < targetFileBytes + 1024, "Files should stay near the target size");
+      rows.addAll(verifyAndReadRows(part));
+    }
+
+    // ファイル番号順に連結すると元の順序どおりになる
+    EmployeeCsvEncoder encoder = new EmployeeCsvEncoder();
+    employees.forEach(encoder::encode);
+    assertEquals(
+        List.of(new String(encoder.toByteArray(), StandardCharsets.UTF_8).split("\n")), rows);
+    try (Stream<Path> files = Files.walk(tempDir)) {
+      assertFalse(
+          files.anyMatch(p -> p.toString().endsWith(".inprogress")),
+          "No in-progress files should remain");
+    }
+  }
+
+  @Test
+  void testOpenPartitionsAreCapped() throws Exception {
+    // 上限2件では部署が切り替わるたびにファイルを完了させるため、部署の数より多くのファイルに分かれる
+    PartitionedExportService capped = new PartitionedExportService(null, writerExecutor, 2);
+
+    PartitionedExportManifest manifest =
+        capped.writePartitioned(
+            employees, tempDir.toString(), PartitionSpec.byColumn("department"));
+
+    long departments = employees.stream().map(Employee::getDepartment).distinct().count();
+    assertTrue(
+        manifest.getParts().size() > departments, "Evicted partitions continue in new files");
+    Map<String, Long> expected =
+        employees.stream()
+            .collect(Collectors.groupingBy(Employee::getDepartment, Collectors.counting()));
+    Map<String, Long> actual = new HashMap<>();
+    for (PartitionedExportManifest.Part part : manifest.getParts()) {
+      actual.merge(part.getPartitionValue(), (long) verifyAndReadRows(part).size(), Long::sum);
+    }
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void testHighCardinalityColumnsAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> PartitionSpec.byColumn("id"));
+    assertThrows(IllegalArgumentException.class, () -> PartitionSpec.byColumn("email"));
+    assertEquals(EmployeeColumn.HIRE_DATE, PartitionSpec.byColumn("hire_date").getColumn());
+  }
+
+  @Test
+  void testFailedExportRemovesCompletedParts() throws Exception {
+    // 1つの部署の書き込み先をディレクトリにして書き込みを失敗させる
+    employees.get(0).setDepartment("書込不可");
+    Files.createDirectories(tempDir.resolve("department=書込不可/part-00000.csv.inprogress"));
+
+    assertThrows(
+        RuntimeException.class,
+        () ->
+            partitionedExportService.writePartitioned(
+                employees, tempDir.toString(), PartitionSpec.byColumn("department")));
+
+    try (Stream<Path> files = Files.walk(tempDir)) {
+      assertFalse(
+          files.anyMatch(p -> Files.isRegularFile(p)),
+          "Neither completed nor in-progress files should remain");
+    }
+  }
+
+  @Test
+  void testEscapePathName() {
+    assertEquals("a%2Fb%3Dc", PartitionedExportService.escapePathName("a/b=c"));
+    assertEquals("営業部", PartitionedExportService.escapePathName("営業部"));
+  }
+
+  /** ファイルのサイズ・CRC32C・件数がマニフェストと一致することを確認し、ヘッダーを除いた行を返します */
+  private List<String> verifyAndReadRows(PartitionedExportManifest.Part part) throws Exception {
+    byte[] content = Files.readAllBytes(tempDir.resolve(part.getPath()));
+    assertEquals(part.getBytes(), content.length);
+    CRC32C crc = new CRC32C();
+    crc.update(content, 0, content.length);
+    assertEquals(String.format("%08x", crc.getValue()), part.getCrc32c());
+
+    List<String> lines = List.of(new String(content, StandardCharsets.UTF_8).split("\n"));
+    assertTrue(lines.get(0).startsWith("ID,Name,Department"), "Each file should have a header");
+    assertEquals(part.getRowCount(), lines.size() - 1);
+    return lines.subList(1, lines.size());
+  }
+}
@@ -0,0 +1,129 @@
+package com.example123.demo.sort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** ExternalSorter単体テストクラス メモリ予算に応じた退避の有無と、複数列キーでのソート結果を確認します */
+public class ExternalSorterTest {
+
+  @TempDir Path tempDir;
+
+  private List<Row> rows;
+
+  /** 部署（昇順）、点数（降順）、ID（自然順）でソートするキー */
+  private final SortKey<Row> key =
+      SortKey.<Row>builder()
+          .string(Row::department)
+          .longValue(Row::score)
+          .descending()
+          .natural(Row::id)
+          .build();
+
+  @BeforeEach
+  void setUp() {
+    Random random = new Random(7);
+    rows = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      rows.add(
+          new Row(
+              "E" + String.format("%06d", random.nextInt(1_000_000)),
+              "Department " + random.nextInt(8),
+              random.nextInt(10) == 0 ? null : (long) random.nextInt(100)));
+    }
+  }
+
+  @Test
+  void testSmallInputIsSortedInMemory() throws Exception {
+    ExternalSorter<Row> sorter =
+        ExternalSorter.builder(key, Row::write).tempDirectory(tempDir).build();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ExternalSorter.Result result = sorter.sort(rows.iterator(), out);
+
+    assertEquals(rows.size(), result.getRecordCount());
+    assertEquals(0, result.getSpilledRuns(), "Input within the budget should never touch disk");
+    assertEquals(expected(), out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testLargeInputIsSpilledAndMerged() throws Exception {
+    // 約1000件ごとに退避し、ファンイン4で多段マージさせる
+    ExternalSorter<Row> sorter =
+        ExternalSorter.builder(key, Row::write)
+            .memoryBudgetBytes(1000 * 100)
+            .sizeEstimator(row -> 40)
+            .tempDirectory(tempDir)
+            .maxFanIn(4)
+            .readBufferSize(64)
+            .build();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ExternalSorter.Result result = sorter.sort(rows.iterator(), out);
+
+    assertEquals(rows.size(), result.getRecordCount());
+    assertTrue(result.getSpilledRuns() > 4, "Runs should be spilled: " + result.getSpilledRuns());
+    assertTrue(result.getSpilledBytes() > 0);
+    assertEquals(expected(), out.toString(StandardCharsets.UTF_8));
+    try (Stream<Path> files = Files.list(tempDir)) {
+      assertEquals(0, files.count(), "Spilled runs should be deleted");
+    }
+  }
+
+  @Test
+  void testCompressedRunsProduceSameOutput() throws Exception {
+    ExternalSorter.Builder<Row> builder =
+        ExternalSorter.builder(key, Row::write)
+            .memoryBudgetBytes(1000 * 100)
+            .sizeEstimator(row -> 40)
+            .tempDirectory(tempDir);
+
+    ByteArrayOutputStream plainOut = new ByteArrayOutputStream();
+    ExternalSorter.Result plain = builder.build().sort(rows.iterator(), plainOut);
+    ByteArrayOutputStream compressedOut = new ByteArrayOutputStream();
+    ExternalSorter.Result compressed =
+        builder.compressRuns(true).build().sort(rows.iterator(), compressedOut);
+
+    assertEquals(expected(), compressedOut.toString(StandardCharsets.UTF_8));
+    assertEquals(plain.getSpilledRuns(), compressed.getSpilledRuns());
+    assertTrue(
+        compressed.getSpilledBytes() < plain.getSpilledBytes(),
+        "Compressed runs should use less temp disk");
+  }
+
+  /** 同じ順序をComparatorで求めた期待値（安定ソートのため同一キーは入力順） */
+  private String expected() {
+    List<Row> sorted = new ArrayList<>(rows);
+    sorted.sort(
+        Comparator.comparing(Row::department)
+            .thenComparing(Row::score, Comparator.nullsLast(Comparator.<Long>reverseOrder()))
+            .thenComparing(Row::id));
+    StringBuilder sb = new StringBuilder();
+    sorted.forEach(row -> sb.append(row.line()));
+    return sb.toString();
+  }
+
+  private record Row(String id, String department, Long score) {
+    String line() {
+      return id + "," + department + "," + score + "\n";
+    }
+
+    static void write(Row row, OutputStream out) throws IOException {
+      out.write(row.line().getBytes(StandardCharsets.UTF_8));
+    }
+  }
+}
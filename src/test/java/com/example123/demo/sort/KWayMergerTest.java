@@ -0,0 +1,108 @@
+package com.example123.demo.sort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** KWayMerger単体テストクラス 敗者木によるマージと多段マージが正しく全件をソートすることを確認します */
+public class KWayMergerTest {
+
+  private static final KeyedRunFormat FORMAT = new KeyedRunFormat();
+
+  @TempDir Path tempDir;
+
+  @Test
+  void testMergeWithinFanIn() throws Exception {
+    List<String> expected = new ArrayList<>();
+    List<Path> runs = createRuns(7, 500, expected);
+
+    List<String> merged = merge(new KWayMerger(16, 1024, tempDir), runs);
+
+    assertEquals(expected, merged);
+  }
+
+  @Test
+  void testMultiPassMergeWhenRunsExceedFanIn() throws Exception {
+    List<String> expected = new ArrayList<>();
+    List<Path> runs = createRuns(50, 200, expected);
+
+    // ファンイン4で50本のランをマージ（3パスの中間マージが発生する）、先読みバッファは行より小さくする
+    List<String> merged = merge(new KWayMerger(4, 16, tempDir), runs);
+
+    assertEquals(expected, merged);
+    // 中間ランが削除され、入力ランは残っていること
+    try (Stream<Path> files = Files.list(tempDir)) {
+      assertEquals(runs.size(), files.count(), "Intermediate runs should be deleted");
+    }
+  }
+
+  @Test
+  void testMergeIsStableAndHandlesEmptyRuns() throws Exception {
+    Path first = write("first.run", List.of("E000001,a", "E000002,a"));
+    Path empty = write("empty.run", List.of());
+    Path second = write("second.run", List.of("E000001,b", "E000003,b"));
+
+    List<String> merged = merge(new KWayMerger(2, 8, tempDir), List.of(first, empty, second));
+
+    assertEquals(List.of("E000001,a", "E000001,b", "E000002,a", "E000003,b"), merged);
+  }
+
+  /** E付きのIDをランダムにランへ振り分け、各ランをソートして書き込みます */
+  private List<Path> createRuns(int runCount, int rowsPerRun, List<String> expected)
+      throws Exception {
+    Random random = new Random(42);
+    List<List<String>> runLines = new ArrayList<>();
+    for (int i = 0; i < runCount; i++) {
+      runLines.add(new ArrayList<>());
+    }
+    for (int i = 0; i < runCount * rowsPerRun; i++) {
+      String line = String.format("E%06d,Employee %d,Department %d", i, i, i % 5);
+      runLines.get(random.nextInt(runCount)).add(line);
+      expected.add(line);
+    }
+
+    List<Path> runs = new ArrayList<>();
+    for (int i = 0; i < runCount; i++) {
+      List<String> lines = runLines.get(i);
+      lines.sort(Comparator.naturalOrder());
+      runs.add(write("run-" + i + ".run", lines));
+    }
+    return runs;
+  }
+
+  /** 先頭列（最初のカンマまで）を自然順で比較するキーを付けて、各行をレコード（改行付き）としてランへ書き込みます */
+  private Path write(String name, List<String> lines) throws Exception {
+    Path run = tempDir.resolve(name);
+    try (RunWriter writer = FORMAT.create(run, 1024)) {
+      for (String line : lines) {
+        byte[] record = (line + "\n").getBytes(StandardCharsets.UTF_8);
+        byte[] key =
+            new SortKeyBuilder().appendNaturalUtf8(record, 0, line.indexOf(',')).toByteArray();
+        writer.write(key, 0, key.length, record, 0, record.length);
+      }
+    }
+    return run;
+  }
+
+  private static List<String> merge(KWayMerger merger, List<Path> runs) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long count = merger.merge(runs, FORMAT, out);
+    String text = out.toString(StandardCharsets.UTF_8);
+    assertTrue(text.isEmpty() || text.endsWith("\n"), "Every record should end with a newline");
+    List<String> lines = text.lines().collect(Collectors.toList());
+    assertEquals(count, lines.size());
+    return lines;
+  }
+}
@@ -0,0 +1,99 @@
+package com.example123.demo.sort;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** KeyedRunFormat単体テストクラス バイナリ形式のランが圧縮の有無に関わらず同じ内容で読み戻せることを確認します */
+public class KeyedRunFormatTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void testRoundTripWithoutCompression() throws Exception {
+    assertRoundTrip(new KeyedRunFormat(false), "plain.run");
+  }
+
+  @Test
+  void testRoundTripWithCompression() throws Exception {
+    Path plain = assertRoundTrip(new KeyedRunFormat(false), "plain.run");
+    Path compressed = assertRoundTrip(new KeyedRunFormat(true), "compressed.run");
+
+    assertTrue(
+        Files.size(compressed) < Files.size(plain) / 2,
+        "Repetitive CSV records should compress well");
+  }
+
+  @Test
+  void testKeyPrefixMatchesFirstEightBytes() throws Exception {
+    Path run = tempDir.resolve("prefix.run");
+    byte[] shortKey = {1, 2, 3};
+    byte[] longKey = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+    KeyedRunFormat format = new KeyedRunFormat();
+    try (RunWriter writer = format.create(run, 1024)) {
+      writer.write(shortKey, 0, shortKey.length, new byte[0], 0, 0);
+      writer.write(longKey, 0, longKey.length, new byte[0], 0, 0);
+    }
+
+    try (RunReader reader = format.open(run, 1024)) {
+      assertTrue(reader.next());
+      assertEquals(RunReader.prefixOf(shortKey, 0, shortKey.length), reader.keyPrefix());
+      assertEquals(0x0102030000000000L, reader.keyPrefix());
+      assertTrue(reader.next());
+      assertEquals(0x0102030405060708L, reader.keyPrefix());
+      assertEquals(longKey.length, reader.keyLength());
+      assertFalse(reader.next());
+    }
+  }
+
+  /** 複数ブロックにまたがる件数と、ブロックより大きいレコードを書き込んで読み戻します */
+  private Path assertRoundTrip(KeyedRunFormat format, String name) throws Exception {
+    List<byte[]> keys = new ArrayList<>();
+    List<byte[]> records = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      keys.add(new SortKeyBuilder().appendNatural("E" + String.format("%06d", i)).toByteArray());
+      records.add(
+          ("E" + i + ",従業員" + i + ",営業部,employee" + i + "@example.com\n")
+              .getBytes(StandardCharsets.UTF_8));
+    }
+    byte[] large = new byte[200_000];
+    Arrays.fill(large, (byte) 'x');
+    keys.add(new byte[] {(byte) 0xFF});
+    records.add(large);
+
+    Path run = tempDir.resolve(name);
+    try (RunWriter writer = format.create(run, 8192)) {
+      for (int i = 0; i < keys.size(); i++) {
+        writer.write(keys.get(i), 0, keys.get(i).length, records.get(i), 0, records.get(i).length);
+      }
+    }
+
+    try (RunReader reader = format.open(run, 8192)) {
+      for (int i = 0; i < keys.size(); i++) {
+        assertTrue(reader.next(), "Record " + i + " should be readable");
+        assertArrayEquals(
+            keys.get(i),
+            Arrays.copyOfRange(
+                reader.key(), reader.keyOffset(), reader.keyOffset() + reader.keyLength()));
+        assertArrayEquals(
+            records.get(i),
+            Arrays.copyOfRange(
+                reader.record(),
+                reader.recordOffset(),
+                reader.recordOffset() + reader.recordLength()));
+      }
+      assertFalse(reader.next());
+    }
+    return run;
+  }
+}
@@ -0,0 +1,67 @@
+package com.example123.demo.sort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+/** SortKeyBuilder単体テストクラス 生成したキーのバイト比較が元の値の順序と一致することを確認します */
+public class SortKeyBuilderTest {
+
+  @Test
+  void testNaturalOrderForNumericAndPrefixedIds() {
+    assertOrdered(List.of("1", "2", "9", "10", "11", "100"), value -> key().appendNatural(value));
+    assertOrdered(
+        List.of("E000009", "E000010", "E000123", "E000124", "E099999", "F000001"),
+        value -> key().appendNatural(value));
+    assertOrdered(List.of("A2", "A10", "A10B", "A10C", "AB"), value -> key().appendNatural(value));
+  }
+
+  @Test
+  void testStringOrderMatchesCodePointOrder() {
+    assertOrdered(
+        List.of("", "a", "a\u0000", "ab", "b", "営業部", "開発部"), value -> key().appendString(value));
+  }
+
+  @Test
+  void testLongOrderIncludesNegativeValues() {
+    assertOrdered(
+        List.of(Long.MIN_VALUE, -1000L, -1L, 0L, 1L, 1000L, Long.MAX_VALUE),
+        value -> key().appendLong(value.longValue()));
+  }
+
+  @Test
+  void testCompositeKeyComparesColumnsInOrder() {
+    // 第1キーが前方一致する場合でも第2キーに影響されないこと（"ab"+"z" < "abc"+"a"）
+    byte[] first = key().appendString("ab").appendString("z").toByteArray();
+    byte[] second = key().appendString("abc").appendString("a").toByteArray();
+    assertTrue(Arrays.compareUnsigned(first, second) < 0);
+
+    // nullは非nullより前に並ぶこと
+    byte[] nullKey = key().appendString(null).appendLong(5L).toByteArray();
+    byte[] emptyKey = key().appendString("").appendLong(1L).toByteArray();
+    assertTrue(Arrays.compareUnsigned(nullKey, emptyKey) < 0);
+  }
+
+  private static SortKeyBuilder key() {
+    return new SortKeyBuilder();
+  }
+
+  private static <T> void assertOrdered(List<T> ascending, Function<T, SortKeyBuilder> encoder) {
+    for (int i = 1; i < ascending.size(); i++) {
+      byte[] previous = encoder.apply(ascending.get(i - 1)).toByteArray();
+      byte[] current = encoder.apply(ascending.get(i)).toByteArray();
+      assertTrue(
+          Arrays.compareUnsigned(previous, current) < 0,
+          ascending.get(i - 1) + " should sort before " + ascending.get(i));
+    }
+    assertEquals(
+        0,
+        Arrays.compareUnsigned(
+            encoder.apply(ascending.get(0)).toByteArray(),
+            encoder.apply(ascending.get(0)).toByteArray()));
+  }
+}
@@ -0,0 +1,88 @@
+package com.example123.demo.upsert;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example123.demo.domain.Employee;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/** UpsertStrategies単体テストクラス 接続先の方言と方式名からUPSERT方式が選択されることを確認します */
+public class UpsertStrategiesTest {
+
+  private final UpsertStrategy sqlServerMerge =
+      new FakeStrategy("merge", DatabaseDialect.SQL_SERVER);
+  private final UpsertStrategy sqlServerTempTable =
+      new FakeStrategy("temp-table", DatabaseDialect.SQL_SERVER);
+  private final UpsertStrategy sqlServerTvp = new FakeStrategy("tvp", DatabaseDialect.SQL_SERVER);
+  private final UpsertStrategy h2Merge = new FakeStrategy("merge", DatabaseDialect.H2);
+
+  private final List<UpsertStrategy> all =
+      List.of(sqlServerMerge, sqlServerTempTable, sqlServerTvp, h2Merge);
+
+  @Test
+  void testSelectsConfiguredStrategyForDialect() {
+    UpsertStrategies strategies = new UpsertStrategies(all, DatabaseDialect.SQL_SERVER, "tvp");
+
+    assertSame(sqlServerTvp, strategies.getDefault());
+    assertSame(sqlServerTempTable, strategies.get("temp-table"));
+    assertEquals(List.of("merge", "temp-table", "tvp"), strategies.getAvailableNames());
+  }
+
+  @Test
+  void testFallsBackToMergeWhenStrategyIsNotAvailable() {
+    UpsertStrategies strategies = new UpsertStrategies(all, DatabaseDialect.H2, "temp-table");
+
+    assertSame(h2Merge, strategies.getDefault());
+    assertSame(h2Merge, strategies.get("tvp"));
+    assertEquals(List.of("merge"), strategies.getAvailableNames());
+  }
+
+  @Test
+  void testRejectsDialectWithoutMerge() {
+    assertThrows(
+        IllegalStateException.class,
+        () -> new UpsertStrategies(all, DatabaseDialect.OTHER, "merge"));
+  }
+
+  @Test
+  void testDialectFromProductName() {
+    assertEquals(
+        DatabaseDialect.SQL_SERVER, DatabaseDialect.fromProductName("Microsoft SQL Server"));
+    assertEquals(DatabaseDialect.H2, DatabaseDialect.fromProductName("H2"));
+    assertEquals(DatabaseDialect.OTHER, DatabaseDialect.fromProductName("PostgreSQL"));
+    assertEquals(DatabaseDialect.OTHER, DatabaseDialect.fromProductName(null));
+  }
+
+  private static final class FakeStrategy implements UpsertStrategy {
+    private final String name;
+    private final DatabaseDialect dialect;
+
+    FakeStrategy(String name, DatabaseDialect dialect) {
+      this.name = name;
+      this.dialect = dialect;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public DatabaseDialect getDialect() {
+      return dialect;
+    }
+
+    @Override
+    public int getBatchSize() {
+      return 100;
+    }
+
+    @Override
+    public Map<String, Integer> upsert(List<Employee> employees) {
+      return Map.of("updateCount", 0, "insertCount", employees.size());
+    }
+  }
+}
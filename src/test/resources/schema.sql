@@ -16,5 +16,9 @@ CREATE TABLE employees (
     created_at TIMESTAMP,
     updated_by VARCHAR(50),
     updated_at TIMESTAMP,
-    version BIGINT DEFAULT 0
-);
\ No newline at end of file
+    version BIGINT DEFAULT 0,
+    row_hash BINARY(32)
+);
+
+-- 差分出力（updated_at, id のキーセット検索）用インデックス
+CREATE INDEX IX_employees_updated_at_id ON employees (updated_at, id);
\ No newline at end of file